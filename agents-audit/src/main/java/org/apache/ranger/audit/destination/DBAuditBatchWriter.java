@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.audit.destination;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.ranger.audit.entity.AuthzAuditEventDbObj;
+import org.apache.ranger.audit.model.AuthzAuditEvent;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Writes access audits to xa_access_audit table using JDBC batch inserts,
+ * instead of persisting each audit through JPA. Audits given to write() are
+ * split among the configured number of writers, each using its own connection
+ * and transaction.
+ */
+public class DBAuditBatchWriter {
+	private static final Log logger = LogFactory.getLog(DBAuditBatchWriter.class);
+
+	private static final String TABLE_NAME = "xa_access_audit";
+	private static final String ORACLE_SEQUENCE_NAME = "XA_ACCESS_AUDIT_SEQ";
+
+	private final String jdbcURL;
+	private final String dbUser;
+	private final String dbPassword;
+	private final int batchSize;
+	private final int writerCount;
+	private final String insertSql;
+	private final BlockingQueue<Writer> idleWriters = new LinkedBlockingQueue<Writer>();
+	private final ExecutorService executor;
+
+	public DBAuditBatchWriter(String jdbcDriver, String jdbcURL, String dbUser,
+			String dbPassword, int batchSize, int writerCount)
+			throws ClassNotFoundException {
+		Class.forName(jdbcDriver);
+
+		this.jdbcURL = jdbcURL;
+		this.dbUser = dbUser;
+		this.dbPassword = dbPassword;
+		this.batchSize = Math.max(1, batchSize);
+		this.writerCount = Math.max(1, writerCount);
+		this.insertSql = getInsertSql(jdbcURL);
+
+		if (this.writerCount > 1) {
+			executor = Executors.newFixedThreadPool(this.writerCount,
+					new ThreadFactoryBuilder()
+							.setNameFormat("DBAuditBatchWriter-%d")
+							.setDaemon(true).build());
+		} else {
+			executor = null;
+		}
+
+		logger.info("DBAuditBatchWriter: batchSize=" + this.batchSize
+				+ ", writerCount=" + this.writerCount + ", insertSql="
+				+ insertSql);
+	}
+
+	/**
+	 * @return true if all the audits were written to the database. Note that
+	 *         when more than one writer is configured, audits written by other
+	 *         writers are retained even if a writer fails
+	 */
+	public boolean write(List<AuthzAuditEvent> events) {
+		if (events.isEmpty()) {
+			return true;
+		}
+
+		if (executor == null || events.size() <= batchSize) {
+			return writeChunk(events);
+		}
+
+		boolean ret = true;
+		int chunkSize = Math.max(batchSize,
+				(events.size() + writerCount - 1) / writerCount);
+		List<Future<Boolean>> results = new ArrayList<Future<Boolean>>(writerCount);
+
+		for (int from = 0; from < events.size(); from += chunkSize) {
+			final List<AuthzAuditEvent> chunk = events.subList(from,
+					Math.min(from + chunkSize, events.size()));
+
+			results.add(executor.submit(new Callable<Boolean>() {
+				@Override
+				public Boolean call() {
+					return writeChunk(chunk);
+				}
+			}));
+		}
+
+		for (Future<Boolean> result : results) {
+			try {
+				if (!result.get()) {
+					ret = false;
+				}
+			} catch (Exception excp) {
+				logger.error("DBAuditBatchWriter.write(): failed", excp);
+
+				ret = false;
+			}
+		}
+
+		return ret;
+	}
+
+	public void close() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+
+		for (Writer writer = idleWriters.poll(); writer != null; writer = idleWriters.poll()) {
+			writer.close();
+		}
+	}
+
+	private boolean writeChunk(List<AuthzAuditEvent> events) {
+		boolean ret = false;
+		Writer writer = idleWriters.poll();
+
+		try {
+			if (writer == null) {
+				writer = new Writer();
+			}
+
+			writer.write(events);
+
+			ret = true;
+		} catch (Throwable excp) {
+			logger.error("DBAuditBatchWriter: error writing " + events.size()
+					+ " audits. dbURL=" + jdbcURL + ", dbUser=" + dbUser, excp);
+
+			if (writer != null) {
+				writer.rollback();
+				writer.close(); // so that next write will reconnect
+
+				writer = null;
+			}
+		} finally {
+			if (writer != null) {
+				idleWriters.offer(writer);
+			}
+		}
+
+		return ret;
+	}
+
+	static String getInsertSql(String jdbcURL) {
+		boolean isOracle = jdbcURL != null && jdbcURL.startsWith("jdbc:oracle:");
+		StringBuilder columns = new StringBuilder();
+		StringBuilder values = new StringBuilder();
+
+		if (isOracle) { // id is set by the sequence; other databases generate it on insert
+			columns.append("id");
+			values.append(ORACLE_SEQUENCE_NAME).append(".NEXTVAL");
+		}
+
+		for (String column : AuthzAuditEventDbObj.INSERT_COLUMNS) {
+			if (columns.length() > 0) {
+				columns.append(", ");
+				values.append(", ");
+			}
+
+			columns.append(column);
+			values.append("?");
+		}
+
+		return "INSERT INTO " + TABLE_NAME + " (" + columns + ") VALUES (" + values + ")";
+	}
+
+	// a connection, with its prepared statement and the entity object reused to map each audit
+	private class Writer {
+		private final Connection connection;
+		private final PreparedStatement stmt;
+		private final AuthzAuditEventDbObj dbObj = new AuthzAuditEventDbObj();
+
+		Writer() throws SQLException {
+			connection = DriverManager.getConnection(jdbcURL, dbUser, dbPassword);
+
+			try {
+				connection.setAutoCommit(false);
+
+				stmt = connection.prepareStatement(insertSql);
+			} catch (SQLException excp) {
+				connection.close();
+
+				throw excp;
+			}
+		}
+
+		void write(List<AuthzAuditEvent> events) throws SQLException {
+			int pendingCount = 0;
+
+			for (AuthzAuditEvent event : events) {
+				dbObj.copyFrom(event);
+				dbObj.setInsertParameters(stmt);
+
+				stmt.addBatch();
+
+				if (++pendingCount == batchSize) {
+					stmt.executeBatch();
+
+					pendingCount = 0;
+				}
+			}
+
+			if (pendingCount > 0) {
+				stmt.executeBatch();
+			}
+
+			connection.commit();
+		}
+
+		void rollback() {
+			try {
+				stmt.clearBatch();
+				connection.rollback();
+			} catch (Throwable excp) {
+				logger.debug("DBAuditBatchWriter: rollback failed", excp);
+			}
+		}
+
+		void close() {
+			try {
+				stmt.close();
+			} catch (Throwable excp) {
+				logger.debug("DBAuditBatchWriter: error closing statement", excp);
+			}
+
+			try {
+				connection.close();
+			} catch (Throwable excp) {
+				logger.debug("DBAuditBatchWriter: error closing connection", excp);
+			}
+		}
+	}
+}
@@ -19,8 +19,10 @@
 
 package org.apache.ranger.audit.destination;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
@@ -35,6 +37,7 @@ import javax.persistence.Persistence;
 import org.apache.ranger.audit.dao.DaoManager;
 import org.apache.ranger.audit.entity.AuthzAuditEventDbObj;
 import org.apache.ranger.audit.model.AuditEventBase;
+import org.apache.ranger.audit.model.AuthzAuditEvent;
 import org.apache.ranger.audit.provider.MiscUtil;
 
 public class DBAuditDestination extends AuditDestination {
@@ -47,9 +50,13 @@ public class DBAuditDestination extends AuditDestination {
 	public static final String PROP_DB_USER = "user";
 	public static final String PROP_DB_PASSWORD = "password";
 	public static final String PROP_DB_PASSWORD_ALIAS = "password.alias";
+	public static final String PROP_DB_BATCH_INSERT_ENABLED = "batch.insert.enabled";
+	public static final String PROP_DB_BATCH_INSERT_SIZE = "batch.insert.size";
+	public static final String PROP_DB_BATCH_INSERT_WRITERS = "batch.insert.writers";
 
 	private EntityManagerFactory entityManagerFactory;
 	private DaoManager daoManager;
+	private DBAuditBatchWriter batchWriter;
 
 	private String jdbcDriver = null;
 	private String jdbcURL = null;
@@ -83,8 +90,12 @@ public class DBAuditDestination extends AuditDestination {
 		boolean retValue = false;
 		logStatusIfRequired();
 		addTotalCount(events.size());
-		
-		if (beginTransaction()) {
+
+		List<AuthzAuditEvent> authzEvents = batchWriter != null ? toAuthzAuditEvents(events) : null;
+
+		if (authzEvents != null) {
+			retValue = batchWriter.write(authzEvents);
+		} else if (beginTransaction()) {
 			boolean isFailed = false;
 			for (AuditEventBase event : events) {
 				try {
@@ -114,9 +125,30 @@ public class DBAuditDestination extends AuditDestination {
 	@Override
 	public void stop() {
 		cleanUp();
+
+		if (batchWriter != null) {
+			batchWriter.close();
+			batchWriter = null;
+		}
+
 		super.stop();
 	}
 
+	// returns null if any of the events is not an access audit, as those can only be persisted via JPA
+	private List<AuthzAuditEvent> toAuthzAuditEvents(Collection<AuditEventBase> events) {
+		List<AuthzAuditEvent> ret = new ArrayList<AuthzAuditEvent>(events.size());
+
+		for (AuditEventBase event : events) {
+			if (!(event instanceof AuthzAuditEvent)) {
+				return null;
+			}
+
+			ret.add((AuthzAuditEvent) event);
+		}
+
+		return ret;
+	}
+
 	// Local methods
 	protected void connect() {
 		if (isDbConnected()) {
@@ -185,6 +217,13 @@ public class DBAuditDestination extends AuditDestination {
 			daoManager = new DaoManager();
 			daoManager.setEntityManagerFactory(entityManagerFactory);
 
+			if (batchWriter == null && MiscUtil.getBooleanProperty(props, propPrefix + "." + PROP_DB_BATCH_INSERT_ENABLED, false)) {
+				int batchSize = MiscUtil.getIntProperty(props, propPrefix + "." + PROP_DB_BATCH_INSERT_SIZE, 100);
+				int writerCount = MiscUtil.getIntProperty(props, propPrefix + "." + PROP_DB_BATCH_INSERT_WRITERS, 1);
+
+				batchWriter = new DBAuditBatchWriter(jdbcDriver, jdbcURL, dbUser, dbPassword, batchSize, writerCount);
+			}
+
 			// this forces the connection to be made to DB
 			if (daoManager.getEntityManager() == null) {
 				logger.error("Error connecting audit database. EntityManager is null. dbURL="
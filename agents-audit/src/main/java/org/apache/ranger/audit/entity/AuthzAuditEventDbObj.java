@@ -20,6 +20,10 @@
  package org.apache.ranger.audit.entity;
 
 import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.util.Date;
 import java.util.Properties;
 
@@ -51,6 +55,12 @@ public class AuthzAuditEventDbObj implements Serializable {
 
 	private static final long serialVersionUID = 1L;
 
+	// columns set by setInsertParameters(), in the same order
+	public static final String[] INSERT_COLUMNS = { "repo_type", "repo_name", "request_user", "event_time", "access_type",
+			"resource_path", "resource_type", "action", "access_result", "agent_id", "policy_id", "result_reason",
+			"acl_enforcer", "session_id", "client_type", "client_ip", "request_data", "seq_num", "event_count",
+			"event_dur_ms", "tags" };
+
 	static int MaxValueLengthAccessType = 255;
 	static int MaxValueLengthAclEnforcer = 255;
 	static int MaxValueLengthAgentId = 255;
@@ -149,6 +159,11 @@ public class AuthzAuditEventDbObj implements Serializable {
 
 	public AuthzAuditEventDbObj(AuthzAuditEvent event) {
 		super();
+
+		copyFrom(event);
+	}
+
+	public void copyFrom(AuthzAuditEvent event) {
 		Date utcDate=null;
 		if(event.getEventTime()!=null){
 			utcDate=MiscUtil.getUTCDateForLocalDate(event.getEventTime());
@@ -178,6 +193,48 @@ public class AuthzAuditEventDbObj implements Serializable {
 		this.tags           = StringUtils.join(event.getTags(), ", ");
 	}
 
+	/*
+	 * Sets the values of INSERT_COLUMNS as parameters 1..INSERT_COLUMNS.length of the given statement, with the same
+	 * truncation as the values persisted by JPA
+	 */
+	public void setInsertParameters(PreparedStatement stmt) throws SQLException {
+		int idx = 1;
+
+		stmt.setInt(idx++, getRepositoryType());
+		setString(stmt, idx++, getRepositoryName());
+		setString(stmt, idx++, getUser());
+		if (timeStamp != null) {
+			stmt.setTimestamp(idx++, new Timestamp(timeStamp.getTime()));
+		} else {
+			stmt.setNull(idx++, Types.TIMESTAMP);
+		}
+		setString(stmt, idx++, getAccessType());
+		setString(stmt, idx++, getResourcePath());
+		setString(stmt, idx++, getResourceType());
+		setString(stmt, idx++, getAction());
+		stmt.setInt(idx++, getAccessResult());
+		setString(stmt, idx++, getAgentId());
+		stmt.setLong(idx++, getPolicyId());
+		setString(stmt, idx++, getResultReason());
+		setString(stmt, idx++, getAclEnforcer());
+		setString(stmt, idx++, getSessionId());
+		setString(stmt, idx++, getClientType());
+		setString(stmt, idx++, getClientIP());
+		setString(stmt, idx++, getRequestData());
+		stmt.setLong(idx++, getSeqNum());
+		stmt.setLong(idx++, getEventCount());
+		stmt.setLong(idx++, getEventDurationMS());
+		setString(stmt, idx++, getTags());
+	}
+
+	private static void setString(PreparedStatement stmt, int idx, String value) throws SQLException {
+		if (value != null) {
+			stmt.setString(idx, value);
+		} else {
+			stmt.setNull(idx, Types.VARCHAR);
+		}
+	}
+
 	@Id
 	@SequenceGenerator(name="XA_ACCESS_AUDIT_SEQ",sequenceName="XA_ACCESS_AUDIT_SEQ",allocationSize=1)
 	@GeneratedValue(strategy=GenerationType.AUTO,generator="XA_ACCESS_AUDIT_SEQ")
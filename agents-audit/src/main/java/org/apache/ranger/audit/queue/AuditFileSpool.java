@@ -52,7 +52,7 @@ import com.google.gson.GsonBuilder;
  * This class temporarily stores logs in file system if the destination is
  * overloaded or down
  */
-public class AuditFileSpool implements Runnable {
+public class AuditFileSpool implements AuditSpool, Runnable {
 	private static final Log logger = LogFactory.getLog(AuditFileSpool.class);
 
 	public enum SPOOL_FILE_STATUS {
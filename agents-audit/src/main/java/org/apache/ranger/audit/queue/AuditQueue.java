@@ -52,9 +52,13 @@ public abstract class AuditQueue extends BaseAuditHandler {
 	public static final String PROP_FILE_SPOOL_ENABLE = "filespool.enable";
 	public static final String PROP_FILE_SPOOL_WAIT_FOR_FULL_DRAIN = "filespool.drain.full.wait.ms";
 	public static final String PROP_FILE_SPOOL_QUEUE_THRESHOLD = "filespool.drain.threshold.percent";
+	public static final String PROP_FILE_SPOOL_FORMAT = "filespool.format";
+
+	public static final String FILE_SPOOL_FORMAT_JSON = "json";
+	public static final String FILE_SPOOL_FORMAT_BINARY = "binary";
 
 	final protected AuditHandler consumer;
-	protected AuditFileSpool fileSpooler = null;
+	protected AuditSpool fileSpooler = null;
 
 	private boolean isDrain = false;
 
@@ -111,7 +115,18 @@ public abstract class AuditQueue extends BaseAuditHandler {
 			fileSpoolDrainThresholdPercent = MiscUtil.getIntProperty(props,
 					propPrefix + "." + PROP_FILE_SPOOL_QUEUE_THRESHOLD,
 					fileSpoolDrainThresholdPercent);
-			fileSpooler = new AuditFileSpool(this, consumer);
+			String fileSpoolFormat = MiscUtil.getStringProperty(props,
+					propPrefix + "." + PROP_FILE_SPOOL_FORMAT);
+			if (fileSpoolFormat == null || fileSpoolFormat.isEmpty()) {
+				fileSpoolFormat = FILE_SPOOL_FORMAT_JSON;
+			}
+			LOG.info("File spool format for " + getName() + " is "
+					+ fileSpoolFormat);
+			if (FILE_SPOOL_FORMAT_BINARY.equalsIgnoreCase(fileSpoolFormat)) {
+				fileSpooler = new AuditSegmentedFileSpool(this, consumer);
+			} else {
+				fileSpooler = new AuditFileSpool(this, consumer);
+			}
 			if (!fileSpooler.init(props, basePropertyName)) {
 				fileSpoolerEnabled = false;
 				LOG.fatal("Couldn't initialize file spooler. Disabling it. queue="
@@ -0,0 +1,741 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.audit.queue;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.log4j.MDC;
+import org.apache.ranger.audit.model.AuditEventBase;
+import org.apache.ranger.audit.provider.AuditHandler;
+import org.apache.ranger.audit.provider.MiscUtil;
+
+/**
+ * File spool that stores logs in append-only segment files, as length
+ * prefixed and checksummed records. Logs stashed in one call are written to
+ * the segment with a single write (and sync, if enabled). Segments are
+ * replayed in order using buffered sequential reads; the offset replayed so far is
+ * kept in a small checkpoint file next to each segment, so that replay resumes
+ * from where it stopped after a restart or a destination failure.
+ */
+public class AuditSegmentedFileSpool implements AuditSpool, Runnable {
+	private static final Log logger = LogFactory.getLog(AuditSegmentedFileSpool.class);
+
+	public static final String PROP_FILE_SPOOL_SEGMENT_MAX_BYTES = "filespool.segment.max.bytes";
+	public static final String PROP_FILE_SPOOL_SEGMENT_SYNC = "filespool.segment.sync";
+
+	static final int SEGMENT_MAGIC = 0x52535053; // RSPS
+	static final int SEGMENT_VERSION = 1;
+	static final int SEGMENT_HEADER_SIZE = 8; // magic + version
+	static final int RECORD_HEADER_SIZE = 8; // length + crc32
+	static final String SEGMENT_FILE_SUFFIX = ".seg";
+	static final String CHECKPOINT_FILE_SUFFIX = ".ckpt";
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final int COMMIT_BUFFER_SIZE = 64 * 1024;
+	private static final int REPLAY_BUFFER_SIZE = 64 * 1024;
+
+	AuditQueue queueProvider = null;
+	AuditHandler consumerProvider = null;
+
+	// sealed segments, in the order to be replayed
+	BlockingQueue<File> segmentQueue = new LinkedBlockingQueue<File>();
+
+	File logFolder = null;
+	File archiveFolder = null;
+	String fileNamePrefix = null;
+	int retryDestinationMS = 30 * 1000; // Default 30 seconds
+	int fileRolloverSec = 24 * 60 * 60; // In seconds
+	int maxArchiveFiles = 100;
+	long maxSegmentBytes = 64 * 1024 * 1024;
+	boolean syncOnCommit = true;
+
+	int errorLogIntervalMS = 30 * 1000; // Every 30 seconds
+	long lastErrorLogMS = 0;
+
+	// writer state; guarded by this
+	FileChannel writeChannel = null;
+	File writeSegment = null;
+	long writeSegmentCreateTime = 0;
+	long writeSegmentSize = 0;
+	long lastSegmentSeq = 0;
+	ByteBuffer commitBuffer = ByteBuffer.allocate(COMMIT_BUFFER_SIZE);
+	final CRC32 writeCrc = new CRC32();
+
+	volatile File currentConsumerSegment = null;
+	volatile boolean isPending = false;
+	volatile long lastAttemptTime = 0;
+	volatile boolean isDrain = false;
+	volatile boolean isDestDown = false;
+	boolean initDone = false;
+
+	Thread destinationThread = null;
+
+	public AuditSegmentedFileSpool(AuditQueue queueProvider,
+			AuditHandler consumerProvider) {
+		this.queueProvider = queueProvider;
+		this.consumerProvider = consumerProvider;
+	}
+
+	@Override
+	public boolean init(Properties props, String basePropertyName) {
+		if (initDone) {
+			logger.error("init() called more than once. queueProvider="
+					+ queueProvider.getName() + ", consumerProvider="
+					+ consumerProvider.getName());
+			return true;
+		}
+		String propPrefix = "xasecure.audit.filespool";
+		if (basePropertyName != null) {
+			propPrefix = basePropertyName;
+		}
+
+		try {
+			String logFolderProp = MiscUtil.getStringProperty(props, propPrefix
+					+ "." + AuditFileSpool.PROP_FILE_SPOOL_LOCAL_DIR);
+			String archiveFolderProp = MiscUtil.getStringProperty(props,
+					propPrefix + "." + AuditFileSpool.PROP_FILE_SPOOL_ARCHIVE_DIR);
+			fileNamePrefix = MiscUtil.getStringProperty(props, propPrefix + "."
+					+ AuditFileSpool.PROP_FILE_SPOOL_FILENAME_PREFIX);
+			retryDestinationMS = MiscUtil.getIntProperty(props, propPrefix
+					+ "." + AuditFileSpool.PROP_FILE_SPOOL_DEST_RETRY_MS, retryDestinationMS);
+			fileRolloverSec = MiscUtil.getIntProperty(props, propPrefix + "."
+					+ AuditFileSpool.PROP_FILE_SPOOL_FILE_ROLLOVER, fileRolloverSec);
+			maxArchiveFiles = MiscUtil.getIntProperty(props, propPrefix + "."
+					+ AuditFileSpool.PROP_FILE_SPOOL_ARCHIVE_MAX_FILES_COUNT, maxArchiveFiles);
+			maxSegmentBytes = MiscUtil.getLongProperty(props, propPrefix + "."
+					+ PROP_FILE_SPOOL_SEGMENT_MAX_BYTES, maxSegmentBytes);
+			syncOnCommit = MiscUtil.getBooleanProperty(props, propPrefix + "."
+					+ PROP_FILE_SPOOL_SEGMENT_SYNC, syncOnCommit);
+
+			if (maxSegmentBytes <= SEGMENT_HEADER_SIZE) {
+				maxSegmentBytes = Long.MAX_VALUE;
+			}
+
+			logger.info("retryDestinationMS=" + retryDestinationMS
+					+ ", fileRolloverSec=" + fileRolloverSec
+					+ ", maxArchiveFiles=" + maxArchiveFiles
+					+ ", maxSegmentBytes=" + maxSegmentBytes
+					+ ", syncOnCommit=" + syncOnCommit + ", queueName="
+					+ queueProvider.getName());
+
+			if (logFolderProp == null || logFolderProp.isEmpty()) {
+				logger.fatal("Audit spool folder is not configured. Please set "
+						+ propPrefix
+						+ "."
+						+ AuditFileSpool.PROP_FILE_SPOOL_LOCAL_DIR
+						+ ". queueName=" + queueProvider.getName());
+				return false;
+			}
+			logFolder = new File(logFolderProp);
+			if (!logFolder.isDirectory()) {
+				logFolder.mkdirs();
+				if (!logFolder.isDirectory()) {
+					logger.fatal("File Spool folder not found and can't be created. folder="
+							+ logFolder.getAbsolutePath()
+							+ ", queueName="
+							+ queueProvider.getName());
+					return false;
+				}
+			}
+			logger.info("logFolder=" + logFolder + ", queueName="
+					+ queueProvider.getName());
+
+			if (archiveFolderProp == null || archiveFolderProp.isEmpty()) {
+				archiveFolder = new File(logFolder, "archive");
+			} else {
+				archiveFolder = new File(archiveFolderProp);
+			}
+			if (!archiveFolder.isDirectory()) {
+				archiveFolder.mkdirs();
+				if (!archiveFolder.isDirectory()) {
+					logger.error("File Spool archive folder not found and can't be created. folder="
+							+ archiveFolder.getAbsolutePath()
+							+ ", queueName="
+							+ queueProvider.getName());
+					return false;
+				}
+			}
+			logger.info("archiveFolder=" + archiveFolder + ", queueName="
+					+ queueProvider.getName());
+
+			if (fileNamePrefix == null || fileNamePrefix.isEmpty()) {
+				fileNamePrefix = queueProvider.getName() + "_"
+						+ consumerProvider.getName();
+			}
+
+			// Segments left by an earlier run are replayed first. The segment
+			// being written at that time is treated as sealed; a partially
+			// written last record is detected by its length or checksum.
+			for (File segment : listSegments(logFolder)) {
+				logger.info("INIT: adding segment to queue. segment="
+						+ segment + ", queueName=" + queueProvider.getName());
+				segmentQueue.add(segment);
+				lastSegmentSeq = Math.max(lastSegmentSeq, getSegmentSeq(segment));
+			}
+			for (File segment : listSegments(archiveFolder)) {
+				lastSegmentSeq = Math.max(lastSegmentSeq, getSegmentSeq(segment));
+			}
+			isPending = !segmentQueue.isEmpty();
+		} catch (Throwable t) {
+			logger.fatal("Error initializing File Spooler. queue="
+					+ queueProvider.getName(), t);
+			return false;
+		}
+		initDone = true;
+		return true;
+	}
+
+	@Override
+	public void start() {
+		if (!initDone) {
+			logger.error("Cannot start Audit File Spooler. Initilization not done yet. queueName="
+					+ queueProvider.getName());
+			return;
+		}
+
+		logger.info("Starting writerThread, queueName="
+				+ queueProvider.getName() + ", consumer="
+				+ consumerProvider.getName());
+
+		destinationThread = new Thread(this, queueProvider.getName() + "_"
+				+ consumerProvider.getName() + "_destWriter");
+		destinationThread.setDaemon(true);
+		destinationThread.start();
+	}
+
+	@Override
+	public void stop() {
+		if (!initDone) {
+			logger.error("Cannot stop Audit File Spooler. Initilization not done. queueName="
+					+ queueProvider.getName());
+			return;
+		}
+		logger.info("Stop called, queueName=" + queueProvider.getName()
+				+ ", consumer=" + consumerProvider.getName());
+
+		isDrain = true;
+		flush();
+
+		synchronized (this) {
+			if (writeChannel != null) {
+				logger.info("Closing open segment, queueName="
+						+ queueProvider.getName() + ", consumer="
+						+ consumerProvider.getName());
+				try {
+					writeChannel.close();
+				} catch (Throwable t) {
+					logger.debug("Error closing spool segment.", t);
+				}
+				writeChannel = null;
+				writeSegment = null;
+			}
+		}
+		try {
+			if (destinationThread != null) {
+				destinationThread.interrupt();
+			}
+			destinationThread = null;
+		} catch (Throwable e) {
+			// ignore
+		}
+	}
+
+	@Override
+	synchronized public void flush() {
+		if (!initDone) {
+			logger.error("Cannot flush Audit File Spooler. Initilization not done. queueName="
+					+ queueProvider.getName());
+			return;
+		}
+		try {
+			commit();
+		} catch (IOException excp) {
+			logger.error("Error writing to spool segment. queueName="
+					+ queueProvider.getName(), excp);
+		}
+	}
+
+	@Override
+	public boolean isPending() {
+		if (!initDone) {
+			logError("isPending(): File Spooler not initialized. queueName="
+					+ queueProvider.getName());
+			return false;
+		}
+
+		return isPending;
+	}
+
+	@Override
+	public long getLastAttemptTimeDelta() {
+		if (lastAttemptTime == 0) {
+			return 0;
+		}
+		return System.currentTimeMillis() - lastAttemptTime;
+	}
+
+	@Override
+	synchronized public void stashLogs(AuditEventBase event) {
+		stashLogsString(MiscUtil.stringify(event));
+	}
+
+	@Override
+	synchronized public void stashLogs(Collection<AuditEventBase> events) {
+		for (AuditEventBase event : events) {
+			stashLogs(event);
+		}
+		flush();
+	}
+
+	@Override
+	synchronized public void stashLogsString(String event) {
+		if (isDrain) {
+			// Stop has been called, so this method shouldn't be called
+			logger.error("stashLogs() is called after stop is called. event="
+					+ event);
+			return;
+		}
+		try {
+			append(event);
+			isPending = true;
+			if (commitBuffer.position() >= COMMIT_BUFFER_SIZE) {
+				commit();
+			}
+		} catch (Exception ex) {
+			logger.error("Error writing to spool segment. event=" + event, ex);
+		}
+	}
+
+	@Override
+	synchronized public void stashLogsString(Collection<String> events) {
+		for (String event : events) {
+			stashLogsString(event);
+		}
+		flush();
+	}
+
+	private void append(String event) {
+		byte[] data = event.getBytes(UTF8);
+
+		if (commitBuffer.remaining() < RECORD_HEADER_SIZE + data.length) {
+			ByteBuffer newBuffer = ByteBuffer.allocate(Math.max(commitBuffer.capacity() * 2, commitBuffer.position() + RECORD_HEADER_SIZE + data.length));
+
+			commitBuffer.flip();
+			newBuffer.put(commitBuffer);
+			commitBuffer = newBuffer;
+		}
+
+		writeCrc.reset();
+		writeCrc.update(data, 0, data.length);
+
+		commitBuffer.putInt(data.length);
+		commitBuffer.putInt((int) writeCrc.getValue());
+		commitBuffer.put(data);
+	}
+
+	/*
+	 * Writes the records appended since the last commit to the segment with a
+	 * single write, and syncs the segment if configured to.
+	 */
+	synchronized private void commit() throws IOException {
+		if (commitBuffer.position() == 0) {
+			return;
+		}
+
+		if (writeSegment != null
+				&& (writeSegmentSize + commitBuffer.position() > maxSegmentBytes
+						|| System.currentTimeMillis() - writeSegmentCreateTime > fileRolloverSec * 1000L)) {
+			logger.info("Rolling over segment. queueName="
+					+ queueProvider.getName() + ", segment=" + writeSegment
+					+ ", size=" + writeSegmentSize);
+			sealWriteSegment();
+		}
+
+		if (writeSegment == null) {
+			openWriteSegment();
+		}
+
+		commitBuffer.flip();
+		while (commitBuffer.hasRemaining()) {
+			writeSegmentSize += writeChannel.write(commitBuffer);
+		}
+		if (syncOnCommit) {
+			writeChannel.force(false);
+		}
+
+		if (commitBuffer.capacity() > COMMIT_BUFFER_SIZE) {
+			commitBuffer = ByteBuffer.allocate(COMMIT_BUFFER_SIZE);
+		} else {
+			commitBuffer.clear();
+		}
+	}
+
+	synchronized private void openWriteSegment() throws IOException {
+		lastSegmentSeq = Math.max(lastSegmentSeq + 1, System.currentTimeMillis());
+
+		File segment = new File(logFolder, fileNamePrefix + "_"
+				+ String.format("%019d", lastSegmentSeq) + SEGMENT_FILE_SUFFIX);
+
+		logger.info("Creating new segment. queueName="
+				+ queueProvider.getName() + ", segment=" + segment);
+
+		FileChannel channel = FileChannel.open(segment.toPath(),
+				StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+		ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+
+		header.putInt(SEGMENT_MAGIC);
+		header.putInt(SEGMENT_VERSION);
+		header.flip();
+		while (header.hasRemaining()) {
+			channel.write(header);
+		}
+
+		writeChannel = channel;
+		writeSegment = segment;
+		writeSegmentCreateTime = System.currentTimeMillis();
+		writeSegmentSize = SEGMENT_HEADER_SIZE;
+	}
+
+	synchronized private void sealWriteSegment() throws IOException {
+		if (writeSegment != null) {
+			writeChannel.close();
+
+			logger.info("Adding segment to queue. queueName="
+					+ queueProvider.getName() + ", segment=" + writeSegment);
+			segmentQueue.add(writeSegment);
+
+			writeChannel = null;
+			writeSegment = null;
+			writeSegmentSize = 0;
+		}
+	}
+
+	/*
+	 * Called by the consumer thread when it has no segment to replay: seals the
+	 * segment being written, so that it can be replayed.
+	 */
+	synchronized void sealIfIdle() throws IOException {
+		if (segmentQueue.isEmpty() && currentConsumerSegment == null) {
+			commit();
+
+			if (writeSegment != null && writeSegmentSize > SEGMENT_HEADER_SIZE) {
+				sealWriteSegment();
+			}
+
+			isPending = !segmentQueue.isEmpty();
+		}
+	}
+
+	@Override
+	public void run() {
+		try {
+			//This is done to clear the MDC context to avoid issue with Ranger Auditing for Knox
+			MDC.clear();
+			runLogAudit();
+		} catch (Throwable t) {
+			logger.fatal("Exited thread without abnormaly. queue="
+					+ consumerProvider.getName(), t);
+		}
+	}
+
+	public void runLogAudit() {
+		while (true) {
+			try {
+				if (isDestDown) {
+					logger.info("Destination is down. sleeping for "
+							+ retryDestinationMS
+							+ " milli seconds. segmentQueue=" + segmentQueue.size()
+							+ ", queueName=" + queueProvider.getName()
+							+ ", consumer=" + consumerProvider.getName());
+					Thread.sleep(retryDestinationMS);
+				}
+
+				File segment = currentConsumerSegment;
+				if (segment == null) {
+					segment = segmentQueue.poll(retryDestinationMS,
+							TimeUnit.MILLISECONDS);
+				}
+
+				if (isDrain) {
+					// Need to exit
+					break;
+				}
+				if (segment == null) {
+					sealIfIdle();
+					continue;
+				}
+
+				currentConsumerSegment = segment;
+
+				if (replaySegment(segment)) {
+					logger.info("Done reading segment. segment=" + segment
+							+ ", queueName=" + queueProvider.getName()
+							+ ", consumer=" + consumerProvider.getName());
+					archiveSegment(segment);
+					currentConsumerSegment = null;
+					sealIfIdle();
+				}
+			} catch (InterruptedException e) {
+				logger.info("Caught exception in consumer thread. Shutdown might be in progress");
+			} catch (Throwable t) {
+				logger.error("Exception in destination writing thread.", t);
+			}
+		}
+		logger.info("Exiting file spooler. provider=" + queueProvider.getName()
+				+ ", consumer=" + consumerProvider.getName());
+	}
+
+	/*
+	 * Sends the records in the segment, from the checkpointed offset, to the
+	 * consumer. Returns false if the consumer failed to accept them.
+	 */
+	boolean replaySegment(File segment) throws IOException {
+		if (!segment.exists()) {
+			logger.error("Consumer segment=" + segment + " not found.");
+			return true;
+		}
+
+		FileChannel readChannel = FileChannel.open(segment.toPath(), StandardOpenOption.READ);
+		try {
+			long segmentSize = readChannel.size();
+			ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+
+			if (readChannel.read(header, 0) < SEGMENT_HEADER_SIZE || header.getInt(0) != SEGMENT_MAGIC) {
+				logger.error("Not a spool segment, ignoring it. segment=" + segment);
+				return true;
+			}
+
+			int version = header.getInt(4);
+			if (version != SEGMENT_VERSION) {
+				logger.error("Unsupported segment version " + version
+						+ ", ignoring it. segment=" + segment);
+				return true;
+			}
+
+			return replayRecords(segment, readChannel, segmentSize);
+		} finally {
+			readChannel.close();
+		}
+	}
+
+	private boolean replayRecords(File segment, FileChannel readChannel,
+			long segmentSize) throws IOException {
+		File checkpointFile = getCheckpointFile(segment);
+		FileChannel checkpointChannel = FileChannel.open(checkpointFile.toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			long offset = SEGMENT_HEADER_SIZE;
+			ByteBuffer checkpoint = ByteBuffer.allocate(8);
+			if (checkpointChannel.read(checkpoint, 0) == checkpoint.capacity()) {
+				long checkpointOffset = checkpoint.getLong(0);
+				if (checkpointOffset > SEGMENT_HEADER_SIZE && checkpointOffset <= segmentSize) {
+					offset = checkpointOffset;
+				}
+			}
+
+			// the stream is closed along with readChannel, by the caller
+			DataInputStream in = new DataInputStream(new BufferedInputStream(
+					Channels.newInputStream(readChannel.position(offset)), REPLAY_BUFFER_SIZE));
+			int batchSize = Math.max(1, queueProvider.getMaxBatchSize());
+			List<String> events = new ArrayList<String>(batchSize);
+			CRC32 crc = new CRC32();
+			byte[] data = new byte[1024];
+
+			while (segmentSize - offset >= RECORD_HEADER_SIZE) {
+				long recordOffset = offset;
+				int length = in.readInt();
+				int checksum = in.readInt();
+
+				offset += RECORD_HEADER_SIZE;
+
+				if (length < 0 || length > segmentSize - offset) {
+					logger.error("Incomplete record at offset " + recordOffset
+							+ ", ignoring rest of the segment. segment=" + segment);
+					break;
+				}
+
+				if (data.length < length) {
+					data = new byte[Math.max(length, data.length * 2)];
+				}
+				in.readFully(data, 0, length);
+				offset += length;
+
+				crc.reset();
+				crc.update(data, 0, length);
+				if ((int) crc.getValue() != checksum) {
+					logger.error("Checksum mismatch for record at offset "
+							+ recordOffset + ", skipping it. segment=" + segment);
+					continue;
+				}
+
+				events.add(new String(data, 0, length, UTF8));
+
+				if (events.size() >= batchSize) {
+					if (!sendEvents(events, offset, checkpointChannel, checkpoint)) {
+						return false;
+					}
+					events.clear();
+				}
+			}
+			if (!events.isEmpty()) {
+				if (!sendEvents(events, offset, checkpointChannel, checkpoint)) {
+					return false;
+				}
+			}
+		} finally {
+			checkpointChannel.close();
+		}
+
+		return true;
+	}
+
+	private boolean sendEvents(List<String> events, long nextOffset,
+			FileChannel checkpointChannel, ByteBuffer checkpoint) {
+		boolean ret = false;
+		try {
+			ret = consumerProvider.logJSON(events);
+		} catch (Throwable t) {
+			logger.error("Error while sending logs to consumer. provider="
+					+ queueProvider.getName() + ", consumer="
+					+ consumerProvider.getName(), t);
+		}
+
+		if (ret) {
+			try {
+				checkpoint.clear();
+				checkpoint.putLong(0, nextOffset);
+				checkpointChannel.write(checkpoint, 0);
+			} catch (IOException excp) {
+				// replay will resume from the previous checkpoint, hence resend some logs
+				logger.error("Error saving checkpoint. queueName="
+						+ queueProvider.getName(), excp);
+			}
+
+			if (isDestDown) {
+				isDestDown = false;
+				logger.info("Destination up now. queueName="
+						+ queueProvider.getName() + ", consumer="
+						+ consumerProvider.getName());
+			}
+		} else {
+			// Need to log error after fixed interval
+			logError("Error sending logs to consumer. provider="
+					+ queueProvider.getName() + ", consumer="
+					+ consumerProvider.getName());
+			isDestDown = true;
+			lastAttemptTime = System.currentTimeMillis();
+		}
+
+		return ret;
+	}
+
+	void archiveSegment(File segment) {
+		File checkpointFile = getCheckpointFile(segment);
+		if (checkpointFile.exists() && !checkpointFile.delete()) {
+			logger.error("Error deleting checkpoint file. file=" + checkpointFile);
+		}
+
+		if (maxArchiveFiles <= 0) {
+			if (segment.exists() && !segment.delete()) {
+				logger.error("Error deleting segment. segment=" + segment);
+			}
+			return;
+		}
+
+		File archiveFile = new File(archiveFolder, segment.getName());
+		logger.info("Moving segment " + segment + " to " + archiveFile);
+		if (!segment.renameTo(archiveFile)) {
+			logger.error("Error moving segment to archive folder. segment="
+					+ segment + ", archiveFile=" + archiveFile);
+		}
+
+		// Remove old segments
+		File[] archivedSegments = listSegments(archiveFolder);
+		for (int i = 0; i < archivedSegments.length - maxArchiveFiles; i++) {
+			logger.info("Deleting archive file " + archivedSegments[i]);
+			if (!archivedSegments[i].delete()) {
+				logger.error("Error deleting archive file. archiveFile="
+						+ archivedSegments[i]);
+			}
+		}
+	}
+
+	// segments of this spool in the given folder, oldest first
+	private File[] listSegments(File folder) {
+		File[] ret = folder.listFiles(new FileFilter() {
+			@Override
+			public boolean accept(File pathname) {
+				return pathname.isFile()
+						&& pathname.getName().startsWith(fileNamePrefix + "_")
+						&& pathname.getName().endsWith(SEGMENT_FILE_SUFFIX);
+			}
+		});
+
+		if (ret == null) {
+			ret = new File[0];
+		}
+		Arrays.sort(ret);
+
+		return ret;
+	}
+
+	private long getSegmentSeq(File segment) {
+		String name = segment.getName();
+		try {
+			return Long.parseLong(name.substring(fileNamePrefix.length() + 1,
+					name.length() - SEGMENT_FILE_SUFFIX.length()));
+		} catch (NumberFormatException excp) {
+			return 0;
+		}
+	}
+
+	private File getCheckpointFile(File segment) {
+		return new File(segment.getParentFile(), segment.getName() + CHECKPOINT_FILE_SUFFIX);
+	}
+
+	void logError(String msg) {
+		long currTimeMS = System.currentTimeMillis();
+		if (currTimeMS - lastErrorLogMS > errorLogIntervalMS) {
+			logger.error(msg);
+			lastErrorLogMS = currTimeMS;
+		}
+	}
+}
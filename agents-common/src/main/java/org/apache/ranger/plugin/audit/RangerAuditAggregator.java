@@ -0,0 +1,432 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.audit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.Timer;
+import java.util.TimerTask;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.ranger.audit.model.AuthzAuditEvent;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
+import org.apache.ranger.plugin.policyengine.RangerAccessResource;
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+
+/**
+ * Aggregates audited accesses in the plugin. Results with same user, resource, access-type, action,
+ * client-ip, session-id, access-result and policy-id are counted against the first such result; at the
+ * end of each window one AuthzAuditEvent is created for every distinct access, with eventCount and
+ * eventDurationMS set.
+ *
+ * Audit handlers that build their own events, like the ones in HDFS, Hive, Yarn, Atlas and Solr plugins,
+ * are aggregated when the events are logged: events with the same values in all fields other than
+ * event-time, event-id and sequence-number are counted against the first such event.
+ *
+ * Accesses are tracked in open-addressing tables keyed by a 64-bit hash of these fields, split into
+ * segments to reduce lock contention. An access whose hash collides with a different access is
+ * audited immediately, without aggregation.
+ */
+public class RangerAuditAggregator {
+	private static final Log LOG = LogFactory.getLog(RangerAuditAggregator.class);
+
+	public static final String PROP_AUDIT_AGGREGATION_ENABLED     = ".audit.aggregation.enabled";
+	public static final String PROP_AUDIT_AGGREGATION_WINDOW_MS   = ".audit.aggregation.window.ms";
+	public static final String PROP_AUDIT_AGGREGATION_MAX_ENTRIES = ".audit.aggregation.max.entries";
+
+	public static final long DEFAULT_AUDIT_AGGREGATION_WINDOW_MS   = 5 * 1000;
+	public static final int  DEFAULT_AUDIT_AGGREGATION_MAX_ENTRIES = 10000;
+
+	private static final int  SEGMENT_COUNT = 16; // must be a power of 2
+	private static final long EMPTY_KEY     = 0;
+
+	private final String    serviceName;
+	private final long      windowMs;
+	private final Segment[] segments;
+	private       Timer     flushTimer;
+
+	public RangerAuditAggregator(String serviceName, long windowMs, int maxEntries) {
+		this.serviceName = serviceName;
+		this.windowMs    = windowMs > 0 ? windowMs : DEFAULT_AUDIT_AGGREGATION_WINDOW_MS;
+		this.segments    = new Segment[SEGMENT_COUNT];
+
+		int maxEntriesPerSegment = Math.max(1, (maxEntries > 0 ? maxEntries : DEFAULT_AUDIT_AGGREGATION_MAX_ENTRIES) / SEGMENT_COUNT);
+
+		for (int i = 0; i < segments.length; i++) {
+			segments[i] = new Segment(maxEntriesPerSegment);
+		}
+	}
+
+	public String getServiceName() {
+		return serviceName;
+	}
+
+	public long getWindowMs() {
+		return windowMs;
+	}
+
+	public synchronized void start() {
+		if (flushTimer == null) {
+			flushTimer = new Timer("auditAggregator-" + serviceName, true);
+
+			flushTimer.schedule(new TimerTask() {
+				@Override
+				public void run() {
+					flush();
+				}
+			}, windowMs, windowMs);
+
+			LOG.info("Started audit aggregation for service " + serviceName + ": windowMs=" + windowMs);
+		}
+	}
+
+	public void stop() {
+		Timer flushTimer;
+
+		synchronized (this) {
+			flushTimer      = this.flushTimer;
+			this.flushTimer = null;
+		}
+
+		if (flushTimer != null) {
+			flushTimer.cancel();
+		}
+
+		flush();
+	}
+
+	public void add(RangerDefaultAuditHandler handler, RangerAccessResult result) {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("==> RangerAuditAggregator.add(" + result + ")");
+		}
+
+		RangerAccessRequest request    = result.getAccessRequest();
+		long                key        = computeKey(result);
+		Date                accessTime = request.getAccessTime();
+		long                accessMs   = accessTime != null ? accessTime.getTime() : System.currentTimeMillis();
+		Segment             segment    = segments[(int) (key >>> 32) & (SEGMENT_COUNT - 1)];
+		List<AuditSummary>  toEmit     = null;
+		boolean             isAdded;
+
+		synchronized (segment) {
+			if (segment.isFull()) {
+				toEmit = segment.drain();
+			}
+
+			isAdded = segment.add(key, handler, result, accessMs);
+		}
+
+		if (toEmit != null) {
+			emit(toEmit);
+		}
+
+		if (!isAdded) { // hash collision with a different access; audit this one without aggregation
+			AuthzAuditEvent event = handler.getAuthzEvents(result);
+
+			if (event != null) {
+				handler.writeAuthzAudit(event);
+			}
+		}
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("<== RangerAuditAggregator.add(" + result + "): isAdded=" + isAdded);
+		}
+	}
+
+	public void add(RangerDefaultAuditHandler handler, AuthzAuditEvent event) {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("==> RangerAuditAggregator.add(" + event + ")");
+		}
+
+		long               key       = computeKey(event);
+		Date               eventTime = event.getEventTime();
+		long               eventMs   = eventTime != null ? eventTime.getTime() : System.currentTimeMillis();
+		Segment            segment   = segments[(int) (key >>> 32) & (SEGMENT_COUNT - 1)];
+		List<AuditSummary> toEmit    = null;
+		boolean            isAdded;
+
+		synchronized (segment) {
+			if (segment.isFull()) {
+				toEmit = segment.drain();
+			}
+
+			isAdded = segment.add(key, handler, event, eventMs);
+		}
+
+		if (toEmit != null) {
+			emit(toEmit);
+		}
+
+		if (!isAdded) { // hash collision with a different event; audit this one without aggregation
+			handler.writeAuthzAudit(event);
+		}
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("<== RangerAuditAggregator.add(" + event + "): isAdded=" + isAdded);
+		}
+	}
+
+	public void flush() {
+		for (Segment segment : segments) {
+			List<AuditSummary> toEmit;
+
+			synchronized (segment) {
+				toEmit = segment.drain();
+			}
+
+			if (toEmit != null) {
+				emit(toEmit);
+			}
+		}
+	}
+
+	private void emit(List<AuditSummary> summaries) {
+		for (AuditSummary summary : summaries) {
+			try {
+				AuthzAuditEvent event;
+
+				if (summary.access instanceof AuthzAuditEvent) {
+					event = (AuthzAuditEvent) summary.access;
+				} else {
+					event = summary.handler.getAuthzEvents((RangerAccessResult) summary.access);
+				}
+
+				if (event != null) {
+					event.setEventCount(summary.count);
+					event.setEventDurationMS(summary.lastAccessMs - summary.firstAccessMs);
+
+					summary.handler.writeAuthzAudit(event);
+				}
+			} catch (Exception excp) {
+				LOG.error("RangerAuditAggregator.emit(): failed to log audit for " + summary.access, excp);
+			}
+		}
+	}
+
+	static long computeKey(RangerAccessResult result) {
+		RangerAccessRequest  request  = result.getAccessRequest();
+		RangerAccessResource resource = request.getResource();
+
+		long ret = Objects.hashCode(request.getUser());
+
+		ret = 31 * ret + (resource == null ? 0 : resource.getAsMap().hashCode());
+		ret = 31 * ret + Objects.hashCode(request.getAccessType());
+		ret = 31 * ret + Objects.hashCode(request.getAction());
+		ret = 31 * ret + Objects.hashCode(request.getClientIPAddress());
+		ret = 31 * ret + Objects.hashCode(request.getSessionId());
+		ret = 31 * ret + (result.getIsAllowed() ? 1 : 0);
+		ret = 31 * ret + result.getPolicyId();
+
+		return spread(ret);
+	}
+
+	static long computeKey(AuthzAuditEvent event) {
+		long ret = Objects.hashCode(event.getUser());
+
+		ret = 31 * ret + Objects.hashCode(event.getResourcePath());
+		ret = 31 * ret + Objects.hashCode(event.getAccessType());
+		ret = 31 * ret + Objects.hashCode(event.getAction());
+		ret = 31 * ret + Objects.hashCode(event.getClientIP());
+		ret = 31 * ret + Objects.hashCode(event.getSessionId());
+		ret = 31 * ret + event.getAccessResult();
+		ret = 31 * ret + event.getPolicyId();
+		ret = 31 * ret + Objects.hashCode(event.getResultReason());
+		ret = 31 * ret + Objects.hashCode(event.getRequestData());
+
+		return spread(ret);
+	}
+
+	// spreads the bits, as the key is used both to select the segment and the slot within it
+	private static long spread(long hash) {
+		long ret = hash;
+
+		ret ^= ret >>> 33;
+		ret *= 0xff51afd7ed558ccdL;
+		ret ^= ret >>> 33;
+		ret *= 0xc4ceb9fe1a85ec53L;
+		ret ^= ret >>> 33;
+
+		return ret == EMPTY_KEY ? 1 : ret;
+	}
+
+	static boolean isSameAccess(RangerDefaultAuditHandler handler1, Object access1, RangerDefaultAuditHandler handler2, Object access2) {
+		final boolean ret;
+
+		if (access1 instanceof RangerAccessResult && access2 instanceof RangerAccessResult) {
+			ret = isSameAccess(handler1, (RangerAccessResult) access1, handler2, (RangerAccessResult) access2);
+		} else if (access1 instanceof AuthzAuditEvent && access2 instanceof AuthzAuditEvent) {
+			ret = isSameAccess((AuthzAuditEvent) access1, (AuthzAuditEvent) access2);
+		} else {
+			ret = false;
+		}
+
+		return ret;
+	}
+
+	static boolean isSameAccess(RangerDefaultAuditHandler handler1, RangerAccessResult result1, RangerDefaultAuditHandler handler2, RangerAccessResult result2) {
+		RangerAccessRequest  request1  = result1.getAccessRequest();
+		RangerAccessRequest  request2  = result2.getAccessRequest();
+		RangerAccessResource resource1 = request1.getResource();
+		RangerAccessResource resource2 = request2.getResource();
+
+		return result1.getIsAllowed() == result2.getIsAllowed() &&
+			   result1.getPolicyId() == result2.getPolicyId() &&
+			   Objects.equals(request1.getUser(), request2.getUser()) &&
+			   Objects.equals(request1.getAccessType(), request2.getAccessType()) &&
+			   Objects.equals(request1.getAction(), request2.getAction()) &&
+			   Objects.equals(request1.getClientIPAddress(), request2.getClientIPAddress()) &&
+			   Objects.equals(request1.getSessionId(), request2.getSessionId()) &&
+			   Objects.equals(result1.getServiceName(), result2.getServiceName()) &&
+			   (resource1 == null ? resource2 == null : resource2 != null && resource1.getAsMap().equals(resource2.getAsMap())) &&
+			   handler1.getClass() == handler2.getClass() &&
+			   Objects.equals(handler1.moduleName, handler2.moduleName);
+	}
+
+	static boolean isSameAccess(AuthzAuditEvent event1, AuthzAuditEvent event2) {
+		return event1.getAccessResult() == event2.getAccessResult() &&
+			   event1.getPolicyId() == event2.getPolicyId() &&
+			   Objects.equals(event1.getPolicyVersion(), event2.getPolicyVersion()) &&
+			   event1.getRepositoryType() == event2.getRepositoryType() &&
+			   Objects.equals(event1.getRepositoryName(), event2.getRepositoryName()) &&
+			   Objects.equals(event1.getUser(), event2.getUser()) &&
+			   Objects.equals(event1.getResourcePath(), event2.getResourcePath()) &&
+			   Objects.equals(event1.getResourceType(), event2.getResourceType()) &&
+			   Objects.equals(event1.getAccessType(), event2.getAccessType()) &&
+			   Objects.equals(event1.getAction(), event2.getAction()) &&
+			   Objects.equals(event1.getResultReason(), event2.getResultReason()) &&
+			   Objects.equals(event1.getAclEnforcer(), event2.getAclEnforcer()) &&
+			   Objects.equals(event1.getRequestData(), event2.getRequestData()) &&
+			   Objects.equals(event1.getClientIP(), event2.getClientIP()) &&
+			   Objects.equals(event1.getClientType(), event2.getClientType()) &&
+			   Objects.equals(event1.getSessionId(), event2.getSessionId()) &&
+			   Objects.equals(event1.getClusterName(), event2.getClusterName()) &&
+			   Objects.equals(event1.getZoneName(), event2.getZoneName()) &&
+			   Objects.equals(event1.getTags(), event2.getTags()) &&
+			   Objects.equals(event1.getAdditionalInfo(), event2.getAdditionalInfo()) &&
+			   Objects.equals(event1.getAgentId(), event2.getAgentId()) &&
+			   Objects.equals(event1.getAgentHostname(), event2.getAgentHostname());
+	}
+
+	private static class Segment {
+		private final int                         maxSize;
+		private final int                         mask;
+		private final long[]                      keys;
+		private final RangerDefaultAuditHandler[] handlers;
+		private final Object[]                    accesses; // RangerAccessResult or AuthzAuditEvent
+		private final long[]                      counts;
+		private final long[]                      firstAccessMs;
+		private final long[]                      lastAccessMs;
+		private       int                         size;
+
+		Segment(int maxSize) {
+			int capacity = Integer.highestOneBit(maxSize * 2 - 1) << 1; // at most half full
+
+			this.maxSize       = maxSize;
+			this.mask          = capacity - 1;
+			this.keys          = new long[capacity];
+			this.handlers      = new RangerDefaultAuditHandler[capacity];
+			this.accesses      = new Object[capacity];
+			this.counts        = new long[capacity];
+			this.firstAccessMs = new long[capacity];
+			this.lastAccessMs  = new long[capacity];
+		}
+
+		boolean isFull() {
+			return size >= maxSize;
+		}
+
+		boolean add(long key, RangerDefaultAuditHandler handler, Object access, long accessMs) {
+			int idx = (int) key & mask;
+
+			while (keys[idx] != EMPTY_KEY) {
+				if (keys[idx] == key) {
+					if (!isSameAccess(handlers[idx], accesses[idx], handler, access)) {
+						return false;
+					}
+
+					counts[idx]++;
+
+					if (accessMs < firstAccessMs[idx]) {
+						firstAccessMs[idx] = accessMs;
+					} else if (accessMs > lastAccessMs[idx]) {
+						lastAccessMs[idx] = accessMs;
+					}
+
+					return true;
+				}
+
+				idx = (idx + 1) & mask;
+			}
+
+			keys[idx]          = key;
+			handlers[idx]      = handler;
+			accesses[idx]      = access;
+			counts[idx]        = 1;
+			firstAccessMs[idx] = accessMs;
+			lastAccessMs[idx]  = accessMs;
+
+			size++;
+
+			return true;
+		}
+
+		List<AuditSummary> drain() {
+			List<AuditSummary> ret = null;
+
+			if (size > 0) {
+				ret = new ArrayList<>(size);
+
+				for (int i = 0; i < keys.length; i++) {
+					if (keys[i] != EMPTY_KEY) {
+						ret.add(new AuditSummary(handlers[i], accesses[i], counts[i], firstAccessMs[i], lastAccessMs[i]));
+					}
+				}
+
+				Arrays.fill(keys, EMPTY_KEY);
+				Arrays.fill(handlers, null);
+				Arrays.fill(accesses, null);
+
+				size = 0;
+			}
+
+			return ret;
+		}
+	}
+
+	private static class AuditSummary {
+		final RangerDefaultAuditHandler handler;
+		final Object                    access;
+		final long                      count;
+		final long                      firstAccessMs;
+		final long                      lastAccessMs;
+
+		AuditSummary(RangerDefaultAuditHandler handler, Object access, long count, long firstAccessMs, long lastAccessMs) {
+			this.handler       = handler;
+			this.access        = access;
+			this.count         = count;
+			this.firstAccessMs = firstAccessMs;
+			this.lastAccessMs  = lastAccessMs;
+		}
+	}
+}
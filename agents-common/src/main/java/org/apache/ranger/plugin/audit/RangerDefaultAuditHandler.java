@@ -77,9 +77,15 @@ public class RangerDefaultAuditHandler implements RangerAccessResultProcessor {
 			LOG.debug("==> RangerDefaultAuditHandler.processResult(" + result + ")");
 		}
 
-		AuthzAuditEvent event = getAuthzEvents(result);
+		RangerAuditAggregator aggregator = getAuditAggregator(result);
 
-		logAuthzAudit(event);
+		if (aggregator != null) {
+			aggregator.add(this, result);
+		} else {
+			AuthzAuditEvent event = getAuthzEvents(result);
+
+			logAuthzAudit(event);
+		}
 
 		if(LOG.isDebugEnabled()) {
 			LOG.debug("<== RangerDefaultAuditHandler.processResult(" + result + ")");
@@ -92,6 +98,26 @@ public class RangerDefaultAuditHandler implements RangerAccessResultProcessor {
 			LOG.debug("==> RangerDefaultAuditHandler.processResults(" + results + ")");
 		}
 
+		if (results != null && isAuditAggregationSupported()) {
+			List<RangerAccessResult> toAudit = null;
+
+			for (RangerAccessResult result : results) {
+				RangerAuditAggregator aggregator = getAuditAggregator(result);
+
+				if (aggregator != null) {
+					aggregator.add(this, result);
+				} else {
+					if (toAudit == null) {
+						toAudit = new ArrayList<>();
+					}
+
+					toAudit.add(result);
+				}
+			}
+
+			results = toAudit;
+		}
+
 		Collection<AuthzAuditEvent> events = getAuthzEvents(results);
 
 		if (events != null) {
@@ -192,11 +218,12 @@ public class RangerDefaultAuditHandler implements RangerAccessResultProcessor {
 		}
 
 		if(auditEvent != null) {
-			populateDefaults(auditEvent);
+			RangerAuditAggregator aggregator = RangerBasePlugin.getAuditAggregator(auditEvent.getRepositoryName());
 
-			AuditHandler auditProvider = RangerBasePlugin.getAuditProvider(auditEvent.getRepositoryName());
-			if (auditProvider == null || !auditProvider.log(auditEvent)) {
-				MiscUtil.logErrorMessageByInterval(LOG, "fail to log audit event " + auditEvent);
+			if (aggregator != null) {
+				aggregator.add(this, auditEvent);
+			} else {
+				writeAuthzAudit(auditEvent);
 			}
 		}
 
@@ -205,6 +232,16 @@ public class RangerDefaultAuditHandler implements RangerAccessResultProcessor {
 		}
 	}
 
+	// logs the event to the audit provider, without aggregation; called by RangerAuditAggregator for aggregated events
+	protected void writeAuthzAudit(AuthzAuditEvent auditEvent) {
+		populateDefaults(auditEvent);
+
+		AuditHandler auditProvider = RangerBasePlugin.getAuditProvider(auditEvent.getRepositoryName());
+		if (auditProvider == null || !auditProvider.log(auditEvent)) {
+			MiscUtil.logErrorMessageByInterval(LOG, "fail to log audit event " + auditEvent);
+		}
+	}
+
 	private void populateDefaults(AuthzAuditEvent auditEvent) {
 		if( auditEvent.getAclEnforcer() == null || auditEvent.getAclEnforcer().isEmpty()) {
 			auditEvent.setAclEnforcer("ranger-acl"); // TODO: review
@@ -245,6 +282,25 @@ public class RangerDefaultAuditHandler implements RangerAccessResultProcessor {
 		}
 	}
 
+	/**
+	 * Subclasses that collect audit events to be logged later, instead of logging them from logAuthzAudit(),
+	 * should return false; otherwise events would be created by the aggregator after the request is completed.
+	 * Events of such subclasses are still aggregated when they are logged with RangerDefaultAuditHandler.logAuthzAudit().
+	 */
+	protected boolean isAuditAggregationSupported() {
+		return true;
+	}
+
+	private RangerAuditAggregator getAuditAggregator(RangerAccessResult result) {
+		RangerAuditAggregator ret = null;
+
+		if (result != null && result.getIsAudited() && result.getAccessRequest() != null && isAuditAggregationSupported()) {
+			ret = RangerBasePlugin.getAuditAggregator(result.getServiceName());
+		}
+
+		return ret;
+	}
+
 	public AuthzAuditEvent createAuthzAuditEvent() {
 		return new AuthzAuditEvent();
 	}
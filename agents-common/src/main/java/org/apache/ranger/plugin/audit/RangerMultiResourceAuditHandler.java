@@ -45,6 +45,11 @@ public class RangerMultiResourceAuditHandler extends RangerDefaultAuditHandler {
 		this.auditEvents.addAll(auditEvents);
 	}
 
+	@Override
+	protected boolean isAuditAggregationSupported() {
+		return false;
+	}
+
 	public void flushAudit() {
 		try {
 			boolean deniedExists = false;
@@ -23,6 +23,7 @@ package org.apache.ranger.plugin.conditionevaluator;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -30,6 +31,9 @@ import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
+import org.apache.ranger.plugin.util.RangerAccessRequestUtil;
+import org.apache.ranger.plugin.util.RangerIpAddressTrie;
+import org.apache.ranger.plugin.util.RangerIpAddressTrie.IpAddress;
 
 /**
  * Credits: Large parts of this file have been lifted as is from org.apache.ranger.pdp.knox.URLBasedAuthDB.  Credits for those are due to Dilli Arumugam.
@@ -39,6 +43,10 @@ public class RangerIpMatcher extends RangerAbstractConditionEvaluator {
 	private static final Log LOG = LogFactory.getLog(RangerIpMatcher.class);
 	private List<String> _exactIps = new ArrayList<>();
 	private List<String> _wildCardIps = new ArrayList<>();
+	// exact, wildcard and CIDR values that are valid addresses are compiled into _ipTrie; others are matched as strings
+	private final RangerIpAddressTrie _ipTrie = new RangerIpAddressTrie();
+	private List<String> _uncompiledExactIps = new ArrayList<>();
+	private List<String> _uncompiledWildCardIps = new ArrayList<>();
 	private boolean _allowAny;
 	
 	@Override
@@ -67,14 +75,20 @@ public class RangerIpMatcher extends RangerAbstractConditionEvaluator {
 					_allowAny = true;
 				} else if (digestedIp.equals(ip)) {
 					_exactIps.add(ip);
+					if (!compileCidr(ip)) {
+						_uncompiledExactIps.add(ip);
+					}
 				} else {
 					_wildCardIps.add(digestedIp);
+					if (!compileWildcard(digestedIp)) {
+						_uncompiledWildCardIps.add(digestedIp);
+					}
 				}
 			}
 		}
 
 		if(LOG.isDebugEnabled()) {
-			LOG.debug("<== RangerIpMatcher.init(" + condition + "): exact-ips[" + _exactIps + "], wildcard-ips[" + _wildCardIps + "]");
+			LOG.debug("<== RangerIpMatcher.init(" + condition + "): exact-ips[" + _exactIps + "], wildcard-ips[" + _wildCardIps + "], compiled-prefixes=" + _ipTrie.getPrefixCount());
 		}
 	}
 
@@ -92,7 +106,13 @@ public class RangerIpMatcher extends RangerAbstractConditionEvaluator {
 			if (requestIp == null) {
 				LOG.debug("isMatched: couldn't get ip address from request.  Ok.  Implicitly matched!");
 			} else {
-				ipMatched = isWildcardMatched(_wildCardIps, requestIp) || isExactlyMatched(_exactIps, requestIp);
+				IpAddress requestAddress = getRequestAddress(request, requestIp);
+
+				if (requestAddress != null) {
+					ipMatched = _ipTrie.contains(requestAddress) || isWildcardMatched(_uncompiledWildCardIps, requestIp) || isExactlyMatched(_uncompiledExactIps, requestIp);
+				} else { // not a valid address; match as strings, as earlier versions did
+					ipMatched = isWildcardMatched(_wildCardIps, requestIp) || isExactlyMatched(_exactIps, requestIp);
+				}
 			}
 		}
 		
@@ -139,6 +159,91 @@ public class RangerIpMatcher extends RangerAbstractConditionEvaluator {
 		return result;
 	}
 	
+	/**
+	 * Compiles an exact address, like "10.20.30.40", or a CIDR block, like "10.20.0.0/16" or "2001:db8::/32", into the trie.
+	 * @param policyIp
+	 * @return false if policyIp isn't a valid address or CIDR block
+	 */
+	boolean compileCidr(final String policyIp) {
+		int       sepIdx  = policyIp.indexOf('/');
+		IpAddress address = IpAddress.parse(sepIdx == -1 ? policyIp : policyIp.substring(0, sepIdx));
+		boolean   ret     = false;
+
+		if (address != null) {
+			int prefixLength = address.getBitCount();
+
+			if (sepIdx != -1) {
+				try {
+					prefixLength = Integer.parseInt(policyIp.substring(sepIdx + 1));
+				} catch (NumberFormatException excp) {
+					prefixLength = -1;
+				}
+			}
+
+			if (prefixLength >= 0 && prefixLength <= address.getBitCount()) {
+				_ipTrie.add(address, prefixLength);
+
+				ret = true;
+			}
+		}
+
+		if (!ret) {
+			LOG.debug("compileCidr: policy IP[" + policyIp + "] is not a valid address; will be matched as string");
+		}
+
+		return ret;
+	}
+
+	/**
+	 * Compiles a digested wildcard, like "10.20." or "a0:b0:", into the trie as a prefix of whole octets/groups.
+	 * @param digestedIp
+	 * @return false if digestedIp isn't made of valid octets/groups
+	 */
+	boolean compileWildcard(final String digestedIp) {
+		boolean ret = false;
+
+		if (digestedIp.endsWith(".")) {
+			int       octetCount = digestedIp.length() - digestedIp.replace(".", "").length();
+			IpAddress address    = octetCount < 4 ? IpAddress.parse(digestedIp + (octetCount == 3 ? "0" : octetCount == 2 ? "0.0" : "0.0.0")) : null;
+
+			if (address != null && address.isIPv4()) {
+				_ipTrie.add(address, 8 * octetCount);
+
+				ret = true;
+			}
+		} else if (digestedIp.endsWith(":")) {
+			int       groupCount = digestedIp.length() - digestedIp.replace(":", "").length();
+			IpAddress address    = groupCount < 8 && !digestedIp.contains("::") ? IpAddress.parse(digestedIp + ":") : null;
+
+			if (address != null && !address.isIPv4()) {
+				_ipTrie.add(address, 16 * groupCount);
+
+				ret = true;
+			}
+		}
+
+		if (!ret) {
+			LOG.debug("compileWildcard: policy IP[" + digestedIp + "] is not a valid address prefix; will be matched as string");
+		}
+
+		return ret;
+	}
+
+	IpAddress getRequestAddress(final RangerAccessRequest request, final String requestIp) {
+		Map<String, Object> context = request.getContext();
+		IpAddress           ret     = context != null ? RangerAccessRequestUtil.getClientIpAddressFromContext(context, requestIp) : null;
+
+		if (ret == null) {
+			ret = IpAddress.parse(requestIp);
+
+			if (ret != null && context != null) {
+				RangerAccessRequestUtil.setClientIpAddressInContext(context, ret);
+			}
+		}
+
+		return ret;
+	}
+
 	boolean isWildcardMatched(final List<String> ips, final String requestIp) {
 
 		if(LOG.isDebugEnabled()) {
@@ -146,15 +251,17 @@ public class RangerIpMatcher extends RangerAbstractConditionEvaluator {
 		}
 
 		boolean matchFound = false;
+		boolean isIPv4 = requestIp.contains(".");
+		String requestIpLowerCase = requestIp.toLowerCase();
 		Iterator<String> iterator = ips.iterator();
 		while (iterator.hasNext() && !matchFound) {
 			String ip = iterator.next();
-			if (requestIp.contains(".") && requestIp.startsWith(ip)) {
+			if (isIPv4 && requestIp.startsWith(ip)) {
 				if (LOG.isDebugEnabled()) {
 					LOG.debug("Wildcard Policy IP[" + ip + "] matches request IPv4[" + requestIp + "].");
 				}
 				matchFound = true;
-			} else if (requestIp.toLowerCase().startsWith(ip)) {
+			} else if (requestIpLowerCase.startsWith(ip)) {
 					if (LOG.isDebugEnabled()) {
 						LOG.debug("Wildcard Policy IP[" + ip + "] matches request IPv6[" + requestIp + "].");
 					}
@@ -28,6 +28,8 @@ import org.apache.ranger.plugin.contextenricher.RangerTagForEval;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
 
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
@@ -38,7 +40,11 @@ import java.util.Map;
 public class RangerScriptConditionEvaluator extends RangerAbstractConditionEvaluator {
 	private static final Log LOG = LogFactory.getLog(RangerScriptConditionEvaluator.class);
 
-	private ScriptEngine scriptEngine;
+	public static final String OPTION_EVALUATION_TIME_WARN_THRESHOLD_MS = "evaluationTimeWarnThresholdMs";
+
+	private ScriptEngine   scriptEngine;
+	private CompiledScript compiledScript;
+	private long           evaluationTimeWarnThresholdMs = -1;
 
 	@Override
 	public void init() {
@@ -55,6 +61,8 @@ public class RangerScriptConditionEvaluator extends RangerAbstractConditionEvalu
 
 		if (MapUtils.isNotEmpty(evalOptions)) {
 			engineName = evalOptions.get("engineName");
+
+			evaluationTimeWarnThresholdMs = MapUtils.getLongValue(evalOptions, OPTION_EVALUATION_TIME_WARN_THRESHOLD_MS, -1);
 		}
 
 		if (StringUtils.isBlank(engineName)) {
@@ -72,11 +80,36 @@ public class RangerScriptConditionEvaluator extends RangerAbstractConditionEvalu
 			LOG.error("RangerScriptConditionEvaluator.init() failed with exception=" + exp);
 		}
 
+		compileScript();
+
 		if (LOG.isDebugEnabled()) {
 			LOG.debug("<== RangerScriptConditionEvaluator.init(" + condition + ")");
 		}
 	}
 
+	/*
+	 * compiles the script returned by getScript(), if the script-engine supports compilation. Subclasses that
+	 * compute the script after super.init() should call this method once the script is available.
+	 */
+	protected void compileScript() {
+		String script = getScript();
+
+		compiledScript = null;
+
+		if (scriptEngine instanceof Compilable && StringUtils.isNotBlank(script)) {
+			try {
+				compiledScript = ((Compilable) scriptEngine).compile(script);
+			} catch (ScriptException exception) {
+				LOG.error("RangerScriptConditionEvaluator.compileScript(): failed to compile script, will be evaluated without compilation." +
+						" script={" + script + "}, exception=" + exception);
+			}
+		}
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("RangerScriptConditionEvaluator.compileScript(): isCompiled=" + (compiledScript != null));
+		}
+	}
+
 	@Override
 	public boolean isMatched(RangerAccessRequest request) {
 		if (LOG.isDebugEnabled()) {
@@ -96,6 +129,7 @@ public class RangerScriptConditionEvaluator extends RangerAbstractConditionEvalu
 				RangerTagForEval             currentTag = context.getCurrentTag();
 				Map<String, String>          tagAttribs = currentTag != null ? currentTag.getAttributes() : Collections.<String, String>emptyMap();
 
+				// new bindings for each evaluation, so that variables set by the script in one evaluation are not seen by later ones
 				Bindings bindings = scriptEngine.createBindings();
 
 				bindings.put("ctx", context);
@@ -106,8 +140,20 @@ public class RangerScriptConditionEvaluator extends RangerAbstractConditionEvalu
 					LOG.debug("RangerScriptConditionEvaluator.isMatched(): script={" + script + "}");
 				}
 				try {
+					final long startTimeMs = evaluationTimeWarnThresholdMs > 0 ? System.currentTimeMillis() : 0;
 
-					Object ret = scriptEngine.eval(script, bindings);
+					CompiledScript compiledScript = this.compiledScript;
+					Object         ret            = compiledScript != null ? compiledScript.eval(bindings) : scriptEngine.eval(script, bindings);
+
+					// only logged: a running script can't be interrupted through javax.script
+					if (evaluationTimeWarnThresholdMs > 0) {
+						long elapsedMs = System.currentTimeMillis() - startTimeMs;
+
+						if (elapsedMs > evaluationTimeWarnThresholdMs) {
+							LOG.warn("RangerScriptConditionEvaluator.isMatched(): script evaluation took " + elapsedMs + "ms, which exceeds the warning threshold of " +
+									evaluationTimeWarnThresholdMs + "ms. script={" + script + "}");
+						}
+					}
 
 					if (ret == null) {
 						ret = context.getResult();
@@ -307,7 +307,7 @@ public class RangerTagEnricher extends RangerAbstractContextEnricher {
 
 	}
 
-	protected Long getServiceTagsVersion() {
+	public Long getServiceTagsVersion() {
 		return enrichedServiceTags != null ? enrichedServiceTags.getServiceTags().getTagVersion() : -1L;
 	}
 
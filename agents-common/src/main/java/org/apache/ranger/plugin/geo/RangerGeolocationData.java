@@ -25,15 +25,20 @@ import org.apache.commons.logging.LogFactory;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.Arrays;
 import java.util.Objects;
 
 public class RangerGeolocationData implements Comparable<RangerGeolocationData>, RangeChecker<Long> {
 	private static final Log LOG = LogFactory.getLog(RangerGeolocationData.class);
 
 	private static final Character IPSegmentsSeparator = '.';
+	private static final long      IPv4MappedPrefix    = 0xffff00000000L; // ::ffff:0:0/96
 
-	private final long fromIPAddress;
-	private final long toIPAddress;
+	// addresses are stored as 128-bit IPv6 addresses, with IPv4 addresses mapped to ::ffff:a.b.c.d
+	private final long fromIPAddressHigh;
+	private final long fromIPAddressLow;
+	private final long toIPAddressHigh;
+	private final long toIPAddressLow;
 	private final String[] locationData;
 	private int hash;
 
@@ -47,21 +52,21 @@ public class RangerGeolocationData implements Comparable<RangerGeolocationData>,
 
 			if (RangerGeolocationData.validateAsIP(startAddress, useDotFormat) && RangerGeolocationData.validateAsIP(endAddress, useDotFormat)) {
 
-				long startIP, endIP;
+				long[] startIP, endIP;
 				if (!useDotFormat) {
 					startAddress = RangerGeolocationData.unsignedIntToIPAddress(Long.valueOf(startAddress));
 					endAddress = RangerGeolocationData.unsignedIntToIPAddress(Long.valueOf(endAddress));
 				}
-				startIP = RangerGeolocationData.ipAddressToLong(startAddress);
-				endIP = RangerGeolocationData.ipAddressToLong(endAddress);
+				startIP = RangerGeolocationData.ipAddressToLongs(startAddress);
+				endIP = RangerGeolocationData.ipAddressToLongs(endAddress);
 
-				if ((endIP - startIP) >= 0) {
+				if (startIP != null && endIP != null && compareIPAddress(startIP[0], startIP[1], endIP[0], endIP[1]) <= 0) {
 
 					String[] locationData = new String[fields.length-2];
 					for (int i = 2; i < fields.length; i++) {
 						locationData[i-2] = fields[i];
 					}
-					data = new RangerGeolocationData(startIP, endIP, locationData);
+					data = new RangerGeolocationData(startIP[0], startIP[1], endIP[0], endIP[1], locationData);
 				}
 			}
 
@@ -71,9 +76,11 @@ public class RangerGeolocationData implements Comparable<RangerGeolocationData>,
 		return data;
 	}
 
-	private RangerGeolocationData(final long fromIPAddress, final long toIPAddress, final String[] locationData) {
-		this.fromIPAddress = fromIPAddress;
-		this.toIPAddress = toIPAddress;
+	RangerGeolocationData(final long fromIPAddressHigh, final long fromIPAddressLow, final long toIPAddressHigh, final long toIPAddressLow, final String[] locationData) {
+		this.fromIPAddressHigh = fromIPAddressHigh;
+		this.fromIPAddressLow = fromIPAddressLow;
+		this.toIPAddressHigh = toIPAddressHigh;
+		this.toIPAddressLow = toIPAddressLow;
 		this.locationData = locationData;
 	}
 
@@ -81,13 +88,21 @@ public class RangerGeolocationData implements Comparable<RangerGeolocationData>,
 		return locationData;
 	}
 
+	long getFromIPAddressHigh() { return fromIPAddressHigh; }
+
+	long getFromIPAddressLow() { return fromIPAddressLow; }
+
+	long getToIPAddressHigh() { return toIPAddressHigh; }
+
+	long getToIPAddressLow() { return toIPAddressLow; }
+
 	@Override
 	public int compareTo(final RangerGeolocationData other) {
 		int ret = (other == null) ? 1 : 0;
 		if (ret == 0) {
-			ret = Long.compare(fromIPAddress, other.fromIPAddress);
+			ret = compareIPAddress(fromIPAddressHigh, fromIPAddressLow, other.fromIPAddressHigh, other.fromIPAddressLow);
 			if (ret == 0) {
-				ret = Long.compare(toIPAddress, other.toIPAddress);
+				ret = compareIPAddress(toIPAddressHigh, toIPAddressLow, other.toIPAddressHigh, other.toIPAddressLow);
 				if (ret == 0) {
 					ret = Integer.compare(locationData.length, other.locationData.length);
 					for (int i = 0; ret == 0 && i < locationData.length; i++) {
@@ -111,17 +126,19 @@ public class RangerGeolocationData implements Comparable<RangerGeolocationData>,
 	@Override
 	public int hashCode() {
 		if (hash == 0) {
-			hash = Objects.hash(fromIPAddress, toIPAddress, locationData);
+			hash = Objects.hash(fromIPAddressHigh, fromIPAddressLow, toIPAddressHigh, toIPAddressLow, Arrays.hashCode(locationData));
 		}
 		return hash;
 	}
 
 	@Override
 	public int compareToRange(final Long ip) {
-		int ret = Long.compare(fromIPAddress, ip.longValue());
+		long ipHigh = 0L;
+		long ipLow  = IPv4MappedPrefix | (ip & 0xffffffffL);
+		int  ret    = compareIPAddress(fromIPAddressHigh, fromIPAddressLow, ipHigh, ipLow);
 
 		if (ret < 0) {
-			ret = Long.compare(toIPAddress, ip.longValue());
+			ret = compareIPAddress(toIPAddressHigh, toIPAddressLow, ipHigh, ipLow);
 			if (ret > 0) {
 				ret = 0;
 			}
@@ -130,6 +147,73 @@ public class RangerGeolocationData implements Comparable<RangerGeolocationData>,
 		return ret;
 	}
 
+	/**
+	 * @return high and low 64 bits of the address, with IPv4 addresses mapped to ::ffff:a.b.c.d; null if the address is invalid
+	 */
+	public static long[] ipAddressToLongs(final String ipAddress) {
+		long[] ret = null;
+
+		try {
+			ret = ipAddressToLongs(InetAddress.getByName(ipAddress).getAddress());
+		}
+		catch (UnknownHostException exception) {
+			LOG.error("RangerGeolocationData.ipAddressToLongs() - Invalid IP address " + ipAddress);
+		}
+
+		return ret;
+	}
+
+	static long[] ipAddressToLongs(final byte[] bytes) {
+		long[] ret = null;
+
+		if (bytes != null && bytes.length == 4) {
+			long ipv4 = 0L;
+			for (byte b : bytes) {
+				ipv4 = (ipv4 << 8) | (b & 0xff);
+			}
+			ret = new long[] { 0L, IPv4MappedPrefix | ipv4 };
+		} else if (bytes != null && bytes.length == 16) {
+			long high = 0L, low = 0L;
+			for (int i = 0; i < 8; i++) {
+				high = (high << 8) | (bytes[i] & 0xff);
+				low  = (low << 8) | (bytes[i + 8] & 0xff);
+			}
+			ret = new long[] { high, low };
+		}
+
+		return ret;
+	}
+
+	static String longsToIPAddress(final long high, final long low) {
+		String ret;
+
+		if (high == 0L && (low & ~0xffffffffL) == IPv4MappedPrefix) {
+			ret = unsignedIntToIPAddress(low & 0xffffffffL);
+		} else {
+			StringBuilder sb = new StringBuilder();
+
+			for (int i = 3; i >= 0; i--) {
+				sb.append(Long.toHexString((high >>> (16 * i)) & 0xffff)).append(':');
+			}
+			for (int i = 3; i >= 0; i--) {
+				sb.append(Long.toHexString((low >>> (16 * i)) & 0xffff));
+				if (i > 0) {
+					sb.append(':');
+				}
+			}
+
+			ret = sb.toString();
+		}
+
+		return ret;
+	}
+
+	static int compareIPAddress(final long high1, final long low1, final long high2, final long low2) {
+		int ret = Long.compareUnsigned(high1, high2);
+
+		return ret != 0 ? ret : Long.compareUnsigned(low1, low2);
+	}
+
 	public static long ipAddressToLong(final String ipAddress) {
 
 		long ret = 0L;
@@ -208,9 +292,9 @@ public class RangerGeolocationData implements Comparable<RangerGeolocationData>,
 	private StringBuilder toString(StringBuilder sb) {
 		sb.append("{")
 				.append("from=")
-				.append(RangerGeolocationData.unsignedIntToIPAddress(fromIPAddress))
+				.append(RangerGeolocationData.longsToIPAddress(fromIPAddressHigh, fromIPAddressLow))
 				.append(", to=")
-				.append(RangerGeolocationData.unsignedIntToIPAddress(toIPAddress))
+				.append(RangerGeolocationData.longsToIPAddress(toIPAddressHigh, toIPAddressLow))
 				.append(", location={");
 			for (String data : locationData) {
 				sb.append(data).append(", ");
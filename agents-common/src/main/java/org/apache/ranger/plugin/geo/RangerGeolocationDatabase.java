@@ -23,10 +23,31 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+
 public class RangerGeolocationDatabase {
 	private static final Log LOG = LogFactory.getLog(RangerGeolocationDatabase.class);
 
-	private BinarySearchTree<RangerGeolocationData, Long> data = new BinarySearchTree<>();
+	// index file layout: header, ranges (see RangerGeolocationIndex.writeRanges()), metadata names, locations
+	private static final int INDEX_FILE_MAGIC       = 0x52474549; // "RGEI"
+	private static final int INDEX_FILE_VERSION     = 1;
+	private static final int INDEX_FILE_HEADER_SIZE = 16;         // magic, version, rangeCount, locationCount
+	private static final int INDEX_FILE_RANGE_SIZE  = 36;         // from: 2 longs, to: 2 longs, location index: 1 int
+
+	private RangerGeolocationIndex index = new RangerGeolocationIndex.Builder().build();
 
 	private GeolocationMetadata metadata = new GeolocationMetadata();
 
@@ -56,34 +77,26 @@ public class RangerGeolocationDatabase {
 		RangerGeolocationData ret = null;
 
 		if (StringUtils.isNotBlank(ipAddressStr) && RangerGeolocationData.validateAsIP(ipAddressStr, true)) {
-			ret = data.find(RangerGeolocationData.ipAddressToLong(ipAddressStr));
-		}
-		return ret;
-	}
-
-	public void optimize() {
-		long start = 0L, end = 0L;
+			long[] ipAddress = RangerGeolocationData.ipAddressToLongs(ipAddressStr);
 
-		start = System.currentTimeMillis();
-		data.rebalance();
-		end = System.currentTimeMillis();
-
-		if (LOG.isDebugEnabled()) {
-			LOG.debug("RangerGeolocationDatabase.optimize() - Time taken for optimizing database = " + (end - start) + " milliseconds");
+			if (ipAddress != null) {
+				ret = index.find(ipAddress[0], ipAddress[1]);
+			}
 		}
+		return ret;
 	}
 
-	public void setData(final BinarySearchTree<RangerGeolocationData, Long> dataArg) { data = dataArg != null ? dataArg : new BinarySearchTree<RangerGeolocationData, Long>();}
+	public void setIndex(final RangerGeolocationIndex indexArg) { index = indexArg != null ? indexArg : new RangerGeolocationIndex.Builder().build();}
 
 	public void setMetadata(final GeolocationMetadata metadataArg) { metadata = metadataArg != null ? metadataArg : new GeolocationMetadata();}
 
 	public GeolocationMetadata getMetadata() { return metadata; }
 
-	public BinarySearchTree<RangerGeolocationData, Long> getData() { return data; }
+	public RangerGeolocationIndex getIndex() { return index; }
 
 	public void dump(ValuePrinter<RangerGeolocationData> processor) {
 
-		BinarySearchTree<RangerGeolocationData, Long> geoDatabase = getData();
+		RangerGeolocationIndex geoDatabase = getIndex();
 		GeolocationMetadata metadata = getMetadata();
 		processor.build();
 
@@ -91,9 +104,119 @@ public class RangerGeolocationDatabase {
 		processor.print(metadata.toString());
 
 		processor.print("#================== Dump of geoDatabase - START ==================");
-		geoDatabase.preOrderTraverseTree(processor);
+		for (int i = 0; i < geoDatabase.size(); i++) {
+			processor.process(geoDatabase.get(i));
+		}
 		processor.print("#================== Dump of geoDatabase - END   ==================");
 
 		processor.close();
 	}
+
+	public static boolean isIndexFile(final File file) {
+		boolean ret = false;
+
+		if (file.isFile() && file.length() >= INDEX_FILE_HEADER_SIZE) {
+			try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+				ret = in.readInt() == INDEX_FILE_MAGIC;
+			} catch (IOException excp) {
+				LOG.error("RangerGeolocationDatabase.isIndexFile() - failed to read " + file, excp);
+			}
+		}
+
+		return ret;
+	}
+
+	/**
+	 * Writes metadata and ranges to an index file, which can later be loaded with readFrom() without parsing geolocation data.
+	 */
+	public void writeTo(final File file) throws IOException {
+		String[][] locations = index.getLocations();
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			out.writeInt(INDEX_FILE_MAGIC);
+			out.writeInt(INDEX_FILE_VERSION);
+			out.writeInt(index.size());
+			out.writeInt(locations.length);
+
+			index.writeRanges(out);
+
+			writeStrings(out, metadata.getLocationDataItemNames());
+
+			for (String[] location : locations) {
+				writeStrings(out, location);
+			}
+		}
+	}
+
+	/**
+	 * Loads an index file written by writeTo(). Ranges are accessed directly from the memory-mapped file.
+	 */
+	public static RangerGeolocationDatabase readFrom(final File file) throws IOException {
+		long start = System.currentTimeMillis();
+
+		MappedByteBuffer buffer;
+
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		int magic   = buffer.getInt();
+		int version = buffer.getInt();
+
+		if (magic != INDEX_FILE_MAGIC || version != INDEX_FILE_VERSION) {
+			throw new IOException(file + ": not a geolocation index file, or unsupported version " + version);
+		}
+
+		int rangeCount    = buffer.getInt();
+		int locationCount = buffer.getInt();
+
+		ByteBuffer stringsSection = buffer.duplicate();
+
+		stringsSection.position(INDEX_FILE_HEADER_SIZE + INDEX_FILE_RANGE_SIZE * rangeCount);
+
+		byte[] stringBytes = new byte[stringsSection.remaining()];
+
+		stringsSection.get(stringBytes);
+
+		DataInputStream     in             = new DataInputStream(new ByteArrayInputStream(stringBytes));
+		Map<String, String> internedValues = new HashMap<>();
+		String[]            metadataNames  = readStrings(in, internedValues);
+		String[][]          locations      = new String[locationCount][];
+
+		for (int i = 0; i < locationCount; i++) {
+			locations[i] = readStrings(in, internedValues);
+		}
+
+		RangerGeolocationDatabase ret = new RangerGeolocationDatabase();
+
+		ret.setMetadata(new GeolocationMetadata(metadataNames));
+		ret.setIndex(RangerGeolocationIndex.readRanges(buffer, rangeCount, locations));
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("RangerGeolocationDatabase.readFrom(" + file + ") - loaded " + rangeCount + " ranges in " + (System.currentTimeMillis() - start) + " milliseconds");
+		}
+
+		return ret;
+	}
+
+	private static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+		out.writeInt(values.length);
+
+		for (String value : values) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static String[] readStrings(DataInputStream in, Map<String, String> internedValues) throws IOException {
+		String[] ret = new String[in.readInt()];
+
+		for (int i = 0; i < ret.length; i++) {
+			String value    = in.readUTF();
+			String interned = internedValues.putIfAbsent(value, value);
+
+			ret[i] = interned != null ? interned : value;
+		}
+
+		return ret;
+	}
 }
@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.geo;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable index of IP address ranges, sorted by start address. Each range is stored as 128-bit start and
+ * end addresses (IPv4 addresses are mapped to ::ffff:a.b.c.d) and an index into a table of distinct location
+ * data, whose values are interned. Lookup is a binary search on start addresses; ranges are expected not to overlap.
+ *
+ * Range data is held in buffers, which can either wrap arrays built from a geolocation file or be views
+ * of a memory-mapped index file - see RangerGeolocationDatabase.writeTo() and readFrom().
+ */
+public class RangerGeolocationIndex {
+	private final int        rangeCount;
+	private final LongBuffer fromIPAddresses;   // 2 longs per range: high, low
+	private final LongBuffer toIPAddresses;     // 2 longs per range: high, low
+	private final IntBuffer  locationIndexes;   // 1 int per range: index in locations
+	private final String[][] locations;
+
+	RangerGeolocationIndex(int rangeCount, LongBuffer fromIPAddresses, LongBuffer toIPAddresses, IntBuffer locationIndexes, String[][] locations) {
+		this.rangeCount      = rangeCount;
+		this.fromIPAddresses = fromIPAddresses;
+		this.toIPAddresses   = toIPAddresses;
+		this.locationIndexes = locationIndexes;
+		this.locations       = locations;
+	}
+
+	public int size() {
+		return rangeCount;
+	}
+
+	public int getLocationCount() {
+		return locations.length;
+	}
+
+	public RangerGeolocationData find(long ipAddressHigh, long ipAddressLow) {
+		RangerGeolocationData ret = null;
+
+		// find the last range that starts at or before the given address
+		int low  = 0;
+		int high = rangeCount - 1;
+		int idx  = -1;
+
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+
+			if (RangerGeolocationData.compareIPAddress(fromIPAddresses.get(2 * mid), fromIPAddresses.get(2 * mid + 1), ipAddressHigh, ipAddressLow) <= 0) {
+				idx = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+
+		if (idx != -1 && RangerGeolocationData.compareIPAddress(ipAddressHigh, ipAddressLow, toIPAddresses.get(2 * idx), toIPAddresses.get(2 * idx + 1)) <= 0) {
+			ret = get(idx);
+		}
+
+		return ret;
+	}
+
+	public RangerGeolocationData get(int idx) {
+		return new RangerGeolocationData(fromIPAddresses.get(2 * idx), fromIPAddresses.get(2 * idx + 1),
+		                                 toIPAddresses.get(2 * idx), toIPAddresses.get(2 * idx + 1),
+		                                 locations[locationIndexes.get(idx)]);
+	}
+
+	String[][] getLocations() {
+		return locations;
+	}
+
+	void writeRanges(DataOutputStream out) throws IOException {
+		for (int i = 0; i < 2 * rangeCount; i++) {
+			out.writeLong(fromIPAddresses.get(i));
+		}
+
+		for (int i = 0; i < 2 * rangeCount; i++) {
+			out.writeLong(toIPAddresses.get(i));
+		}
+
+		for (int i = 0; i < rangeCount; i++) {
+			out.writeInt(locationIndexes.get(i));
+		}
+	}
+
+	static RangerGeolocationIndex readRanges(ByteBuffer buffer, int rangeCount, String[][] locations) {
+		int offset = buffer.position();
+
+		LongBuffer fromIPAddresses = slice(buffer, offset, 16 * rangeCount).asLongBuffer();
+		offset += 16 * rangeCount;
+
+		LongBuffer toIPAddresses = slice(buffer, offset, 16 * rangeCount).asLongBuffer();
+		offset += 16 * rangeCount;
+
+		IntBuffer locationIndexes = slice(buffer, offset, 4 * rangeCount).asIntBuffer();
+		offset += 4 * rangeCount;
+
+		buffer.position(offset);
+
+		return new RangerGeolocationIndex(rangeCount, fromIPAddresses, toIPAddresses, locationIndexes, locations);
+	}
+
+	private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+		ByteBuffer dup = buffer.duplicate();
+
+		dup.position(offset);
+		dup.limit(offset + length);
+
+		return dup.slice();
+	}
+
+	public static class Builder {
+		private final Map<List<String>, Integer> locationIndexMap = new HashMap<>();
+		private final Map<String, String>        internedValues   = new HashMap<>();
+		private final List<String[]>             locations        = new ArrayList<>();
+		private       long[]                     fromIPAddresses  = new long[2 * 1024];
+		private       long[]                     toIPAddresses    = new long[2 * 1024];
+		private       int[]                      locationIndexes  = new int[1024];
+		private       int                        rangeCount       = 0;
+		private       boolean                    isSorted         = true;
+
+		public Builder add(RangerGeolocationData data) {
+			if (rangeCount == locationIndexes.length) {
+				fromIPAddresses = Arrays.copyOf(fromIPAddresses, 4 * rangeCount);
+				toIPAddresses   = Arrays.copyOf(toIPAddresses, 4 * rangeCount);
+				locationIndexes = Arrays.copyOf(locationIndexes, 2 * rangeCount);
+			}
+
+			if (rangeCount > 0 && RangerGeolocationData.compareIPAddress(fromIPAddresses[2 * rangeCount - 2], fromIPAddresses[2 * rangeCount - 1], data.getFromIPAddressHigh(), data.getFromIPAddressLow()) > 0) {
+				isSorted = false;
+			}
+
+			fromIPAddresses[2 * rangeCount]     = data.getFromIPAddressHigh();
+			fromIPAddresses[2 * rangeCount + 1] = data.getFromIPAddressLow();
+			toIPAddresses[2 * rangeCount]       = data.getToIPAddressHigh();
+			toIPAddresses[2 * rangeCount + 1]   = data.getToIPAddressLow();
+			locationIndexes[rangeCount]         = getLocationIndex(data.getLocationData());
+
+			rangeCount++;
+
+			return this;
+		}
+
+		public RangerGeolocationIndex build() {
+			long[] from    = fromIPAddresses;
+			long[] to      = toIPAddresses;
+			int[]  locIdxs = locationIndexes;
+
+			if (!isSorted) {
+				Integer[] order = new Integer[rangeCount];
+
+				for (int i = 0; i < rangeCount; i++) {
+					order[i] = i;
+				}
+
+				final long[] unsortedFrom = from;
+
+				Arrays.sort(order, new Comparator<Integer>() {
+					@Override
+					public int compare(Integer o1, Integer o2) {
+						return RangerGeolocationData.compareIPAddress(unsortedFrom[2 * o1], unsortedFrom[2 * o1 + 1], unsortedFrom[2 * o2], unsortedFrom[2 * o2 + 1]);
+					}
+				});
+
+				from    = new long[2 * rangeCount];
+				to      = new long[2 * rangeCount];
+				locIdxs = new int[rangeCount];
+
+				for (int i = 0; i < rangeCount; i++) {
+					int src = order[i];
+
+					from[2 * i]     = fromIPAddresses[2 * src];
+					from[2 * i + 1] = fromIPAddresses[2 * src + 1];
+					to[2 * i]       = toIPAddresses[2 * src];
+					to[2 * i + 1]   = toIPAddresses[2 * src + 1];
+					locIdxs[i]      = locationIndexes[src];
+				}
+			} else {
+				from    = Arrays.copyOf(from, 2 * rangeCount);
+				to      = Arrays.copyOf(to, 2 * rangeCount);
+				locIdxs = Arrays.copyOf(locIdxs, rangeCount);
+			}
+
+			return new RangerGeolocationIndex(rangeCount, LongBuffer.wrap(from), LongBuffer.wrap(to), IntBuffer.wrap(locIdxs), locations.toArray(new String[locations.size()][]));
+		}
+
+		private int getLocationIndex(String[] locationData) {
+			List<String> key = Arrays.asList(locationData);
+			Integer      ret = locationIndexMap.get(key);
+
+			if (ret == null) {
+				String[] interned = new String[locationData.length];
+
+				for (int i = 0; i < locationData.length; i++) {
+					interned[i] = intern(locationData[i]);
+				}
+
+				ret = locations.size();
+
+				locations.add(interned);
+				locationIndexMap.put(Arrays.asList(interned), ret);
+			}
+
+			return ret;
+		}
+
+		private String intern(String value) {
+			String ret = internedValues.get(value);
+
+			if (ret == null) {
+				ret = value;
+
+				internedValues.put(value, value);
+			}
+
+			return ret;
+		}
+	}
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ranger.plugin.policyengine;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Thread-safe, bounded, LRU map that can be used in place of Collections.synchronizedMap(new CacheMap(capacity)).
+ *
+ * Entries are distributed over independently locked segments, each being a CacheMap with a share of the capacity.
+ * A lookup locks only the segment owning the key, hence concurrent lookups of different keys rarely contend. The
+ * eviction order is LRU within a segment, which approximates LRU over the whole map.
+ */
+public class ConcurrentCacheMap<K, V> extends AbstractMap<K, V> {
+    private static final int MIN_ENTRIES_PER_SEGMENT = 16;
+    private static final int MAX_SEGMENTS            = 1 << 10;
+
+    private final int              capacity;
+    private final int              segmentMask;
+    private final CacheMap<K, V>[] segments;
+
+    public ConcurrentCacheMap(int capacity) {
+        this(capacity, Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentCacheMap(int capacity, int concurrencyLevel) {
+        int segmentCount = 1;
+
+        while (segmentCount < concurrencyLevel && segmentCount < MAX_SEGMENTS && (capacity / (segmentCount << 1)) >= MIN_ENTRIES_PER_SEGMENT) {
+            segmentCount <<= 1;
+        }
+
+        this.capacity    = capacity;
+        this.segmentMask = segmentCount - 1;
+        this.segments    = new CacheMap[segmentCount];
+
+        int segmentCapacity = segmentCount == 1 ? capacity : (capacity + segmentCount - 1) / segmentCount;
+
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new CacheMap<>(segmentCapacity);
+        }
+    }
+
+    public int getCapacity() { return capacity; }
+
+    int getSegmentCount() { return segments.length; }
+
+    @Override
+    public V get(Object key) {
+        CacheMap<K, V> segment = segmentFor(key);
+
+        synchronized (segment) {
+            return segment.get(key);
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        CacheMap<K, V> segment = segmentFor(key);
+
+        synchronized (segment) {
+            return segment.containsKey(key);
+        }
+    }
+
+    @Override
+    public V put(K key, V value) {
+        CacheMap<K, V> segment = segmentFor(key);
+
+        synchronized (segment) {
+            return segment.put(key, value);
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        CacheMap<K, V> segment = segmentFor(key);
+
+        synchronized (segment) {
+            return segment.remove(key);
+        }
+    }
+
+    @Override
+    public int size() {
+        int ret = 0;
+
+        for (CacheMap<K, V> segment : segments) {
+            synchronized (segment) {
+                ret += segment.size();
+            }
+        }
+
+        return ret;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public void clear() {
+        for (CacheMap<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /*
+     * returns a snapshot of the entries; updates to the returned set are not reflected in this map
+     */
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        Map<K, V> ret = new HashMap<>();
+
+        for (CacheMap<K, V> segment : segments) {
+            synchronized (segment) {
+                ret.putAll(segment);
+            }
+        }
+
+        return ret.entrySet();
+    }
+
+    private CacheMap<K, V> segmentFor(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+
+        h ^= (h >>> 16); // spread higher bits, as keys are often strings sharing a long common prefix
+
+        return segments[h & segmentMask];
+    }
+}
@@ -35,6 +35,7 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.ranger.plugin.contextenricher.RangerContextEnricher;
+import org.apache.ranger.plugin.contextenricher.RangerTagEnricher;
 import org.apache.ranger.plugin.model.RangerPolicy;
 import org.apache.ranger.plugin.model.RangerPolicyDelta;
 import org.apache.ranger.plugin.model.RangerServiceDef;
@@ -62,6 +63,7 @@ public class PolicyEngine {
     private final Map<String, RangerPolicyRepository> zonePolicyRepositories = new HashMap<>();
     private final Map<String, RangerResourceTrie>     resourceZoneTrie = new HashMap<>();
     private final Map<String, String>                 zoneTagServiceMap = new HashMap<>();
+    private final RangerAccessResultCache             accessResultCache;
     private       boolean                             useForwardedIPAddress;
     private       String[]                            trustedProxyAddresses;
     private       boolean                             isPreCleaned = false;
@@ -113,6 +115,26 @@ public class PolicyEngine {
 
     public RangerPluginContext getPluginContext() { return pluginContext; }
 
+    public RangerAccessResultCache getAccessResultCache() { return accessResultCache; }
+
+    public long getTagVersion() {
+        long ret = -1L;
+
+        if (allContextEnrichers != null) {
+            for (RangerContextEnricher enricher : allContextEnrichers) {
+                if (enricher instanceof RangerTagEnricher) {
+                    Long tagVersion = ((RangerTagEnricher) enricher).getServiceTagsVersion();
+
+                    ret = tagVersion != null ? tagVersion : -1L;
+
+                    break;
+                }
+            }
+        }
+
+        return ret;
+    }
+
     @Override
     public String toString() {
         return toString(new StringBuilder()).toString();
@@ -305,6 +327,17 @@ public class PolicyEngine {
             }
         }
 
+        if (options.cacheAccessResults) {
+            final int RANGER_POLICYENGINE_ACCESSRESULT_CACHE_SIZE = 64 * 1024;
+
+            String propertyName          = "ranger.plugin." + getServiceName() + ".policyengine.accessresultcachesize";
+            int    accessResultCacheSize = pluginContext.getConfig().getInt(propertyName, RANGER_POLICYENGINE_ACCESSRESULT_CACHE_SIZE);
+
+            accessResultCache = new RangerAccessResultCache(accessResultCacheSize);
+        } else {
+            accessResultCache = null;
+        }
+
         RangerPerfTracer.log(perf);
 
         if (PERF_POLICYENGINE_INIT_LOG.isDebugEnabled()) {
@@ -632,6 +665,7 @@ public class PolicyEngine {
         this.useForwardedIPAddress = other.useForwardedIPAddress;
         this.trustedProxyAddresses = other.trustedProxyAddresses;
         this.pluginContext         = other.pluginContext;
+        this.accessResultCache     = other.accessResultCache != null ? new RangerAccessResultCache(other.accessResultCache.getCacheSize()) : null;
 
         long                    policyVersion                   = servicePolicies.getPolicyVersion() != null ? servicePolicies.getPolicyVersion() : -1L;
         List<RangerPolicyDelta> defaultZoneDeltas               = new ArrayList<>();
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.policyengine;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Caches the final access decision (allow/deny, policy-id, audit decision) of access-policy evaluation, keyed by
+ * zone, resource, owner, access-type, user and groups. An instance is bound to a single policy-engine, hence to a
+ * single policy version; entries are discarded when role or tag version seen in requests changes.
+ *
+ * Callers must only cache results of requests whose outcome does not depend on access-time or request context, i.e.
+ * no applicable policy has conditions, validity-schedules or owner-based policy-items.
+ */
+public class RangerAccessResultCache {
+    private static final Log LOG = LogFactory.getLog(RangerAccessResultCache.class);
+
+    private static final char KEY_SEPARATOR = '\u0001';
+
+    private final    int                       cacheSize;
+    private final    Map<String, CachedResult> cache;
+    private final    AtomicLong                hitCount    = new AtomicLong();
+    private final    AtomicLong                missCount   = new AtomicLong();
+    private final    AtomicLong                skipCount   = new AtomicLong();
+    private final    AtomicLong                resetCount  = new AtomicLong();
+    private volatile long                      roleVersion = -1;
+    private volatile long                      tagVersion  = -1;
+
+    static private final class CachedResult {
+        final boolean isAllowed;
+        final boolean isAccessDetermined;
+        final boolean isAudited;
+        final boolean isAuditedDetermined;
+        final long    policyId;
+        final long    auditPolicyId;
+        final int     policyPriority;
+        final Long    policyVersion;
+        final String  reason;
+
+        CachedResult(RangerAccessResult result) {
+            this.isAllowed           = result.getIsAllowed();
+            this.isAccessDetermined  = result.getIsAccessDetermined();
+            this.isAudited           = result.getIsAudited();
+            this.isAuditedDetermined = result.getIsAuditedDetermined();
+            this.policyId            = result.getPolicyId();
+            this.auditPolicyId       = result.getAuditPolicyId();
+            this.policyPriority      = result.getPolicyPriority();
+            this.policyVersion       = result.getPolicyVersion();
+            this.reason              = result.getReason();
+        }
+
+        void copyTo(RangerAccessResult result) {
+            result.setIsAllowed(isAllowed);
+            result.setIsAccessDetermined(isAccessDetermined);
+            result.setPolicyId(policyId);
+            result.setPolicyPriority(policyPriority);
+            result.setPolicyVersion(policyVersion);
+            result.setReason(reason);
+
+            if (isAuditedDetermined) {
+                result.setIsAudited(isAudited);
+            }
+
+            result.setAuditPolicyId(auditPolicyId);
+        }
+    }
+
+    public RangerAccessResultCache(int cacheSize) {
+        this.cacheSize = cacheSize;
+        this.cache     = new ConcurrentCacheMap<>(cacheSize);
+    }
+
+    public int getCacheSize() { return cacheSize; }
+
+    public int size() { return cache.size(); }
+
+    public long getHitCount() { return hitCount.get(); }
+
+    public long getMissCount() { return missCount.get(); }
+
+    public long getSkipCount() { return skipCount.get(); }
+
+    public long getResetCount() { return resetCount.get(); }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    /*
+     * discards all cached results when role-version or tag-version differs from the ones cached results were computed with
+     */
+    void validate(long roleVersion, long tagVersion) {
+        if (this.roleVersion != roleVersion || this.tagVersion != tagVersion) {
+            synchronized (this) {
+                if (this.roleVersion != roleVersion || this.tagVersion != tagVersion) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("RangerAccessResultCache.validate(): resetting cache. roleVersion: " + this.roleVersion + " => " + roleVersion + ", tagVersion: " + this.tagVersion + " => " + tagVersion);
+                    }
+
+                    cache.clear();
+
+                    this.roleVersion = roleVersion;
+                    this.tagVersion  = tagVersion;
+
+                    resetCount.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    String getCacheKey(RangerAccessRequest request, String zoneName) {
+        RangerAccessResource resource = request.getResource();
+        Set<String>          groups   = request.getUserGroups();
+        StringBuilder        sb       = new StringBuilder();
+
+        sb.append(zoneName).append(KEY_SEPARATOR)
+          .append(resource != null ? resource.getCacheKey() : null).append(KEY_SEPARATOR) // includes element names, so that table=x and udf=x differ
+          .append(resource != null ? resource.getOwnerUser() : null).append(KEY_SEPARATOR)
+          .append(request.getResourceMatchingScope()).append(KEY_SEPARATOR)
+          .append(request.getAccessType()).append(KEY_SEPARATOR)
+          .append(request.getUser());
+
+        if (groups != null && !groups.isEmpty()) {
+            if (groups.size() == 1) {
+                sb.append(KEY_SEPARATOR).append(groups.iterator().next());
+            } else {
+                String[] sortedGroups = groups.toArray(new String[0]);
+
+                Arrays.sort(sortedGroups);
+
+                for (String group : sortedGroups) {
+                    sb.append(KEY_SEPARATOR).append(group);
+                }
+            }
+        }
+
+        return sb.toString();
+    }
+
+    boolean getResult(String cacheKey, RangerAccessResult result) {
+        CachedResult cachedResult = cache.get(cacheKey);
+
+        if (cachedResult != null) {
+            cachedResult.copyTo(result);
+
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+
+        return cachedResult != null;
+    }
+
+    void putResult(String cacheKey, RangerAccessResult result, long roleVersion, long tagVersion) {
+        // result computed with an older role/tag version must not be cached after the cache was reset
+        if (this.roleVersion == roleVersion && this.tagVersion == tagVersion) {
+            cache.put(cacheKey, new CachedResult(result));
+        }
+    }
+
+    void recordSkip() {
+        skipCount.incrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return "RangerAccessResultCache={cacheSize=" + cacheSize + ", size=" + size() + ", hitCount=" + getHitCount() + ", missCount=" + getMissCount() + ", skipCount=" + getSkipCount() + ", resetCount=" + getResetCount() + "}";
+    }
+}
@@ -57,8 +57,21 @@ public interface RangerPolicyEngine {
 
 	Collection<RangerAccessResult> evaluatePolicies(Collection<RangerAccessRequest> requests, int policyType, RangerAccessResultProcessor resultProcessor);
 
+	/*
+	 * Evaluates access to children of the resource in the request - for example, tables of a database - each named by
+	 * a value of childResourceName; returns the values to which access is allowed, in the given order. resultProcessor
+	 * is called once, with a result for the parent resource that summarizes results of the children.
+	 */
+	Set<String> getAccessibleChildren(RangerAccessRequest request, String childResourceName, Collection<String> childValues, RangerAccessResultProcessor resultProcessor);
+
 	RangerResourceACLs getResourceACLs(RangerAccessRequest request);
 
+	/*
+	 * Returns true if the result of access-policy evaluation for the request depends only on its resource, access-type,
+	 * user and groups, and can therefore be reused by the caller until policies, roles or tags change.
+	 */
+	boolean isAccessResultCacheable(RangerAccessRequest request);
+
 	Set<String> getRolesFromUserAndGroups(String user, Set<String> groups);
 
 	// Helpers
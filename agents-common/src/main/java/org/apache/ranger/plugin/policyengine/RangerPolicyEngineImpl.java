@@ -21,11 +21,13 @@ package org.apache.ranger.plugin.policyengine;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.ListUtils;
+import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.ranger.plugin.contextenricher.RangerTagForEval;
 import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
 import org.apache.ranger.plugin.model.RangerServiceDef;
 import org.apache.ranger.plugin.policyevaluator.RangerPolicyEvaluator;
 import org.apache.ranger.plugin.policyevaluator.RangerPolicyEvaluator.PolicyACLSummary;
@@ -38,10 +40,12 @@ import org.apache.ranger.plugin.util.RangerRoles;
 import org.apache.ranger.plugin.util.ServicePolicies;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -158,6 +162,133 @@ public class RangerPolicyEngineImpl implements RangerPolicyEngine {
 		return ret;
 	}
 
+	@Override
+	public Set<String> getAccessibleChildren(RangerAccessRequest request, String childResourceName, Collection<String> childValues, RangerAccessResultProcessor resultProcessor) {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("==> RangerPolicyEngineImpl.getAccessibleChildren(" + request + ", childResourceName=" + childResourceName + ", childCount=" + (childValues == null ? 0 : childValues.size()) + ")");
+		}
+
+		RangerPerfTracer perf = null;
+
+		if(RangerPerfTracer.isPerfTraceEnabled(PERF_POLICYENGINE_REQUEST_LOG)) {
+			perf = RangerPerfTracer.getPerfTracer(PERF_POLICYENGINE_REQUEST_LOG, "RangerPolicyEngine.getAccessibleChildren(resource=" + request.getResource().getAsString() + ", childResourceName=" + childResourceName + ", childCount=" + (childValues == null ? 0 : childValues.size()) + ")");
+		}
+
+		Set<String>        ret     = new LinkedHashSet<>();
+		RangerAccessResult summary = null;
+
+		requestProcessor.preProcess(request);
+
+		if (CollectionUtils.isNotEmpty(childValues)) {
+			RangerPolicyRepository policyRepository = policyEngine.getPolicyRepository();
+			Date                   accessTime       = request.getAccessTime() != null ? request.getAccessTime() : new Date();
+
+			// children can be evaluated against one list of evaluators only when neither tags nor zones can differ between them
+			boolean isSharedEvaluation = policyEngine.getTagPolicyRepository() == null && MapUtils.isEmpty(policyEngine.getZonePolicyRepositories());
+
+			List<RangerPolicyEvaluator> evaluators = null;
+
+			if (isSharedEvaluation) {
+				evaluators = new ArrayList<>();
+
+				if (policyEngine.hasResourcePolicies(policyRepository)) {
+					Set<String>                roles               = RangerAccessRequestUtil.getCurrentUserRolesFromContext(request.getContext());
+					RangerPolicyPrincipalIndex principalIndex      = policyRepository.getPrincipalIndex(RangerPolicy.POLICY_TYPE_ACCESS);
+					BitSet                     principalEvaluators = principalIndex != null ? principalIndex.getEvaluatorsForPrincipal(request.getUser(), request.getUserGroups(), roles) : null;
+
+					// policies that match a child also match the parent, hence the trie lookup is done only for the parent
+					for (RangerPolicyEvaluator evaluator : policyRepository.getLikelyMatchPolicyEvaluators(request.getResource(), RangerPolicy.POLICY_TYPE_ACCESS)) {
+						if (!evaluator.isApplicable(accessTime)) {
+							continue;
+						}
+
+						final boolean isForPrincipal = principalEvaluators != null ? principalIndex.contains(principalEvaluators, evaluator)
+						                                                           : hasPolicyItemsForPrincipal(evaluator.getPolicy(), request.getUser(), request.getUserGroups(), roles);
+
+						// evaluators without a policy-item for the principal are kept when audit is enabled, as they can determine audit of a child
+						if (isForPrincipal || evaluator.isAuditEnabled()) {
+							evaluators.add(evaluator);
+						}
+					}
+				}
+			}
+
+			for (String childValue : childValues) {
+				final RangerAccessResult childResult;
+
+				if (isSharedEvaluation) {
+					childResult = evaluatePoliciesNoAudit(createChildRequest(request, childResourceName, childValue, false), RangerPolicy.POLICY_TYPE_ACCESS, null, policyRepository, null, evaluators);
+				} else {
+					RangerAccessRequest childRequest = createChildRequest(request, childResourceName, childValue, true);
+
+					requestProcessor.preProcess(childRequest);
+
+					childResult = zoneAwareAccessEvaluationWithNoAudit(childRequest, RangerPolicy.POLICY_TYPE_ACCESS);
+				}
+
+				if (childResult == null) {
+					continue;
+				}
+
+				if (childResult.getIsAllowed()) {
+					ret.add(childValue);
+				}
+
+				if (summary == null) {
+					summary = policyEngine.createAccessResult(request, RangerPolicy.POLICY_TYPE_ACCESS);
+
+					summary.setAccessResultFrom(childResult);
+					summary.setAuditResultFrom(childResult);
+				} else {
+					if (childResult.getIsAllowed() && !summary.getIsAllowed()) {
+						summary.setAccessResultFrom(childResult);
+					}
+
+					if (childResult.getIsAudited() && !summary.getIsAudited()) {
+						summary.setAuditResultFrom(childResult);
+					}
+				}
+			}
+		}
+
+		if (summary == null) {
+			summary = policyEngine.createAccessResult(request, RangerPolicy.POLICY_TYPE_ACCESS);
+		}
+
+		summary.setIsAccessDetermined(true);
+
+		if (resultProcessor != null) {
+			resultProcessor.processResult(summary);
+		}
+
+		RangerPerfTracer.log(perf);
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("<== RangerPolicyEngineImpl.getAccessibleChildren(" + request + ", childResourceName=" + childResourceName + "): accessibleCount=" + ret.size() + ", summary=" + summary);
+		}
+
+		return ret;
+	}
+
+	@Override
+	public boolean isAccessResultCacheable(RangerAccessRequest request) {
+		boolean ret = false;
+
+		// tags of a resource, and hence tag policies that apply, are known only after the request is enriched
+		if (policyEngine.getTagPolicyRepository() == null) {
+			String                 zoneName         = policyEngine.getMatchedZoneName(request.getResource());
+			RangerPolicyRepository policyRepository = StringUtils.isEmpty(zoneName) ? policyEngine.getPolicyRepository() : policyEngine.getZonePolicyRepositories().get(zoneName);
+
+			ret = policyRepository != null && policyRepository.isAccessResultCacheable(request.getResource());
+		}
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("RangerPolicyEngineImpl.isAccessResultCacheable(" + request + "): " + ret);
+		}
+
+		return ret;
+	}
+
 	@Override
 	public RangerResourceACLs getResourceACLs(RangerAccessRequest request) {
 		if (LOG.isDebugEnabled()) {
@@ -529,6 +660,10 @@ public class RangerPolicyEngineImpl implements RangerPolicyEngine {
 		}
 	}
 
+	public RangerAccessResultCache getAccessResultCache() {
+		return policyEngine.getAccessResultCache();
+	}
+
 	public boolean compare(RangerPolicyEngineImpl other) {
 		return policyEngine.compare(other.policyEngine);
 	}
@@ -561,7 +696,13 @@ public class RangerPolicyEngineImpl implements RangerPolicyEngine {
 		}
 
 		if (policyRepository != null) {
-			ret = evaluatePoliciesNoAudit(request, policyType, zoneName, policyRepository, tagPolicyRepository);
+			RangerAccessResultCache accessResultCache = policyType == RangerPolicy.POLICY_TYPE_ACCESS ? policyEngine.getAccessResultCache() : null;
+
+			if (accessResultCache != null) {
+				ret = evaluatePoliciesWithResultCache(request, policyType, zoneName, policyRepository, tagPolicyRepository, accessResultCache);
+			} else {
+				ret = evaluatePoliciesNoAudit(request, policyType, zoneName, policyRepository, tagPolicyRepository);
+			}
 
 			ret.setZoneName(zoneName);
 		}
@@ -573,7 +714,54 @@ public class RangerPolicyEngineImpl implements RangerPolicyEngine {
 		return ret;
 	}
 
+	private RangerAccessResult evaluatePoliciesWithResultCache(RangerAccessRequest request, int policyType, String zoneName, RangerPolicyRepository policyRepository, RangerPolicyRepository tagPolicyRepository, RangerAccessResultCache accessResultCache) {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("==> RangerPolicyEngineImpl.evaluatePoliciesWithResultCache(" + request + ", policyType =" + policyType + ", zoneName=" + zoneName + ")");
+		}
+
+		final RangerAccessResult ret;
+		final long               roleVersion = policyEngine.getRoleVersion();
+		final long               tagVersion  = policyEngine.getTagVersion();
+
+		accessResultCache.validate(roleVersion, tagVersion);
+
+		Set<RangerTagForEval> tags        = RangerAccessRequestUtil.getRequestTagsFromContext(request.getContext());
+		boolean               isCacheable = policyRepository.isAccessResultCacheable(request.getResource())
+		                                    && (tagPolicyRepository == null || tagPolicyRepository.isAccessResultCacheable(tags));
+
+		if (isCacheable) {
+			String             cacheKey     = accessResultCache.getCacheKey(request, zoneName);
+			RangerAccessResult cachedResult = policyEngine.createAccessResult(request, policyType);
+
+			if (accessResultCache.getResult(cacheKey, cachedResult)) {
+				ret = cachedResult;
+			} else {
+				ret = evaluatePoliciesNoAudit(request, policyType, zoneName, policyRepository, tagPolicyRepository);
+
+				accessResultCache.putResult(cacheKey, ret, roleVersion, tagVersion);
+			}
+		} else {
+			accessResultCache.recordSkip();
+
+			ret = evaluatePoliciesNoAudit(request, policyType, zoneName, policyRepository, tagPolicyRepository);
+		}
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("<== RangerPolicyEngineImpl.evaluatePoliciesWithResultCache(" + request + ", policyType =" + policyType + ", zoneName=" + zoneName + "): " + ret);
+		}
+
+		return ret;
+	}
+
 	private RangerAccessResult evaluatePoliciesNoAudit(RangerAccessRequest request, int policyType, String zoneName, RangerPolicyRepository policyRepository, RangerPolicyRepository tagPolicyRepository) {
+		return evaluatePoliciesNoAudit(request, policyType, zoneName, policyRepository, tagPolicyRepository, null);
+	}
+
+	/*
+	 * likelyMatchEvaluators: resource policy-evaluators that can match the request, when already known to the caller;
+	 * if null, these are looked up in policyRepository
+	 */
+	private RangerAccessResult evaluatePoliciesNoAudit(RangerAccessRequest request, int policyType, String zoneName, RangerPolicyRepository policyRepository, RangerPolicyRepository tagPolicyRepository, List<RangerPolicyEvaluator> likelyMatchEvaluators) {
 		if (LOG.isDebugEnabled()) {
 			LOG.debug("==> RangerPolicyEngineImpl.evaluatePoliciesNoAudit(" + request + ", policyType =" + policyType + ", zoneName=" + zoneName + ")");
 		}
@@ -603,13 +791,28 @@ public class RangerPolicyEngineImpl implements RangerPolicyEngine {
 
 			ret.setIsAccessDetermined(false); // discard result by tag-policies, to evaluate resource policies for possible override
 
-			List<RangerPolicyEvaluator> evaluators = policyRepository.getLikelyMatchPolicyEvaluators(request.getResource(), policyType);
+			List<RangerPolicyEvaluator> evaluators          = likelyMatchEvaluators != null ? likelyMatchEvaluators : policyRepository.getLikelyMatchPolicyEvaluators(request.getResource(), policyType);
+			RangerPolicyPrincipalIndex  principalIndex      = policyRepository.getPrincipalIndex(policyType);
+			BitSet                      principalEvaluators = null;
+
+			if (principalIndex != null && !evaluators.isEmpty()) {
+				Set<String> roles = RangerAccessRequestUtil.getCurrentUserRolesFromContext(request.getContext());
+
+				principalEvaluators = principalIndex.getEvaluatorsForPrincipal(request.getUser(), request.getUserGroups(), roles);
+
+				// until audit is determined, evaluators without a policy-item for the principal are needed as well
+				evaluators = principalIndex.filter(evaluators, ret.getIsAuditedDetermined() ? principalEvaluators : principalIndex.withAuditEnabledEvaluators(principalEvaluators));
+			}
 
 			for (RangerPolicyEvaluator evaluator : evaluators) {
 				if (!evaluator.isApplicable(accessTime)) {
 					continue;
 				}
 
+				if (principalEvaluators != null && ret.getIsAuditedDetermined() && !principalIndex.contains(principalEvaluators, evaluator)) {
+					continue;
+				}
+
 				if (isDeniedByTags) {
 					if (ret.getPolicyPriority() >= evaluator.getPolicyPriority()) {
 						ret.setIsAccessDetermined(true);
@@ -659,6 +862,61 @@ public class RangerPolicyEngineImpl implements RangerPolicyEngine {
 		return ret;
 	}
 
+	private RangerAccessRequest createChildRequest(RangerAccessRequest request, String childResourceName, String childValue, boolean copyContext) {
+		RangerAccessResource     parent   = request.getResource();
+		RangerAccessResourceImpl resource = new RangerAccessResourceImpl(new HashMap<>(parent.getAsMap()), parent.getOwnerUser());
+
+		resource.setValue(childResourceName, childValue);
+		resource.setServiceDef(parent.getServiceDef());
+
+		RangerAccessRequestImpl ret = new RangerAccessRequestImpl(resource, request.getAccessType(), request.getUser(), request.getUserGroups());
+
+		ret.setAccessTime(request.getAccessTime());
+		ret.setAction(request.getAction());
+		ret.setClientIPAddress(request.getClientIPAddress());
+		ret.setRemoteIPAddress(request.getRemoteIPAddress());
+		ret.setForwardedAddresses(request.getForwardedAddresses());
+		ret.setRequestData(request.getRequestData());
+		ret.setClientType(request.getClientType());
+		ret.setSessionId(request.getSessionId());
+		ret.setClusterName(request.getClusterName());
+		ret.setClusterType(request.getClusterType());
+		ret.setContext(copyContext ? RangerAccessRequestUtil.copyContext(request.getContext()) : request.getContext());
+
+		return ret;
+	}
+
+	// false only if no allow or deny policy-item of the policy can match the given user, groups and roles
+	private static boolean hasPolicyItemsForPrincipal(RangerPolicy policy, String user, Set<String> userGroups, Set<String> roles) {
+		return policy.getIsDenyAllElse() ||
+		       hasPolicyItemsForPrincipal(policy.getPolicyItems(), user, userGroups, roles) ||
+		       hasPolicyItemsForPrincipal(policy.getDenyPolicyItems(), user, userGroups, roles);
+	}
+
+	private static boolean hasPolicyItemsForPrincipal(List<RangerPolicyItem> policyItems, String user, Set<String> userGroups, Set<String> roles) {
+		if (policyItems != null) {
+			for (RangerPolicyItem policyItem : policyItems) {
+				List<String> itemUsers  = policyItem.getUsers();
+				List<String> itemGroups = policyItem.getGroups();
+				List<String> itemRoles  = policyItem.getRoles();
+
+				if (itemUsers != null && (itemUsers.contains(user) || itemUsers.contains(USER_CURRENT) || itemUsers.contains(RESOURCE_OWNER))) {
+					return true;
+				}
+
+				if (itemGroups != null && (itemGroups.contains(GROUP_PUBLIC) || (userGroups != null && CollectionUtils.containsAny(itemGroups, userGroups)))) {
+					return true;
+				}
+
+				if (itemRoles != null && roles != null && CollectionUtils.containsAny(itemRoles, roles)) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
 	private void evaluateTagPolicies(final RangerAccessRequest request, int policyType, String zoneName, RangerPolicyRepository tagPolicyRepository, RangerAccessResult result) {
 		if (LOG.isDebugEnabled()) {
 			LOG.debug("==> RangerPolicyEngineImpl.evaluateTagPolicies(" + request + ", policyType =" + policyType + ", zoneName=" + zoneName + ", " + result + ")");
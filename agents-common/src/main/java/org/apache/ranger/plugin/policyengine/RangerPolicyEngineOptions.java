@@ -29,7 +29,9 @@ public class RangerPolicyEngineOptions {
 	public boolean disableCustomConditions = false;
 	public boolean disableTagPolicyEvaluation = false;
 	public boolean disableTrieLookupPrefilter = false;
+	public boolean disablePrincipalLookupPrefilter = false;
 	public boolean cacheAuditResults = true;
+	public boolean cacheAccessResults = false;
 	public boolean evaluateDelegateAdminOnly = false;
 	public boolean enableTagEnricherWithLocalRefresher = false;
 	public boolean disableAccessEvaluationWithPolicyACLSummary = true;
@@ -44,7 +46,9 @@ public class RangerPolicyEngineOptions {
 		this.disableCustomConditions = other.disableCustomConditions;
 		this.disableTagPolicyEvaluation = other.disableTagPolicyEvaluation;
 		this.disableTrieLookupPrefilter = other.disableTrieLookupPrefilter;
+		this.disablePrincipalLookupPrefilter = other.disablePrincipalLookupPrefilter;
 		this.cacheAuditResults = other.cacheAuditResults;
+		this.cacheAccessResults = other.cacheAccessResults;
 		this.evaluateDelegateAdminOnly = other.evaluateDelegateAdminOnly;
 		this.enableTagEnricherWithLocalRefresher = other.enableTagEnricherWithLocalRefresher;
 		this.disableAccessEvaluationWithPolicyACLSummary = other.disableAccessEvaluationWithPolicyACLSummary;
@@ -57,12 +61,14 @@ public class RangerPolicyEngineOptions {
 		disableCustomConditions = conf.getBoolean(propertyPrefix + ".policyengine.option.disable.custom.conditions", false);
 		disableTagPolicyEvaluation = conf.getBoolean(propertyPrefix + ".policyengine.option.disable.tagpolicy.evaluation", false);
 		disableTrieLookupPrefilter = conf.getBoolean(propertyPrefix + ".policyengine.option.disable.trie.lookup.prefilter", false);
+		disablePrincipalLookupPrefilter = conf.getBoolean(propertyPrefix + ".policyengine.option.disable.principal.lookup.prefilter", false);
 
 		cacheAuditResults = conf.getBoolean(propertyPrefix + ".policyengine.option.cache.audit.results", true);
 
 		if (!disableTrieLookupPrefilter) {
 			cacheAuditResults = false;
 		}
+		cacheAccessResults = conf.getBoolean(propertyPrefix + ".policyengine.option.cache.access.results", false);
 		evaluateDelegateAdminOnly = false;
 		enableTagEnricherWithLocalRefresher = false;
 		disableAccessEvaluationWithPolicyACLSummary = conf.getBoolean(propertyPrefix + ".policyengine.option.disable.access.evaluation.with.policy.acl.summary", true);
@@ -75,8 +81,10 @@ public class RangerPolicyEngineOptions {
 		disableCustomConditions = conf.getBoolean(propertyPrefix + ".policyengine.option.disable.custom.conditions", true);
 		disableTagPolicyEvaluation = conf.getBoolean(propertyPrefix + ".policyengine.option.disable.tagpolicy.evaluation", true);
 		disableTrieLookupPrefilter = conf.getBoolean(propertyPrefix + ".policyengine.option.disable.trie.lookup.prefilter", false);
+		disablePrincipalLookupPrefilter = conf.getBoolean(propertyPrefix + ".policyengine.option.disable.principal.lookup.prefilter", false);
 
 		cacheAuditResults = false;
+		cacheAccessResults = false;
 		evaluateDelegateAdminOnly = false;
 		enableTagEnricherWithLocalRefresher = false;
 		disableAccessEvaluationWithPolicyACLSummary = conf.getBoolean(propertyPrefix + ".policyengine.option.disable.access.evaluation.with.policy.acl.summary", true);
@@ -89,10 +97,12 @@ public class RangerPolicyEngineOptions {
 		disableCustomConditions = conf.getBoolean(propertyPrefix + ".policyengine.option.disable.custom.conditions", true);
 		disableTagPolicyEvaluation = conf.getBoolean(propertyPrefix + ".policyengine.option.disable.tagpolicy.evaluation", true);
 		disableTrieLookupPrefilter = conf.getBoolean(propertyPrefix + ".policyengine.option.disable.trie.lookup.prefilter", false);
+		disablePrincipalLookupPrefilter = conf.getBoolean(propertyPrefix + ".policyengine.option.disable.principal.lookup.prefilter", false);
 		optimizeTrieForRetrieval = conf.getBoolean(propertyPrefix + ".policyengine.option.optimize.trie.for.retrieval", false);
 
 
 		cacheAuditResults = false;
+		cacheAccessResults = false;
 		evaluateDelegateAdminOnly = true;
 		enableTagEnricherWithLocalRefresher = false;
 
@@ -103,10 +113,12 @@ public class RangerPolicyEngineOptions {
 		disableCustomConditions = conf.getBoolean(propertyPrefix + ".policyengine.option.disable.custom.conditions", true);
 		disableTagPolicyEvaluation = conf.getBoolean(propertyPrefix + ".policyengine.option.disable.tagpolicy.evaluation", false);
 		disableTrieLookupPrefilter = conf.getBoolean(propertyPrefix + ".policyengine.option.disable.trie.lookup.prefilter", false);
+		disablePrincipalLookupPrefilter = conf.getBoolean(propertyPrefix + ".policyengine.option.disable.principal.lookup.prefilter", false);
 		optimizeTrieForRetrieval = conf.getBoolean(propertyPrefix + ".policyengine.option.optimize.trie.for.retrieval", false);
 
 
 		cacheAuditResults = false;
+		cacheAccessResults = false;
 		evaluateDelegateAdminOnly = false;
 		enableTagEnricherWithLocalRefresher = true;
 	}
@@ -133,7 +145,9 @@ public class RangerPolicyEngineOptions {
 					&& this.disableCustomConditions == that.disableCustomConditions
 					&& this.disableTagPolicyEvaluation == that.disableTagPolicyEvaluation
 					&& this.disableTrieLookupPrefilter == that.disableTrieLookupPrefilter
+					&& this.disablePrincipalLookupPrefilter == that.disablePrincipalLookupPrefilter
 					&& this.cacheAuditResults == that.cacheAuditResults
+					&& this.cacheAccessResults == that.cacheAccessResults
 					&& this.evaluateDelegateAdminOnly == that.evaluateDelegateAdminOnly
 					&& this.enableTagEnricherWithLocalRefresher == that.enableTagEnricherWithLocalRefresher
 					&& this.optimizeTrieForRetrieval == that.optimizeTrieForRetrieval;
@@ -152,8 +166,12 @@ public class RangerPolicyEngineOptions {
 		ret *= 2;
 		ret += disableTrieLookupPrefilter ? 1 : 0;
 		ret *= 2;
+		ret += disablePrincipalLookupPrefilter ? 1 : 0;
+		ret *= 2;
 		ret += cacheAuditResults ? 1 : 0;
 		ret *= 2;
+		ret += cacheAccessResults ? 1 : 0;
+		ret *= 2;
 		ret += evaluateDelegateAdminOnly ? 1 : 0;
 		ret *= 2;
 		ret += enableTagEnricherWithLocalRefresher ? 1 : 0;
@@ -173,8 +191,10 @@ public class RangerPolicyEngineOptions {
 				", disableTagPolicyEvaluation: " + disableTagPolicyEvaluation +
 				", enableTagEnricherWithLocalRefresher: " + enableTagEnricherWithLocalRefresher +
 				", disableTrieLookupPrefilter: " + disableTrieLookupPrefilter +
+				", disablePrincipalLookupPrefilter: " + disablePrincipalLookupPrefilter +
 				", optimizeTrieForRetrieval: " + optimizeTrieForRetrieval +
 				", cacheAuditResult: " + cacheAuditResults +
+				", cacheAccessResults: " + cacheAccessResults +
 				" }";
 
 	}
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.policyengine;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.policyevaluator.RangerPolicyEvaluator;
+
+/*
+ * Index of policy evaluators by the users, groups and roles named in their policy-items. Evaluators are
+ * identified by their position in the list given to the constructor, and sets of evaluators are kept as bitsets.
+ * Evaluators that can match any principal - deny-all-else policies, and policies having an item for public group,
+ * {USER} or {OWNER} - are included for every principal.
+ */
+class RangerPolicyPrincipalIndex {
+	private static final Log LOG = LogFactory.getLog(RangerPolicyPrincipalIndex.class);
+
+	private final Map<RangerPolicyEvaluator, Integer> evaluatorPositions     = new IdentityHashMap<>();
+	private final Map<String, BitSet>                 userEvaluators         = new HashMap<>();
+	private final Map<String, BitSet>                 groupEvaluators        = new HashMap<>();
+	private final Map<String, BitSet>                 roleEvaluators         = new HashMap<>();
+	private final BitSet                              anyPrincipalEvaluators = new BitSet();
+	private final BitSet                              auditEnabledEvaluators = new BitSet();
+
+	RangerPolicyPrincipalIndex(List<RangerPolicyEvaluator> evaluators) {
+		if (evaluators != null) {
+			int position = 0;
+
+			for (RangerPolicyEvaluator evaluator : evaluators) {
+				RangerPolicy policy = evaluator.getPolicy();
+
+				evaluatorPositions.put(evaluator, position);
+
+				if (Boolean.TRUE.equals(policy.getIsDenyAllElse())) {
+					anyPrincipalEvaluators.set(position);
+				}
+
+				addPolicyItems(policy.getPolicyItems(), position);
+				addPolicyItems(policy.getDenyPolicyItems(), position);
+				addPolicyItems(policy.getAllowExceptions(), position);
+				addPolicyItems(policy.getDenyExceptions(), position);
+				addPolicyItems(policy.getDataMaskPolicyItems(), position);
+				addPolicyItems(policy.getRowFilterPolicyItems(), position);
+
+				if (evaluator.isAuditEnabled()) {
+					auditEnabledEvaluators.set(position);
+				}
+
+				position++;
+			}
+		}
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("RangerPolicyPrincipalIndex: evaluators=" + evaluatorPositions.size() + ", users=" + userEvaluators.size() + ", groups=" + groupEvaluators.size()
+					+ ", roles=" + roleEvaluators.size() + ", anyPrincipalEvaluators=" + anyPrincipalEvaluators.cardinality());
+		}
+	}
+
+	// evaluators that have a policy-item for the given user, any of the groups or any of the roles
+	BitSet getEvaluatorsForPrincipal(String user, Collection<String> userGroups, Collection<String> roles) {
+		BitSet ret = (BitSet) anyPrincipalEvaluators.clone();
+
+		if (user != null) {
+			or(ret, userEvaluators.get(user));
+		}
+
+		if (userGroups != null) {
+			for (String group : userGroups) {
+				or(ret, groupEvaluators.get(group));
+			}
+		}
+
+		if (roles != null) {
+			for (String role : roles) {
+				or(ret, roleEvaluators.get(role));
+			}
+		}
+
+		return ret;
+	}
+
+	// evaluators in the given set, and evaluators having audit enabled - which are needed to determine whether
+	// an access should be audited, irrespective of the principal
+	BitSet withAuditEnabledEvaluators(BitSet evaluatorSet) {
+		BitSet ret = (BitSet) evaluatorSet.clone();
+
+		ret.or(auditEnabledEvaluators);
+
+		return ret;
+	}
+
+	/*
+	 * Returns evaluators in the given list that are also in the given set, in the same order. Evaluators not known
+	 * to this index are retained.
+	 */
+	List<RangerPolicyEvaluator> filter(List<RangerPolicyEvaluator> evaluators, BitSet evaluatorSet) {
+		List<RangerPolicyEvaluator> ret = new ArrayList<>(Math.min(evaluators.size(), evaluatorSet.cardinality()));
+
+		for (RangerPolicyEvaluator evaluator : evaluators) {
+			if (contains(evaluatorSet, evaluator)) {
+				ret.add(evaluator);
+			}
+		}
+
+		return ret;
+	}
+
+	boolean contains(BitSet evaluatorSet, RangerPolicyEvaluator evaluator) {
+		Integer position = evaluatorPositions.get(evaluator);
+
+		return position == null || evaluatorSet.get(position);
+	}
+
+	int size() {
+		return evaluatorPositions.size();
+	}
+
+	private void addPolicyItems(List<? extends RangerPolicyItem> policyItems, int position) {
+		if (policyItems != null) {
+			for (RangerPolicyItem policyItem : policyItems) {
+				if (policyItem.getUsers() != null) {
+					for (String user : policyItem.getUsers()) {
+						if (RangerPolicyEngine.USER_CURRENT.equals(user) || RangerPolicyEngine.RESOURCE_OWNER.equals(user)) {
+							anyPrincipalEvaluators.set(position);
+						} else {
+							add(userEvaluators, user, position);
+						}
+					}
+				}
+
+				if (policyItem.getGroups() != null) {
+					for (String group : policyItem.getGroups()) {
+						if (RangerPolicyEngine.GROUP_PUBLIC.equals(group)) {
+							anyPrincipalEvaluators.set(position);
+						} else {
+							add(groupEvaluators, group, position);
+						}
+					}
+				}
+
+				if (policyItem.getRoles() != null) {
+					for (String role : policyItem.getRoles()) {
+						add(roleEvaluators, role, position);
+					}
+				}
+			}
+		}
+	}
+
+	private static void add(Map<String, BitSet> index, String principal, int position) {
+		BitSet evaluators = index.get(principal);
+
+		if (evaluators == null) {
+			evaluators = new BitSet();
+
+			index.put(principal, evaluators);
+		}
+
+		evaluators.set(position);
+	}
+
+	private static void or(BitSet target, BitSet other) {
+		if (other != null) {
+			target.or(other);
+		}
+	}
+}
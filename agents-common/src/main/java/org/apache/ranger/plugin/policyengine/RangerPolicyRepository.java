@@ -78,28 +78,32 @@ public class RangerPolicyRepository {
         }
     }
 
-    private final String                          serviceName;
-    private final String                          zoneName;
-    private final String                          appId;
-    private final RangerPolicyEngineOptions       options;
-    private final RangerPluginContext             pluginContext;
-    private final RangerServiceDef                serviceDef;
-    private final List<RangerPolicy>              policies;
-    private final long                            policyVersion;
-    private final List<RangerContextEnricher>     contextEnrichers;
-    private final AuditModeEnum                   auditModeEnum;
-    private final Map<String, AuditInfo>          accessAuditCache;
-    private final String                          componentServiceName;
-    private final RangerServiceDef                componentServiceDef;
-    private final Map<String, RangerResourceTrie> policyResourceTrie;
-    private final Map<String, RangerResourceTrie> dataMaskResourceTrie;
-    private final Map<String, RangerResourceTrie> rowFilterResourceTrie;
+    private final String                               serviceName;
+    private final String                               zoneName;
+    private final String                               appId;
+    private final RangerPolicyEngineOptions            options;
+    private final RangerPluginContext                  pluginContext;
+    private final RangerServiceDef                     serviceDef;
+    private final List<RangerPolicy>                   policies;
+    private final long                                 policyVersion;
+    private final List<RangerContextEnricher>          contextEnrichers;
+    private final AuditModeEnum                        auditModeEnum;
+    private final ConcurrentCacheMap<String, AuditInfo> accessAuditCache;
+    private final String                               componentServiceName;
+    private final RangerServiceDef                     componentServiceDef;
+    private final Map<String, RangerResourceTrie>      policyResourceTrie;
+    private final Map<String, RangerResourceTrie>      dataMaskResourceTrie;
+    private final Map<String, RangerResourceTrie>      rowFilterResourceTrie;
     private       List<RangerPolicyEvaluator>       policyEvaluators;
     private       List<RangerPolicyEvaluator>       dataMaskPolicyEvaluators;
     private       List<RangerPolicyEvaluator>       rowFilterPolicyEvaluators;
     private       Map<Long, RangerPolicyEvaluator>  policyEvaluatorsMap;
+    private       RangerPolicyPrincipalIndex        policyPrincipalIndex;
+    private       RangerPolicyPrincipalIndex        dataMaskPrincipalIndex;
+    private       RangerPolicyPrincipalIndex        rowFilterPrincipalIndex;
     private       boolean                           isContextEnrichersShared = false;
     private       boolean                           isPreCleaned = false;
+    private       Boolean                           hasNonCacheableAccessEvaluators = null;
 
     RangerPolicyRepository(final RangerPolicyRepository other, final List<RangerPolicyDelta> deltas, long policyVersion) {
         this.serviceName               = other.serviceName;
@@ -148,9 +152,9 @@ public class RangerPolicyRepository {
         }
 
         if (other.accessAuditCache != null) {
-            int auditResultCacheSize = other.accessAuditCache.size();
+            int auditResultCacheSize = other.accessAuditCache.getCapacity();
 
-            this.accessAuditCache = Collections.synchronizedMap(new CacheMap<String, AuditInfo>(auditResultCacheSize));
+            this.accessAuditCache = new ConcurrentCacheMap<>(auditResultCacheSize);
         } else {
             this.accessAuditCache = null;
         }
@@ -240,6 +244,11 @@ public class RangerPolicyRepository {
             }
         }
 
+        if (other.policyPrincipalIndex != null) {
+            // positions of evaluators change with deltas, hence the indexes are rebuilt
+            createPrincipalIndexes();
+        }
+
         if (StringUtils.isEmpty(zoneName)) {
             if (CollectionUtils.isNotEmpty(other.getPolicies())) {
                 if (CollectionUtils.isNotEmpty(this.getPolicies())) {
@@ -305,7 +314,7 @@ public class RangerPolicyRepository {
                 final int RANGER_POLICYENGINE_AUDITRESULT_CACHE_SIZE = 64 * 1024;
 
                 int auditResultCacheSize = pluginContext.getConfig().getInt(propertyName, RANGER_POLICYENGINE_AUDITRESULT_CACHE_SIZE);
-                accessAuditCache = Collections.synchronizedMap(new CacheMap<String, AuditInfo>(auditResultCacheSize));
+                accessAuditCache = new ConcurrentCacheMap<>(auditResultCacheSize);
             } else {
                 accessAuditCache = null;
             }
@@ -334,6 +343,10 @@ public class RangerPolicyRepository {
             dataMaskResourceTrie  = createResourceTrieMap(dataMaskPolicyEvaluators, options.optimizeTrieForRetrieval);
             rowFilterResourceTrie = createResourceTrieMap(rowFilterPolicyEvaluators, options.optimizeTrieForRetrieval);
         }
+
+        if (!options.disablePrincipalLookupPrefilter) {
+            createPrincipalIndexes();
+        }
     }
 
     RangerPolicyRepository(String appId, ServicePolicies.TagPolicies tagPolicies, RangerPolicyEngineOptions options, RangerPluginContext pluginContext,
@@ -593,6 +606,48 @@ public class RangerPolicyRepository {
         }
     }
 
+    boolean isAccessResultCacheable(RangerAccessResource resource) {
+        boolean ret = true;
+
+        if (hasNonCacheableAccessEvaluators()) {
+            for (RangerPolicyEvaluator evaluator : getLikelyMatchPolicyEvaluators(resource, RangerPolicy.POLICY_TYPE_ACCESS)) {
+                if (!evaluator.isAccessResultCacheable()) {
+                    ret = false;
+
+                    break;
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    boolean isAccessResultCacheable(Set<RangerTagForEval> tags) {
+        boolean ret = true;
+
+        if (CollectionUtils.isNotEmpty(tags)) {
+            for (RangerTagForEval tag : tags) {
+                if (CollectionUtils.isNotEmpty(tag.getValidityPeriods())) {
+                    ret = false;
+
+                    break;
+                }
+            }
+
+            if (ret && hasNonCacheableAccessEvaluators()) {
+                for (PolicyEvaluatorForTag tagEvaluator : getLikelyMatchPolicyEvaluators(tags, RangerPolicy.POLICY_TYPE_ACCESS, null)) {
+                    if (!tagEvaluator.getEvaluator().isAccessResultCacheable()) {
+                        ret = false;
+
+                        break;
+                    }
+                }
+            }
+        }
+
+        return ret;
+    }
+
     List<RangerContextEnricher> getContextEnrichers() { return contextEnrichers; }
 
     List<RangerPolicyEvaluator> getPolicyEvaluators(int policyType) {
@@ -698,10 +753,45 @@ public class RangerPolicyRepository {
 
     Map<Long, RangerPolicyEvaluator> getPolicyEvaluatorsMap() { return policyEvaluatorsMap; }
 
+    RangerPolicyPrincipalIndex getPrincipalIndex(int policyType) {
+        switch (policyType) {
+            case RangerPolicy.POLICY_TYPE_ACCESS:
+                return policyPrincipalIndex;
+            case RangerPolicy.POLICY_TYPE_DATAMASK:
+                return dataMaskPrincipalIndex;
+            case RangerPolicy.POLICY_TYPE_ROWFILTER:
+                return rowFilterPrincipalIndex;
+            default:
+                return null;
+        }
+    }
+
     RangerPolicyEvaluator getPolicyEvaluator(Long id) {
         return policyEvaluatorsMap.get(id);
     }
 
+    private boolean hasNonCacheableAccessEvaluators() {
+        Boolean ret = hasNonCacheableAccessEvaluators;
+
+        if (ret == null) {
+            ret = Boolean.FALSE;
+
+            if (policyEvaluators != null) {
+                for (RangerPolicyEvaluator evaluator : policyEvaluators) {
+                    if (!evaluator.isAccessResultCacheable()) {
+                        ret = Boolean.TRUE;
+
+                        break;
+                    }
+                }
+            }
+
+            hasNonCacheableAccessEvaluators = ret;
+        }
+
+        return ret;
+    }
+
     private List<RangerPolicyEvaluator> getLikelyMatchAccessPolicyEvaluators(RangerAccessResource resource) {
        String resourceStr = resource == null ? null : resource.getAsString();
 
@@ -1400,6 +1490,12 @@ public class RangerPolicyRepository {
         return ret;
     }
 
+    private void createPrincipalIndexes() {
+        policyPrincipalIndex    = new RangerPolicyPrincipalIndex(policyEvaluators);
+        dataMaskPrincipalIndex  = new RangerPolicyPrincipalIndex(dataMaskPolicyEvaluators);
+        rowFilterPrincipalIndex = new RangerPolicyPrincipalIndex(rowFilterPolicyEvaluators);
+    }
+
     private Map<String, RangerResourceTrie> getTrie(final int policyType) {
         final Map<String, RangerResourceTrie> ret;
         switch (policyType) {
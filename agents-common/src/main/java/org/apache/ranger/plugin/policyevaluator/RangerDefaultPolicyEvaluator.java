@@ -79,6 +79,7 @@ public class RangerDefaultPolicyEvaluator extends RangerAbstractPolicyEvaluator
 	private String perfTag;
 	private PolicyACLSummary aclSummary                 = null;
 	private boolean          useAclSummaryForEvaluation = false;
+	private boolean          isAccessResultCacheable    = false;
 
 	protected boolean needsDynamicEval() { return resourceMatcher != null && resourceMatcher.getNeedsDynamicEval(); }
 
@@ -92,6 +93,11 @@ public class RangerDefaultPolicyEvaluator extends RangerAbstractPolicyEvaluator
 		return validityScheduleEvaluators.size();
 	}
 
+	@Override
+	public boolean isAccessResultCacheable() {
+		return isAccessResultCacheable;
+	}
+
 	@Override
 	public RangerPolicyResourceMatcher getPolicyResourceMatcher() { return resourceMatcher; }
 
@@ -176,6 +182,12 @@ public class RangerDefaultPolicyEvaluator extends RangerAbstractPolicyEvaluator
 		Collections.sort(rowFilterEvaluators);
 		*/
 
+		// result of a policy with conditions, validity-schedules or owner-based items depends on more than resource/user/groups/access-type
+		isAccessResultCacheable = policy != null
+		                          && CollectionUtils.isEmpty(validityScheduleEvaluators)
+		                          && CollectionUtils.isEmpty(policy.getConditions())
+		                          && !hasContextSensitiveSpecification();
+
 		RangerPerfTracer.log(perf);
 
 		if (useAclSummaryForEvaluation && (policy.getPolicyType() == null || policy.getPolicyType() == RangerPolicy.POLICY_TYPE_ACCESS)) {
@@ -382,6 +394,11 @@ public class RangerDefaultPolicyEvaluator extends RangerAbstractPolicyEvaluator
 		return ret;
 	}
 
+	@Override
+	public boolean isAccessAllowedForPrincipal(String user, Set<String> userGroups, Set<String> roles, String accessType) {
+		return isAccessAllowed(user, userGroups, roles, null, accessType);
+	}
+
 	@Override
 	public void getResourceAccessInfo(RangerAccessRequest request, RangerResourceAccessInfo result) {
 		if (LOG.isDebugEnabled()) {
@@ -762,7 +779,8 @@ public class RangerDefaultPolicyEvaluator extends RangerAbstractPolicyEvaluator
 		}
 	}
 
-	protected boolean isMatch(RangerPolicy policy, Map<String, Object> evalContext) {
+	@Override
+	public boolean isMatch(RangerPolicy policy, Map<String, Object> evalContext) {
 		if(LOG.isDebugEnabled()) {
 			LOG.debug("==> RangerDefaultPolicyEvaluator.isMatch(" + policy.getId() + ", " + evalContext + ")");
 		}
@@ -84,6 +84,8 @@ public interface RangerPolicyEvaluator extends RangerPolicyResourceEvaluator {
 
 	int getValidityScheduleEvaluatorsCount();
 
+	boolean isAccessResultCacheable();
+
 	boolean isAuditEnabled();
 
 	void evaluate(RangerAccessRequest request, RangerAccessResult result);
@@ -100,6 +102,14 @@ public interface RangerPolicyEvaluator extends RangerPolicyResourceEvaluator {
 
 	boolean isAccessAllowed(RangerPolicy policy, String user, Set<String> userGroups, Set<String> roles, String accessType);
 
+	/*
+	 * Checks only the policy-items, without matching resources. isAccessAllowed(policy, ...) is equivalent to
+	 * isAccessAllowedForPrincipal(...) && isMatch(policy, null)
+	 */
+	boolean isAccessAllowedForPrincipal(String user, Set<String> userGroups, Set<String> roles, String accessType);
+
+	boolean isMatch(RangerPolicy policy, Map<String, Object> evalContext);
+
 	void updateAccessResult(RangerAccessResult result, RangerPolicyResourceMatcher.MatchType matchType, boolean isAllowed, String reason);
 
 	void getResourceAccessInfo(RangerAccessRequest request, RangerResourceAccessInfo result);
@@ -37,6 +37,7 @@ import org.apache.ranger.audit.provider.StandAloneAuditProviderFactory;
 import org.apache.ranger.authorization.hadoop.config.RangerAuditConfig;
 import org.apache.ranger.authorization.hadoop.config.RangerPluginConfig;
 import org.apache.ranger.authorization.utils.StringUtil;
+import org.apache.ranger.plugin.audit.RangerAuditAggregator;
 import org.apache.ranger.plugin.conditionevaluator.RangerScriptExecutionContext;
 import org.apache.ranger.plugin.contextenricher.RangerContextEnricher;
 import org.apache.ranger.plugin.contextenricher.RangerTagEnricher;
@@ -87,6 +88,9 @@ public class RangerBasePlugin {
 	private       RangerAuthContextListener      authContextListener;
 	private       AuditProviderFactory           auditProviderFactory;
 	private       RangerRoles                    rangerRoles;
+	private       RangerUserStore                userStore;
+	private       Map<String, Set<String>>       userGroupsIndex;
+	private       RangerAuditAggregator          auditAggregator;
 
 	public static Map<String, RangerBasePlugin> getServicePluginMap() {
 		return servicePluginMap;
@@ -131,6 +135,12 @@ public class RangerBasePlugin {
 		return ret;
 	}
 
+	public static RangerAuditAggregator getAuditAggregator(String serviceName) {
+		RangerBasePlugin plugin = StringUtils.isNotEmpty(serviceName) ? servicePluginMap.get(serviceName) : null;
+
+		return plugin != null ? plugin.auditAggregator : null;
+	}
+
 	public RangerBasePlugin(String serviceType, String appId) {
 		this.serviceType = serviceType;
 		this.appId       = appId;
@@ -177,6 +187,41 @@ public class RangerBasePlugin {
 		contextChanged();
 	}
 
+	public RangerUserStore getUserStore() {
+		return this.userStore;
+	}
+
+	public void setUserStore(RangerUserStore userStore) {
+		Map<String, Set<String>> userGroupsIndex = null;
+
+		if (userStore != null && userStore.getUserGroupMapping() != null) {
+			userGroupsIndex = new HashMap<>(userStore.getUserGroupMapping().size());
+
+			for (Map.Entry<String, Set<String>> entry : userStore.getUserGroupMapping().entrySet()) {
+				Set<String> groups = entry.getValue() == null ? Collections.<String>emptySet() : Collections.unmodifiableSet(new HashSet<>(entry.getValue()));
+
+				userGroupsIndex.put(entry.getKey(), groups);
+			}
+
+			userGroupsIndex = Collections.unmodifiableMap(userGroupsIndex);
+		}
+
+		this.userStore       = userStore;
+		this.userGroupsIndex = userGroupsIndex;
+
+		contextChanged();
+	}
+
+	/*
+	 * Returns groups of the user from the user-store downloaded from Ranger Admin; returns null when the user-store has
+	 * not been downloaded or does not have the user, in which case the caller should look up groups as it did earlier.
+	 */
+	public Set<String> getUserGroups(String user) {
+		Map<String, Set<String>> userGroupsIndex = this.userGroupsIndex;
+
+		return userGroupsIndex != null && user != null ? userGroupsIndex.get(user) : null;
+	}
+
 	public RangerServiceDef getServiceDef() {
 		RangerPolicyEngine policyEngine = this.policyEngine;
 
@@ -234,6 +279,15 @@ public class RangerBasePlugin {
 			auditProviderFactory = null;
 		}
 
+		if (config.getBoolean(propertyPrefix + RangerAuditAggregator.PROP_AUDIT_AGGREGATION_ENABLED, false)) {
+			long auditAggregationWindowMs   = config.getLong(propertyPrefix + RangerAuditAggregator.PROP_AUDIT_AGGREGATION_WINDOW_MS, RangerAuditAggregator.DEFAULT_AUDIT_AGGREGATION_WINDOW_MS);
+			int  auditAggregationMaxEntries = config.getInt(propertyPrefix + RangerAuditAggregator.PROP_AUDIT_AGGREGATION_MAX_ENTRIES, RangerAuditAggregator.DEFAULT_AUDIT_AGGREGATION_MAX_ENTRIES);
+
+			auditAggregator = new RangerAuditAggregator(serviceName, auditAggregationWindowMs, auditAggregationMaxEntries);
+
+			auditAggregator.start();
+		}
+
 		rangerPluginContext = new RangerPluginContext(serviceType, config);
 
 		policyEngineOptions.configureForPlugin(config, propertyPrefix);
@@ -246,7 +300,13 @@ public class RangerBasePlugin {
 
 		RangerRolesProvider rangerRolesProvider = new RangerRolesProvider(serviceType, appId, serviceName, admin,  cacheDir, config);
 
-		refresher = new PolicyRefresher(this, serviceType, appId, serviceName, admin, policyDownloadQueue, cacheDir, rangerRolesProvider);
+		RangerUserStoreProvider userStoreProvider = null;
+
+		if (config.getBoolean(propertyPrefix + ".userstore.download.enabled", false)) {
+			userStoreProvider = new RangerUserStoreProvider(serviceType, appId, serviceName, admin, cacheDir, config);
+		}
+
+		refresher = new PolicyRefresher(this, serviceType, appId, serviceName, admin, policyDownloadQueue, cacheDir, rangerRolesProvider, userStoreProvider);
 		refresher.setDaemon(true);
 		refresher.startRefresher();
 
@@ -392,6 +452,8 @@ public class RangerBasePlugin {
 
 		Timer policyDownloadTimer = this.policyDownloadTimer;
 
+		RangerAuditAggregator auditAggregator = this.auditAggregator;
+
 		String serviceName = this.serviceName;
 
 		this.serviceName  = null;
@@ -399,6 +461,7 @@ public class RangerBasePlugin {
 		this.refresher    = null;
 		this.policyEngineRefreshTimer = null;
 		this.policyDownloadTimer = null;
+		this.auditAggregator = null;
 
 		if (refresher != null) {
 			refresher.stopRefresher();
@@ -412,6 +475,10 @@ public class RangerBasePlugin {
 			policyEngineRefreshTimer.cancel();
 		}
 
+		if (auditAggregator != null) {
+			auditAggregator.stop();
+		}
+
 		if (serviceName != null) {
 			servicePluginMap.remove(serviceName);
 		}
@@ -453,6 +520,26 @@ public class RangerBasePlugin {
 		return null;
 	}
 
+	public boolean isAccessResultCacheable(RangerAccessRequest request) {
+		RangerPolicyEngine policyEngine = this.policyEngine;
+
+		return policyEngine != null && policyEngine.isAccessResultCacheable(request);
+	}
+
+	public Set<String> getAccessibleChildren(RangerAccessRequest request, String childResourceName, Collection<String> childValues) {
+		return getAccessibleChildren(request, childResourceName, childValues, resultProcessor);
+	}
+
+	public Set<String> getAccessibleChildren(RangerAccessRequest request, String childResourceName, Collection<String> childValues, RangerAccessResultProcessor resultProcessor) {
+		RangerPolicyEngine policyEngine = this.policyEngine;
+
+		if(policyEngine != null) {
+			return policyEngine.getAccessibleChildren(request, childResourceName, childValues, resultProcessor);
+		}
+
+		return null;
+	}
+
 	public RangerAccessResult evalDataMaskPolicies(RangerAccessRequest request, RangerAccessResultProcessor resultProcessor) {
 		RangerPolicyEngine policyEngine = this.policyEngine;
 
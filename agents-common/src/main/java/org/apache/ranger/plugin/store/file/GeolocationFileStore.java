@@ -26,6 +26,7 @@ import org.apache.ranger.plugin.geo.GeolocationMetadata;
 import org.apache.ranger.plugin.store.GeolocationStore;
 import org.apache.ranger.plugin.geo.RangerGeolocationDatabase;
 import org.apache.ranger.plugin.geo.RangerGeolocationData;
+import org.apache.ranger.plugin.geo.RangerGeolocationIndex;
 
 import java.io.BufferedReader;
 import java.io.File;
@@ -170,23 +171,37 @@ public class GeolocationFileStore implements GeolocationStore {
 		start = System.currentTimeMillis();
 
 		try {
+			File dataFile = new File(dataFileName);
+
+			if (RangerGeolocationDatabase.isIndexFile(dataFile)) {
+				LOG.info("GeolocationFileStore: loading location data from index file '" + dataFileName + "'");
+
+				return RangerGeolocationDatabase.readFrom(dataFile);
+			}
+
 			bufferedReader = new BufferedReader(getReader(dataFileName));
 
 			database  = new RangerGeolocationDatabase();
 
+			RangerGeolocationIndex.Builder indexBuilder = new RangerGeolocationIndex.Builder();
+
 			String line;
 			int lineNumber = 0;
 			isMetalineProcessed = false;
 
 			while(( line = bufferedReader.readLine()) != null) {
 				lineNumber++;
-				if (!processLine(lineNumber, line, database)) {
+				if (!processLine(lineNumber, line, database, indexBuilder)) {
 					LOG.error("RangerGeolocationDatabaseBuilder.build() - Invalid geo-specification - " + lineNumber + ":" + line);
 					database = null;
 					break;
 				}
 			}
 
+			if (database != null) {
+				database.setIndex(indexBuilder.build());
+			}
+
 			bufferedReader.close();
 			bufferedReader = null;
 		}
@@ -213,14 +228,10 @@ public class GeolocationFileStore implements GeolocationStore {
 			LOG.debug("RangerGeolocationDatabaseBuilder.build() - Time taken for reading file = " + (end - start) + " milliseconds");
 		}
 
-		if (database != null) {
-			database.optimize();
-		}
-
 		return database;
 	}
 
-	private boolean processLine(int lineNumber, String line, RangerGeolocationDatabase database) {
+	private boolean processLine(int lineNumber, String line, RangerGeolocationDatabase database, RangerGeolocationIndex.Builder indexBuilder) {
 
 		boolean ret = true;
 
@@ -241,7 +252,7 @@ public class GeolocationFileStore implements GeolocationStore {
 				} else {
 					RangerGeolocationData data = RangerGeolocationData.create(fields, lineNumber, useDotFormat);
 					if (data != null) {
-						database.getData().insert(data);
+						indexBuilder.add(data);
 					} else {
 						LOG.error("GeolocationFileStore.processLine() - Invalid data specification " + lineNumber + ":" + line);
 					}
@@ -253,4 +264,29 @@ public class GeolocationFileStore implements GeolocationStore {
 		return ret;
 	}
 
+	/**
+	 * Converts a geolocation file to an index file, which loads without parsing. Usage:
+	 *   GeolocationFileStore geolocation-file index-file [IPInDotFormat]
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: " + GeolocationFileStore.class.getName() + " geolocation-file index-file [IPInDotFormat]");
+			System.exit(1);
+		}
+
+		GeolocationFileStore store = new GeolocationFileStore();
+
+		store.useDotFormat = args.length < 3 || Boolean.parseBoolean(args[2]);
+
+		RangerGeolocationDatabase database = store.build(args[0]);
+
+		if (database == null) {
+			System.err.println("Failed to read geolocation data from " + args[0]);
+			System.exit(1);
+		}
+
+		database.writeTo(new File(args[1]));
+
+		System.out.println("Wrote " + database.getIndex().size() + " ranges, " + database.getIndex().getLocationCount() + " distinct locations to " + args[1]);
+	}
 }
@@ -47,6 +47,7 @@ public class PolicyRefresher extends Thread {
 	private final RangerAdminClient rangerAdmin;
 	private final BlockingQueue<DownloadTrigger> policyDownloadQueue;
 	private final RangerRolesProvider rangerRolesProvider;
+	private final RangerUserStoreProvider userStoreProvider;
 
 	private final String            cacheFileName;
 	private final String            cacheDir;
@@ -58,7 +59,7 @@ public class PolicyRefresher extends Thread {
 	private boolean policiesSetInPlugin;
 	private boolean serviceDefSetInPlugin;
 
-	public PolicyRefresher(RangerBasePlugin plugIn, String serviceType, String appId, String serviceName, RangerAdminClient rangerAdmin, BlockingQueue<DownloadTrigger> policyDownloadQueue, String cacheDir, RangerRolesProvider rangerRolesProvider) {
+	public PolicyRefresher(RangerBasePlugin plugIn, String serviceType, String appId, String serviceName, RangerAdminClient rangerAdmin, BlockingQueue<DownloadTrigger> policyDownloadQueue, String cacheDir, RangerRolesProvider rangerRolesProvider, RangerUserStoreProvider userStoreProvider) {
 		if(LOG.isDebugEnabled()) {
 			LOG.debug("==> PolicyRefresher(serviceName=" + serviceName + ").PolicyRefresher()");
 		}
@@ -69,6 +70,7 @@ public class PolicyRefresher extends Thread {
 		this.rangerAdmin       = rangerAdmin;
 		this.policyDownloadQueue = policyDownloadQueue;
 		this.rangerRolesProvider = rangerRolesProvider;
+		this.userStoreProvider   = userStoreProvider;
 
 		if(StringUtils.isEmpty(appId)) {
 			appId = serviceType;
@@ -134,6 +136,7 @@ public class PolicyRefresher extends Thread {
 	}
 
 	public void startRefresher() {
+		loadUserStore();
 		loadRoles();
 		loadPolicy();
 
@@ -159,6 +162,7 @@ public class PolicyRefresher extends Thread {
 		while(true) {
 			try {
 				DownloadTrigger trigger = policyDownloadQueue.take();
+				loadUserStore();
 				loadRoles();
 				loadPolicy();
 				trigger.signalCompletion();
@@ -443,4 +447,18 @@ public class PolicyRefresher extends Thread {
 			LOG.debug("<== PolicyRefresher(serviceName=" + serviceName + ").loadRoles()");
 		}
 	}
+
+	private void loadUserStore() {
+		if (userStoreProvider != null) {
+			if(LOG.isDebugEnabled()) {
+				LOG.debug("==> PolicyRefresher(serviceName=" + serviceName + ").loadUserStore()");
+			}
+
+			userStoreProvider.loadUserStore(plugIn);
+
+			if(LOG.isDebugEnabled()) {
+				LOG.debug("<== PolicyRefresher(serviceName=" + serviceName + ").loadUserStore()");
+			}
+		}
+	}
 }
@@ -38,6 +38,7 @@ public class RangerAccessRequestUtil {
 	public static final String KEY_CONTEXT_TAG_OBJECT          = "TAG_OBJECT";
 	public static final String KEY_CONTEXT_RESOURCE            = "RESOURCE";
 	public static final String KEY_CONTEXT_REQUESTED_RESOURCES = "REQUESTED_RESOURCES";
+	public static final String KEY_CONTEXT_CLIENT_IP_ADDRESS   = "CLIENT_IP_ADDRESS";
 	public static final String KEY_TOKEN_NAMESPACE = "token:";
 	public static final String KEY_USER = "USER";
 	public static final String KEY_OWNER = "OWNER";
@@ -131,6 +132,22 @@ public class RangerAccessRequestUtil {
 		return ret;
 	}
 
+	public static void setClientIpAddressInContext(Map<String, Object> context, RangerIpAddressTrie.IpAddress ipAddress) {
+		context.put(KEY_CONTEXT_CLIENT_IP_ADDRESS, ipAddress);
+	}
+
+	// returns the parsed address only if it was parsed from the given text
+	public static RangerIpAddressTrie.IpAddress getClientIpAddressFromContext(Map<String, Object> context, String ipAddressText) {
+		RangerIpAddressTrie.IpAddress ret = null;
+		Object                        val = MapUtils.isNotEmpty(context) ? context.get(KEY_CONTEXT_CLIENT_IP_ADDRESS) : null;
+
+		if (val instanceof RangerIpAddressTrie.IpAddress && ipAddressText != null && ipAddressText.equals(((RangerIpAddressTrie.IpAddress) val).getText())) {
+			ret = (RangerIpAddressTrie.IpAddress) val;
+		}
+
+		return ret;
+	}
+
 	public static void setCurrentUserInContext(Map<String, Object> context, String user) {
 		setTokenInContext(context, KEY_USER, user);
 	}
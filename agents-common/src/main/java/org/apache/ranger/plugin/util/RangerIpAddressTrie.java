@@ -0,0 +1,341 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.util;
+
+import java.util.Arrays;
+
+/**
+ * Binary radix tree of IPv4 and IPv6 address prefixes. contains() walks at most one node per address bit,
+ * regardless of number of prefixes added. IPv4 and IPv6 prefixes are kept in separate sub-trees, hence an
+ * IPv4 address never matches an IPv6 prefix and vice-versa.
+ *
+ * Not thread-safe for updates; once populated, contains() can be called concurrently.
+ */
+public class RangerIpAddressTrie {
+	private static final int NO_NODE   = 0;
+	private static final int ROOT_IPV4 = 1;
+	private static final int ROOT_IPV6 = 2;
+
+	private int[]     zeroChild   = new int[16];
+	private int[]     oneChild    = new int[16];
+	private boolean[] isPrefixEnd = new boolean[16];
+	private int       nodeCount   = 3; // node 0 is unused, so that 0 can denote 'no child'
+	private int       prefixCount = 0;
+
+	public void add(IpAddress address, int prefixLength) {
+		if (prefixLength < 0 || prefixLength > address.getBitCount()) {
+			throw new IllegalArgumentException("invalid prefix length " + prefixLength + " for " + address);
+		}
+
+		int node = address.isIPv4() ? ROOT_IPV4 : ROOT_IPV6;
+
+		for (int i = 0; i < prefixLength && !isPrefixEnd[node]; i++) {
+			int child = address.getBit(i) ? oneChild[node] : zeroChild[node];
+
+			if (child == NO_NODE) {
+				child = newNode();
+
+				if (address.getBit(i)) {
+					oneChild[node] = child;
+				} else {
+					zeroChild[node] = child;
+				}
+			}
+
+			node = child;
+		}
+
+		if (!isPrefixEnd[node]) {
+			isPrefixEnd[node] = true;
+			zeroChild[node]   = NO_NODE; // longer prefixes under this node are redundant
+			oneChild[node]    = NO_NODE;
+		}
+
+		prefixCount++;
+	}
+
+	public boolean contains(IpAddress address) {
+		int node     = address.isIPv4() ? ROOT_IPV4 : ROOT_IPV6;
+		int bitCount = address.getBitCount();
+
+		for (int i = 0; node != NO_NODE; i++) {
+			if (isPrefixEnd[node]) {
+				return true;
+			}
+
+			if (i == bitCount) {
+				break;
+			}
+
+			node = address.getBit(i) ? oneChild[node] : zeroChild[node];
+		}
+
+		return false;
+	}
+
+	public boolean isEmpty() {
+		return prefixCount == 0;
+	}
+
+	public int getPrefixCount() {
+		return prefixCount;
+	}
+
+	private int newNode() {
+		if (nodeCount == isPrefixEnd.length) {
+			zeroChild   = Arrays.copyOf(zeroChild, nodeCount * 2);
+			oneChild    = Arrays.copyOf(oneChild, nodeCount * 2);
+			isPrefixEnd = Arrays.copyOf(isPrefixEnd, nodeCount * 2);
+		}
+
+		return nodeCount++;
+	}
+
+	/**
+	 * An IPv4 or IPv6 address parsed from its literal text form; host names are not resolved.
+	 */
+	public static class IpAddress {
+		private final String  text;
+		private final boolean isIPv4;
+		private final long    high; // IPv6: upper 64 bits; IPv4: 0
+		private final long    low;  // IPv6: lower 64 bits; IPv4: address in lower 32 bits
+
+		private IpAddress(String text, boolean isIPv4, long high, long low) {
+			this.text   = text;
+			this.isIPv4 = isIPv4;
+			this.high   = high;
+			this.low    = low;
+		}
+
+		public static IpAddress ipv4(long address) {
+			return new IpAddress(null, true, 0, address & 0xffffffffL);
+		}
+
+		public static IpAddress ipv6(long high, long low) {
+			return new IpAddress(null, false, high, low);
+		}
+
+		/**
+		 * @return parsed address; null if the text is not a valid IPv4 or IPv6 address literal
+		 */
+		public static IpAddress parse(String text) {
+			IpAddress ret = null;
+
+			if (text != null && !text.isEmpty()) {
+				if (text.indexOf(':') == -1) {
+					long ipv4 = parseIPv4(text, 0, text.length(), 4);
+
+					if (ipv4 != -1) {
+						ret = new IpAddress(text, true, 0, ipv4);
+					}
+				} else {
+					long[] ipv6 = parseIPv6(text);
+
+					if (ipv6 != null) {
+						ret = new IpAddress(text, false, ipv6[0], ipv6[1]);
+					}
+				}
+			}
+
+			return ret;
+		}
+
+		public String getText() {
+			return text;
+		}
+
+		public boolean isIPv4() {
+			return isIPv4;
+		}
+
+		public int getBitCount() {
+			return isIPv4 ? 32 : 128;
+		}
+
+		public boolean getBit(int idx) {
+			if (isIPv4) {
+				return ((low >>> (31 - idx)) & 1L) != 0;
+			} else if (idx < 64) {
+				return ((high >>> (63 - idx)) & 1L) != 0;
+			} else {
+				return ((low >>> (127 - idx)) & 1L) != 0;
+			}
+		}
+
+		@Override
+		public String toString() {
+			return text != null ? text : (isIPv4 ? Long.toString(low) : (Long.toHexString(high) + ":" + Long.toHexString(low)));
+		}
+
+		// returns the octets as an unsigned number; -1 if the text is not valid
+		private static long parseIPv4(String text, int beginIdx, int endIdx, int octetCount) {
+			long ret        = 0;
+			int  octets     = 0;
+			int  octetStart = beginIdx;
+
+			for (int i = beginIdx; i <= endIdx; i++) {
+				if (i == endIdx || text.charAt(i) == '.') {
+					int octetLen = i - octetStart;
+
+					if (octetLen < 1 || octetLen > 3 || (octetLen > 1 && text.charAt(octetStart) == '0')) { // no leading zeros
+						return -1;
+					}
+
+					int octet = 0;
+
+					for (int j = octetStart; j < i; j++) {
+						char c = text.charAt(j);
+
+						if (c < '0' || c > '9') {
+							return -1;
+						}
+
+						octet = octet * 10 + (c - '0');
+					}
+
+					if (octet > 255 || ++octets > octetCount) {
+						return -1;
+					}
+
+					ret        = (ret << 8) | octet;
+					octetStart = i + 1;
+				}
+			}
+
+			return octets == octetCount ? ret : -1;
+		}
+
+		private static long[] parseIPv6(String text) {
+			int    compressIdx = text.indexOf("::");
+			int    embeddedIdx = text.indexOf('.') != -1 ? text.lastIndexOf(':') + 1 : -1; // trailing IPv4, like ::ffff:10.20.30.40
+			int    hexEndIdx   = embeddedIdx != -1 ? embeddedIdx - 1 : text.length();
+			long   embedded    = -1;
+			int[]  head;
+			int[]  tail;
+
+			if (embeddedIdx != -1) {
+				embedded = parseIPv4(text, embeddedIdx, text.length(), 4);
+
+				if (embedded == -1) {
+					return null;
+				}
+			}
+
+			if (compressIdx == -1) {
+				head = parseHexGroups(text, 0, hexEndIdx);
+				tail = new int[0];
+			} else {
+				if (text.indexOf("::", compressIdx + 1) != -1) {
+					return null;
+				}
+
+				head = compressIdx == 0 ? new int[0] : parseHexGroups(text, 0, compressIdx);
+
+				int tailStart = compressIdx + 2;
+
+				if (embeddedIdx != -1 && tailStart == embeddedIdx) {
+					tail = new int[0];
+				} else {
+					tail = tailStart >= hexEndIdx ? new int[0] : parseHexGroups(text, tailStart, hexEndIdx);
+				}
+			}
+
+			if (head == null || tail == null) {
+				return null;
+			}
+
+			int totalGroups = embedded != -1 ? 6 : 8;
+			int usedGroups  = head.length + tail.length;
+
+			if (compressIdx == -1 ? usedGroups != totalGroups : usedGroups >= totalGroups) {
+				return null;
+			}
+
+			int[] groups = new int[8];
+
+			System.arraycopy(head, 0, groups, 0, head.length);
+			System.arraycopy(tail, 0, groups, totalGroups - tail.length, tail.length);
+
+			if (embedded != -1) {
+				groups[6] = (int) (embedded >>> 16);
+				groups[7] = (int) (embedded & 0xffff);
+			}
+
+			return toLongs(groups);
+		}
+
+		private static int[] parseHexGroups(String text, int beginIdx, int endIdx) {
+			int count = 1;
+
+			for (int i = beginIdx; i < endIdx; i++) {
+				if (text.charAt(i) == ':') {
+					count++;
+				}
+			}
+
+			if (count > 8) {
+				return null;
+			}
+
+			int[] ret        = new int[count];
+			int   idx        = 0;
+			int   groupStart = beginIdx;
+
+			for (int i = beginIdx; i <= endIdx; i++) {
+				if (i == endIdx || text.charAt(i) == ':') {
+					int groupLen = i - groupStart;
+
+					if (groupLen < 1 || groupLen > 4) {
+						return null;
+					}
+
+					int group = 0;
+
+					for (int j = groupStart; j < i; j++) {
+						int digit = Character.digit(text.charAt(j), 16);
+
+						if (digit == -1) {
+							return null;
+						}
+
+						group = (group << 4) | digit;
+					}
+
+					ret[idx++] = group;
+					groupStart = i + 1;
+				}
+			}
+
+			return ret;
+		}
+
+		private static long[] toLongs(int[] groups) {
+			long high = 0;
+			long low  = 0;
+
+			for (int i = 0; i < groups.length; i++) {
+				high = (high << 16) | (low >>> 48);
+				low  = (low << 16) | groups[i];
+			}
+
+			return new long[] { high, low };
+		}
+	}
+}
@@ -62,6 +62,7 @@ import com.sun.jersey.api.client.ClientResponse;
 import com.sun.jersey.api.client.WebResource;
 import com.sun.jersey.api.client.config.ClientConfig;
 import com.sun.jersey.api.client.config.DefaultClientConfig;
+import com.sun.jersey.api.client.filter.GZIPContentEncodingFilter;
 import com.sun.jersey.api.client.filter.HTTPBasicAuthFilter;
 import com.sun.jersey.client.urlconnection.HTTPSProperties;
 
@@ -223,6 +224,9 @@ public class RangerRESTClient {
 			client.addFilter(new HTTPBasicAuthFilter(mUsername, mPassword));
 		}
 
+		// accept gzip encoded responses - like policies downloaded from Ranger Admin; request entities are not compressed
+		client.addFilter(new GZIPContentEncodingFilter(false));
+
 		// Set Connection Timeout and ReadTime for the PolicyRefresh
 		client.setConnectTimeout(mRestClientConnTimeOutMs);
 		client.setReadTimeout(mRestClientReadTimeOutMs);
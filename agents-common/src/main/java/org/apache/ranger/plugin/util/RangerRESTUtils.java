@@ -59,6 +59,9 @@ public class RangerRESTUtils {
 	public static final String REST_URL_SERVICE_SERCURE_GET_USER_GROUP_ROLES = "/service/roles/secure/download/";
 	public static final String REST_URL_SERVICE_GET_USER_GROUP_ROLES         = "/service/roles/download/";
 
+	public static final String REST_URL_SERVICE_GET_USERSTORE         = "/service/xusers/download/";
+	public static final String REST_URL_SERVICE_SERCURE_GET_USERSTORE = "/service/xusers/secure/download/";
+
 	public static final String REST_URL_GET_SERVICE_TAGS_IF_UPDATED = "/service/tags/download/";
 	public static final String REST_URL_GET_SECURE_SERVICE_TAGS_IF_UPDATED = "/service/tags/secure/download/";
 	public static final String SERVICE_NAME_PARAM = "serviceName";
@@ -75,6 +78,7 @@ public class RangerRESTUtils {
 	public static final String REST_PARAM_PLUGIN_ID                 = "pluginId";
 
 	public static final String REST_PARAM_LAST_KNOWN_ROLE_VERSION = "lastKnownRoleVersion";
+	public static final String REST_PARAM_LAST_KNOWN_USERSTORE_VERSION = "lastKnownUserStoreVersion";
 
 	private static final int MAX_PLUGIN_ID_LEN = 255;
 	
@@ -33,6 +33,7 @@ import org.apache.ranger.plugin.resourcematcher.RangerAbstractResourceMatcher;
 import org.apache.ranger.plugin.resourcematcher.RangerResourceMatcher;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -202,7 +203,7 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
         }
         if (!isRemoved) {
             for (String value : resource.getValues()) {
-                TrieNode<T> node = getNodeForResource(value);
+                TrieNode<T> node = getMutableNodeForResource(value);
                 if (node != null) {
                     node.removeEvaluatorFromSubtree(evaluator);
                 }
@@ -218,8 +219,16 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
     }
 
     public void wrapUpUpdate() {
-        if (root != null) {
-            root.wrapUpUpdate(comparator);
+        if (root != null && isOptimizedForRetrieval) {
+            RangerPerfTracer postSetupPerf = null;
+
+            if (RangerPerfTracer.isPerfTraceEnabled(PERF_TRIE_INIT_LOG)) {
+                postSetupPerf = RangerPerfTracer.getPerfTracer(PERF_TRIE_INIT_LOG, "RangerResourceTrie.init(name=" + resourceDef.getName() + "-postSetup)");
+            }
+
+            root.postSetup(null, comparator, new HashMap<>());
+
+            RangerPerfTracer.logAlways(postSetupPerf);
         }
     }
 
@@ -243,19 +252,13 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
         boolean ret = StringUtils.equals(me.getStr(), other.getStr());
 
         if (ret) {
-            Map<Character, TrieNode<T>> myChildren = me.getChildren();
-            Map<Character, TrieNode<T>> otherChildren = other.getChildren();
-
-            ret = myChildren.size() == otherChildren.size() &&
+            ret = me.getChildCount() == other.getChildCount() &&
                     compareLists(me.getEvaluators(), other.getEvaluators()) &&
-                    compareLists(me.getWildcardEvaluators(), other.getWildcardEvaluators()) &&
-                    myChildren.keySet().size() == otherChildren.keySet().size();
+                    compareLists(me.getWildcardEvaluators(), other.getWildcardEvaluators());
             if (ret) {
                 // Check if subtrees match
-                for (Map.Entry<Character, TrieNode<T>> entry : myChildren.entrySet()) {
-                    Character c = entry.getKey();
-                    TrieNode<T> myNode = entry.getValue();
-                    TrieNode<T> otherNode = otherChildren.get(c);
+                for (TrieNode<T> myNode : me.getChildren()) {
+                    TrieNode<T> otherNode = other.getChild(getLookupChar(myNode.getStr(), 0));
                     ret = otherNode != null && compareSubtree(myNode, otherNode, misMatched);
                     if (!ret) {
                         break;
@@ -299,58 +302,6 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
         return me.size() == CollectionUtils.intersection(me, other).size();
     }
 
-    private TrieNode<T> copyTrieSubtree(final TrieNode<T> source, final TrieNode<T> parent) {
-        if (TRACE_LOG.isTraceEnabled()) {
-            StringBuilder sb = new StringBuilder();
-            source.toString(sb);
-            TRACE_LOG.trace("==> copyTrieSubtree(" + sb + ")");
-        }
-        TrieNode<T> dest = new TrieNode<>(source.str);
-        dest.setParent(parent);
-
-        synchronized (source.children) {
-            dest.isSetup = source.isSetup;
-            dest.isSharingParentWildcardEvaluators = source.isSharingParentWildcardEvaluators;
-
-            if (source.isSharingParentWildcardEvaluators) {
-                if (dest.getParent() != null) {
-                    dest.wildcardEvaluators = dest.getParent().getWildcardEvaluators();
-                } else {
-                    dest.wildcardEvaluators = null;
-                }
-            } else {
-                if (source.wildcardEvaluators != null) {
-                    dest.wildcardEvaluators = new ArrayList<>(source.wildcardEvaluators);
-                } else {
-                    dest.wildcardEvaluators = null;
-                }
-            }
-            if (source.evaluators != null) {
-                if (source.evaluators == source.wildcardEvaluators) {
-                    dest.evaluators = dest.wildcardEvaluators;
-                } else {
-                    dest.evaluators = new ArrayList<>(source.evaluators);
-                }
-            } else {
-                dest.evaluators = null;
-            }
-        }
-
-        Map<Character, TrieNode<T>> children = source.getChildren();
-        for (Map.Entry<Character, TrieNode<T>> entry : children.entrySet()) {
-            copyTrieSubtree(entry.getValue(), dest);
-        }
-
-        if (TRACE_LOG.isTraceEnabled()) {
-            StringBuilder sourceAsString = new StringBuilder(), destAsString = new StringBuilder();
-            source.toString(sourceAsString);
-            dest.toString(destAsString);
-
-            TRACE_LOG.trace("<== copyTrieSubtree(" + sourceAsString + ") : " + destAsString);
-        }
-        return dest;
-    }
-
     public RangerResourceTrie(RangerResourceTrie<T> other) {
         RangerPerfTracer perf = null;
 
@@ -358,13 +309,19 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
             perf = RangerPerfTracer.getPerfTracer(PERF_TRIE_INIT_LOG, "RangerResourceTrie.copyTrie(name=" + other.resourceDef.getName() + ")");
         }
 
+        if (!other.isOptimizedForRetrieval) {
+            // nodes shared with other must not be set up (i.e. updated) anymore, as their evaluators lists would then depend on
+            // which trie the node was accessed through; so complete the set up of all nodes before sharing them
+            other.setupSubtree(other.root, null);
+        }
+
         this.resourceDef = other.resourceDef;
         this.optIgnoreCase = other.optIgnoreCase;
         this.optWildcard = other.optWildcard;
         this.wildcardChars = other.wildcardChars;
         this.comparator = other.comparator;
-        this.isOptimizedForRetrieval = false;
-        this.root = copyTrieSubtree(other.root, null);
+        this.isOptimizedForRetrieval = true;
+        this.root = other.root.copy(null, new Object());
 
         RangerPerfTracer.logAlways(perf);
 
@@ -389,7 +346,7 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
             perf = RangerPerfTracer.getPerfTracer(PERF_TRIE_INIT_LOG, "RangerResourceTrie.init(resourceDef=" + resourceDef.getName() + ")");
         }
 
-        TrieNode<T>                           ret                 = new TrieNode<>(null);
+        TrieNode<T>                           ret                 = new TrieNode<>(null, new Object());
         final boolean                         isMultiThreaded = builderThreadCount > 1;
         final List<ResourceTrieBuilderThread> builderThreads;
         final Map<Character, Integer>         builderThreadMap;
@@ -399,7 +356,7 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
         if (isMultiThreaded) {
             builderThreads = new ArrayList<>();
             for (int i = 0; i < builderThreadCount; i++) {
-                ResourceTrieBuilderThread t = new ResourceTrieBuilderThread();
+                ResourceTrieBuilderThread t = new ResourceTrieBuilderThread(ret);
                 t.setDaemon(true);
                 builderThreads.add(t);
                 t.start();
@@ -463,7 +420,9 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
                         t.add("", false, null);
                         // Wait for threads to finish work
                         t.join();
-                        ret.getChildren().putAll(t.getSubtrees());
+                        for (TrieNode<T> subtree : t.getSubtrees()) {
+                            addChild(ret, subtree);
+                        }
                     } catch (InterruptedException ex) {
                         LOG.error("BuilderThread " + t + " was interrupted:", ex);
                         LOG.error("Failing and retrying with one thread");
@@ -504,7 +463,7 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
     private TrieData getTrieData() {
         TrieData ret = new TrieData();
 
-        root.populateTrieData(ret);
+        root.populateTrieData(ret, root.owner);
         ret.maxDepth = getMaxDepth();
 
         return ret;
@@ -514,11 +473,11 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
         return root.getMaxDepth();
     }
 
-    private Character getLookupChar(char ch) {
+    private char getLookupChar(char ch) {
         return optIgnoreCase ? Character.toLowerCase(ch) : ch;
     }
 
-    private Character getLookupChar(String str, int index) {
+    private char getLookupChar(String str, int index) {
         return getLookupChar(str.charAt(index));
     }
 
@@ -550,7 +509,7 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
         final boolean isWildcard = prefix.length() != resource.length();
 
         if (StringUtils.isNotEmpty(prefix)) {
-            curr = curr.getOrCreateChild(prefix);
+            curr = getOrCreateChild(curr, prefix);
         }
 
         if(isWildcard || isRecursive) {
@@ -562,6 +521,83 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
         return curr;
     }
 
+    private TrieNode<T> getOrCreateChild(TrieNode<T> node, String str) {
+        int len = str.length();
+
+        int         childIndex = node.getChildIndex(getLookupChar(str, 0));
+        TrieNode<T> child;
+
+        if (childIndex < 0) {
+            child = new TrieNode<>(str, node.owner);
+            addChild(node, child);
+        } else {
+            child = node.getMutableChild(childIndex);
+
+            final String childStr = child.getStr();
+            final int childStrLen = childStr.length();
+
+            final boolean isExactMatch = optIgnoreCase ? StringUtils.equalsIgnoreCase(childStr, str) : StringUtils.equals(childStr, str);
+
+            if (!isExactMatch) {
+                final int numOfCharactersToMatch = Math.min(childStrLen, len);
+                int index = 1;
+                for (; index < numOfCharactersToMatch; index++) {
+                    if (getLookupChar(childStr, index) != getLookupChar(str, index)) {
+                        break;
+                    }
+                }
+                if (index == numOfCharactersToMatch) {
+                    // Matched all
+                    if (childStrLen > len) {
+                        // Existing node has longer string, need to break up this node
+                        TrieNode<T> newChild = createIntermediateNode(node, str);
+                        child.setStr(childStr.substring(index));
+                        addChild(newChild, child);
+                        child = newChild;
+                    } else {
+                        // This is a longer string, build a child with leftover string
+                        child = getOrCreateChild(child, str.substring(index));
+                    }
+                } else {
+                    // Partial match for both; both have leftovers
+                    String matchedPart = str.substring(0, index);
+                    TrieNode<T> newChild = createIntermediateNode(node, matchedPart);
+                    child.setStr(childStr.substring(index));
+                    addChild(newChild, child);
+                    child = getOrCreateChild(newChild, str.substring(index));
+                }
+            }
+        }
+
+        return child;
+    }
+
+    private TrieNode<T> createIntermediateNode(TrieNode<T> parent, String str) {
+        TrieNode<T> ret = new TrieNode<>(str, parent.owner);
+
+        addChild(parent, ret);
+
+        // the node being split is set up when parent is; keep an intermediate node set up as well, so that undoSetup()
+        // of the parent reaches the split node
+        if (parent.isSetup) {
+            ret.setup(parent.getWildcardEvaluators(), comparator);
+        }
+
+        return ret;
+    }
+
+    private void addChild(TrieNode<T> parent, TrieNode<T> child) {
+        parent.addChild(getLookupChar(child.getStr(), 0), child);
+    }
+
+    private void setupSubtree(TrieNode<T> node, TrieNode<T> parent) {
+        node.setupIfNeeded(parent, comparator);
+
+        for (TrieNode<T> child : node.getChildren()) {
+            setupSubtree(child, node);
+        }
+    }
+
     private String getNonWildcardPrefix(String str) {
 
         int minIndex = str.length();
@@ -630,15 +666,18 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
         return ret;
     }
 
-    private TrieNode<T> getNodeForResource(String resource) {
+    /*
+     * returns the node for the given resource, after replacing nodes shared with other tries in the path with copies
+     */
+    private TrieNode<T> getMutableNodeForResource(String resource) {
         if(LOG.isDebugEnabled()) {
-            LOG.debug("==> RangerResourceTrie.getNodeForResource(" + resource + ")");
+            LOG.debug("==> RangerResourceTrie.getMutableNodeForResource(" + resource + ")");
         }
 
         RangerPerfTracer perf = null;
 
         if(RangerPerfTracer.isPerfTraceEnabled(PERF_TRIE_OP_LOG)) {
-            perf = RangerPerfTracer.getPerfTracer(PERF_TRIE_OP_LOG, "RangerResourceTrie.getNodeForResource(resource=" + resource + ")");
+            perf = RangerPerfTracer.getPerfTracer(PERF_TRIE_OP_LOG, "RangerResourceTrie.getMutableNodeForResource(resource=" + resource + ")");
         }
 
         TrieNode<T> curr   = root;
@@ -647,26 +686,26 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
 
         while (i < len) {
 
-            final TrieNode<T> child = curr.getChild(getLookupChar(resource, i));
+            final int childIndex = curr.getChildIndex(getLookupChar(resource, i));
 
-            if (child == null) {
+            if (childIndex < 0) {
                 break;
             }
 
-            final String childStr = child.getStr();
+            final String childStr = curr.getChildAt(childIndex).getStr();
 
             if (!resource.regionMatches(optIgnoreCase, i, childStr, 0, childStr.length())) {
                 break;
             }
 
-            curr = child;
+            curr = curr.getMutableChild(childIndex);
             i += childStr.length();
         }
 
         RangerPerfTracer.logAlways(perf);
 
         if(LOG.isDebugEnabled()) {
-            LOG.debug("<== RangerResourceTrie.getNodeForResource(" + resource + ")");
+            LOG.debug("<== RangerResourceTrie.getMutableNodeForResource(" + resource + ")");
         }
 
         return curr;
@@ -741,6 +780,9 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
         sb.append("; wildcardEvaluatorListCount=").append(trieData.wildcardEvaluatorListCount);
         sb.append("; evaluatorListRefCount=").append(trieData.evaluatorListRefCount);
         sb.append("; wildcardEvaluatorListRefCount=").append(trieData.wildcardEvaluatorListRefCount);
+        sb.append("; sharedEvaluatorListRefCount=").append(trieData.sharedEvaluatorListRefCount);
+        sb.append("; childRefCount=").append(trieData.childRefCount);
+        sb.append("; sharedNodeCount=").append(trieData.sharedNodeCount);
 
         return sb.toString();
     }
@@ -766,17 +808,19 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
             }
         }
 
-        private final   TrieNode<T>             thisRoot  = new TrieNode<>(null);
+        private final   TrieNode<T>             thisRoot;
         private final   BlockingQueue<WorkItem> workQueue = new LinkedBlockingQueue<>();
 
-        ResourceTrieBuilderThread() {
+        ResourceTrieBuilderThread(TrieNode<T> root) {
+            // subtrees built by this thread will be added to root, hence must be owned by the same trie
+            thisRoot = new TrieNode<>(null, root.owner);
         }
 
         void add(String resourceName, boolean isRecursive, T evaluator) throws InterruptedException {
             workQueue.put(new WorkItem(resourceName, isRecursive, evaluator));
         }
 
-        Map<Character, TrieNode<T>> getSubtrees() { return thisRoot.getChildren(); }
+        List<TrieNode<T>> getSubtrees() { return thisRoot.getChildren(); }
 
         @Override
         public void run() {
@@ -820,19 +864,71 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
         int wildcardEvaluatorListCount;
         int evaluatorListRefCount;
         int wildcardEvaluatorListRefCount;
+        int sharedEvaluatorListRefCount;
+        int childRefCount;
+        int sharedNodeCount;
     }
 
-    private class TrieNode<U extends T> {
-        private          String                      str;
-        private          TrieNode<U>                 parent;
-        private final    Map<Character, TrieNode<U>> children = new HashMap<>();
-        private          List<U>                     evaluators;
-        private          List<U>                     wildcardEvaluators;
-        private          boolean                     isSharingParentWildcardEvaluators;
-        private volatile boolean                     isSetup = false;
+    private static final char[]   EMPTY_CHILD_KEYS  = new char[0];
+    private static final Object[] EMPTY_CHILD_NODES = new Object[0];
+
+    /*
+     * Children are kept in two parallel arrays, sorted by the lookup-char of the child's string; as the number of
+     * children of a node is small (most nodes have none or one), this is far more compact than a map and a lookup
+     * needs neither boxing of the char nor hashing.
+     *
+     * A trie created by the copy-constructor shares all nodes with the source trie; only the nodes in the path to an
+     * update are copied (see getMutableChild()), so that the source trie remains unchanged and usable by its readers.
+     * A node is updated in place only by the trie that owns it.
+     */
+    private static class TrieNode<U extends RangerPolicyResourceEvaluator> {
+        private final    Object      owner;
+        private          String      str;
+        private          TrieNode<U> parent;
+        private          char[]      childKeys  = EMPTY_CHILD_KEYS;
+        private          Object[]    childNodes = EMPTY_CHILD_NODES;
+        private          List<U>     evaluators;
+        private          List<U>     wildcardEvaluators;
+        private          boolean     isSharingParentWildcardEvaluators;
+        private          boolean     isSharingEvaluators; // evaluators list is interned, hence shared with other nodes; copy before updating
+        private volatile boolean     isSetup = false;
+
+        TrieNode(String str, Object owner) {
+            this.str   = str;
+            this.owner = owner;
+        }
+
+        /*
+         * returns a copy, owned by the given owner, that shares the children of this node
+         */
+        TrieNode<U> copy(TrieNode<U> parent, Object owner) {
+            TrieNode<U> ret = new TrieNode<>(str, owner);
+
+            ret.parent = parent;
+
+            synchronized (this) {
+                ret.childKeys                         = childKeys; // never updated in place
+                ret.childNodes                        = childNodes.length == 0 ? EMPTY_CHILD_NODES : childNodes.clone();
+                ret.isSetup                           = isSetup;
+                ret.isSharingParentWildcardEvaluators = isSharingParentWildcardEvaluators;
 
-        TrieNode(String str) {
-            this.str = str;
+                if (isSharingParentWildcardEvaluators) {
+                    ret.wildcardEvaluators = parent != null ? parent.getWildcardEvaluators() : null;
+                } else if (wildcardEvaluators != null) {
+                    ret.wildcardEvaluators = new ArrayList<>(wildcardEvaluators);
+                }
+
+                if (evaluators != null) {
+                    if (evaluators == wildcardEvaluators) {
+                        ret.evaluators = ret.wildcardEvaluators;
+                    } else {
+                        ret.evaluators          = evaluators;
+                        ret.isSharingEvaluators = true;
+                    }
+                }
+            }
+
+            return ret;
         }
 
         String getStr() {
@@ -851,8 +947,13 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
             this.parent = parent;
         }
 
-        Map<Character, TrieNode<U>> getChildren() {
-            return children;
+        @SuppressWarnings("unchecked")
+        List<TrieNode<U>> getChildren() {
+            return (List<TrieNode<U>>) (List<?>) Arrays.asList(childNodes);
+        }
+
+        int getChildCount() {
+            return childKeys.length;
         }
 
         List<U> getEvaluators() {
@@ -863,13 +964,46 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
             return wildcardEvaluators;
         }
 
-        TrieNode<U> getChild(Character ch) {
-            return children.get(ch);
+        @SuppressWarnings("unchecked")
+        TrieNode<U> getChild(char ch) {
+            final char[]   keys  = childKeys;
+            final Object[] nodes = childNodes;
+            final int      index = keys.length == 1 ? (keys[0] == ch ? 0 : -1) : Arrays.binarySearch(keys, ch);
+
+            return index >= 0 ? (TrieNode<U>) nodes[index] : null;
+        }
+
+        int getChildIndex(char ch) {
+            return Arrays.binarySearch(childKeys, ch);
         }
 
-        void populateTrieData(RangerResourceTrie.TrieData trieData) {
+        @SuppressWarnings("unchecked")
+        TrieNode<U> getChildAt(int index) {
+            return (TrieNode<U>) childNodes[index];
+        }
+
+        /*
+         * returns the child at given index, after replacing it with a copy owned by this node's owner if it is not already
+         */
+        TrieNode<U> getMutableChild(int index) {
+            TrieNode<U> child = getChildAt(index);
+
+            if (child.owner != owner) {
+                child = child.copy(this, owner);
+
+                childNodes[index] = child;
+            }
+
+            return child;
+        }
+
+        void populateTrieData(RangerResourceTrie.TrieData trieData, Object trieOwner) {
             trieData.nodeCount++;
 
+            if (owner != trieOwner) {
+                trieData.sharedNodeCount++;
+            }
+
             if (wildcardEvaluators != null) {
                 if (isSharingParentWildcardEvaluators) {
                     trieData.wildcardEvaluatorListRefCount++;
@@ -881,20 +1015,22 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
             if (evaluators != null) {
                 if (evaluators == wildcardEvaluators) {
                     trieData.evaluatorListRefCount++;
+                } else if (isSharingEvaluators) {
+                    trieData.sharedEvaluatorListRefCount++;
                 } else {
                     trieData.evaluatorListCount++;
                 }
             }
 
-            if (!children.isEmpty()) {
-                if (children.size() == 1) {
+            if (childKeys.length > 0) {
+                if (childKeys.length == 1) {
                     trieData.singleChildNodeCount++;
                 }
 
-                for (Map.Entry<Character, TrieNode<U>> entry : children.entrySet()) {
-                    TrieNode child = entry.getValue();
+                trieData.childRefCount += childKeys.length;
 
-                    child.populateTrieData(trieData);
+                for (TrieNode<U> child : getChildren()) {
+                    child.populateTrieData(trieData, trieOwner);
                 }
             } else {
                 trieData.leafNodeCount++;
@@ -904,9 +1040,7 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
         int getMaxDepth() {
             int ret = 0;
 
-            for (Map.Entry<Character, TrieNode<U>> entry : children.entrySet()) {
-                TrieNode<U> child = entry.getValue();
-
+            for (TrieNode<U> child : getChildren()) {
                 int maxChildDepth = child.getMaxDepth();
 
                 if (maxChildDepth > ret) {
@@ -917,64 +1051,50 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
             return ret + 1;
         }
 
-        TrieNode<U> getOrCreateChild(String str) {
-            int len = str.length();
-
-            TrieNode<U> child = children.get(getLookupChar(str, 0));
+        void addChild(char ch, TrieNode<U> child) {
+            final int index = Arrays.binarySearch(childKeys, ch);
 
-            if (child == null) {
-                child = new TrieNode<>(str);
-                addChild(child);
+            if (index >= 0) {
+                childNodes[index] = child;
             } else {
-                final String childStr = child.getStr();
-                final int childStrLen = childStr.length();
+                final int      insertAt = -(index + 1);
+                final int      count    = childKeys.length;
+                final char[]   keys     = new char[count + 1];
+                final Object[] nodes    = new Object[count + 1];
 
-                final boolean isExactMatch = optIgnoreCase ? StringUtils.equalsIgnoreCase(childStr, str) : StringUtils.equals(childStr, str);
+                System.arraycopy(childKeys, 0, keys, 0, insertAt);
+                System.arraycopy(childNodes, 0, nodes, 0, insertAt);
 
-                if (!isExactMatch) {
-                    final int numOfCharactersToMatch = Math.min(childStrLen, len);
-                    int index = 1;
-                    for (; index < numOfCharactersToMatch; index++) {
-                        if (getLookupChar(childStr, index) != getLookupChar(str, index)) {
-                            break;
-                        }
-                    }
-                    if (index == numOfCharactersToMatch) {
-                        // Matched all
-                        if (childStrLen > len) {
-                            // Existing node has longer string, need to break up this node
-                            TrieNode<U> newChild = new TrieNode<>(str);
-                            this.addChild(newChild);
-                            child.setStr(childStr.substring(index));
-                            newChild.addChild(child);
-                            child = newChild;
-                        } else {
-                            // This is a longer string, build a child with leftover string
-                            child = child.getOrCreateChild(str.substring(index));
-                        }
-                    } else {
-                        // Partial match for both; both have leftovers
-                        String matchedPart = str.substring(0, index);
-                        TrieNode<U> newChild = new TrieNode<>(matchedPart);
-                        this.addChild(newChild);
-                        child.setStr(childStr.substring(index));
-                        newChild.addChild(child);
-                        child = newChild.getOrCreateChild(str.substring(index));
-                    }
-                }
+                keys[insertAt]  = ch;
+                nodes[insertAt] = child;
+
+                System.arraycopy(childKeys, insertAt, keys, insertAt + 1, count - insertAt);
+                System.arraycopy(childNodes, insertAt, nodes, insertAt + 1, count - insertAt);
+
+                childNodes = nodes;
+                childKeys  = keys;
             }
 
-            return child;
+            child.setParent(this);
         }
 
-        private void addChild(TrieNode<U> child) {
-            children.put(getLookupChar(child.getStr(), 0), child);
-            child.setParent(this);
+        private void unshareEvaluators() {
+            if (isSharingEvaluators) {
+                if (evaluators != null) {
+                    evaluators = new ArrayList<>(evaluators);
+                }
+
+                isSharingEvaluators = false;
+            }
         }
 
         void addEvaluator(U evaluator) {
+            unshareEvaluators();
+
             if (evaluators == null) {
                 evaluators = new ArrayList<>();
+            } else if (evaluators == wildcardEvaluators) {
+                evaluators = new ArrayList<>(wildcardEvaluators);
             }
 
             if (!evaluators.contains(evaluator)) {
@@ -995,6 +1115,7 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
 
         void removeEvaluator(U evaluator) {
             if (CollectionUtils.isNotEmpty(evaluators) && evaluators.contains(evaluator)) {
+                unshareEvaluators();
                 evaluators.remove(evaluator);
                 if (CollectionUtils.isEmpty(evaluators)) {
                     evaluators = null;
@@ -1017,16 +1138,20 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
 
         void undoSetup() {
             if (isSetup) {
-                if (evaluators != null) {
-
-                    for (TrieNode<U> child : children.values()) {
-                        child.undoSetup();
+                // evaluators of children include wildcard-evaluators of this node
+                for (int i = 0; i < childNodes.length; i++) {
+                    if (getChildAt(i).isSetup) {
+                        getMutableChild(i).undoSetup();
                     }
+                }
 
+                if (evaluators != null) {
                     if (evaluators == wildcardEvaluators) {
                         evaluators = null;
                     } else {
                         if (wildcardEvaluators != null) {
+                            unshareEvaluators();
+
                             evaluators.removeAll(wildcardEvaluators);
 
                             if (CollectionUtils.isEmpty(evaluators)) {
@@ -1054,28 +1179,25 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
             }
         }
 
-        void wrapUpUpdate(Comparator<U> comparator) {
-            if (isOptimizedForRetrieval) {
-                RangerPerfTracer postSetupPerf = null;
-
-                if (RangerPerfTracer.isPerfTraceEnabled(PERF_TRIE_INIT_LOG)) {
-                    postSetupPerf = RangerPerfTracer.getPerfTracer(PERF_TRIE_INIT_LOG, "RangerResourceTrie.init(name=" + resourceDef.getName() + "-postSetup)");
-                }
+        void postSetup(List<U> parentWildcardEvaluators, Comparator<U> comparator, Map<List<U>, List<U>> sharedEvaluators) {
 
-                postSetup(null, comparator);
-
-                RangerPerfTracer.logAlways(postSetupPerf);
-            }
-        }
+            setup(parentWildcardEvaluators, comparator);
 
-        void postSetup(List<U> parentWildcardEvaluators, Comparator<U> comparator) {
+            // nodes for resources listed in the same policies end up with identical evaluators lists; keep only one copy
+            if (evaluators != null && evaluators != wildcardEvaluators && !isSharingEvaluators) {
+                List<U> sharedList = sharedEvaluators.putIfAbsent(evaluators, evaluators);
 
-            setup(parentWildcardEvaluators, comparator);
+                if (sharedList != null) {
+                    evaluators = sharedList;
+                }
 
-            for (Map.Entry<Character, TrieNode<U>> entry : children.entrySet()) {
-                TrieNode<U> child = entry.getValue();
+                isSharingEvaluators = true;
+            }
 
-                child.postSetup(wildcardEvaluators, comparator);
+            for (TrieNode<U> child : getChildren()) {
+                if (child.owner == owner) { // nodes shared with other tries are already set up
+                    child.postSetup(wildcardEvaluators, comparator, sharedEvaluators);
+                }
             }
 
         }
@@ -1085,7 +1207,7 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
             boolean setupNeeded = !isSetup;
 
             if (setupNeeded) {
-                synchronized (this.children) {
+                synchronized (this) {
                     setupNeeded = !isSetup;
 
                     if (setupNeeded) {
@@ -1134,8 +1256,10 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
 
         private void removeEvaluatorFromSubtree(U evaluator) {
             if (removeWildcardEvaluator(evaluator)) {
-                for (Map.Entry<Character, TrieNode<U>> entry : children.entrySet()) {
-                    entry.getValue().removeEvaluatorFromSubtree(evaluator);
+                for (int i = 0; i < childNodes.length; i++) {
+                    if (getChildAt(i).hasEvaluator(evaluator)) {
+                        getMutableChild(i).removeEvaluatorFromSubtree(evaluator);
+                    }
                 }
             }
 
@@ -1143,13 +1267,17 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
 
         }
 
+        private boolean hasEvaluator(U evaluator) {
+            return (wildcardEvaluators != null && wildcardEvaluators.contains(evaluator)) || (evaluators != null && evaluators.contains(evaluator));
+        }
+
         private void sortEvaluators(Comparator<U> comparator) {
             if (isSetup && comparator != null) {
                 if (!isSharingParentWildcardEvaluators && CollectionUtils.isNotEmpty(wildcardEvaluators)) {
                     wildcardEvaluators.sort(comparator);
                 }
 
-                if (evaluators != wildcardEvaluators && CollectionUtils.isNotEmpty(evaluators)) {
+                if (evaluators != wildcardEvaluators && !isSharingEvaluators && CollectionUtils.isNotEmpty(evaluators)) {
                     evaluators.sort(comparator);
                 }
             }
@@ -1161,7 +1289,7 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
             sb.append("nodeValue=").append(nodeValue);
             sb.append("; isSetup=").append(isSetup);
             sb.append("; isSharingParentWildcardEvaluators=").append(isSharingParentWildcardEvaluators);
-            sb.append("; childCount=").append(children.size());
+            sb.append("; childCount=").append(getChildCount());
             sb.append("; evaluators=[ ");
             if (evaluators != null) {
                 for (U evaluator : evaluators) {
@@ -1185,16 +1313,15 @@ public class RangerResourceTrie<T extends RangerPolicyResourceEvaluator> {
             toString(sb);
             sb.append("]\n");
 
-            for (Map.Entry<Character, TrieNode<U>> entry : children.entrySet()) {
-                TrieNode<U> child = entry.getValue();
-
+            for (TrieNode<U> child : getChildren()) {
                 child.toString(nodeValue, sb);
             }
 
         }
 
         public void clear() {
-            children.clear();
+            childKeys  = EMPTY_CHILD_KEYS;
+            childNodes = EMPTY_CHILD_NODES;
 
             evaluators         = null;
             wildcardEvaluators = null;
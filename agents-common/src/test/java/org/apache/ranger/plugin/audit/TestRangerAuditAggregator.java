@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.audit;
+
+import org.apache.ranger.audit.model.AuthzAuditEvent;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
+import org.apache.ranger.plugin.policyengine.RangerAccessResourceImpl;
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class TestRangerAuditAggregator {
+	private static final String SERVICE_NAME = "cl1_hive";
+
+	@Test
+	public void testAggregatesSameAccess() {
+		RangerAuditAggregator aggregator = new RangerAuditAggregator(SERVICE_NAME, 60 * 1000, 100);
+		CapturingAuditHandler handler    = new CapturingAuditHandler();
+
+		aggregator.add(handler, createResult("user1", "db1", "select", true, 1, 1000));
+		aggregator.add(handler, createResult("user1", "db1", "select", true, 1, 1250));
+		aggregator.add(handler, createResult("user1", "db1", "select", true, 1, 1400));
+		aggregator.add(handler, createResult("user1", "db1", "select", false, 2, 1500));
+		aggregator.add(handler, createResult("user2", "db1", "select", true, 1, 1600));
+
+		assertEquals(0, handler.events.size());
+
+		aggregator.flush();
+
+		assertEquals(3, handler.events.size());
+
+		long totalCount = 0;
+
+		for (AuthzAuditEvent event : handler.events) {
+			totalCount += event.getEventCount();
+
+			if ("user1".equals(event.getUser()) && event.getAccessResult() == 1) {
+				assertEquals(3, event.getEventCount());
+				assertEquals(400, event.getEventDurationMS());
+				assertEquals(1000, event.getEventTime().getTime());
+			} else {
+				assertEquals(1, event.getEventCount());
+				assertEquals(0, event.getEventDurationMS());
+			}
+		}
+
+		assertEquals(5, totalCount);
+
+		handler.events.clear();
+
+		aggregator.flush();
+
+		assertEquals(0, handler.events.size());
+	}
+
+	@Test
+	public void testFlushesWhenFull() {
+		RangerAuditAggregator aggregator = new RangerAuditAggregator(SERVICE_NAME, 60 * 1000, 16); // 1 entry per segment
+		CapturingAuditHandler handler    = new CapturingAuditHandler();
+
+		for (int i = 0; i < 100; i++) {
+			aggregator.add(handler, createResult("user" + i, "db1", "select", true, 1, 1000));
+		}
+
+		aggregator.flush();
+
+		assertEquals(100, handler.events.size());
+	}
+
+	@Test
+	public void testAggregatesSameEvent() {
+		RangerAuditAggregator aggregator = new RangerAuditAggregator(SERVICE_NAME, 60 * 1000, 100);
+		CapturingAuditHandler handler    = new CapturingAuditHandler();
+
+		aggregator.add(handler, createEvent("user1", "/db1/tbl1", "select", true, 1000));
+		aggregator.add(handler, createEvent("user1", "/db1/tbl1", "select", true, 1300));
+		aggregator.add(handler, createEvent("user1", "/db1/tbl1", "select", false, 1400));
+		aggregator.add(handler, createResult("user1", "db1", "select", true, 1, 1500));
+
+		aggregator.flush();
+
+		assertEquals(3, handler.events.size());
+
+		for (AuthzAuditEvent event : handler.events) {
+			if ("/db1/tbl1".equals(event.getResourcePath()) && event.getAccessResult() == 1) {
+				assertEquals(2, event.getEventCount());
+				assertEquals(300, event.getEventDurationMS());
+			} else {
+				assertEquals(1, event.getEventCount());
+			}
+		}
+	}
+
+	@Test
+	public void testKeyIncludesResultAndPolicy() {
+		long key = RangerAuditAggregator.computeKey(createResult("user1", "db1", "select", true, 1, 1000));
+
+		assertEquals(key, RangerAuditAggregator.computeKey(createResult("user1", "db1", "select", true, 1, 2000)));
+		assertNotEquals(key, RangerAuditAggregator.computeKey(createResult("user1", "db1", "select", false, 1, 1000)));
+		assertNotEquals(key, RangerAuditAggregator.computeKey(createResult("user1", "db1", "select", true, 2, 1000)));
+		assertNotEquals(key, RangerAuditAggregator.computeKey(createResult("user1", "db2", "select", true, 1, 1000)));
+		assertNotEquals(key, RangerAuditAggregator.computeKey(createResult("user1", "db1", "update", true, 1, 1000)));
+	}
+
+	private RangerAccessResult createResult(String user, String database, String accessType, boolean isAllowed, long policyId, long accessTime) {
+		Map<String, Object> elements = new HashMap<>();
+
+		elements.put("database", database);
+
+		RangerAccessRequestImpl request = new RangerAccessRequestImpl(new RangerAccessResourceImpl(elements), accessType, user, Collections.<String>emptySet());
+
+		request.setAccessTime(new Date(accessTime));
+
+		RangerAccessResult ret = new RangerAccessResult(RangerPolicy.POLICY_TYPE_ACCESS, SERVICE_NAME, null, request);
+
+		ret.setIsAudited(true);
+		ret.setIsAllowed(isAllowed);
+		ret.setPolicyId(policyId);
+
+		return ret;
+	}
+
+	private AuthzAuditEvent createEvent(String user, String resourcePath, String accessType, boolean isAllowed, long eventTime) {
+		AuthzAuditEvent ret = new AuthzAuditEvent();
+
+		ret.setRepositoryName(SERVICE_NAME);
+		ret.setUser(user);
+		ret.setResourcePath(resourcePath);
+		ret.setAccessType(accessType);
+		ret.setAccessResult((short) (isAllowed ? 1 : 0));
+		ret.setEventTime(new Date(eventTime));
+
+		return ret;
+	}
+
+	private static class CapturingAuditHandler extends RangerDefaultAuditHandler {
+		final List<AuthzAuditEvent> events = new ArrayList<>();
+
+		@Override
+		protected void writeAuthzAudit(AuthzAuditEvent auditEvent) {
+			events.add(auditEvent);
+		}
+	}
+}
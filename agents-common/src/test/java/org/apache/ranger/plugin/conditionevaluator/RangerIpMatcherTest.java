@@ -28,6 +28,9 @@ import java.util.List;
 
 import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemCondition;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
+import org.apache.ranger.plugin.util.RangerAccessRequestUtil;
+import org.apache.ranger.plugin.util.RangerIpAddressTrie;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -221,6 +224,64 @@ public class RangerIpMatcherTest {
 		Assert.assertFalse(ipMatcher.isMatched(createRequest("10.20.33.10")));
 	}
 	
+	@Test
+	public void test_cidr() {
+		RangerIpMatcher ipMatcher = createMatcher(new String[]{"10.0.0.0/8", "192.168.16.0/20", "172.16.5.4", "2001:db8::/32", "fe80::1"} );
+		Assert.assertTrue(ipMatcher.isMatched(createRequest("10.1.2.3")));
+		Assert.assertTrue(ipMatcher.isMatched(createRequest("10.255.255.255")));
+		Assert.assertTrue(ipMatcher.isMatched(createRequest("192.168.16.1")));
+		Assert.assertTrue(ipMatcher.isMatched(createRequest("192.168.31.255")));
+		Assert.assertTrue(ipMatcher.isMatched(createRequest("172.16.5.4")));
+		Assert.assertTrue(ipMatcher.isMatched(createRequest("2001:db8::1")));
+		Assert.assertTrue(ipMatcher.isMatched(createRequest("2001:DB8:FFFF:0:0:0:0:1")));
+		Assert.assertTrue(ipMatcher.isMatched(createRequest("fe80:0:0:0:0:0:0:1")));
+
+		Assert.assertFalse(ipMatcher.isMatched(createRequest("11.1.2.3")));
+		Assert.assertFalse(ipMatcher.isMatched(createRequest("192.168.32.1")));
+		Assert.assertFalse(ipMatcher.isMatched(createRequest("192.168.15.255")));
+		Assert.assertFalse(ipMatcher.isMatched(createRequest("172.16.5.5")));
+		Assert.assertFalse(ipMatcher.isMatched(createRequest("2001:db9::1")));
+		Assert.assertFalse(ipMatcher.isMatched(createRequest("fe80::2")));
+		Assert.assertFalse(ipMatcher.isMatched(createRequest("::ffff:10.1.2.3"))); // ipv4 policy doesn't match ipv6 address
+
+		// invalid CIDR values are matched literally
+		ipMatcher = createMatcher(new String[]{"10.0.0.0/33"} );
+		Assert.assertFalse(ipMatcher.isMatched(createRequest("10.0.0.0")));
+		Assert.assertTrue(ipMatcher.isMatched(createRequest("10.0.0.0/33")));
+	}
+
+	@Test
+	public void test_wildcardMatchesAddressNotText() {
+		// wildcards are matched against the address, hence compressed and zero-padded forms of ipv6 addresses match as well
+		RangerIpMatcher ipMatcher = createMatcher(new String[]{"a0:0:c0:*", "10.20.*"} );
+		Assert.assertTrue(ipMatcher.isMatched(createRequest("a0::c0:1:2:3:4:5")));
+		Assert.assertTrue(ipMatcher.isMatched(createRequest("00a0:0000:00c0::1")));
+		Assert.assertTrue(ipMatcher.isMatched(createRequest("10.20.0.1")));
+		Assert.assertFalse(ipMatcher.isMatched(createRequest("a0::1")));
+		Assert.assertFalse(ipMatcher.isMatched(createRequest("10.2.0.1")));
+	}
+
+	@Test
+	public void test_requestAddressCachedInContext() {
+		RangerIpMatcher         ipMatcher = createMatcher(new String[]{"10.0.0.0/8"} );
+		RangerAccessRequestImpl request   = new RangerAccessRequestImpl();
+
+		request.setClientIPAddress("10.1.2.3");
+
+		Assert.assertTrue(ipMatcher.isMatched(request));
+
+		RangerIpAddressTrie.IpAddress cached = RangerAccessRequestUtil.getClientIpAddressFromContext(request.getContext(), "10.1.2.3");
+
+		Assert.assertNotNull(cached);
+		Assert.assertTrue(ipMatcher.isMatched(request));
+		Assert.assertSame(cached, RangerAccessRequestUtil.getClientIpAddressFromContext(request.getContext(), "10.1.2.3"));
+
+		// cached address is not used for a different client address
+		request.setClientIPAddress("11.1.2.3");
+
+		Assert.assertFalse(ipMatcher.isMatched(request));
+	}
+
 	RangerIpMatcher createMatcher(String[] ipArray) {
 		RangerIpMatcher matcher = new RangerIpMatcher();
 
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.conditionevaluator;
+
+import java.io.Reader;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.SimpleBindings;
+
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemCondition;
+import org.apache.ranger.plugin.model.RangerServiceDef.RangerPolicyConditionDef;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
+import org.apache.ranger.plugin.policyengine.RangerAccessResourceImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RangerScriptConditionEvaluatorTest {
+	private static final String ENGINE_NAME = "rangerTestScript";
+
+	private static final AtomicInteger compileCount = new AtomicInteger();
+
+	@Test
+	public void testScriptStateIsNotSharedAcrossEvaluations() {
+		RangerScriptConditionEvaluator evaluator = createEvaluator();
+
+		compileCount.set(0);
+
+		evaluator.init();
+
+		RangerAccessRequestImpl request = new RangerAccessRequestImpl();
+
+		request.setResource(new RangerAccessResourceImpl(Collections.<String, Object>singletonMap("database", "db1")));
+		request.setUser("user1");
+
+		for (int i = 0; i < 3; i++) {
+			Assert.assertTrue("evaluation " + i + " saw variables set by an earlier evaluation", evaluator.isMatched(request));
+		}
+
+		Assert.assertEquals("script should be compiled once", 1, compileCount.get());
+	}
+
+	private RangerScriptConditionEvaluator createEvaluator() {
+		Map<String, String> evalOptions = new HashMap<>();
+
+		evalOptions.put("engineName", ENGINE_NAME);
+
+		RangerPolicyConditionDef conditionDef = new RangerPolicyConditionDef();
+
+		conditionDef.setName("expression");
+		conditionDef.setEvaluator(RangerScriptConditionEvaluator.class.getName());
+		conditionDef.setEvaluatorOptions(evalOptions);
+
+		RangerScriptConditionEvaluator ret = new RangerScriptConditionEvaluator();
+
+		ret.setConditionDef(conditionDef);
+		ret.setPolicyItemCondition(new RangerPolicyItemCondition("expression", Collections.singletonList("var evaluated = true;")));
+
+		return ret;
+	}
+
+	/*
+	 * evaluates every script like "var evaluated = true;": returns false if the variable was already set, i.e. when
+	 * bindings of an earlier evaluation are reused
+	 */
+	public static class TestScriptEngine extends AbstractScriptEngine implements Compilable {
+		private final ScriptEngineFactory factory;
+
+		TestScriptEngine(ScriptEngineFactory factory) {
+			this.factory = factory;
+		}
+
+		@Override
+		public Object eval(String script, ScriptContext context) {
+			return run(context);
+		}
+
+		@Override
+		public Object eval(Reader reader, ScriptContext context) {
+			return run(context);
+		}
+
+		@Override
+		public Bindings createBindings() {
+			return new SimpleBindings();
+		}
+
+		@Override
+		public ScriptEngineFactory getFactory() {
+			return factory;
+		}
+
+		@Override
+		public CompiledScript compile(String script) {
+			compileCount.incrementAndGet();
+
+			return new CompiledScript() {
+				@Override
+				public Object eval(ScriptContext context) {
+					return run(context);
+				}
+
+				@Override
+				public ScriptEngine getEngine() {
+					return TestScriptEngine.this;
+				}
+			};
+		}
+
+		@Override
+		public CompiledScript compile(Reader script) {
+			return compile("");
+		}
+
+		private Object run(ScriptContext context) {
+			Bindings bindings  = context.getBindings(ScriptContext.ENGINE_SCOPE);
+			boolean  isFirstRun = !bindings.containsKey("evaluated");
+
+			bindings.put("evaluated", Boolean.TRUE);
+
+			return isFirstRun && bindings.get("ctx") instanceof RangerScriptExecutionContext;
+		}
+	}
+
+	public static class TestScriptEngineFactory implements ScriptEngineFactory {
+		@Override
+		public String getEngineName() { return ENGINE_NAME; }
+
+		@Override
+		public String getEngineVersion() { return "1.0"; }
+
+		@Override
+		public List<String> getExtensions() { return Collections.emptyList(); }
+
+		@Override
+		public List<String> getMimeTypes() { return Collections.emptyList(); }
+
+		@Override
+		public List<String> getNames() { return Collections.singletonList(ENGINE_NAME); }
+
+		@Override
+		public String getLanguageName() { return ENGINE_NAME; }
+
+		@Override
+		public String getLanguageVersion() { return "1.0"; }
+
+		@Override
+		public Object getParameter(String key) { return null; }
+
+		@Override
+		public String getMethodCallSyntax(String obj, String m, String... args) { return null; }
+
+		@Override
+		public String getOutputStatement(String toDisplay) { return null; }
+
+		@Override
+		public String getProgram(String... statements) { return null; }
+
+		@Override
+		public ScriptEngine getScriptEngine() { return new TestScriptEngine(this); }
+	}
+}
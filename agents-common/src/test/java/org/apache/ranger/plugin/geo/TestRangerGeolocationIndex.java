@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.geo;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestRangerGeolocationIndex {
+	private static final String[] GEO_DATA = {
+		"20.0.100.100,20.0.100.109,US,United States,MT",
+		"20.0.100.80,20.0.100.89,CA,Canada",
+		"1.0.0.0,1.0.0.255,AU,Australia,Queensland,Brisbane",
+		"255.255.255.0,255.255.255.255,CN,China,Guangdong,Guangzhou",
+		"192.128.100.1,192.128.100.75,FR,France",
+		"2001:db8::,2001:db8::ffff,US,United States,CA",
+		"2001:db8:1::,2001:db8:1::ff,US,United States,MT",
+	};
+
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
+	@Test
+	public void testFind() {
+		RangerGeolocationDatabase database = createDatabase();
+
+		assertEquals(GEO_DATA.length, database.getIndex().size());
+		assertEquals(6, database.getIndex().getLocationCount()); // 2 of the ranges share location
+
+		verifyLookups(database);
+	}
+
+	@Test
+	public void testLocationDataIsInterned() {
+		RangerGeolocationDatabase database = createDatabase();
+
+		RangerGeolocationData data1 = database.find("20.0.100.105");
+		RangerGeolocationData data2 = database.find("2001:db8:1::10");
+
+		assertSame(data1.getLocationData(), data2.getLocationData());
+		assertSame(database.find("1.0.0.1").getLocationData()[0], database.find("1.0.0.2").getLocationData()[0]);
+	}
+
+	@Test
+	public void testIndexFile() throws Exception {
+		RangerGeolocationDatabase database = createDatabase();
+		File                      file     = tempFolder.newFile("geo.idx");
+
+		assertTrue(!RangerGeolocationDatabase.isIndexFile(file));
+
+		database.writeTo(file);
+
+		assertTrue(RangerGeolocationDatabase.isIndexFile(file));
+
+		RangerGeolocationDatabase loaded = RangerGeolocationDatabase.readFrom(file);
+
+		assertEquals(database.getIndex().size(), loaded.getIndex().size());
+		assertEquals(database.getIndex().getLocationCount(), loaded.getIndex().getLocationCount());
+		assertEquals(StringUtils.join(database.getMetadata().getLocationDataItemNames(), ","), StringUtils.join(loaded.getMetadata().getLocationDataItemNames(), ","));
+
+		for (int i = 0; i < database.getIndex().size(); i++) {
+			assertEquals(database.getIndex().get(i), loaded.getIndex().get(i));
+		}
+
+		verifyLookups(loaded);
+	}
+
+	private void verifyLookups(RangerGeolocationDatabase database) {
+		assertEquals("MT", database.getValue(database.find("20.0.100.100"), "STATE"));
+		assertEquals("MT", database.getValue(database.find("20.0.100.109"), "STATE"));
+		assertEquals("Canada", database.getValue(database.find("20.0.100.85"), "COUNTRY_NAME"));
+		assertEquals("Brisbane", database.getValue(database.find("1.0.0.255"), "CITY"));
+		assertEquals("China", database.getValue(database.find("255.255.255.255"), "COUNTRY_NAME"));
+		assertEquals("FR", database.getValue(database.find("192.128.100.50"), "COUNTRY_CODE"));
+		assertEquals("CA", database.getValue(database.find("2001:db8::1"), "STATE"));
+		assertEquals("MT", database.getValue(database.find("2001:db8:1::ff"), "STATE"));
+
+		assertNull(database.find("20.0.100.90"));
+		assertNull(database.find("20.0.100.110"));
+		assertNull(database.find("0.255.255.255"));
+		assertNull(database.find("192.128.100.76"));
+		assertNull(database.find("2001:db8::1:0"));
+		assertNull(database.find("2001:db8:1::100"));
+		assertNull(database.find("::1"));
+		assertNotNull(database.find("::ffff:1.0.0.1"));
+	}
+
+	private RangerGeolocationDatabase createDatabase() {
+		RangerGeolocationDatabase      ret     = new RangerGeolocationDatabase();
+		RangerGeolocationIndex.Builder builder = new RangerGeolocationIndex.Builder();
+
+		ret.setMetadata(GeolocationMetadata.create(StringUtils.split("FROM_IP,TO_IP,COUNTRY_CODE,COUNTRY_NAME,STATE,CITY", ','), 0));
+
+		for (int i = 0; i < GEO_DATA.length; i++) {
+			builder.add(RangerGeolocationData.create(StringUtils.split(GEO_DATA[i], ','), i, true));
+		}
+
+		ret.setIndex(builder.build());
+
+		return ret;
+	}
+}
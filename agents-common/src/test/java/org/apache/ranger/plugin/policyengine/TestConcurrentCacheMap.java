@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.policyengine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestConcurrentCacheMap {
+	@Test
+	public void testSingleSegmentLRU() {
+		ConcurrentCacheMap<String, String> cacheMap = new ConcurrentCacheMap<>(4, 1);
+
+		assertEquals(1, cacheMap.getSegmentCount());
+
+		for (int i = 0; i < 4; i++) {
+			cacheMap.put(String.valueOf(i), String.valueOf(i));
+		}
+
+		assertEquals("0", cacheMap.get("0")); // "1" is now the least recently used entry
+
+		cacheMap.put("4", "4");
+
+		assertEquals(4, cacheMap.size());
+		assertNull(cacheMap.get("1"));
+		assertEquals("0", cacheMap.get("0"));
+		assertEquals("4", cacheMap.get("4"));
+	}
+
+	@Test
+	public void testSizeIsBounded() {
+		final int capacity = 1024;
+
+		ConcurrentCacheMap<String, String> cacheMap = new ConcurrentCacheMap<>(capacity, 16);
+
+		assertEquals(16, cacheMap.getSegmentCount());
+
+		for (int i = 0; i < capacity * 8; i++) {
+			cacheMap.put("/data/warehouse/db_" + i, String.valueOf(i));
+		}
+
+		assertTrue("size " + cacheMap.size() + " exceeds capacity " + capacity, cacheMap.size() <= capacity);
+		assertEquals(cacheMap.size(), cacheMap.entrySet().size());
+
+		cacheMap.clear();
+
+		assertTrue(cacheMap.isEmpty());
+	}
+
+	@Test
+	public void testConcurrentAccess() throws Exception {
+		final int                                capacity = 4096;
+		final ConcurrentCacheMap<String, String> cacheMap = new ConcurrentCacheMap<>(capacity);
+		final AtomicInteger                      errors   = new AtomicInteger();
+		final List<Thread>                       threads  = new ArrayList<>();
+
+		for (int t = 0; t < 8; t++) {
+			final int threadId = t;
+
+			threads.add(new Thread() {
+				@Override
+				public void run() {
+					for (int i = 0; i < 20000; i++) {
+						String key   = "key-" + ((i * 31 + threadId) % (capacity * 2));
+						String value = cacheMap.get(key);
+
+						if (value == null) {
+							cacheMap.put(key, key);
+						} else if (!value.equals(key)) {
+							errors.incrementAndGet();
+						}
+					}
+				}
+			});
+		}
+
+		for (Thread thread : threads) {
+			thread.start();
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(0, errors.get());
+		assertTrue(cacheMap.size() <= capacity);
+	}
+}
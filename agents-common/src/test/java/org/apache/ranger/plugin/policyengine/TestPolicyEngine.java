@@ -59,7 +59,10 @@ import java.io.OutputStreamWriter;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -73,6 +76,8 @@ public class TestPolicyEngine {
 	static RangerPluginContext pluginContext;
 	static Gson gsonBuilder;
 
+	private boolean cacheAccessResults = false;
+
 	@BeforeClass
 	public static void setUpBeforeClass() throws Exception {
 		pluginContext = new RangerPluginContext("hive", "cl1", "on-prem");
@@ -394,6 +399,17 @@ public class TestPolicyEngine {
 		runTestsFromResourceFiles(conditionsTestResourceFiles);
 	}
 
+	@Test
+	public void testPolicyEngine_withAccessResultCache() {
+		String[] resourceFiles = {"/policyengine/test_policyengine_hive.json", "/policyengine/test_policyengine_hbase.json", "/policyengine/test_policyengine_conditions.json",
+		                          "/policyengine/test_policyengine_hive_mutex_conditions.json", "/policyengine/test_policyengine_descendant_tags.json",
+		                          "/policyengine/test_policyengine_temporary.json", "/policyengine/test_policyengine_with_roles.json", "/policyengine/test_policyengine_access_result_cache.json"};
+
+		cacheAccessResults = true;
+
+		runTestsFromResourceFiles(resourceFiles);
+	}
+
 	private void runTestsFromResourceFiles(String[] resourceNames) {
 		for(String resourceName : resourceNames) {
 			InputStream inStream = this.getClass().getResourceAsStream(resourceName);
@@ -436,6 +452,7 @@ public class TestPolicyEngine {
 		policyEngineOptions.disableTagPolicyEvaluation = false;
 		policyEngineOptions.disableAccessEvaluationWithPolicyACLSummary = false;
 		policyEngineOptions.optimizeTrieForRetrieval = false;
+		policyEngineOptions.cacheAccessResults = cacheAccessResults;
 
 		boolean useForwardedIPAddress = pluginContext.getConfig().getBoolean("ranger.plugin.hive.use.x-forwarded-for.ipaddress", false);
 		String trustedProxyAddressString = pluginContext.getConfig().get("ranger.plugin.hive.trusted.proxy.ipaddresses");
@@ -488,6 +505,7 @@ public class TestPolicyEngine {
 
 		policyEngineOptions.disableAccessEvaluationWithPolicyACLSummary = true;
 		policyEngineOptions.optimizeTrieForRetrieval = false;
+		policyEngineOptions.cacheAccessResults = false;
 
 		RangerPolicyEngineImpl policyEngineForResourceAccessInfo = new RangerPolicyEngineImpl(testName, servicePolicies, policyEngineOptions,  pluginContext, rangerRoles);
 
@@ -587,6 +605,17 @@ public class TestPolicyEngine {
 				assertNotNull("result was null! - " + test.name, result);
 				assertEquals("isAllowed mismatched! - " + test.name, expected.getIsAllowed(), result.getIsAllowed());
 				assertEquals("isAudited mismatched! - " + test.name, expected.getIsAudited(), result.getIsAudited());
+
+				if (policyEngine instanceof RangerPolicyEngineImpl && ((RangerPolicyEngineImpl) policyEngine).getAccessResultCache() != null) {
+					RangerAccessResult resultFromCache = policyEngine.evaluatePolicies(request, RangerPolicy.POLICY_TYPE_ACCESS, auditHandler);
+
+					assertNotNull("result from cache was null! - " + test.name, resultFromCache);
+					assertEquals("isAllowed from cache mismatched! - " + test.name, expected.getIsAllowed(), resultFromCache.getIsAllowed());
+					assertEquals("isAudited from cache mismatched! - " + test.name, expected.getIsAudited(), resultFromCache.getIsAudited());
+					assertEquals("policyId from cache mismatched! - " + test.name, result.getPolicyId(), resultFromCache.getPolicyId());
+				}
+
+				runAccessibleChildrenTest(policyEngine, request, expected, test.name);
 			}
 
 			if(test.dataMaskResult != null) {
@@ -624,6 +653,46 @@ public class TestPolicyEngine {
 
 	}
 
+	// evaluates the request's leaf resource as the only child of its parent, which is empty for top-level resources like
+	// databases in SHOW DATABASES, and checks that it is accessible only when expected. Requests with tags given in the
+	// context are skipped, as getAccessibleChildren() runs enrichers that replace them.
+	private void runAccessibleChildrenTest(RangerPolicyEngine policyEngine, RangerAccessRequest request, RangerAccessResult expected, String testName) {
+		RangerAccessResource resource  = request.getResource();
+		String               leafName  = resource.getLeafName();
+		Object               leafValue = leafName == null ? null : resource.getValue(leafName);
+
+		if (leafValue instanceof String && resource.getOwnerUser() == null && !request.getContext().containsKey(RangerAccessRequestUtil.KEY_CONTEXT_TAGS) &&
+		    request.getResourceMatchingScope() == RangerAccessRequest.ResourceMatchingScope.SELF) {
+			Map<String, Object> parentElements = new HashMap<>(resource.getAsMap());
+
+			parentElements.remove(leafName);
+
+			RangerAccessResourceImpl parent        = new RangerAccessResourceImpl(parentElements);
+			RangerAccessRequestImpl  parentRequest = new RangerAccessRequestImpl(parent, request.getAccessType(), request.getUser(), request.getUserGroups());
+
+			parent.setServiceDef(resource.getServiceDef());
+			parentRequest.setAccessTime(request.getAccessTime());
+			parentRequest.setRemoteIPAddress(request.getRemoteIPAddress());
+			parentRequest.setForwardedAddresses(request.getForwardedAddresses());
+			parentRequest.setContext(RangerAccessRequestUtil.copyContext(request.getContext()));
+
+			final RangerAccessResult[] summary  = new RangerAccessResult[1];
+			Set<String>                children = policyEngine.getAccessibleChildren(parentRequest, leafName, Collections.singletonList((String) leafValue), new RangerAccessResultProcessor() {
+				@Override
+				public void processResult(RangerAccessResult result) {
+					summary[0] = result;
+				}
+
+				@Override
+				public void processResults(Collection<RangerAccessResult> results) {
+				}
+			});
+
+			assertEquals("accessible children mismatched! - " + testName, expected.getIsAllowed(), children.contains(leafValue));
+			assertEquals("isAudited of accessible children mismatched! - " + testName, expected.getIsAudited(), summary[0].getIsAudited());
+		}
+	}
+
 	static class PolicyEngineTestCase {
 		public String             serviceName;
 		public RangerServiceDef   serviceDef;
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.policyengine;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.policyevaluator.RangerPolicyEvaluator;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestRangerPolicyPrincipalIndex {
+
+	@Test
+	public void testEvaluatorsForPrincipal() {
+		RangerPolicyEvaluator userPolicy     = evaluator(item(Arrays.asList("user1"), null, null), false, true);
+		RangerPolicyEvaluator publicPolicy   = evaluator(item(null, Arrays.asList(RangerPolicyEngine.GROUP_PUBLIC), null), false, false);
+		RangerPolicyEvaluator groupPolicy    = evaluator(item(null, Arrays.asList("group1"), null), false, false);
+		RangerPolicyEvaluator rolePolicy     = evaluator(item(null, null, Arrays.asList("role1")), false, false);
+		RangerPolicyEvaluator ownerPolicy    = evaluator(item(Arrays.asList(RangerPolicyEngine.RESOURCE_OWNER), null, null), false, false);
+		RangerPolicyEvaluator denyAllElse    = evaluator(item(Arrays.asList("user2"), null, null), true, false);
+		RangerPolicyEvaluator otherPolicy    = evaluator(item(Arrays.asList("user2"), Arrays.asList("group2"), null), false, false);
+		List<RangerPolicyEvaluator> evaluators = Arrays.asList(userPolicy, publicPolicy, groupPolicy, rolePolicy, ownerPolicy, denyAllElse, otherPolicy);
+
+		RangerPolicyPrincipalIndex index = new RangerPolicyPrincipalIndex(evaluators);
+
+		Assert.assertEquals(evaluators.size(), index.size());
+
+		BitSet forUser1 = index.getEvaluatorsForPrincipal("user1", Collections.singleton("group1"), Collections.singleton("role1"));
+
+		Assert.assertEquals(Arrays.asList(userPolicy, publicPolicy, groupPolicy, rolePolicy, ownerPolicy, denyAllElse), index.filter(evaluators, forUser1));
+
+		BitSet forUser3 = index.getEvaluatorsForPrincipal("user3", Collections.singleton("group3"), null);
+
+		Assert.assertEquals(Arrays.asList(publicPolicy, ownerPolicy, denyAllElse), index.filter(evaluators, forUser3));
+		Assert.assertFalse(index.contains(forUser3, otherPolicy));
+
+		// evaluators with audit enabled are retained for audit, even when they have no policy-item for the principal
+		Assert.assertEquals(Arrays.asList(userPolicy, publicPolicy, ownerPolicy, denyAllElse), index.filter(evaluators, index.withAuditEnabledEvaluators(forUser3)));
+
+		// evaluators unknown to the index are retained
+		RangerPolicyEvaluator newPolicy = evaluator(item(Arrays.asList("user4"), null, null), false, false);
+
+		Assert.assertTrue(index.contains(forUser3, newPolicy));
+	}
+
+	private RangerPolicyItem item(List<String> users, List<String> groups, List<String> roles) {
+		RangerPolicyItem ret = new RangerPolicyItem();
+
+		ret.setUsers(users);
+		ret.setGroups(groups);
+		ret.setRoles(roles);
+
+		return ret;
+	}
+
+	private RangerPolicyEvaluator evaluator(RangerPolicyItem policyItem, boolean isDenyAllElse, boolean isAuditEnabled) {
+		RangerPolicy policy = new RangerPolicy();
+
+		policy.getPolicyItems().add(policyItem);
+		policy.setIsDenyAllElse(isDenyAllElse);
+
+		RangerPolicyEvaluator ret = Mockito.mock(RangerPolicyEvaluator.class);
+
+		Mockito.when(ret.getPolicy()).thenReturn(policy);
+		Mockito.when(ret.isAuditEnabled()).thenReturn(isAuditEnabled);
+
+		return ret;
+	}
+}
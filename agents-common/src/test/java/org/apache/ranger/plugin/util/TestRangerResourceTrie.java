@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.util;
+
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.model.RangerServiceDef.RangerResourceDef;
+import org.apache.ranger.plugin.policyresourcematcher.RangerPolicyResourceEvaluator;
+import org.apache.ranger.plugin.policyresourcematcher.RangerPolicyResourceMatcher;
+import org.apache.ranger.plugin.resourcematcher.RangerResourceMatcher;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestRangerResourceTrie {
+	private static final String RESOURCE_NAME = "path";
+
+	@Test
+	public void testUpdateOfCopyDoesNotChangeSource() {
+		for (boolean isOptimizedForRetrieval : new boolean[] { true, false }) {
+			List<TestEvaluator> evaluators = new ArrayList<>();
+
+			evaluators.add(new TestEvaluator(1, false, "/data/sales"));
+			evaluators.add(new TestEvaluator(2, false, "/data/finance", "/data/fin"));
+			evaluators.add(new TestEvaluator(3, true, "/data/hr"));
+
+			RangerResourceTrie<TestEvaluator> trie = new RangerResourceTrie<>(getResourceDef(), evaluators, null, isOptimizedForRetrieval, null);
+
+			assertEvaluators(trie, "/data/sales", 1);
+			assertEvaluators(trie, "/data/hr/payroll", 3);
+
+			RangerResourceTrie<TestEvaluator> copy = new RangerResourceTrie<>(trie);
+
+			TestEvaluator added    = new TestEvaluator(4, false, "/data/sales", "/data/f");
+			TestEvaluator wildcard = new TestEvaluator(5, true, "/data");
+
+			copy.add(added.getPolicyResource().get(RESOURCE_NAME), added);
+			copy.add(wildcard.getPolicyResource().get(RESOURCE_NAME), wildcard);
+			copy.delete(evaluators.get(2).getPolicyResource().get(RESOURCE_NAME), evaluators.get(2));
+			copy.wrapUpUpdate();
+
+			assertEvaluators(copy, "/data/sales", 1, 4, 5);
+			assertEvaluators(copy, "/data/f", 4, 5);
+			assertEvaluators(copy, "/data/fin", 2, 5);
+			assertEvaluators(copy, "/data/finance", 2, 5);
+			assertEvaluators(copy, "/data/hr/payroll", 5);
+
+			assertEvaluators(trie, "/data/sales", 1);
+			assertEvaluators(trie, "/data/f");
+			assertEvaluators(trie, "/data/fin", 2);
+			assertEvaluators(trie, "/data/finance", 2);
+			assertEvaluators(trie, "/data/hr/payroll", 3);
+		}
+	}
+
+	@Test
+	public void testCopySharesUnchangedNodes() {
+		List<TestEvaluator> evaluators = new ArrayList<>();
+
+		for (int i = 0; i < 100; i++) {
+			evaluators.add(new TestEvaluator(i, false, "/db_" + i + "/tbl_" + i));
+		}
+
+		RangerResourceTrie<TestEvaluator> trie = new RangerResourceTrie<>(getResourceDef(), evaluators);
+		RangerResourceTrie<TestEvaluator> copy = new RangerResourceTrie<>(trie);
+		TestEvaluator                     added = new TestEvaluator(100, false, "/db_1/tbl_new");
+
+		copy.add(added.getPolicyResource().get(RESOURCE_NAME), added);
+		copy.wrapUpUpdate();
+
+		assertTrue(copy.toString(), getSharedNodeCount(copy) > 90);
+		assertEvaluators(copy, "/db_1/tbl_new", 100);
+		assertEvaluators(trie, "/db_1/tbl_new");
+
+		for (int i = 0; i < 100; i++) {
+			assertEvaluators(copy, "/db_" + i + "/tbl_" + i, i);
+		}
+	}
+
+	private static int getSharedNodeCount(RangerResourceTrie<?> trie) {
+		String str   = trie.toString();
+		String label = "sharedNodeCount=";
+		int    start = str.indexOf(label) + label.length();
+		int    end   = str.indexOf(';', start);
+
+		return Integer.parseInt(end == -1 ? str.substring(start) : str.substring(start, end));
+	}
+
+	private static void assertEvaluators(RangerResourceTrie<TestEvaluator> trie, String resource, long... expectedIds) {
+		List<TestEvaluator> evaluators = trie.getEvaluatorsForResource(resource);
+		List<Long>          actualIds  = new ArrayList<>();
+		List<Long>          expected   = new ArrayList<>();
+
+		if (evaluators != null) {
+			for (TestEvaluator evaluator : evaluators) {
+				actualIds.add(evaluator.getId());
+			}
+		}
+
+		for (long id : expectedIds) {
+			expected.add(id);
+		}
+
+		Collections.sort(actualIds);
+
+		assertEquals("evaluators for " + resource, expected, actualIds);
+	}
+
+	private static RangerResourceDef getResourceDef() {
+		RangerResourceDef   ret     = new RangerResourceDef();
+		Map<String, String> options = new HashMap<>();
+
+		options.put("wildCard", "true");
+		options.put("ignoreCase", "false");
+
+		ret.setName(RESOURCE_NAME);
+		ret.setMatcherOptions(options);
+
+		return ret;
+	}
+
+	static class TestEvaluator implements RangerPolicyResourceEvaluator {
+		private final long                              id;
+		private final Map<String, RangerPolicyResource> policyResource;
+
+		TestEvaluator(long id, boolean isRecursive, String... values) {
+			this.id             = id;
+			this.policyResource = Collections.singletonMap(RESOURCE_NAME, new RangerPolicyResource(Arrays.asList(values), false, isRecursive));
+		}
+
+		@Override
+		public long getId() { return id; }
+
+		@Override
+		public RangerPolicyResourceMatcher getPolicyResourceMatcher() { return null; }
+
+		@Override
+		public Map<String, RangerPolicyResource> getPolicyResource() { return policyResource; }
+
+		@Override
+		public RangerResourceMatcher getResourceMatcher(String resourceName) { return null; }
+
+		@Override
+		public boolean isAncestorOf(RangerResourceDef resourceDef) { return false; }
+	}
+}
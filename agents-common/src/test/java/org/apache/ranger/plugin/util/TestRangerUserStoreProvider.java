@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ranger.plugin.util;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.ranger.admin.client.AbstractRangerAdminClient;
+import org.apache.ranger.plugin.service.RangerBasePlugin;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestRangerUserStoreProvider {
+	@Test
+	public void testUserStoreDownloadAndCache() throws Exception {
+		File             cacheDir = Files.createTempDirectory("userstore").toFile();
+		TestAdminClient  admin    = new TestAdminClient();
+		RangerBasePlugin plugin   = new RangerBasePlugin("hive", "TestRangerUserStoreProvider");
+
+		assertNull(plugin.getUserGroups("user1"));
+
+		admin.userStore = createUserStore(5L, "user1", "group1", "group2");
+
+		RangerUserStoreProvider provider = new RangerUserStoreProvider("hive", "TestRangerUserStoreProvider", "hivedev", admin, cacheDir.getAbsolutePath(), new Configuration());
+
+		provider.loadUserStore(plugin);
+
+		assertEquals(5L, provider.getLastKnownUserStoreVersion());
+		assertEquals(-1L, admin.lastKnownUserStoreVersion);
+		assertEquals(new HashSet<>(Arrays.asList("group1", "group2")), plugin.getUserGroups("user1"));
+		assertNull(plugin.getUserGroups("user2"));
+
+		// no change in Ranger Admin: last downloaded store is retained
+		admin.userStore = null;
+
+		provider.loadUserStore(plugin);
+
+		assertEquals(5L, admin.lastKnownUserStoreVersion);
+		assertEquals(new HashSet<>(Arrays.asList("group1", "group2")), plugin.getUserGroups("user1"));
+
+		// Ranger Admin unreachable: a new plugin should load the store from the cache file
+		admin.isAvailable = false;
+
+		RangerBasePlugin        plugin2   = new RangerBasePlugin("hive", "TestRangerUserStoreProvider");
+		RangerUserStoreProvider provider2 = new RangerUserStoreProvider("hive", "TestRangerUserStoreProvider", "hivedev", admin, cacheDir.getAbsolutePath(), new Configuration());
+
+		provider2.loadUserStore(plugin2);
+
+		assertEquals(5L, plugin2.getUserStore().getUserStoreVersion().longValue());
+		assertEquals(new HashSet<>(Arrays.asList("group1", "group2")), plugin2.getUserGroups("user1"));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testUserGroupsAreNotModifiable() {
+		RangerBasePlugin plugin = new RangerBasePlugin("hive", "TestRangerUserStoreProvider");
+
+		plugin.setUserStore(createUserStore(1L, "user1", "group1"));
+
+		plugin.getUserGroups("user1").add("group2");
+	}
+
+	private static RangerUserStore createUserStore(long version, String user, String... groups) {
+		RangerUserStore          ret     = new RangerUserStore();
+		Map<String, Set<String>> mapping = new HashMap<>();
+
+		mapping.put(user, new HashSet<>(Arrays.asList(groups)));
+
+		ret.setServiceName("hivedev");
+		ret.setUserStoreVersion(version);
+		ret.setUserStoreUpdateTime(new Date());
+		ret.setUserGroupMapping(mapping);
+
+		return ret;
+	}
+
+	static class TestAdminClient extends AbstractRangerAdminClient {
+		RangerUserStore userStore;
+		boolean         isAvailable               = true;
+		long            lastKnownUserStoreVersion = Long.MIN_VALUE;
+
+		@Override
+		public RangerUserStore getUserStoreIfUpdated(long lastKnownUserStoreVersion, long lastActivationTimeInMillis) throws Exception {
+			if (!isAvailable) {
+				throw new Exception("Ranger Admin is not available");
+			}
+
+			this.lastKnownUserStoreVersion = lastKnownUserStoreVersion;
+
+			return userStore;
+		}
+	}
+}
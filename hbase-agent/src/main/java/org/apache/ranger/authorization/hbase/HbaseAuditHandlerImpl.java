@@ -64,6 +64,12 @@ public class HbaseAuditHandlerImpl extends RangerDefaultAuditHandler implements
 		return null;
 	}
 	
+	@Override
+	protected boolean isAuditAggregationSupported() {
+		// events are captured here and logged by the coprocessor, after super-user override is applied
+		return false;
+	}
+
 	@Override
 	public List<AuthzAuditEvent> getCapturedEvents() {
 		if(LOG.isDebugEnabled()) {
@@ -21,6 +21,7 @@ package org.apache.ranger.authorization.hbase;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -36,12 +37,18 @@ import org.apache.ranger.audit.model.AuthzAuditEvent;
 public class RangerAuthorizationFilter extends FilterBase {
 
 	private static final Log LOG = LogFactory.getLog(RangerAuthorizationFilter.class.getName());
+	// bounds the memo for scans over tables with unbounded qualifiers (e.g. time-series columns); further columns are evaluated per cell
+	static final int MAX_MEMOIZED_COLUMNS = 10000;
+
 	final Set<String> _familiesAccessAllowed;
 	final Set<String> _familiesAccessDenied;
 	final Set<String> _familiesAccessIndeterminate;
 	final Map<String, Set<String>> _columnsAccessAllowed;
 	final AuthorizationSession _session;
 	final HbaseAuditHandler _auditHandler = HbaseFactory.getInstance().getAuditHandler();
+	// decisions made in this scan, keyed by family/qualifier; a filter instance is used by a single scanner thread
+	final Map<ColumnKey, ReturnCode> _columnResults = new HashMap<>();
+	final ColumnKey _lookupKey = new ColumnKey();
 
 	public RangerAuthorizationFilter(AuthorizationSession session, Set<String> familiesAccessAllowed, Set<String> familiesAccessDenied, Set<String> familiesAccessIndeterminate,
 									 Map<String, Set<String>> columnsAccessAllowed) {
@@ -63,6 +70,30 @@ public class RangerAuthorizationFilter extends FilterBase {
 			LOG.debug("==> filterKeyValue");
 		}
 
+		_lookupKey.set(kv.getFamilyArray(), kv.getFamilyOffset(), kv.getFamilyLength(), kv.getQualifierArray(), kv.getQualifierOffset(), kv.getQualifierLength());
+
+		ReturnCode result = _columnResults.get(_lookupKey);
+		if (result != null) {
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("filterKeyValue: family/column found in results of this scan: " + result);
+			}
+			return result;
+		}
+
+		result = evaluate(kv);
+
+		if (_columnResults.size() < MAX_MEMOIZED_COLUMNS) {
+			_columnResults.put(_lookupKey.copy(), result);
+		}
+
+		return result;
+	}
+
+	/*
+	 * Evaluated once per distinct family/column in a scan. Access granted by authorization is audited only here, hence
+	 * once per column for the scan, instead of once for every cell of the column.
+	 */
+	private ReturnCode evaluate(Cell kv) {
 		String family = null;
 		byte[] familyBytes = CellUtil.cloneFamily(kv);
 		if (familyBytes != null && familyBytes.length > 0) {
@@ -144,4 +175,60 @@ public class RangerAuthorizationFilter extends FilterBase {
 
 	}
 
+	/*
+	 * Refers to family/qualifier bytes of a cell without copying them; copy() is used only for keys stored in the memo
+	 */
+	static final class ColumnKey {
+		private byte[] familyArray;
+		private int    familyOffset;
+		private int    familyLength;
+		private byte[] qualifierArray;
+		private int    qualifierOffset;
+		private int    qualifierLength;
+		private int    hashCode;
+
+		void set(byte[] familyArray, int familyOffset, int familyLength, byte[] qualifierArray, int qualifierOffset, int qualifierLength) {
+			this.familyArray     = familyArray;
+			this.familyOffset    = familyOffset;
+			this.familyLength    = familyArray == null ? 0 : familyLength;
+			this.qualifierArray  = qualifierArray;
+			this.qualifierOffset = qualifierOffset;
+			this.qualifierLength = qualifierArray == null ? 0 : qualifierLength;
+			this.hashCode        = 31 * Bytes.hashCode(familyArray, familyOffset, this.familyLength) + Bytes.hashCode(qualifierArray, qualifierOffset, this.qualifierLength);
+		}
+
+		ColumnKey copy() {
+			ColumnKey ret = new ColumnKey();
+
+			ret.familyArray     = familyLength == 0 ? null : Bytes.copy(familyArray, familyOffset, familyLength);
+			ret.familyLength    = familyLength;
+			ret.qualifierArray  = qualifierLength == 0 ? null : Bytes.copy(qualifierArray, qualifierOffset, qualifierLength);
+			ret.qualifierLength = qualifierLength;
+			ret.hashCode        = hashCode;
+
+			return ret;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+
+			if (!(obj instanceof ColumnKey)) {
+				return false;
+			}
+
+			ColumnKey other = (ColumnKey) obj;
+
+			return hashCode == other.hashCode
+					&& Bytes.equals(familyArray, familyOffset, familyLength, other.familyArray, other.familyOffset, other.familyLength)
+					&& Bytes.equals(qualifierArray, qualifierOffset, qualifierLength, other.qualifierArray, other.qualifierOffset, other.qualifierLength);
+		}
+	}
 }
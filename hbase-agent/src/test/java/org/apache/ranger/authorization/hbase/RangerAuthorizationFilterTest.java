@@ -21,9 +21,12 @@ package org.apache.ranger.authorization.hbase;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -98,6 +101,39 @@ public class RangerAuthorizationFilterTest {
 		}
 	}
 
+	@Test
+	public void testFilterKeyValueCell_evaluatesColumnOncePerScan() throws IOException {
+		Set<String> familiesAccessAllowed = ImmutableSet.of("family1");
+		Set<String> noFamilies = Collections.emptySet();
+		Map<String, Set<String>> noColumns = Collections.emptyMap();
+
+		AuthorizationSession session = createSessionMock();
+		when(session.isAuthorized()).thenReturn(true);
+		RangerAuthorizationFilter filter = new RangerAuthorizationFilter(session, familiesAccessAllowed, noFamilies, noFamilies, noColumns);
+
+		// same family/column in many rows, with bytes at different offsets of a larger array as in a real block
+		Cell aCell = mock(Cell.class);
+		for (int row = 0; row < 100; row++) {
+			byte[] rowBytes = ("row-" + row + ":family1:column1").getBytes();
+			int familyOffset = rowBytes.length - "family1:column1".length();
+
+			when(aCell.getFamilyArray()).thenReturn(rowBytes);
+			when(aCell.getFamilyOffset()).thenReturn(familyOffset);
+			when(aCell.getFamilyLength()).thenReturn((byte) "family1".length());
+			when(aCell.getQualifierArray()).thenReturn(rowBytes);
+			when(aCell.getQualifierOffset()).thenReturn(rowBytes.length - "column1".length());
+			when(aCell.getQualifierLength()).thenReturn("column1".length());
+
+			assertEquals(ReturnCode.INCLUDE, filter.filterKeyValue(aCell));
+		}
+		setFamilyArray(aCell, "family1".getBytes());
+		setQualifierArray(aCell, "column2".getBytes());
+		assertEquals(ReturnCode.INCLUDE, filter.filterKeyValue(aCell));
+
+		// access is authorized, and audited, once per distinct column
+		verify(session, times(2)).authorize();
+	}
+
 	private void setFamilyArray(Cell aCell, byte[] familyArray) {
 		when(aCell.getFamilyArray()).thenReturn(familyArray);
 		when(aCell.getFamilyLength()).thenReturn((byte) familyArray.length);
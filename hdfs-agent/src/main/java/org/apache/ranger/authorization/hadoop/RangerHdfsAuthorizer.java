@@ -228,9 +228,13 @@ public class RangerHdfsAuthorizer extends INodeAttributeProvider {
 			RangerHdfsPlugin       plugin        = rangerPlugin;
 			RangerHdfsAuditHandler auditHandler  = null;
 			String                 user          = ugi != null ? ugi.getShortUserName() : null;
-			Set<String>            groups        = ugi != null ? Sets.newHashSet(ugi.getGroupNames()) : null;
+			Set<String>            groups        = plugin != null ? plugin.getUserGroups(user) : null;
 			String                 resourcePath  = path;
 
+			if (groups == null && ugi != null) { // user-store not downloaded from Ranger Admin, or doesn't have the user
+				groups = Sets.newHashSet(ugi.getGroupNames());
+			}
+
 			if(LOG.isDebugEnabled()) {
 				LOG.debug("==> RangerAccessControlEnforcer.checkPermission("
 						+ "fsOwner=" + fsOwner + "; superGroup=" + superGroup + ", inodesCount=" + (inodes != null ? inodes.length : 0)
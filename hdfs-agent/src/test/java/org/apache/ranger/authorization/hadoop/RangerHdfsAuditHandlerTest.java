@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ranger.authorization.hadoop;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.ranger.audit.model.AuthzAuditEvent;
+import org.apache.ranger.plugin.audit.RangerAuditAggregator;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
+import org.apache.ranger.plugin.policyengine.RangerAccessResourceImpl;
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.apache.ranger.plugin.service.RangerBasePlugin;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests that audit events built by {@link RangerHdfsAuditHandler} are aggregated, when audit aggregation is enabled.
+ */
+public class RangerHdfsAuditHandlerTest {
+    private static final String SERVICE_NAME    = "cl1_hadoop_audit_aggregation";
+    private static final String PROPERTY_PREFIX = "ranger.plugin.hdfs";
+
+    private static RangerBasePlugin plugin;
+
+    private final List<AuthzAuditEvent> loggedEvents = new ArrayList<>();
+
+    @BeforeClass
+    public static void setup() {
+        plugin = new RangerBasePlugin("hdfs", "hdfs");
+
+        plugin.getConfig().set(PROPERTY_PREFIX + ".service.name", SERVICE_NAME);
+        plugin.getConfig().setBoolean(PROPERTY_PREFIX + RangerAuditAggregator.PROP_AUDIT_AGGREGATION_ENABLED, true);
+        plugin.getConfig().setLong(PROPERTY_PREFIX + RangerAuditAggregator.PROP_AUDIT_AGGREGATION_WINDOW_MS, 60 * 60 * 1000); // flushed by the tests
+
+        plugin.init();
+    }
+
+    @AfterClass
+    public static void teardown() {
+        plugin.cleanup();
+    }
+
+    @Before
+    public void clearAggregator() {
+        getAggregator().flush();
+
+        loggedEvents.clear();
+    }
+
+    @Test
+    public void testSameAccessIsAggregated() {
+        checkPermission("/tmp/tmpdir/data-file2", "read", "bob", true, 1000);
+        checkPermission("/tmp/tmpdir/data-file2", "read", "bob", true, 1200);
+        checkPermission("/tmp/tmpdir/data-file2", "read", "bob", true, 1500);
+        checkPermission("/tmp/tmpdir/data-file2", "read", "eve", false, 1600);
+        checkPermission("/tmp/tmpdir/data-file3", "read", "bob", true, 1700);
+
+        Assert.assertTrue("events should be held by the aggregator until it is flushed", loggedEvents.isEmpty());
+
+        getAggregator().flush();
+
+        Assert.assertEquals(3, loggedEvents.size());
+
+        for (AuthzAuditEvent event : loggedEvents) {
+            Assert.assertEquals(SERVICE_NAME, event.getRepositoryName());
+
+            if ("bob".equals(event.getUser()) && "/tmp/tmpdir/data-file2".equals(event.getResourcePath())) {
+                Assert.assertEquals(3, event.getEventCount());
+                Assert.assertEquals(500, event.getEventDurationMS());
+                Assert.assertEquals(1000, event.getEventTime().getTime());
+            } else {
+                Assert.assertEquals(1, event.getEventCount());
+                Assert.assertEquals(0, event.getEventDurationMS());
+            }
+        }
+    }
+
+    // audits an access like RangerHdfsAuthorizer.checkPermission() does, with a handler for each call
+    private void checkPermission(String path, String action, String user, boolean isAllowed, long accessTime) {
+        RangerHdfsAuditHandler auditHandler = createAuditHandler(path);
+
+        auditHandler.processResult(createResult(path, action, user, isAllowed, accessTime));
+        auditHandler.flushAudit();
+    }
+
+    private RangerHdfsAuditHandler createAuditHandler(String path) {
+        return new RangerHdfsAuditHandler(path, false, "hadoop-acl", Collections.<String>emptySet()) {
+            @Override
+            protected void writeAuthzAudit(AuthzAuditEvent auditEvent) {
+                synchronized (loggedEvents) {
+                    loggedEvents.add(auditEvent);
+                }
+            }
+        };
+    }
+
+    private RangerAccessResult createResult(String path, String action, String user, boolean isAllowed, long accessTime) {
+        RangerAccessResourceImpl resource = new RangerAccessResourceImpl(Collections.<String, Object>singletonMap("path", path));
+        RangerAccessRequestImpl  request  = new RangerAccessRequestImpl(resource, action, user, Collections.<String>emptySet());
+
+        request.setAction(action);
+        request.setAccessTime(new Date(accessTime));
+
+        RangerAccessResult ret = new RangerAccessResult(RangerPolicy.POLICY_TYPE_ACCESS, SERVICE_NAME, null, request);
+
+        ret.setIsAudited(true);
+        ret.setIsAllowed(isAllowed);
+        ret.setPolicyId(isAllowed ? 1 : -1);
+
+        return ret;
+    }
+
+    private static RangerAuditAggregator getAggregator() {
+        RangerAuditAggregator ret = RangerBasePlugin.getAuditAggregator(SERVICE_NAME);
+
+        Assert.assertNotNull("audit aggregator for " + SERVICE_NAME, ret);
+
+        return ret;
+    }
+}
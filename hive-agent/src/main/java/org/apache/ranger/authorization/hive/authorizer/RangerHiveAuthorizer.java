@@ -871,6 +871,11 @@ public class RangerHiveAuthorizer extends RangerHiveAuthorizerBase {
 			if (ret == null) { // if we got any items to filter then we can't return back a null.  We must return back a list even if its empty.
 				ret = new ArrayList<HivePrivilegeObject>(objs.size());
 			}
+
+			// databases are evaluated in bulk, and tables in bulk per database, with one audit log for each
+			Set<String>              accessibleDatabases = getAccessibleDatabases(objs, user, groups, context, sessionContext);
+			Map<String, Set<String>> accessibleTables    = getAccessibleTables(objs, user, groups, context, sessionContext);
+
 			for (HivePrivilegeObject privilegeObject : objs) {
 				if (LOG.isDebugEnabled()) {
 					HivePrivObjectActionType actionType = privilegeObject.getActionType();
@@ -886,6 +891,30 @@ public class RangerHiveAuthorizer extends RangerHiveAuthorizerBase {
 					LOG.debug(String.format(format, actionType, objectType, objectName, dbName, columns, partitionKeys, commandString, ipAddress));
 				}
 				
+				if (privilegeObject.getType() == HivePrivilegeObjectType.DATABASE && accessibleDatabases != null) {
+					if (accessibleDatabases.contains(privilegeObject.getDbname())) {
+						ret.add(privilegeObject);
+					} else if (LOG.isDebugEnabled()) {
+						LOG.debug(String.format("filterListCmdObjects: Permission denied: user [%s] does not have [%s] privilege on database [%s]",
+								user, HiveAccessType.USE.name(), privilegeObject.getDbname()));
+					}
+
+					continue;
+				}
+
+				Set<String> accessibleTablesInDb = privilegeObject.getType() == HivePrivilegeObjectType.TABLE_OR_VIEW ? accessibleTables.get(privilegeObject.getDbname()) : null;
+
+				if (accessibleTablesInDb != null) {
+					if (accessibleTablesInDb.contains(privilegeObject.getObjectName())) {
+						ret.add(privilegeObject);
+					} else if (LOG.isDebugEnabled()) {
+						LOG.debug(String.format("filterListCmdObjects: Permission denied: user [%s] does not have [%s] privilege on table [%s.%s]",
+								user, HiveAccessType.USE.name(), privilegeObject.getDbname(), privilegeObject.getObjectName()));
+					}
+
+					continue;
+				}
+
 				RangerHiveResource resource = createHiveResource(privilegeObject);
 				if (resource == null) {
 					LOG.error("filterListCmdObjects: RangerHiveResource returned by createHiveResource is null");
@@ -895,7 +924,7 @@ public class RangerHiveAuthorizer extends RangerHiveAuthorizerBase {
 					if (result == null) {
 						LOG.error("filterListCmdObjects: Internal error: null RangerAccessResult object received back from isAccessAllowed()!");
 					} else if (!result.getIsAllowed()) {
-						if (!LOG.isDebugEnabled()) {
+						if (LOG.isDebugEnabled()) {
 							String path = resource.getAsString();
 							LOG.debug(String.format("filterListCmdObjects: Permission denied: user [%s] does not have [%s] privilege on [%s]. resource[%s], request[%s], result[%s]",
 									user, request.getHiveAccessType().name(), path, resource, request, result));
@@ -1146,6 +1175,76 @@ public class RangerHiveAuthorizer extends RangerHiveAuthorizerBase {
 		return ret;
 	}
 
+	private Set<String> getAccessibleDatabases(List<HivePrivilegeObject> objs, String user, Set<String> groups, HiveAuthzContext context, HiveAuthzSessionContext sessionContext) {
+		Set<String>      ret       = null;
+		List<String>     databases = new ArrayList<>();
+		RangerHivePlugin plugin    = hivePlugin;
+
+		for (HivePrivilegeObject privilegeObject : objs) {
+			if (privilegeObject.getType() == HivePrivilegeObjectType.DATABASE && privilegeObject.getDbname() != null) {
+				databases.add(privilegeObject.getDbname());
+			}
+		}
+
+		if (plugin != null && !databases.isEmpty()) {
+			// databases are children of an empty resource, as in the audit of SHOW DATABASES
+			RangerHiveResource resource = new RangerHiveResource(HiveObjectType.DATABASE, null);
+
+			resource.setServiceDef(plugin.getServiceDef());
+
+			RangerHiveAccessRequest request = new RangerHiveAccessRequest(resource, user, groups, context, sessionContext);
+
+			ret = plugin.getAccessibleChildren(request, RangerHiveResource.KEY_DATABASE, databases);
+		}
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("filterListCmdObjects: evaluated " + databases.size() + " databases in bulk: accessibleCount=" + (ret == null ? null : ret.size()));
+		}
+
+		return ret;
+	}
+
+	private Map<String, Set<String>> getAccessibleTables(List<HivePrivilegeObject> objs, String user, Set<String> groups, HiveAuthzContext context, HiveAuthzSessionContext sessionContext) {
+		Map<String, Set<String>>  ret        = new HashMap<>();
+		Map<String, List<String>> tablesByDb = new HashMap<>();
+		RangerHivePlugin          plugin     = hivePlugin;
+
+		for (HivePrivilegeObject privilegeObject : objs) {
+			if (privilegeObject.getType() == HivePrivilegeObjectType.TABLE_OR_VIEW && privilegeObject.getDbname() != null) {
+				List<String> tables = tablesByDb.get(privilegeObject.getDbname());
+
+				if (tables == null) {
+					tables = new ArrayList<>();
+
+					tablesByDb.put(privilegeObject.getDbname(), tables);
+				}
+
+				tables.add(privilegeObject.getObjectName());
+			}
+		}
+
+		if (plugin != null) {
+			for (Map.Entry<String, List<String>> entry : tablesByDb.entrySet()) {
+				RangerHiveResource resource = new RangerHiveResource(HiveObjectType.DATABASE, entry.getKey());
+
+				resource.setServiceDef(plugin.getServiceDef());
+
+				RangerHiveAccessRequest request = new RangerHiveAccessRequest(resource, user, groups, context, sessionContext);
+				Set<String>             tables  = plugin.getAccessibleChildren(request, RangerHiveResource.KEY_TABLE, entry.getValue());
+
+				if (tables != null) {
+					ret.put(entry.getKey(), tables);
+				}
+			}
+		}
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("filterListCmdObjects: evaluated tables in bulk for databases " + ret.keySet());
+		}
+
+		return ret;
+	}
+
 	private RangerHiveResource createHiveResource(HivePrivilegeObject privilegeObject) {
 		RangerHiveResource resource = null;
 
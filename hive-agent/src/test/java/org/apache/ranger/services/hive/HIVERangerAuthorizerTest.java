@@ -28,6 +28,8 @@ import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.hadoop.fs.FileUtil;
 import org.apache.hadoop.hive.conf.HiveConf;
@@ -952,6 +954,89 @@ public class HIVERangerAuthorizerTest {
         connection.close();
     }
 
+    // SHOW TABLES lists only tables the user has some access to; tables are evaluated in bulk per database
+    @Test
+    public void testShowTables() throws Exception {
+        String url = "jdbc:hive2://localhost:" + port + "/rangerauthz";
+
+        Connection connection = DriverManager.getConnection(url, "bob", "bob");
+        Statement statement = connection.createStatement();
+        Assert.assertTrue(getTables(statement).contains("words"));
+        statement.close();
+        connection.close();
+
+        // the "IT" group has access to a column of "words"
+        UserGroupInformation ugi = UserGroupInformation.createUserForTesting("alice", new String[] {"IT"});
+        ugi.doAs(new PrivilegedExceptionAction<Void>() {
+            public Void run() throws Exception {
+                String url = "jdbc:hive2://localhost:" + port + "/rangerauthz";
+                Connection connection = DriverManager.getConnection(url, "alice", "alice");
+                Statement statement = connection.createStatement();
+                Assert.assertTrue(getTables(statement).contains("words"));
+                statement.close();
+                connection.close();
+                return null;
+            }
+        });
+
+        connection = DriverManager.getConnection(url, "eve", "eve");
+        statement = connection.createStatement();
+        Assert.assertFalse(getTables(statement).contains("words"));
+        statement.close();
+        connection.close();
+    }
+
+    @Test
+    public void testShowDatabases() throws Exception {
+        String url = "jdbc:hive2://localhost:" + port;
+
+        Connection connection = DriverManager.getConnection(url, "bob", "bob");
+        Statement statement = connection.createStatement();
+        List<String> databases = getList(statement, "show databases");
+        Assert.assertTrue(databases.contains("rangerauthz"));
+        Assert.assertTrue(databases.contains("demo"));
+        statement.close();
+        connection.close();
+
+        // the "IT" group has access only to tables in "rangerauthz"
+        UserGroupInformation ugi = UserGroupInformation.createUserForTesting("alice", new String[] {"IT"});
+        ugi.doAs(new PrivilegedExceptionAction<Void>() {
+            public Void run() throws Exception {
+                String url = "jdbc:hive2://localhost:" + port;
+                Connection connection = DriverManager.getConnection(url, "alice", "alice");
+                Statement statement = connection.createStatement();
+                List<String> databases = getList(statement, "show databases");
+                Assert.assertTrue(databases.contains("rangerauthz"));
+                Assert.assertFalse(databases.contains("demo"));
+                statement.close();
+                connection.close();
+                return null;
+            }
+        });
+
+        connection = DriverManager.getConnection(url, "eve", "eve");
+        statement = connection.createStatement();
+        databases = getList(statement, "show databases");
+        Assert.assertFalse(databases.contains("rangerauthz"));
+        Assert.assertFalse(databases.contains("demo"));
+        statement.close();
+        connection.close();
+    }
+
+    private static List<String> getTables(Statement statement) throws SQLException {
+        return getList(statement, "show tables");
+    }
+
+    private static List<String> getList(Statement statement, String query) throws SQLException {
+        List<String> ret = new ArrayList<>();
+        ResultSet resultSet = statement.executeQuery(query);
+        while (resultSet.next()) {
+            ret.add(resultSet.getString(1));
+        }
+        resultSet.close();
+        return ret;
+    }
+
         // test "dat_test_user", to do REPL DUMP
         @Test
         public void testREPLDUMPAuth() throws Exception {
@@ -47,13 +47,20 @@ import java.security.SecureRandom;
 import java.security.UnrecoverableKeyException;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.crypto.Cipher;
@@ -90,6 +97,13 @@ public class RangerKeyStore extends KeyStoreSpi {
     private static final String KEY_NAME_VALIDATION = "[a-z,A-Z,0-9](?!.*--)(?!.*__)(?!.*-_)(?!.*_-)[\\w\\-\\_]*";
     private static final Pattern pattern = Pattern.compile(KEY_NAME_VALIDATION);
     private static final String AZURE_KEYVAULT_ENABLED = "ranger.kms.azurekeyvault.enabled";
+    private static final String DECRYPTED_KEY_CACHE_TTL_MS = "ranger.ks.decrypted.key.cache.ttl.ms";
+    private static final String DECRYPTED_KEY_CACHE_MAX_ENTRIES = "ranger.ks.decrypted.key.cache.max.entries";
+    private static final long DEFAULT_DECRYPTED_KEY_CACHE_TTL_MS = 5 * 60 * 1000L;
+    private static final int DEFAULT_DECRYPTED_KEY_CACHE_MAX_ENTRIES = 1000;
+    private static final byte[] NO_PASSWORD_HASH = new byte[0];
+    private static final String KEY_CHANGE_LOOKBACK_MS = "ranger.ks.key.change.lookback.ms";
+    private static final long DEFAULT_KEY_CHANGE_LOOKBACK_MS = 60 * 1000L;
     private boolean azureKeyVaultEnabled = false;
 
     private DaoManager daoManager;
@@ -123,17 +137,30 @@ public class RangerKeyStore extends KeyStoreSpi {
 
     private Map<String, Object> keyEntries = new ConcurrentHashMap<>();
     private Map<String, Object> deltaEntries = new ConcurrentHashMap<>();
+    private final DecryptedKeyCache decryptedKeys;
+    private final long changeLookbackMs;
+    private Date lastUpdateTime = null; // latest update time of the rows loaded from the database
 
     RangerKeyStore() {
+        this.decryptedKeys = new DecryptedKeyCache(null);
+        this.changeLookbackMs = DEFAULT_KEY_CHANGE_LOOKBACK_MS;
     }
 
     public RangerKeyStore(DaoManager daoManager) {
+        this(daoManager, null);
+    }
+
+    public RangerKeyStore(DaoManager daoManager, Configuration conf) {
         this.daoManager = daoManager;
+        this.decryptedKeys = new DecryptedKeyCache(conf);
+        this.changeLookbackMs = getChangeLookbackMs(conf);
     }
     
     public RangerKeyStore(DaoManager daoManager, Configuration conf, KeyVaultClient kvClient) {
         this.daoManager = daoManager;
         this.kvKeyGen = new RangerKeyVaultKeyGenerator(conf, kvClient);
+        this.decryptedKeys = new DecryptedKeyCache(conf);
+        this.changeLookbackMs = getChangeLookbackMs(conf);
         if(conf != null
 				&& StringUtils.isNotEmpty(conf
 						.get(AZURE_KEYVAULT_ENABLED))
@@ -143,6 +170,10 @@ public class RangerKeyStore extends KeyStoreSpi {
         }
     }
 
+    private static long getChangeLookbackMs(Configuration conf) {
+        return conf != null ? conf.getLong(KEY_CHANGE_LOOKBACK_MS, DEFAULT_KEY_CHANGE_LOOKBACK_MS) : DEFAULT_KEY_CHANGE_LOOKBACK_MS;
+    }
+
     String convertAlias(String alias) {
         return alias.toLowerCase();
     }
@@ -158,8 +189,23 @@ public class RangerKeyStore extends KeyStoreSpi {
         if (!(entry instanceof SecretKeyEntry)) {
             return null;
         }
+        SecretKeyEntry secretKeyEntry = (SecretKeyEntry) entry;
         try {
-            key = unsealKey(((SecretKeyEntry) entry).sealedKey, password);
+            // cached material is returned only for the password it was unsealed with
+            byte[] passwordHash = getKeyedMessageDigest(password).digest();
+            byte[] cachedMaterial = decryptedKeys.get(convertAlias(alias), secretKeyEntry.date, passwordHash);
+            if (cachedMaterial != null) {
+                key = new SecretKeySpec(cachedMaterial, secretKeyEntry.cipher_field);
+                Arrays.fill(cachedMaterial, (byte) 0);
+                return key;
+            }
+            key = unsealKey(secretKeyEntry.sealedKey, password);
+            // only key material is cached; key metadata entries are updated in place on rollover
+            if (key instanceof SecretKeySpec) {
+                byte[] material = key.getEncoded();
+                decryptedKeys.put(convertAlias(alias), secretKeyEntry.date, passwordHash, material);
+                Arrays.fill(material, (byte) 0);
+            }
         } catch (Exception e) {
             logger.error("==> RangerKeyStore.engineGetKey() error: ", e);
         }
@@ -176,7 +222,11 @@ public class RangerKeyStore extends KeyStoreSpi {
 				return null;
 			}
 			SecretKeyByteEntry key = (SecretKeyByteEntry) entry;
-			byte[] decryptKeyByte = kvKeyGen.dencryptZoneKey(key.key);
+			byte[] decryptKeyByte = decryptedKeys.get(convertAlias(alias), key.date, NO_PASSWORD_HASH);
+			if (decryptKeyByte == null) {
+				decryptKeyByte = kvKeyGen.dencryptZoneKey(key.key);
+				decryptedKeys.put(convertAlias(alias), key.date, NO_PASSWORD_HASH, decryptKeyByte);
+			}
 			return decryptKeyByte;
 		} catch (Exception ex) {
 			throw new Exception("Error while decrpting zone key. Name : "
@@ -240,6 +290,7 @@ public class RangerKeyStore extends KeyStoreSpi {
 		synchronized (keyEntries) {
 			try {
 				keyEntries.put(convertAlias(alias), entry);
+				decryptedKeys.invalidate(convertAlias(alias));
 			} catch (Exception e) {
 				logger.error(e.getMessage());
 				throw new KeyStoreException(e.getMessage());
@@ -287,6 +338,7 @@ public class RangerKeyStore extends KeyStoreSpi {
         synchronized (keyEntries) {
             try {
                 keyEntries.put(convertAlias(alias), entry);
+                decryptedKeys.invalidate(convertAlias(alias));
             } catch (Exception e) {
                 logger.error("==> RangerKeyStore.addKeyEntry() error: ", e);
                 throw new KeyStoreException(e.getMessage());
@@ -352,12 +404,31 @@ public class RangerKeyStore extends KeyStoreSpi {
         synchronized (keyEntries) {
             dbOperationDelete(convertAlias(alias));
             keyEntries.remove(convertAlias(alias));
+            decryptedKeys.invalidate(convertAlias(alias));
         }
         synchronized (deltaEntries) {
             deltaEntries.remove(convertAlias(alias));
         }
     }
 
+    /**
+     * Removes decrypted material of all versions of the given key from the cache.
+     */
+    public void invalidateDecryptedKeys(String name) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("==> RangerKeyStore.invalidateDecryptedKeys(" + name + ")");
+        }
+        decryptedKeys.invalidateVersions(convertAlias(name));
+    }
+
+    public long getDecryptedKeyCacheHits() {
+        return decryptedKeys.hits.get();
+    }
+
+    public long getDecryptedKeyCacheMisses() {
+        return decryptedKeys.misses.get();
+    }
+
 
     private void dbOperationDelete(String alias) {
         if (logger.isDebugEnabled()) {
@@ -506,6 +577,8 @@ public class RangerKeyStore extends KeyStoreSpi {
         xxRangerKeyStore.setDescription(rangerKMSKeyStore.getDescription());
         xxRangerKeyStore.setVersion(rangerKMSKeyStore.getVersion());
         xxRangerKeyStore.setAttributes(rangerKMSKeyStore.getAttributes());
+        // other instances load rows by update time, to pick up changes
+        xxRangerKeyStore.setUpdateTime(rangerKMSKeyStore.getUpdateTime());
         return xxRangerKeyStore;
     }
 
@@ -528,107 +601,213 @@ public class RangerKeyStore extends KeyStoreSpi {
 			}
 
 			keyEntries.clear();
-			if (azureKeyVaultEnabled) {
-				for (XXRangerKeyStore rangerKey : rangerKeyDetails) {
-					String encodedStr = rangerKey.getEncoded();
-					byte[] encodedByte = DatatypeConverter
-							.parseBase64Binary(encodedStr);
-					String alias;
-					SecretKeyByteEntry entry = new SecretKeyByteEntry();
-					alias = rangerKey.getAlias();
-					entry.date = new Date(rangerKey.getCreatedDate());
-					entry.cipher_field = rangerKey.getCipher();
-					entry.bit_length = rangerKey.getBitLength();
-					entry.description = rangerKey.getDescription();
-					entry.version = rangerKey.getVersion();
-					entry.attributes = rangerKey.getAttributes();
-					entry.key = encodedByte;
-					keyEntries.put(alias, entry);
-				}
-			} else {
-				DataInputStream dis;
-				MessageDigest md = null;
-				if (password != null) {
-					md = getKeyedMessageDigest(password);
-				}
+			lastUpdateTime = null;
+			MessageDigest md = getLoadDigest(password);
+			byte computed[] = getLoadDigestBytes(md);
+			for (XXRangerKeyStore rangerKey : rangerKeyDetails) {
+				// Add the entry to the list
+				keyEntries.put(rangerKey.getAlias(), decodeKeyEntry(rangerKey, md, computed));
+				updateLastUpdateTime(rangerKey);
+			}
+			decryptedKeys.retainAll(keyEntries.keySet());
+		}
+	}
 
-				byte computed[] = {};
-				if (md != null) {
-					computed = md.digest();
+    /**
+     * Loads the given alias from the database, replacing the entry held in memory; an alias no longer present
+     * in the database is removed from memory. Returns true if the alias exists in the database.
+     */
+    public boolean engineLoadAlias(String alias, char[] password)
+			throws IOException, NoSuchAlgorithmException, CertificateException {
+		if (logger.isDebugEnabled()) {
+			logger.debug("==> RangerKeyStore.engineLoadAlias(" + alias + ")");
+		}
+		boolean ret = false;
+		String keyAlias = convertAlias(alias);
+
+		synchronized (keyEntries) {
+			if (deltaEntries.containsKey(keyAlias)) {
+				// not yet stored in the database
+				ret = keyEntries.containsKey(keyAlias);
+			} else {
+				XXRangerKeyStore rangerKey = dbOperationLoad(keyAlias);
+
+				if (rangerKey != null) {
+					MessageDigest md = getLoadDigest(password);
+					keyEntries.put(keyAlias, decodeKeyEntry(rangerKey, md, getLoadDigestBytes(md)));
+					ret = true;
+				} else {
+					keyEntries.remove(keyAlias);
+					decryptedKeys.invalidate(keyAlias);
 				}
-				for (XXRangerKeyStore rangerKey : rangerKeyDetails) {
+			}
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("<== RangerKeyStore.engineLoadAlias(" + alias + "): ret=" + ret);
+		}
+		return ret;
+	}
 
-					String encoded = rangerKey.getEncoded();
-					byte[] data = DatatypeConverter.parseBase64Binary(encoded);
+    /**
+     * Brings the entries held in memory in sync with the database, by loading only the rows updated since the
+     * last load and removing entries whose alias is no longer present in the database. Performs a full load
+     * when nothing has been loaded yet. Returns the aliases that were added, updated or removed.
+     *
+     * Deleted rows leave no trace in ranger_keystore, hence deletions are detected by reading all aliases, i.e.
+     * every call scans the table; only the alias column is read and no key entry is decoded for it.
+     */
+    public Set<String> engineLoadChanges(char[] password)
+			throws IOException, NoSuchAlgorithmException, CertificateException {
+		if (logger.isDebugEnabled()) {
+			logger.debug("==> RangerKeyStore.engineLoadChanges(lastUpdateTime=" + lastUpdateTime + ")");
+		}
+		Set<String> ret = new HashSet<>();
 
-					if (data != null && data.length > 0) {
-						stream = new ByteArrayInputStream(data);
-					} else {
-						logger.error("No Key found for alias "
-								+ rangerKey.getAlias());
+		synchronized (keyEntries) {
+			if (lastUpdateTime == null) {
+				engineLoad(null, password);
+				ret.addAll(keyEntries.keySet());
+			} else if (daoManager != null) {
+				RangerKMSDao rangerKMSDao = new RangerKMSDao(daoManager);
+				// rows are stamped by the clocks of different instances; look back to not miss rows stamped late
+				Date since = new Date(lastUpdateTime.getTime() - changeLookbackMs);
+				List<XXRangerKeyStore> changedKeys = rangerKMSDao.getKeysUpdatedSince(since);
+				List<String> aliases = rangerKMSDao.getAllAliases();
+
+				if (changedKeys != null && !changedKeys.isEmpty()) {
+					MessageDigest md = getLoadDigest(password);
+					byte computed[] = getLoadDigestBytes(md);
+					for (XXRangerKeyStore rangerKey : changedKeys) {
+						if (!deltaEntries.containsKey(rangerKey.getAlias())) {
+							keyEntries.put(rangerKey.getAlias(), decodeKeyEntry(rangerKey, md, computed));
+							ret.add(rangerKey.getAlias());
+						}
+						updateLastUpdateTime(rangerKey);
 					}
+				}
 
-					if (computed != null) {
-						int counter = 0;
-						for (int i = computed.length - 1; i >= 0; i--) {
-							if (computed[i] != data[data.length - (1 + counter)]) {
-								Throwable t = new UnrecoverableKeyException(
-										"Password verification failed");
-								logger.error(
-										"Keystore was tampered with, or password was incorrect.",
-										t);
-								throw (IOException) new IOException(
-										"Keystore was tampered with, or "
-												+ "password was incorrect")
-										.initCause(t);
-							} else {
-								counter++;
-							}
+				if (aliases != null) {
+					Set<String> aliasesInDB = new HashSet<>(aliases);
+					for (Iterator<String> iter = keyEntries.keySet().iterator(); iter.hasNext(); ) {
+						String alias = iter.next();
+						if (!aliasesInDB.contains(alias) && !deltaEntries.containsKey(alias)) {
+							iter.remove();
+							ret.add(alias);
 						}
 					}
+					decryptedKeys.retainAll(keyEntries.keySet());
+				}
+			}
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("<== RangerKeyStore.engineLoadChanges(): changedAliases=" + ret.size() + ", lastUpdateTime=" + lastUpdateTime);
+		}
+		return ret;
+	}
 
-					if (password != null) {
-						dis = new DataInputStream(new DigestInputStream(stream,
-								md));
-					} else {
-						dis = new DataInputStream(stream);
-					}
+    private MessageDigest getLoadDigest(char[] password) throws NoSuchAlgorithmException, UnsupportedEncodingException {
+		MessageDigest md = null;
+		if (!azureKeyVaultEnabled && password != null) {
+			md = getKeyedMessageDigest(password);
+		}
+		return md;
+	}
 
-					ObjectInputStream ois = null;
-					try {
-						String alias;
+    private byte[] getLoadDigestBytes(MessageDigest md) {
+		byte computed[] = {};
+		if (md != null) {
+			computed = md.digest();
+		}
+		return computed;
+	}
 
-						SecretKeyEntry entry = new SecretKeyEntry();
+    private void updateLastUpdateTime(XXRangerKeyStore rangerKey) {
+		Date updateTime = rangerKey.getUpdateTime();
+		if (updateTime != null && (lastUpdateTime == null || updateTime.after(lastUpdateTime))) {
+			lastUpdateTime = updateTime;
+		}
+	}
 
-						// read the alias
-						alias = rangerKey.getAlias();
-
-						// read the (entry creation) date
-						entry.date = new Date(rangerKey.getCreatedDate());
-						entry.cipher_field = rangerKey.getCipher();
-						entry.bit_length = rangerKey.getBitLength();
-						entry.description = rangerKey.getDescription();
-						entry.version = rangerKey.getVersion();
-						entry.attributes = rangerKey.getAttributes();
-						// read the sealed key
-						try {
-							ois = new ObjectInputStream(dis);
-							entry.sealedKey = (SealedObject) ois.readObject();
-						} catch (ClassNotFoundException cnfe) {
-							throw new IOException(cnfe.getMessage());
-						}
-						// Add the entry to the list
-						keyEntries.put(alias, entry);
-					} finally {
-						if (ois != null) {
-							ois.close();
-						} else {
-							dis.close();
-						}
-					}
+    private Object decodeKeyEntry(XXRangerKeyStore rangerKey, MessageDigest md, byte[] computed) throws IOException {
+		if (azureKeyVaultEnabled) {
+			String encodedStr = rangerKey.getEncoded();
+			byte[] encodedByte = DatatypeConverter
+					.parseBase64Binary(encodedStr);
+			SecretKeyByteEntry entry = new SecretKeyByteEntry();
+			entry.date = new Date(rangerKey.getCreatedDate());
+			entry.cipher_field = rangerKey.getCipher();
+			entry.bit_length = rangerKey.getBitLength();
+			entry.description = rangerKey.getDescription();
+			entry.version = rangerKey.getVersion();
+			entry.attributes = rangerKey.getAttributes();
+			entry.key = encodedByte;
+			return entry;
+		}
+
+		InputStream stream = null;
+		DataInputStream dis;
+		String encoded = rangerKey.getEncoded();
+		byte[] data = DatatypeConverter.parseBase64Binary(encoded);
+
+		if (data != null && data.length > 0) {
+			stream = new ByteArrayInputStream(data);
+		} else {
+			logger.error("No Key found for alias "
+					+ rangerKey.getAlias());
+		}
+
+		if (computed != null) {
+			int counter = 0;
+			for (int i = computed.length - 1; i >= 0; i--) {
+				if (computed[i] != data[data.length - (1 + counter)]) {
+					Throwable t = new UnrecoverableKeyException(
+							"Password verification failed");
+					logger.error(
+							"Keystore was tampered with, or password was incorrect.",
+							t);
+					throw (IOException) new IOException(
+							"Keystore was tampered with, or "
+									+ "password was incorrect")
+							.initCause(t);
+				} else {
+					counter++;
 				}
 			}
 		}
+
+		if (md != null) {
+			dis = new DataInputStream(new DigestInputStream(stream,
+					md));
+		} else {
+			dis = new DataInputStream(stream);
+		}
+
+		ObjectInputStream ois = null;
+		try {
+			SecretKeyEntry entry = new SecretKeyEntry();
+
+			// read the (entry creation) date
+			entry.date = new Date(rangerKey.getCreatedDate());
+			entry.cipher_field = rangerKey.getCipher();
+			entry.bit_length = rangerKey.getBitLength();
+			entry.description = rangerKey.getDescription();
+			entry.version = rangerKey.getVersion();
+			entry.attributes = rangerKey.getAttributes();
+			// read the sealed key
+			try {
+				ois = new ObjectInputStream(dis);
+				entry.sealedKey = (SealedObject) ois.readObject();
+			} catch (ClassNotFoundException cnfe) {
+				throw new IOException(cnfe.getMessage());
+			}
+			return entry;
+		} finally {
+			if (ois != null) {
+				ois.close();
+			} else {
+				dis.close();
+			}
+		}
 	}
 
     private List<XXRangerKeyStore> dbOperationLoad() throws IOException {
@@ -652,6 +831,26 @@ public class RangerKeyStore extends KeyStoreSpi {
         return null;
     }
 
+    private XXRangerKeyStore dbOperationLoad(String alias) throws IOException {
+        if (logger.isDebugEnabled()) {
+            logger.debug("==> RangerKeyStore.dbOperationLoad(" + alias + ")");
+        }
+        XXRangerKeyStore ret = null;
+        try {
+            if (daoManager != null) {
+                RangerKMSDao rangerKMSDao = new RangerKMSDao(daoManager);
+                ret = rangerKMSDao.findByAlias(alias);
+            }
+        } catch (Exception e) {
+            logger.error("==> RangerKeyStore.dbOperationLoad(" + alias + ") error:", e);
+            throw new IOException("Failed to load key " + alias, e);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("<== RangerKeyStore.dbOperationLoad(" + alias + ")");
+        }
+        return ret;
+    }
+
     /**
      * To guard against tampering with the keystore, we append a keyed
      * hash with a bit of whitener.
@@ -1084,4 +1283,138 @@ public class RangerKeyStore extends KeyStoreSpi {
         }
 
     }
+
+    /**
+     * Bounded cache of decrypted key material, keyed by alias. Cached material is discarded when older than the
+     * configured TTL, or when the key entry it was decrypted from has since been replaced; discarded material is
+     * zeroed. Material is returned only for the hash of the password it was decrypted with (empty for zone keys,
+     * which are decrypted without a password). A TTL or max-entries of 0 disables the cache.
+     */
+    private static final class DecryptedKeyCache {
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+        private final long ttlMs;
+        private final Map<String, DecryptedKey> entries;
+
+        DecryptedKeyCache(Configuration conf) {
+            final int maxEntries;
+
+            if (conf != null) {
+                ttlMs = conf.getLong(DECRYPTED_KEY_CACHE_TTL_MS, DEFAULT_DECRYPTED_KEY_CACHE_TTL_MS);
+                maxEntries = conf.getInt(DECRYPTED_KEY_CACHE_MAX_ENTRIES, DEFAULT_DECRYPTED_KEY_CACHE_MAX_ENTRIES);
+            } else {
+                ttlMs = DEFAULT_DECRYPTED_KEY_CACHE_TTL_MS;
+                maxEntries = DEFAULT_DECRYPTED_KEY_CACHE_MAX_ENTRIES;
+            }
+
+            if (ttlMs > 0 && maxEntries > 0) {
+                entries = new LinkedHashMap<String, DecryptedKey>(16, 0.75f, true) {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, DecryptedKey> eldest) {
+                        boolean ret = size() > maxEntries;
+                        if (ret) {
+                            eldest.getValue().zeroize();
+                        }
+                        return ret;
+                    }
+                };
+                logger.info("Decrypted key cache: ttlMs=" + ttlMs + ", maxEntries=" + maxEntries);
+            } else {
+                entries = null;
+                logger.info("Decrypted key cache is disabled");
+            }
+        }
+
+        // returns a copy of the cached material, which the caller may zero once done
+        synchronized byte[] get(String alias, Date entryDate, byte[] passwordHash) {
+            if (entries == null) {
+                return null;
+            }
+            DecryptedKey decryptedKey = entries.get(alias);
+            if (decryptedKey != null && !decryptedKey.isValid(entryDate, ttlMs)) {
+                entries.remove(alias);
+                decryptedKey.zeroize();
+                decryptedKey = null;
+            }
+            // on a password mismatch the entry is retained, as the caller will fail to unseal the key
+            if (decryptedKey == null || !MessageDigest.isEqual(decryptedKey.passwordHash, passwordHash)) {
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return decryptedKey.material.clone();
+        }
+
+        synchronized void put(String alias, Date entryDate, byte[] passwordHash, byte[] material) {
+            if (entries == null || material == null || material.length == 0) {
+                return;
+            }
+            DecryptedKey previous = entries.put(alias, new DecryptedKey(entryDate, passwordHash, material.clone()));
+            if (previous != null) {
+                previous.zeroize();
+            }
+        }
+
+        synchronized void invalidate(String alias) {
+            if (entries == null) {
+                return;
+            }
+            DecryptedKey previous = entries.remove(alias);
+            if (previous != null) {
+                previous.zeroize();
+            }
+        }
+
+        // removes all versions of the given key, i.e. aliases of the form name@version
+        synchronized void invalidateVersions(String name) {
+            if (entries == null) {
+                return;
+            }
+            String versionPrefix = name + "@";
+            for (Iterator<Map.Entry<String, DecryptedKey>> iter = entries.entrySet().iterator(); iter.hasNext(); ) {
+                Map.Entry<String, DecryptedKey> entry = iter.next();
+                if (entry.getKey().equals(name) || entry.getKey().startsWith(versionPrefix)) {
+                    entry.getValue().zeroize();
+                    iter.remove();
+                }
+            }
+        }
+
+        synchronized void retainAll(Collection<String> aliases) {
+            if (entries == null) {
+                return;
+            }
+            for (Iterator<Map.Entry<String, DecryptedKey>> iter = entries.entrySet().iterator(); iter.hasNext(); ) {
+                Map.Entry<String, DecryptedKey> entry = iter.next();
+                if (!aliases.contains(entry.getKey())) {
+                    entry.getValue().zeroize();
+                    iter.remove();
+                }
+            }
+        }
+    }
+
+    private static final class DecryptedKey {
+        final long entryTime;
+        final long cacheTime = System.currentTimeMillis();
+        final byte[] passwordHash;
+        final byte[] material;
+
+        DecryptedKey(Date entryDate, byte[] passwordHash, byte[] material) {
+            this.entryTime = entryDate != null ? entryDate.getTime() : 0;
+            this.passwordHash = passwordHash;
+            this.material = material;
+        }
+
+        boolean isValid(Date entryDate, long ttlMs) {
+            long currentEntryTime = entryDate != null ? entryDate.getTime() : 0;
+            return currentEntryTime == entryTime && (System.currentTimeMillis() - cacheTime) <= ttlMs;
+        }
+
+        void zeroize() {
+            Arrays.fill(material, (byte) 0);
+        }
+    }
 }
@@ -33,9 +33,13 @@ import java.security.cert.CertificateException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -50,6 +54,8 @@ import org.apache.ranger.credentialapi.CredentialReader;
 import org.apache.ranger.kms.dao.DaoManager;
 import org.apache.log4j.Logger;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 @InterfaceAudience.Private
 public class RangerKeyStoreProvider extends KeyProvider {
 
@@ -79,13 +85,16 @@ public class RangerKeyStoreProvider extends KeyProvider {
 	private static final String AZURE_CLIENT_SECRET = "ranger.kms.azure.client.secret";
 	private static final String AZURE_KEYVAULT_CERTIFICATE_PATH = "ranger.kms.azure.keyvault.certificate.path";
 	private static final String AZURE_KEYVAULT_CERTIFICATE_PASSWORD = "ranger.kms.azure.keyvault.certificate.password";
+	private static final String KEY_REFRESH_INTERVAL_MS = "ranger.ks.key.refresh.interval.ms";
+	private static final long DEFAULT_KEY_REFRESH_INTERVAL_MS = 30 * 1000L;
 	private final RangerKeyStore dbStore;
 	private char[] masterKey;
 	private boolean changed = false;
-	private final Map<String, Metadata> cache = new HashMap<String, Metadata>();
+	private final Map<String, Metadata> cache = new ConcurrentHashMap<String, Metadata>(); // also updated by keyRefresher
 	private DaoManager daoManager;
 	private Lock readLock;
 	private boolean azureKeyVaultEnabled = false;
+	private ScheduledExecutorService keyRefresher;
 
 	public RangerKeyStoreProvider(Configuration conf) throws Throwable {
 		super(conf);
@@ -133,7 +142,7 @@ public class RangerKeyStoreProvider extends KeyProvider {
 
 			rangerMasterKey = new RangerSafenetKeySecure(conf);
 
-			dbStore = new RangerKeyStore(daoManager);
+			dbStore = new RangerKeyStore(daoManager, conf);
 			// generate master key on key secure server
 			rangerMasterKey.generateMasterKey(password);
 			try {
@@ -229,7 +238,7 @@ public class RangerKeyStoreProvider extends KeyProvider {
 			}
 
 		} else {
-			dbStore = new RangerKeyStore(daoManager);
+			dbStore = new RangerKeyStore(daoManager, conf);
 			rangerMasterKey.generateMasterKey(password);
 			// code to retrieve rangerMasterKey password
 			try {
@@ -243,6 +252,39 @@ public class RangerKeyStoreProvider extends KeyProvider {
 		reloadKeys();
 		ReadWriteLock lock = new ReentrantReadWriteLock(true);
 		readLock = lock.readLock();
+		startKeyRefresher(conf.getLong(KEY_REFRESH_INTERVAL_MS, DEFAULT_KEY_REFRESH_INTERVAL_MS));
+	}
+
+	/*
+	 * Periodically loads keys created, updated or deleted by other instances, so that requests for them are
+	 * served without loading the key store from the database.
+	 */
+	private void startKeyRefresher(long refreshIntervalMs) {
+		if (refreshIntervalMs <= 0) {
+			logger.info("Background key refresh is disabled");
+			return;
+		}
+		keyRefresher = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+				.setDaemon(true).setNameFormat("RangerKeyStoreRefresher").build());
+		keyRefresher.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					syncKeys();
+				} catch (Throwable t) {
+					logger.error("==> RangerKeyStoreProvider.keyRefresher error : ", t);
+				}
+			}
+		}, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+		logger.info("Keys will be refreshed every " + refreshIntervalMs + " ms");
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (keyRefresher != null) {
+			keyRefresher.shutdownNow();
+		}
+		super.close();
 	}
 
 	public static Configuration getDBKSConf() {
@@ -299,7 +341,7 @@ public class RangerKeyStoreProvider extends KeyProvider {
 		if (logger.isDebugEnabled()) {
 			logger.debug("==> RangerKeyStoreProvider.createKey()");
 		}
-		reloadKeys();
+		reloadKey(name);
 		if (dbStore.engineContainsAlias(name) || cache.containsKey(name)) {
 			throw new IOException("Key " + name + " already exists");
 		}
@@ -359,7 +401,7 @@ public class RangerKeyStoreProvider extends KeyProvider {
 		if (logger.isDebugEnabled()) {
 			logger.debug("==> RangerKeyStoreProvider.deleteKey(" + name + ")");
 		}
-		reloadKeys();
+		reloadKey(name);
 		Metadata meta = getMetadata(name);
 		if (meta == null) {
 			throw new IOException("Key " + name + " does not exist");
@@ -367,9 +409,8 @@ public class RangerKeyStoreProvider extends KeyProvider {
 		for (int v = 0; v < meta.getVersions(); ++v) {
 			String versionName = buildVersionName(name, v);
 			try {
-				if (dbStore.engineContainsAlias(versionName)) {
-					dbStore.engineDeleteEntry(versionName);
-				}
+				// versions are loaded on demand, hence may not be in memory
+				dbStore.engineDeleteEntry(versionName);
 			} catch (KeyStoreException e) {
 				throw new IOException("Problem removing " + versionName, e);
 			}
@@ -383,9 +424,23 @@ public class RangerKeyStoreProvider extends KeyProvider {
 					e);
 		}
 		cache.remove(name);
+		dbStore.invalidateDecryptedKeys(name);
 		changed = true;
 	}
 
+	@Override
+	public void invalidateCache(String name) throws IOException {
+		if (logger.isDebugEnabled()) {
+			logger.debug("==> RangerKeyStoreProvider.invalidateCache(" + name + ")");
+		}
+		super.invalidateCache(name);
+		dbStore.invalidateDecryptedKeys(name);
+		if (logger.isDebugEnabled()) {
+			logger.debug("<== RangerKeyStoreProvider.invalidateCache(" + name + "): decryptedKeyCacheHits=" + dbStore.getDecryptedKeyCacheHits()
+					+ ", decryptedKeyCacheMisses=" + dbStore.getDecryptedKeyCacheMisses());
+		}
+	}
+
 	@Override
 	public void flush() throws IOException {
 		try {
@@ -427,7 +482,7 @@ public class RangerKeyStoreProvider extends KeyProvider {
 			}
 			try {
 				dbStore.engineStore(null, masterKey);
-				reloadKeys();
+				syncKeys();
 			} catch (NoSuchAlgorithmException e) {
 				throw new IOException("No such algorithm storing key", e);
 			} catch (CertificateException e) {
@@ -450,8 +505,7 @@ public class RangerKeyStoreProvider extends KeyProvider {
 				byte[] decryptKeyByte = null;
 				try {
 					if (!dbStore.engineContainsAlias(versionName)) {
-						dbStore.engineLoad(null, masterKey);
-						if (!dbStore.engineContainsAlias(versionName)) {
+						if (!dbStore.engineLoadAlias(versionName, masterKey)) {
 							return null;
 						}
 					}
@@ -481,8 +535,7 @@ public class RangerKeyStoreProvider extends KeyProvider {
 				SecretKeySpec key = null;
 				try {
 					if (!dbStore.engineContainsAlias(versionName)) {
-						dbStore.engineLoad(null, masterKey);
-						if (!dbStore.engineContainsAlias(versionName)) {
+						if (!dbStore.engineLoadAlias(versionName, masterKey)) {
 							return null;
 						}
 					}
@@ -532,7 +585,7 @@ public class RangerKeyStoreProvider extends KeyProvider {
 	public List<String> getKeys() throws IOException {
 		ArrayList<String> list = new ArrayList<String>();
 		String alias = null;
-		reloadKeys();
+		syncKeys();
 		Enumeration<String> e = dbStore.engineAliases();
 		while (e.hasMoreElements()) {
 			alias = e.nextElement();
@@ -554,8 +607,7 @@ public class RangerKeyStoreProvider extends KeyProvider {
 			}
 			try {
 				if (!dbStore.engineContainsAlias(name)) {
-					dbStore.engineLoad(null, masterKey);
-					if (!dbStore.engineContainsAlias(name)) {
+					if (!dbStore.engineLoadAlias(name, masterKey)) {
 						return null;
 					}
 				}
@@ -592,7 +644,7 @@ public class RangerKeyStoreProvider extends KeyProvider {
 		if (logger.isDebugEnabled()) {
 			logger.debug("==> RangerKeyStoreProvider.rollNewVersion()");
 		}
-		reloadKeys();
+		reloadKey(name);
 		Metadata meta = getMetadata(name);
 		if (meta == null) {
 			throw new IOException("Key " + name + " not found");
@@ -604,6 +656,7 @@ public class RangerKeyStoreProvider extends KeyProvider {
 		}
 		int nextVersion = meta.addVersion();
 		String versionName = buildVersionName(name, nextVersion);
+		// decrypted material of earlier versions is unchanged; addKeyEntry() drops any cached for versionName
 		return innerSetKeyVersion(name, versionName, material,
 				meta.getCipher(), meta.getBitLength(), meta.getDescription(),
 				meta.getVersions(), meta.getAttributes());
@@ -645,6 +698,46 @@ public class RangerKeyStoreProvider extends KeyProvider {
 		}
 	}
 
+	/*
+	 * Loads the keys changed in the database since the last load, and drops their cached metadata.
+	 */
+	private void syncKeys() throws IOException {
+		if (logger.isDebugEnabled()) {
+			logger.debug("==> RangerKeyStoreProvider.syncKeys()");
+		}
+		try {
+			Set<String> changedAliases = dbStore.engineLoadChanges(masterKey);
+			if (!changedAliases.isEmpty()) {
+				for (String name : new ArrayList<String>(cache.keySet())) {
+					if (changedAliases.contains(name.toLowerCase())) {
+						cache.remove(name);
+					}
+				}
+			}
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException("Can't load Keys");
+		} catch (CertificateException e) {
+			throw new IOException("Can't load Keys");
+		}
+	}
+
+	/*
+	 * Loads the given key from the database, to see changes made by other instances before updating it.
+	 */
+	private void reloadKey(String name) throws IOException {
+		if (logger.isDebugEnabled()) {
+			logger.debug("==> RangerKeyStoreProvider.reloadKey(" + name + ")");
+		}
+		try {
+			cache.remove(name);
+			dbStore.engineLoadAlias(name, masterKey);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException("Can't load Key " + name, e);
+		} catch (CertificateException e) {
+			throw new IOException("Can't load Key " + name, e);
+		}
+	}
+
 	/**
 	 * The factory to create JksProviders, which is used by the ServiceLoader.
 	 */
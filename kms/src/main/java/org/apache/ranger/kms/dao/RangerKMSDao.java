@@ -17,6 +17,7 @@
 
 package org.apache.ranger.kms.dao;
 
+import java.util.Date;
 import java.util.List;
 
 import org.apache.ranger.entity.XXRangerKeyStore;
@@ -39,4 +40,14 @@ public class RangerKMSDao extends BaseDao<XXRangerKeyStore> {
 		List<XXRangerKeyStore> xxr = super.getAllKeys("XXRangerKeyStore.getAllKeys");
 		return xxr;
 	}
+
+	public List<XXRangerKeyStore> getKeysUpdatedSince(Date updateTime) {
+		return getEntityManager().createNamedQuery("XXRangerKeyStore.getKeysUpdatedSince", tClass)
+				.setParameter("updateTime", updateTime)
+				.setHint("eclipselink.refresh", "true").getResultList();
+	}
+
+	public List<String> getAllAliases() {
+		return getEntityManager().createNamedQuery("XXRangerKeyStore.getAllAliases", String.class).getResultList();
+	}
 }
@@ -29,10 +29,12 @@ import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 
 import javax.crypto.KeyGenerator;
+import javax.crypto.spec.SecretKeySpec;
 
 import org.apache.hadoop.crypto.key.RangerKeyStore;
 import org.apache.ranger.kms.dao.DaoManager;
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.FixMethodOrder;
 import org.junit.Test;
@@ -133,6 +135,37 @@ public class TestRangerKeyStore {
                 inputStream.close();
         }
 
+        @Test
+        public void testDecryptedKeyCache() throws Exception {
+
+                DaoManager daoManager = Mockito.mock(DaoManager.class);
+                RangerKeyStore rangerKeyStore = new RangerKeyStore(daoManager);
+                KeyGenerator kg = KeyGenerator.getInstance("AES");
+                kg.init(128);
+                byte[] material = kg.generateKey().getEncoded();
+                rangerKeyStore.addKeyEntry("cachekey@0", new SecretKeySpec(material, "AES"), masterKey, "AES", 128, "cache test", 1, null);
+
+                Assert.assertArrayEquals(material, rangerKeyStore.engineGetKey("cachekey@0", masterKey).getEncoded());
+                Assert.assertArrayEquals(material, rangerKeyStore.engineGetKey("cachekey@0", masterKey).getEncoded());
+                Assert.assertEquals(1, rangerKeyStore.getDecryptedKeyCacheHits());
+                Assert.assertEquals(1, rangerKeyStore.getDecryptedKeyCacheMisses());
+
+                // cached material is not returned for a different password
+                Assert.assertNull(rangerKeyStore.engineGetKey("cachekey@0", "wrongpassword".toCharArray()));
+                Assert.assertEquals(2, rangerKeyStore.getDecryptedKeyCacheMisses());
+                Assert.assertArrayEquals(material, rangerKeyStore.engineGetKey("cachekey@0", masterKey).getEncoded());
+                Assert.assertEquals(2, rangerKeyStore.getDecryptedKeyCacheHits());
+
+                rangerKeyStore.invalidateDecryptedKeys("cachekey");
+
+                Assert.assertArrayEquals(material, rangerKeyStore.engineGetKey("cachekey@0", masterKey).getEncoded());
+                Assert.assertEquals(3, rangerKeyStore.getDecryptedKeyCacheMisses());
+
+                rangerKeyStore.engineDeleteEntry("cachekey@0");
+
+                Assert.assertNull(rangerKeyStore.engineGetKey("cachekey@0", masterKey));
+        }
+
         private InputStream generateKeyStoreFile(String keyValue) throws KeyStoreException, NoSuchAlgorithmException, CertificateException, IOException {
                 FileOutputStream stream = new FileOutputStream(new File(keyStoreFileName));
                 KeyStore ks;
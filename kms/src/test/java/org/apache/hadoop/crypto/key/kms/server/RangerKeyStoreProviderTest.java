@@ -143,6 +143,8 @@ public class RangerKeyStoreProviderTest {
         Assert.assertEquals(192 / 8, keyVersion.getMaterial().length);
         Assert.assertEquals("newkey1@1", keyVersion.getVersionName());
         Assert.assertFalse(Arrays.equals(oldKey, keyVersion.getMaterial()));
+        Assert.assertArrayEquals(oldKey, keyProvider.getKeyVersion("newkey1@0").getMaterial());
+        Assert.assertArrayEquals(keyVersion.getMaterial(), keyProvider.getKeyVersion("newkey1@1").getMaterial());
 
         keyProvider.deleteKey("newkey1");
 
@@ -151,4 +153,84 @@ public class RangerKeyStoreProviderTest {
 
     }
 
+    @Test
+    public void testKeysChangedByAnotherInstance() throws Throwable {
+    	if (!UNRESTRICTED_POLICIES_INSTALLED) {
+    		return;
+    	}
+
+        Path configDir = Paths.get("src/test/resources/kms");
+        System.setProperty(KMSConfiguration.KMS_CONFIG_DIR, configDir.toFile().getAbsolutePath());
+
+        Configuration conf = new Configuration();
+        RangerKeyStoreProvider keyProvider1 = new RangerKeyStoreProvider(conf);
+        RangerKeyStoreProvider keyProvider2 = new RangerKeyStoreProvider(conf);
+
+        // Create a key in one instance, and read it in the other
+        Options options = new Options(conf);
+        options.setBitLength(128);
+        options.setCipher("AES");
+        KeyVersion keyVersion = keyProvider1.createKey("sharedkey", options);
+        keyProvider1.flush();
+
+        KeyVersion keyVersion2 = keyProvider2.getKeyVersion("sharedkey@0");
+        Assert.assertNotNull(keyVersion2);
+        Assert.assertArrayEquals(keyVersion.getMaterial(), keyVersion2.getMaterial());
+
+        // Rollover in the other instance, and read the new version in the first
+        keyVersion2 = keyProvider2.rollNewVersion("sharedkey");
+        keyProvider2.flush();
+        Assert.assertEquals("sharedkey@1", keyVersion2.getVersionName());
+        Assert.assertArrayEquals(keyVersion2.getMaterial(), keyProvider1.getKeyVersion("sharedkey@1").getMaterial());
+
+        // Delete in the first instance; the other instance should no longer list the key
+        Assert.assertEquals(1, keyProvider2.getKeys().size());
+        keyProvider1.deleteKey("sharedkey");
+        keyProvider1.flush();
+        Assert.assertEquals(0, keyProvider2.getKeys().size());
+
+        keyProvider1.close();
+        keyProvider2.close();
+    }
+
+    @Test
+    public void testBackgroundRefreshEvictsChangedKeys() throws Throwable {
+    	if (!UNRESTRICTED_POLICIES_INSTALLED) {
+    		return;
+    	}
+
+        Path configDir = Paths.get("src/test/resources/kms");
+        System.setProperty(KMSConfiguration.KMS_CONFIG_DIR, configDir.toFile().getAbsolutePath());
+
+        // keys are refreshed every ranger.ks.key.refresh.interval.ms, set in src/test/resources/kms/dbks-site.xml
+        Configuration conf = new Configuration();
+        RangerKeyStoreProvider keyProvider1 = new RangerKeyStoreProvider(conf);
+        RangerKeyStoreProvider keyProvider2 = new RangerKeyStoreProvider(conf);
+
+        Options options = new Options(conf);
+        options.setBitLength(128);
+        options.setCipher("AES");
+        keyProvider1.createKey("refreshedkey", options);
+        keyProvider1.flush();
+
+        // cache the metadata in the other instance
+        Assert.assertEquals(1, keyProvider2.getMetadata("refreshedkey").getVersions());
+
+        // Rollover in the first instance; the other instance should see the new version without a sync triggered by a request
+        KeyVersion keyVersion = keyProvider1.rollNewVersion("refreshedkey");
+        keyProvider1.flush();
+
+        for (int i = 0; i < 100 && keyProvider2.getMetadata("refreshedkey").getVersions() != 2; i++) {
+            Thread.sleep(100);
+        }
+
+        Assert.assertEquals(2, keyProvider2.getMetadata("refreshedkey").getVersions());
+        Assert.assertArrayEquals(keyVersion.getMaterial(), keyProvider2.getCurrentKey("refreshedkey").getMaterial());
+
+        keyProvider1.deleteKey("refreshedkey");
+        keyProvider1.flush();
+        keyProvider1.close();
+        keyProvider2.close();
+    }
+
 }
@@ -20,9 +20,12 @@
 
 package org.apache.ranger.authorization.kafka.authorizer;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.apache.ranger.audit.model.AuthzAuditEvent;
 import org.apache.ranger.plugin.audit.RangerDefaultAuditHandler;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
 import org.apache.ranger.plugin.policyengine.RangerAccessResourceImpl;
@@ -31,8 +34,6 @@ import org.apache.ranger.plugin.policyengine.RangerAccessResult;
 public class RangerKafkaAuditHandler extends RangerDefaultAuditHandler {
     private static final Log LOG = LogFactory.getLog(RangerKafkaAuditHandler.class);
 
-    private AuthzAuditEvent auditEvent      = null;
-
     public RangerKafkaAuditHandler(){
     }
 
@@ -43,7 +44,24 @@ public class RangerKafkaAuditHandler extends RangerDefaultAuditHandler {
         if (!isAuditingNeeded(result)) {
             return;
         }
-        auditEvent = super.getAuthzEvents(result);
+        super.processResult(result);
+    }
+
+    @Override
+    public void processResults(Collection<RangerAccessResult> results) {
+        List<RangerAccessResult> toAudit = new ArrayList<>(results.size());
+
+        for (RangerAccessResult result : results) {
+            if (isAuditingNeeded(result)) {
+                toAudit.add(result);
+            }
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("RangerKafkaAuditHandler.processResults(): resultCount=" + results.size() + ", auditCount=" + toAudit.size());
+        }
+
+        super.processResults(toAudit);
     }
 
     private boolean isAuditingNeeded(final RangerAccessResult result) {
@@ -59,16 +77,4 @@ public class RangerKafkaAuditHandler extends RangerDefaultAuditHandler {
         }
         return ret;
     }
-
-    public void flushAudit() {
-        if(LOG.isDebugEnabled()) {
-            LOG.info("==> RangerYarnAuditHandler.flushAudit(" + "AuditEvent: " + auditEvent + ")");
-        }
-        if (auditEvent != null) {
-            super.logAuthzAudit(auditEvent);
-        }
-        if(LOG.isDebugEnabled()) {
-            LOG.info("<== RangerYarnAuditHandler.flushAudit(" + "AuditEvent: " + auditEvent + ")");
-        }
-    }
 }
@@ -19,6 +19,9 @@
 
 package org.apache.ranger.authorization.kafka.authorizer;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Map;
 
@@ -40,6 +43,7 @@ import org.apache.kafka.common.config.SaslConfigs;
 import org.apache.kafka.common.security.authenticator.LoginManager;
 import org.apache.kafka.common.security.kerberos.KerberosLogin;
 import org.apache.ranger.audit.provider.MiscUtil;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
 import org.apache.ranger.plugin.policyengine.RangerAccessResourceImpl;
 import org.apache.ranger.plugin.policyengine.RangerAccessResult;
@@ -73,6 +77,7 @@ public class RangerKafkaAuthorizer implements Authorizer {
 
 	private static volatile RangerBasePlugin rangerPlugin = null;
 	RangerKafkaAuditHandler auditHandler = null;
+	private volatile RangerKafkaDecisionCache decisionCache = null;
 
 	public RangerKafkaAuthorizer() {
 	}
@@ -118,6 +123,21 @@ public class RangerKafkaAuthorizer implements Authorizer {
 		rangerPlugin.init();
 		auditHandler = new RangerKafkaAuditHandler();
 		rangerPlugin.setResultProcessor(auditHandler);
+
+		String propertyPrefix    = "ranger.plugin." + rangerPlugin.getServiceType();
+		int    decisionCacheSize = rangerPlugin.getConfig().getInt(propertyPrefix + RangerKafkaDecisionCache.PROP_DECISION_CACHE_SIZE, RangerKafkaDecisionCache.DEFAULT_DECISION_CACHE_SIZE);
+
+		if (decisionCacheSize > 0) {
+			long decisionCacheTtlMs = rangerPlugin.getConfig().getLong(propertyPrefix + RangerKafkaDecisionCache.PROP_DECISION_CACHE_TTL_MS, RangerKafkaDecisionCache.DEFAULT_DECISION_CACHE_TTL_MS);
+
+			decisionCache = new RangerKafkaDecisionCache(decisionCacheSize, decisionCacheTtlMs);
+
+			rangerPlugin.registerAuthContextEventListener(decisionCache);
+		} else {
+			decisionCache = null;
+		}
+
+		logger.info("Authorization decision cache: size=" + decisionCacheSize);
 	}
 
 	@Override
@@ -135,32 +155,39 @@ public class RangerKafkaAuthorizer implements Authorizer {
 	@Override
 	public boolean authorize(Session session, Operation operation,
 			Resource resource) {
+		return authorize(session, Collections.singletonList(new Action(operation, resource))).get(0);
+	}
+
+	/**
+	 * Authorizes a batch of actions performed in one session. The user's groups are resolved at most once per
+	 * batch, and only if a decision is not found in the decision cache; actions not found in the cache are
+	 * evaluated together.
+	 *
+	 * @return authorization result of each action, in the order of given actions
+	 */
+	public java.util.List<Boolean> authorize(Session session, java.util.List<Action> actions) {
+		java.util.List<Boolean> ret = new ArrayList<>(actions.size());
 
 		if (rangerPlugin == null) {
 			MiscUtil.logErrorMessageByInterval(logger,
 					"Authorizer is still not initialized");
-			return false;
-		}
 
-		// TODO: If resource type is consumer group, then allow it by default
-		if (resource.resourceType().equals(Group$.MODULE$)) {
-			if (logger.isDebugEnabled()) {
-				logger.debug("If resource type is consumer group, then we allow it by default!  Returning true");
+			for (int i = 0; i < actions.size(); i++) {
+				ret.add(Boolean.FALSE);
 			}
-			return true;
+
+			return ret;
 		}
 
 		RangerPerfTracer perf = null;
 
 		if(RangerPerfTracer.isPerfTraceEnabled(PERF_KAFKAAUTH_REQUEST_LOG)) {
-			perf = RangerPerfTracer.getPerfTracer(PERF_KAFKAAUTH_REQUEST_LOG, "RangerKafkaAuthorizer.authorize(resource=" + resource + ")");
+			perf = RangerPerfTracer.getPerfTracer(PERF_KAFKAAUTH_REQUEST_LOG, "RangerKafkaAuthorizer.authorize(actions=" + actions + ")");
 		}
 		String userName = null;
 		if (session.principal() != null) {
 			userName = session.principal().getName();
 		}
-		java.util.Set<String> userGroups = MiscUtil
-				.getGroupsForRequestUser(userName);
 		String ip = session.clientAddress().getHostAddress();
 
 		// skip leading slash
@@ -168,77 +195,113 @@ public class RangerKafkaAuthorizer implements Authorizer {
 			ip = ip.substring(1);
 		}
 
-		Date eventTime = new Date();
-		String accessType = mapToRangerAccessType(operation);
-		boolean validationFailed = false;
-		String validationStr = "";
+		Date                     eventTime       = new Date();
+		RangerKafkaDecisionCache decisionCache   = this.decisionCache;
+		long                     cacheGeneration = decisionCache != null ? decisionCache.getGeneration() : 0;
+		java.util.Set<String>    userGroups      = null;
+
+		java.util.List<RangerAccessRequest> requests    = null;
+		java.util.List<Integer>             requestIdxs = null;
+		java.util.List<String>              requestKeys = null;
 
-		if (accessType == null) {
-			if (MiscUtil.logErrorMessageByInterval(logger,
-					"Unsupported access type. operation=" + operation)) {
-				logger.fatal("Unsupported access type. session=" + session
-						+ ", operation=" + operation + ", resource=" + resource);
+		for (Action action : actions) {
+			Operation operation = action.getOperation();
+			Resource  resource  = action.getResource();
+
+			// TODO: If resource type is consumer group, then allow it by default
+			if (resource.resourceType().equals(Group$.MODULE$)) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("If resource type is consumer group, then we allow it by default!  Returning true");
+				}
+				ret.add(Boolean.TRUE);
+				continue;
 			}
-			validationFailed = true;
-			validationStr += "Unsupported access type. operation=" + operation;
-		}
-		String action = accessType;
 
-		RangerAccessRequestImpl rangerRequest = new RangerAccessRequestImpl();
-		rangerRequest.setUser(userName);
-		rangerRequest.setUserGroups(userGroups);
-		rangerRequest.setClientIPAddress(ip);
-		rangerRequest.setAccessTime(eventTime);
+			String accessType  = mapToRangerAccessType(operation);
+			String resourceKey = mapToRangerResourceKey(resource.resourceType());
 
-		RangerAccessResourceImpl rangerResource = new RangerAccessResourceImpl();
-		rangerRequest.setResource(rangerResource);
-		rangerRequest.setAccessType(accessType);
-		rangerRequest.setAction(action);
-		rangerRequest.setRequestData(resource.name());
-
-		if (resource.resourceType().equals(Topic$.MODULE$)) {
-			rangerResource.setValue(KEY_TOPIC, resource.name());
-		} else if (resource.resourceType().equals(Cluster$.MODULE$)) {
-			rangerResource.setValue(KEY_CLUSTER, resource.name());
-		} else if (resource.resourceType().equals(Group$.MODULE$)) {
-			rangerResource.setValue(KEY_CONSUMER_GROUP, resource.name());
-		} else if (resource.resourceType().equals(TransactionalId$.MODULE$)) {
-			rangerResource.setValue(KEY_TRANSACTIONALID, resource.name());
-		} else if (resource.resourceType().equals(DelegationToken$.MODULE$)) {
-			rangerResource.setValue(KEY_DELEGATIONTOKEN, resource.name());
-		} else {
-			logger.fatal("Unsupported resourceType=" + resource.resourceType());
-			validationFailed = true;
-		}
+			if (accessType == null) {
+				if (MiscUtil.logErrorMessageByInterval(logger,
+						"Unsupported access type. operation=" + operation)) {
+					logger.fatal("Unsupported access type. session=" + session
+							+ ", operation=" + operation + ", resource=" + resource);
+				}
+				ret.add(Boolean.FALSE);
+				continue;
+			}
 
-		boolean returnValue = false;
-		if (validationFailed) {
-			MiscUtil.logErrorMessageByInterval(logger, validationStr
-					+ ", request=" + rangerRequest);
-		} else {
+			if (resourceKey == null) {
+				logger.fatal("Unsupported resourceType=" + resource.resourceType());
+				ret.add(Boolean.FALSE);
+				continue;
+			}
+
+			String                                  cacheKey = decisionCache != null ? RangerKafkaDecisionCache.getKey(userName, accessType, resourceKey, resource.name()) : null;
+			RangerKafkaDecisionCache.CachedDecision cached   = decisionCache != null ? decisionCache.get(cacheKey, eventTime.getTime()) : null;
+
+			if (cached != null) {
+				ret.add(cached.getIsAllowed());
+
+				if (cached.getIsAudited()) {
+					RangerAccessRequest rangerRequest = createRangerRequest(userName, cached.getUserGroups(), ip, eventTime, accessType, resourceKey, resource.name());
+
+					auditHandler.processResult(cached.toResult(rangerRequest));
+				}
+			} else {
+				if (userGroups == null) {
+					userGroups = rangerPlugin.getUserGroups(userName);
+
+					if (userGroups == null) { // user-store not downloaded from Ranger Admin, or doesn't have the user
+						userGroups = MiscUtil.getGroupsForRequestUser(userName);
+					}
+				}
 
+				if (requests == null) {
+					requests    = new ArrayList<>();
+					requestIdxs = new ArrayList<>();
+					requestKeys = new ArrayList<>();
+				}
+
+				requests.add(createRangerRequest(userName, userGroups, ip, eventTime, accessType, resourceKey, resource.name()));
+				requestIdxs.add(ret.size());
+				requestKeys.add(cacheKey);
+				ret.add(Boolean.FALSE);
+			}
+		}
+
+		if (requests != null) {
 			try {
-				RangerAccessResult result = rangerPlugin
-						.isAccessAllowed(rangerRequest);
-				if (result == null) {
+				Collection<RangerAccessResult> results = rangerPlugin.isAccessAllowed(requests);
+
+				if (results == null) {
 					logger.error("Ranger Plugin returned null. Returning false");
 				} else {
-					returnValue = result.getIsAllowed();
+					int i = 0;
+
+					for (RangerAccessResult result : results) {
+						if (result != null) {
+							ret.set(requestIdxs.get(i), result.getIsAllowed());
+
+							if (decisionCache != null && rangerPlugin.isAccessResultCacheable(result.getAccessRequest())) {
+								decisionCache.put(requestKeys.get(i), cacheGeneration, result, eventTime.getTime());
+							}
+						}
+
+						i++;
+					}
 				}
 			} catch (Throwable t) {
-				logger.error("Error while calling isAccessAllowed(). request="
-						+ rangerRequest, t);
-			} finally {
-				auditHandler.flushAudit();
+				logger.error("Error while calling isAccessAllowed(). requests="
+						+ requests, t);
 			}
 		}
 		RangerPerfTracer.log(perf);
 
 		if (logger.isDebugEnabled()) {
-			logger.debug("rangerRequest=" + rangerRequest + ", return="
-					+ returnValue);
+			logger.debug("actions=" + actions + ", user=" + userName + ", return="
+					+ ret);
 		}
-		return returnValue;
+		return ret;
 	}
 
 	/*
@@ -318,6 +381,38 @@ public class RangerKafkaAuthorizer implements Authorizer {
 		return aclList;
 	}
 
+	private RangerAccessRequest createRangerRequest(String userName, java.util.Set<String> userGroups, String ip, Date eventTime, String accessType, String resourceKey, String resourceName) {
+		RangerAccessResourceImpl rangerResource = new RangerAccessResourceImpl();
+		rangerResource.setValue(resourceKey, resourceName);
+
+		RangerAccessRequestImpl rangerRequest = new RangerAccessRequestImpl();
+		rangerRequest.setResource(rangerResource);
+		rangerRequest.setUser(userName);
+		rangerRequest.setUserGroups(userGroups);
+		rangerRequest.setClientIPAddress(ip);
+		rangerRequest.setAccessTime(eventTime);
+		rangerRequest.setAccessType(accessType);
+		rangerRequest.setAction(accessType);
+		rangerRequest.setRequestData(resourceName);
+
+		return rangerRequest;
+	}
+
+	private String mapToRangerResourceKey(ResourceType resourceType) {
+		if (resourceType.equals(Topic$.MODULE$)) {
+			return KEY_TOPIC;
+		} else if (resourceType.equals(Cluster$.MODULE$)) {
+			return KEY_CLUSTER;
+		} else if (resourceType.equals(Group$.MODULE$)) {
+			return KEY_CONSUMER_GROUP;
+		} else if (resourceType.equals(TransactionalId$.MODULE$)) {
+			return KEY_TRANSACTIONALID;
+		} else if (resourceType.equals(DelegationToken$.MODULE$)) {
+			return KEY_DELEGATIONTOKEN;
+		}
+		return null;
+	}
+
 	/**
 	 * @param operation
 	 * @return
@@ -346,4 +441,30 @@ public class RangerKafkaAuthorizer implements Authorizer {
 		}
 		return null;
 	}
+
+	/**
+	 * An operation on a resource, to be authorized along with other actions of the same session.
+	 */
+	public static class Action {
+		private final Operation operation;
+		private final Resource  resource;
+
+		public Action(Operation operation, Resource resource) {
+			this.operation = operation;
+			this.resource  = resource;
+		}
+
+		public Operation getOperation() {
+			return operation;
+		}
+
+		public Resource getResource() {
+			return resource;
+		}
+
+		@Override
+		public String toString() {
+			return "Action={operation=" + operation + ", resource=" + resource + "}";
+		}
+	}
 }
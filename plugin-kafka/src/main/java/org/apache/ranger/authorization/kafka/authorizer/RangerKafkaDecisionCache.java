@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authorization.kafka.authorizer;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.ranger.plugin.policyengine.ConcurrentCacheMap;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.apache.ranger.plugin.service.RangerAuthContextListener;
+
+/*
+ * Bounded cache of authorization decisions, keyed by user, access-type and resource. Cached decisions are used
+ * without resolving the user's groups or evaluating policies; all entries are discarded when policies, roles or
+ * tags change, and each entry expires after a configured time so that group membership changes are picked up.
+ *
+ * Only results for which RangerBasePlugin.isAccessResultCacheable() returns true are to be cached.
+ */
+class RangerKafkaDecisionCache implements RangerAuthContextListener {
+	private static final Log LOG = LogFactory.getLog(RangerKafkaDecisionCache.class);
+
+	static final String PROP_DECISION_CACHE_SIZE   = ".authorizer.decision.cache.size";
+	static final String PROP_DECISION_CACHE_TTL_MS = ".authorizer.decision.cache.ttl.ms";
+
+	static final int  DEFAULT_DECISION_CACHE_SIZE   = 10000;
+	static final long DEFAULT_DECISION_CACHE_TTL_MS = 30 * 1000;
+
+	private static final char KEY_SEPARATOR = '\u0001';
+
+	private final ConcurrentCacheMap<String, CachedDecision> cache;
+	private final long                                      ttlMs;
+	private final AtomicLong                                generation = new AtomicLong();
+
+	RangerKafkaDecisionCache(int cacheSize, long ttlMs) {
+		this.cache = new ConcurrentCacheMap<>(cacheSize);
+		this.ttlMs = ttlMs;
+	}
+
+	static String getKey(String user, String accessType, String resourceType, String resourceName) {
+		return new StringBuilder().append(user).append(KEY_SEPARATOR)
+		                          .append(accessType).append(KEY_SEPARATOR)
+		                          .append(resourceType).append(KEY_SEPARATOR)
+		                          .append(resourceName).toString();
+	}
+
+	// to be called before evaluating a request, and passed to put() along with its result
+	long getGeneration() {
+		return generation.get();
+	}
+
+	CachedDecision get(String key, long now) {
+		CachedDecision ret = cache.get(key);
+
+		if (ret != null && (ret.expiryTimeMs <= now || ret.generation != generation.get())) {
+			cache.remove(key);
+
+			ret = null;
+		}
+
+		return ret;
+	}
+
+	// a result evaluated before a policy/role/tag change can be put after contextChanged() clears the cache; get() discards it
+	void put(String key, long generation, RangerAccessResult result, long now) {
+		cache.put(key, new CachedDecision(result, generation, now + ttlMs));
+	}
+
+	int size() {
+		return cache.size();
+	}
+
+	@Override
+	public void contextChanged() {
+		generation.incrementAndGet();
+		cache.clear();
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("RangerKafkaDecisionCache.contextChanged(): cleared decision cache");
+		}
+	}
+
+	static class CachedDecision {
+		private final RangerAccessResult result;
+		private final long               generation;
+		private final long               expiryTimeMs;
+
+		CachedDecision(RangerAccessResult result, long generation, long expiryTimeMs) {
+			this.result       = result;
+			this.generation   = generation;
+			this.expiryTimeMs = expiryTimeMs;
+		}
+
+		boolean getIsAllowed() {
+			return result.getIsAllowed();
+		}
+
+		boolean getIsAudited() {
+			return result.getIsAudited();
+		}
+
+		Set<String> getUserGroups() {
+			return result.getAccessRequest().getUserGroups();
+		}
+
+		// returns a result for the given request, with the cached decision
+		RangerAccessResult toResult(RangerAccessRequest request) {
+			RangerAccessResult ret = new RangerAccessResult(result.getPolicyType(), result.getServiceName(), result.getServiceDef(), request);
+
+			ret.setAccessResultFrom(result);
+			ret.setAuditResultFrom(result);
+			ret.setZoneName(result.getZoneName());
+
+			return ret;
+		}
+	}
+}
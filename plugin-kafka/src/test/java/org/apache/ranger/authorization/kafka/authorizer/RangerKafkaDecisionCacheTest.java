@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authorization.kafka.authorizer;
+
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
+import org.apache.ranger.plugin.policyengine.RangerAccessResourceImpl;
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Date;
+
+public class RangerKafkaDecisionCacheTest {
+    private static final String KEY = RangerKafkaDecisionCache.getKey("user1", RangerKafkaAuthorizer.ACCESS_TYPE_WRITE, RangerKafkaAuthorizer.KEY_TOPIC, "test");
+
+    @Test
+    public void testCachedDecisionIsReturnedUntilExpiry() {
+        RangerKafkaDecisionCache cache = new RangerKafkaDecisionCache(100, 1000);
+
+        cache.put(KEY, cache.getGeneration(), createResult(true, true), 5000);
+
+        RangerKafkaDecisionCache.CachedDecision cached = cache.get(KEY, 5500);
+
+        Assert.assertNotNull(cached);
+        Assert.assertTrue(cached.getIsAllowed());
+        Assert.assertEquals(Collections.singleton("group1"), cached.getUserGroups());
+
+        RangerAccessRequestImpl request = createRequest();
+        RangerAccessResult      result  = cached.toResult(request);
+
+        Assert.assertSame(request, result.getAccessRequest());
+        Assert.assertTrue(result.getIsAllowed());
+        Assert.assertTrue(result.getIsAudited());
+        Assert.assertEquals(10, result.getPolicyId());
+
+        Assert.assertNull(cache.get(KEY, 6000));
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testContextChangeDiscardsDecisions() {
+        RangerKafkaDecisionCache cache = new RangerKafkaDecisionCache(100, 1000);
+
+        cache.put(KEY, cache.getGeneration(), createResult(false, true), 5000);
+
+        long generation = cache.getGeneration();
+
+        cache.contextChanged();
+
+        Assert.assertNull(cache.get(KEY, 5000));
+
+        // result evaluated before the change, put after the cache was cleared, must not be returned
+        cache.put(KEY, generation, createResult(false, true), 5000);
+
+        Assert.assertNull(cache.get(KEY, 5000));
+        Assert.assertEquals(0, cache.size());
+
+        cache.put(KEY, cache.getGeneration(), createResult(false, true), 5000);
+
+        Assert.assertFalse(cache.get(KEY, 5000).getIsAllowed());
+    }
+
+    private RangerAccessRequestImpl createRequest() {
+        RangerAccessResourceImpl resource = new RangerAccessResourceImpl();
+
+        resource.setValue(RangerKafkaAuthorizer.KEY_TOPIC, "test");
+
+        RangerAccessRequestImpl ret = new RangerAccessRequestImpl(resource, RangerKafkaAuthorizer.ACCESS_TYPE_WRITE, "user1", Collections.singleton("group1"));
+
+        ret.setAccessTime(new Date());
+
+        return ret;
+    }
+
+    private RangerAccessResult createResult(boolean isAllowed, boolean isAudited) {
+        RangerAccessResult ret = new RangerAccessResult(RangerPolicy.POLICY_TYPE_ACCESS, "cl1_kafka", null, createRequest());
+
+        ret.setIsAllowed(isAllowed);
+        ret.setIsAudited(isAudited);
+        ret.setPolicyId(10);
+
+        return ret;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.benchmark;
+
+import java.util.List;
+
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Requests to be evaluated by a benchmark thread. Each thread gets its own requests, as evaluation updates the request context.
+ */
+@State(Scope.Thread)
+public class AccessRequests {
+	private List<RangerAccessRequest> requests;
+	private int                       index;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		requests = BenchmarkData.createAccessRequests(BenchmarkData.REQUEST_COUNT);
+		index    = 0;
+	}
+
+	public RangerAccessRequest next() {
+		RangerAccessRequest ret = requests.get(index);
+
+		index = (index + 1) % requests.size();
+
+		return ret;
+	}
+
+	public List<RangerAccessRequest> getRequests() {
+		return requests;
+	}
+}
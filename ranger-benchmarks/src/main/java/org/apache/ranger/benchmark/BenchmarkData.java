@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.model.RangerServiceResource;
+import org.apache.ranger.plugin.model.RangerTag;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
+import org.apache.ranger.plugin.policyengine.RangerPluginContext;
+import org.apache.ranger.plugin.policyengine.RangerPolicyEngineOptions;
+import org.apache.ranger.plugin.util.ServicePolicies;
+import org.apache.ranger.plugin.util.ServiceTags;
+import org.apache.ranger.policyengine.perftest.v2.RangerPolicyFactory;
+
+/**
+ * Generates the data used by benchmarks, with a fixed seed so that results of different runs are comparable.
+ */
+public final class BenchmarkData {
+	public static final long   SEED          = 20200101L;
+	public static final int    REQUEST_COUNT = 1000;
+	public static final String SERVICE_TYPE  = "hive";
+	public static final String APP_ID        = "ranger-benchmark";
+
+	// same names as used by RangerPolicyFactory for resources of allowed policies and requests
+	private static final int DATABASE_COUNT = 10;
+	private static final int TABLE_COUNT    = 100;
+	private static final int COLUMN_COUNT   = 1000;
+	private static final int TAG_TYPE_COUNT = 20;
+
+	private BenchmarkData() {
+	}
+
+	public static ServicePolicies createServicePolicies(int policyCount) {
+		synchronized (RangerPolicyFactory.class) {
+			RangerPolicyFactory.setSeed(SEED);
+
+			return RangerPolicyFactory.createServicePolicy(policyCount);
+		}
+	}
+
+	// each call returns the same sequence of requests, so that every benchmark thread has its own copy to work on
+	public static List<RangerAccessRequest> createAccessRequests(int requestCount) {
+		synchronized (RangerPolicyFactory.class) {
+			RangerPolicyFactory.setSeed(SEED + 1);
+
+			return RangerPolicyFactory.createAccessRequests(requestCount);
+		}
+	}
+
+	public static RangerPolicyEngineOptions createPolicyEngineOptions() {
+		RangerPolicyEngineOptions ret = RangerPolicyFactory.createPolicyEngineOption();
+
+		ret.disableTrieLookupPrefilter = false; // as in plugins, so that trie lookup is part of the measurement
+
+		return ret;
+	}
+
+	public static RangerPluginContext createPluginContext() {
+		return new RangerPluginContext(SERVICE_TYPE, "cl1", "on-prem");
+	}
+
+	/**
+	 * Creates ServiceTags with tagCount tagged resources - half at table-level and half at column-level.
+	 */
+	public static ServiceTags createServiceTags(String serviceName, int tagCount) {
+		Random                      random           = new Random(SEED + 2);
+		Map<Long, RangerTag>        tags             = new HashMap<>();
+		List<RangerServiceResource> serviceResources = new ArrayList<>();
+		Map<Long, List<Long>>       resourceToTagIds = new HashMap<>();
+
+		for (long i = 0; i < tagCount; i++) {
+			Map<String, RangerPolicyResource> resourceElements = new HashMap<>();
+
+			resourceElements.put("database", new RangerPolicyResource("database_" + random.nextInt(DATABASE_COUNT)));
+			resourceElements.put("table", new RangerPolicyResource("tables_" + random.nextInt(TABLE_COUNT)));
+
+			if (i % 2 == 1) {
+				resourceElements.put("column", new RangerPolicyResource("column_" + random.nextInt(COLUMN_COUNT)));
+			}
+
+			RangerServiceResource serviceResource = new RangerServiceResource(serviceName, resourceElements);
+			RangerTag             tag             = new RangerTag("TAG_" + (i % TAG_TYPE_COUNT), Collections.<String, String>emptyMap());
+
+			serviceResource.setId(i);
+			tag.setId(i);
+
+			serviceResources.add(serviceResource);
+			tags.put(i, tag);
+			resourceToTagIds.put(i, Collections.singletonList(i));
+		}
+
+		ServiceTags ret = new ServiceTags();
+
+		ret.setServiceName(serviceName);
+		ret.setTagVersion(1L);
+		ret.setTagDefinitions(Collections.emptyMap());
+		ret.setTags(tags);
+		ret.setServiceResources(serviceResources);
+		ret.setResourceToTagIds(resourceToTagIds);
+
+		return ret;
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.benchmark;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ranger.plugin.policyengine.CacheMap;
+import org.apache.ranger.plugin.policyengine.ConcurrentCacheMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookup, with insert on miss, in the audit/access-result caches: a synchronized CacheMap vs ConcurrentCacheMap.
+ * Run with multiple thread counts to compare scalability, e.g.: -threads 1,2,4,8,16,32,64 CacheMapBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CacheMapBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class CacheState {
+		@Param({ "CacheMap", "ConcurrentCacheMap" })
+		public String cacheType;
+
+		@Param({ "1024", "65536" })
+		public int capacity;
+
+		// 1 of every (keySpaceFactor) keys fits in the cache
+		@Param({ "2" })
+		public int keySpaceFactor;
+
+		Map<String, String> cache;
+		String[]            keys;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			if ("CacheMap".equals(cacheType)) {
+				cache = Collections.synchronizedMap(new CacheMap<String, String>(capacity));
+			} else {
+				cache = new ConcurrentCacheMap<>(capacity);
+			}
+
+			keys = new String[capacity * keySpaceFactor];
+
+			for (int i = 0; i < keys.length; i++) {
+				keys[i] = "key-" + i;
+			}
+		}
+	}
+
+	@Benchmark
+	public String getOrPut(CacheState state) {
+		String key = state.keys[ThreadLocalRandom.current().nextInt(state.keys.length)];
+		String ret = state.cache.get(key);
+
+		if (ret == null) {
+			ret = key;
+
+			state.cache.put(key, ret);
+		}
+
+		return ret;
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ranger.plugin.geo.RangerGeolocationData;
+import org.apache.ranger.plugin.geo.RangerGeolocationDatabase;
+import org.apache.ranger.plugin.store.file.GeolocationFileStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookup of client IP addresses in a geolocation database, and loading of the database from a geolocation
+ * file vs from an index file. Data has one range per /24 IPv4 block, with a few hundred distinct locations.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class GeolocationBenchmark {
+	private static final int LOCATION_COUNT = 250;
+
+	@State(Scope.Benchmark)
+	public static class GeolocationState {
+		@Param({ "10000", "1000000" })
+		public int rangeCount;
+
+		File                      geoFile;
+		File                      indexFile;
+		RangerGeolocationDatabase database;
+		String[]                  ipAddresses;
+
+		@Setup(Level.Trial)
+		public void setUp() throws IOException {
+			Random random = new Random(BenchmarkData.SEED);
+
+			geoFile   = File.createTempFile("geo", ".txt");
+			indexFile = File.createTempFile("geo", ".idx");
+
+			try (BufferedWriter writer = new BufferedWriter(new FileWriter(geoFile))) {
+				writer.write("FROM_IP,TO_IP,COUNTRY_CODE,COUNTRY_NAME,STATE,CITY\n");
+
+				for (int i = 0; i < rangeCount; i++) {
+					long from     = (1L << 24) + ((long) i << 8);
+					int  location = random.nextInt(LOCATION_COUNT);
+
+					writer.write(from + "," + (from + 255) + ",C" + (location % 50) + ",Country" + (location % 50) + ",State" + location + ",City" + location + "\n");
+				}
+			}
+
+			database = loadGeoFile(geoFile, false);
+
+			database.writeTo(indexFile);
+
+			ipAddresses = new String[4096];
+
+			for (int i = 0; i < ipAddresses.length; i++) {
+				long ip = (1L << 24) + random.nextInt(rangeCount << 8);
+
+				ipAddresses[i] = RangerGeolocationData.unsignedIntToIPAddress(ip);
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			geoFile.delete();
+			indexFile.delete();
+		}
+	}
+
+	@Benchmark
+	public RangerGeolocationData find(GeolocationState state) {
+		return state.database.find(state.ipAddresses[ThreadLocalRandom.current().nextInt(state.ipAddresses.length)]);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	public RangerGeolocationDatabase loadGeolocationFile(GeolocationState state) {
+		return loadGeoFile(state.geoFile, false);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	public RangerGeolocationDatabase loadIndexFile(GeolocationState state) {
+		return loadGeoFile(state.indexFile, false);
+	}
+
+	private static RangerGeolocationDatabase loadGeoFile(File file, boolean ipInDotFormat) {
+		Map<String, String>  context = new HashMap<>();
+		GeolocationFileStore store   = new GeolocationFileStore();
+
+		context.put(GeolocationFileStore.PROP_GEOLOCATION_FILE_LOCATION, file.getAbsolutePath());
+		context.put(GeolocationFileStore.PROP_GEOLOCATION_FILE_REINIT, "true");
+		context.put(GeolocationFileStore.PROP_GEOLOCATION_IP_IN_DOT_FORMAT, Boolean.toString(ipInDotFormat));
+
+		store.init(context);
+
+		return store.getGeoDatabase();
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.apache.ranger.plugin.policyengine.RangerPluginContext;
+import org.apache.ranger.plugin.policyengine.RangerPolicyEngine;
+import org.apache.ranger.plugin.policyengine.RangerPolicyEngineImpl;
+import org.apache.ranger.plugin.policyengine.RangerPolicyEngineOptions;
+import org.apache.ranger.plugin.policyengine.RangerResourceACLs;
+import org.apache.ranger.plugin.util.ServicePolicies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Policy evaluation, resource ACL computation and policy-engine rebuild, for service-policies generated by RangerPolicyFactory.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PolicyEngineBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class PolicyEngineState {
+		@Param({ "100", "1000", "5000" })
+		public int policyCount;
+
+		ServicePolicies           servicePolicies;
+		RangerPolicyEngineOptions options;
+		RangerPluginContext       pluginContext;
+		RangerPolicyEngineImpl    policyEngine;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			servicePolicies = BenchmarkData.createServicePolicies(policyCount);
+			options         = BenchmarkData.createPolicyEngineOptions();
+			pluginContext   = BenchmarkData.createPluginContext();
+			policyEngine    = new RangerPolicyEngineImpl(BenchmarkData.APP_ID, servicePolicies, options, pluginContext, null);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			policyEngine.releaseResources();
+		}
+	}
+
+	@Benchmark
+	public RangerAccessResult evaluatePolicies(PolicyEngineState state, AccessRequests requests) {
+		return state.policyEngine.evaluatePolicies(requests.next(), RangerPolicy.POLICY_TYPE_ACCESS, null);
+	}
+
+	@Benchmark
+	public RangerResourceACLs getResourceACLs(PolicyEngineState state, AccessRequests requests) {
+		return state.policyEngine.getResourceACLs(requests.next());
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@Measurement(iterations = 5, time = 10)
+	public RangerPolicyEngine rebuildPolicyEngine(PolicyEngineState state) {
+		RangerPolicyEngineImpl ret = new RangerPolicyEngineImpl(BenchmarkData.APP_ID, state.servicePolicies, state.options, state.pluginContext, null);
+
+		ret.releaseResources(); // stops threads started by context-enrichers, like the tag-refresher
+
+		return ret;
+	}
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang.StringUtils;
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs benchmarks with JMH. In addition to JMH options, accepts "-threads n1,n2,..." to run the selected benchmarks
+ * once for each thread count, so that a single run shows how throughput scales with concurrency. For example:
+ *   java -jar ranger-benchmarks.jar -threads 1,4,16,64 -p policyCount=1000 PolicyEngineBenchmark
+ */
+public class RangerBenchmarkRunner {
+	private static final String OPTION_THREADS = "-threads";
+
+	public static void main(String[] args) throws Exception {
+		List<Integer> threadCounts = new ArrayList<>();
+		List<String>  jmhArgs      = new ArrayList<>();
+
+		for (int i = 0; i < args.length; i++) {
+			if (OPTION_THREADS.equals(args[i]) && i + 1 < args.length) {
+				for (String threadCount : StringUtils.split(args[++i], ',')) {
+					threadCounts.add(Integer.parseInt(threadCount.trim()));
+				}
+			} else {
+				jmhArgs.add(args[i]);
+			}
+		}
+
+		if (threadCounts.isEmpty()) {
+			Main.main(jmhArgs.toArray(new String[0]));
+		} else {
+			CommandLineOptions options = new CommandLineOptions(jmhArgs.toArray(new String[0]));
+
+			for (Integer threadCount : threadCounts) {
+				new Runner(new OptionsBuilder().parent(options).threads(threadCount).build()).run();
+			}
+		}
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.model.RangerServiceDef.RangerResourceDef;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
+import org.apache.ranger.plugin.policyresourcematcher.RangerPolicyResourceEvaluator;
+import org.apache.ranger.plugin.policyresourcematcher.RangerPolicyResourceMatcher;
+import org.apache.ranger.plugin.resourcematcher.RangerResourceMatcher;
+import org.apache.ranger.plugin.util.RangerResourceTrie;
+import org.apache.ranger.plugin.util.ServicePolicies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookup of evaluators in a RangerResourceTrie built for the "table" resource of generated policies.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ResourceTrieBenchmark {
+	private static final String RESOURCE_NAME = "table";
+
+	@State(Scope.Benchmark)
+	public static class ResourceTrieState {
+		@Param({ "1000", "10000", "50000" })
+		public int policyCount;
+
+		RangerResourceTrie<PolicyResourceEvaluator> trie;
+		String[]                                    resources;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			ServicePolicies               servicePolicies = BenchmarkData.createServicePolicies(policyCount);
+			RangerResourceDef             resourceDef     = null;
+			List<PolicyResourceEvaluator> evaluators      = new ArrayList<>();
+
+			for (RangerResourceDef def : servicePolicies.getServiceDef().getResources()) {
+				if (RESOURCE_NAME.equals(def.getName())) {
+					resourceDef = def;
+				}
+			}
+
+			for (RangerPolicy policy : servicePolicies.getPolicies()) {
+				evaluators.add(new PolicyResourceEvaluator(policy));
+			}
+
+			trie = new RangerResourceTrie<>(resourceDef, evaluators);
+
+			List<RangerAccessRequest> requests = BenchmarkData.createAccessRequests(BenchmarkData.REQUEST_COUNT);
+
+			resources = new String[requests.size()];
+
+			for (int i = 0; i < resources.length; i++) {
+				resources[i] = (String) requests.get(i).getResource().getValue(RESOURCE_NAME);
+			}
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Cursor {
+		int index;
+
+		String next(String[] resources) {
+			String ret = resources[index];
+
+			index = (index + 1) % resources.length;
+
+			return ret;
+		}
+	}
+
+	@Benchmark
+	public List<PolicyResourceEvaluator> getEvaluatorsForResource(ResourceTrieState state, Cursor cursor) {
+		return state.trie.getEvaluatorsForResource(cursor.next(state.resources));
+	}
+
+	static class PolicyResourceEvaluator implements RangerPolicyResourceEvaluator {
+		private final long                              id;
+		private final Map<String, RangerPolicyResource> policyResource;
+
+		PolicyResourceEvaluator(RangerPolicy policy) {
+			this.id             = policy.getId();
+			this.policyResource = policy.getResources();
+		}
+
+		@Override
+		public long getId() { return id; }
+
+		@Override
+		public RangerPolicyResourceMatcher getPolicyResourceMatcher() { return null; }
+
+		@Override
+		public Map<String, RangerPolicyResource> getPolicyResource() { return policyResource; }
+
+		@Override
+		public RangerResourceMatcher getResourceMatcher(String resourceName) { return null; }
+
+		@Override
+		public boolean isAncestorOf(RangerResourceDef resourceDef) { return false; }
+	}
+}
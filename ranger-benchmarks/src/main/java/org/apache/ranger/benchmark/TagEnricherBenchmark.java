@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ranger.plugin.contextenricher.RangerTagEnricher;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
+import org.apache.ranger.plugin.util.ServicePolicies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Enrichment of requests with tags of the accessed resource.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TagEnricherBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class TagEnricherState {
+		@Param({ "100", "1000", "10000" })
+		public int tagCount;
+
+		RangerTagEnricher tagEnricher;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			ServicePolicies servicePolicies = BenchmarkData.createServicePolicies(0);
+
+			tagEnricher = new RangerTagEnricher();
+
+			tagEnricher.setServiceName(servicePolicies.getServiceName());
+			tagEnricher.setServiceDef(servicePolicies.getServiceDef());
+			tagEnricher.setServiceTags(BenchmarkData.createServiceTags(servicePolicies.getServiceName(), tagCount));
+		}
+	}
+
+	@Benchmark
+	public RangerAccessRequest enrich(TagEnricherState state, AccessRequests requests) {
+		RangerAccessRequest request = requests.next();
+
+		state.tagEnricher.enrich(request);
+
+		return request;
+	}
+}
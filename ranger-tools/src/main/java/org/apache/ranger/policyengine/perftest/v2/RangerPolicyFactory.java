@@ -21,7 +21,8 @@ package org.apache.ranger.policyengine.perftest.v2;
 
 import static com.google.common.base.Preconditions.checkState;
 
-import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.lang.reflect.Type;
 import java.util.Arrays;
 import java.util.Collection;
@@ -52,7 +53,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
-import com.google.common.io.Files;
+import com.google.common.io.CharStreams;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
@@ -232,15 +233,23 @@ public class RangerPolicyFactory {
 	}
 
 	public static String readResourceFile(String fileName) {
-		try {
-			File f = new File(RangerPolicyFactory.class.getResource(fileName).toURI());
-			checkState(f.exists() && f.isFile() && f.canRead());
-			return Files.toString(f, Charsets.UTF_8);
+		// read as a stream, so that templates can also be loaded from a jar (e.g. ranger-benchmarks)
+		try (InputStream in = RangerPolicyFactory.class.getResourceAsStream(fileName)) {
+			checkState(in != null, "resource not found: %s", fileName);
+			return CharStreams.toString(new InputStreamReader(in, Charsets.UTF_8));
 		} catch (Exception e) {
 			throw Throwables.propagate(e);
 		}
 	}
 
+	/**
+	 * Seeds the generator, so that a run generates the same policies and requests as a previous one.
+	 * @param seed
+	 */
+	public static void setSeed(long seed) {
+		RANDOM.setSeed(seed);
+	}
+
 	public static RangerPolicyEngineOptions createPolicyEngineOption() {
 		RangerPolicyEngineOptions policyEngineOptions = new RangerPolicyEngineOptions();
 		policyEngineOptions.disableTagPolicyEvaluation = false;
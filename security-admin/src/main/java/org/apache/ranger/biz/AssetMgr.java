@@ -28,8 +28,18 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.naming.InvalidNameException;
 import javax.naming.ldap.LdapName;
 import javax.naming.ldap.Rdn;
@@ -39,6 +49,7 @@ import javax.servlet.http.HttpServletResponse;
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
 import org.apache.ranger.common.AppConstants;
+import org.apache.ranger.common.ContextUtil;
 import org.apache.ranger.common.DateUtil;
 import org.apache.ranger.common.JSONUtil;
 import org.apache.ranger.common.MessageEnums;
@@ -47,6 +58,7 @@ import org.apache.ranger.common.RangerCommonEnums;
 import org.apache.ranger.common.RangerConstants;
 import org.apache.ranger.common.SearchCriteria;
 import org.apache.ranger.common.StringUtil;
+import org.apache.ranger.common.UserSessionBase;
 import org.apache.ranger.db.RangerDaoManager;
 import org.apache.ranger.entity.XXPermMap;
 import org.apache.ranger.entity.XXPluginInfo;
@@ -65,7 +77,15 @@ import org.apache.ranger.view.*;
 import org.codehaus.jackson.JsonGenerationException;
 import org.codehaus.jackson.map.JsonMappingException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 @Component
 public class AssetMgr extends AssetMgrBase {
@@ -124,10 +144,90 @@ public class AssetMgr extends AssetMgrBase {
 	@Autowired
 	ServiceMgr serviceMgr;
 
+	@Autowired
+	@Qualifier(value = "transactionManager")
+	PlatformTransactionManager txManager;
+
 	private static final Logger logger = Logger.getLogger(AssetMgr.class);
 
 	private static final String adminCapabilities = Long.toHexString(new RangerPluginCapability().getPluginCapabilities());
 
+	private static final String PROP_PLUGIN_ACTIVITY_ASYNC_ENABLED           = "ranger.plugin.activity.audit.async.enabled";
+	private static final String PROP_PLUGIN_ACTIVITY_ASYNC_FLUSH_INTERVAL_MS = "ranger.plugin.activity.audit.async.flush.interval.ms";
+	private static final String PROP_PLUGIN_ACTIVITY_ASYNC_QUEUE_SIZE        = "ranger.plugin.activity.audit.async.queue.size";
+	private static final String PROP_PLUGIN_ACTIVITY_ASYNC_BATCH_SIZE        = "ranger.plugin.activity.audit.async.batch.size";
+
+	private final Map<PluginInfoKey, PendingPluginInfo> pendingPluginInfos       = new ConcurrentHashMap<>();
+	private final AtomicLong                            pluginInfoQueuedCount    = new AtomicLong();
+	private final AtomicLong                            pluginInfoCoalescedCount = new AtomicLong();
+	private final AtomicLong                            pluginInfoWrittenCount   = new AtomicLong();
+	private final AtomicLong                            pluginInfoFailedCount    = new AtomicLong();
+	private final AtomicLong                            exportAuditQueuedCount   = new AtomicLong();
+	private final AtomicLong                            exportAuditDroppedCount  = new AtomicLong();
+	private final AtomicLong                            exportAuditWrittenCount  = new AtomicLong();
+	private final AtomicLong                            exportAuditFailedCount   = new AtomicLong();
+	private BlockingQueue<XXPolicyExportAudit>          pendingExportAudits      = null;
+	private ScheduledExecutorService                    pluginActivityWriter     = null;
+	private int                                         pluginActivityBatchSize  = 500;
+	private volatile boolean                            isPluginActivityAsync    = false;
+
+	/*
+	 * Plugin-info updates and policy-download audits are written by a background thread, instead of in each plugin
+	 * poll: plugin-info updates for a (service, host, appType, entityType) received within a flush interval are
+	 * coalesced into one, and download audits are batch inserted from a bounded queue - new audits are dropped when
+	 * the queue is full.
+	 */
+	@PostConstruct
+	public void initPluginActivityWriter() {
+		if (PropertiesUtil.getBooleanProperty(PROP_PLUGIN_ACTIVITY_ASYNC_ENABLED, true)) {
+			long flushIntervalMs = PropertiesUtil.getLongProperty(PROP_PLUGIN_ACTIVITY_ASYNC_FLUSH_INTERVAL_MS, 5 * 1000L);
+			int  queueSize       = PropertiesUtil.getIntProperty(PROP_PLUGIN_ACTIVITY_ASYNC_QUEUE_SIZE, 10000);
+
+			pluginActivityBatchSize = PropertiesUtil.getIntProperty(PROP_PLUGIN_ACTIVITY_ASYNC_BATCH_SIZE, 500);
+			pendingExportAudits     = new ArrayBlockingQueue<>(queueSize);
+			pluginActivityWriter    = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("PluginActivityWriter-%d").setDaemon(true).build());
+
+			pluginActivityWriter.scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					flushPluginActivity();
+				}
+			}, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+
+			isPluginActivityAsync = true;
+
+			logger.info("Plugin activity will be written asynchronously: flushIntervalMs=" + flushIntervalMs + ", queueSize=" + queueSize + ", batchSize=" + pluginActivityBatchSize);
+		} else {
+			logger.info("Plugin activity will be written in request threads: " + PROP_PLUGIN_ACTIVITY_ASYNC_ENABLED + "=false");
+		}
+	}
+
+	@PreDestroy
+	public void destroyPluginActivityWriter() {
+		if (pluginActivityWriter != null) {
+			isPluginActivityAsync = false;
+
+			pluginActivityWriter.shutdown();
+
+			try {
+				if (!pluginActivityWriter.awaitTermination(5, TimeUnit.SECONDS)) {
+					pluginActivityWriter.shutdownNow();
+				}
+			} catch (InterruptedException excp) {
+				pluginActivityWriter.shutdownNow();
+			}
+
+			flushPluginActivity(); // write activity received before the writer was stopped
+
+			logger.info("Plugin activity writer stopped: " + getPluginActivityWriterStats());
+		}
+	}
+
+	public String getPluginActivityWriterStats() {
+		return "pluginInfo={queued=" + pluginInfoQueuedCount.get() + ", coalesced=" + pluginInfoCoalescedCount.get() + ", written=" + pluginInfoWrittenCount.get() + ", failed=" + pluginInfoFailedCount.get() + ", pending=" + pendingPluginInfos.size() + "}"
+			 + ", policyExportAudit={queued=" + exportAuditQueuedCount.get() + ", dropped=" + exportAuditDroppedCount.get() + ", written=" + exportAuditWrittenCount.get() + ", failed=" + exportAuditFailedCount.get() + ", pending=" + (pendingExportAudits != null ? pendingExportAudits.size() : 0) + "}";
+	}
+
 	public File getXResourceFile(Long id, String fileType) {
 		VXResource xResource = xResourceService.readResource(id);
 		if (xResource == null) {
@@ -644,7 +744,7 @@ public class AssetMgr extends AssetMgrBase {
 				logger.debug("Not logging HttpServletResponse."
 						+ "SC_NOT_MODIFIED, to enable, update "
 						+ ": ranger.log.SC_NOT_MODIFIED");
-			} else {
+			} else if (!queuePolicyExportAudit(xXPolicyExportAudit)) {
 				// Create PolicyExportAudit record after transaction is completed. If it is created in-line here
 				// then the TransactionManager will roll-back the changes because the HTTP return code is
 				// HttpServletResponse.SC_NOT_MODIFIED
@@ -657,7 +757,7 @@ public class AssetMgr extends AssetMgrBase {
 				};
 				activityLogger.commitAfterTransactionComplete(commitWork);
 			}
-		} else {
+		} else if (!queuePolicyExportAudit(xXPolicyExportAudit)) {
 			ret = rangerDaoManager.getXXPolicyExportAudit().create(xXPolicyExportAudit);
 		}
 
@@ -720,7 +820,9 @@ public class AssetMgr extends AssetMgrBase {
 
 		final boolean isTagVersionResetNeeded;
 
-		if (httpCode == HttpServletResponse.SC_NOT_MODIFIED) {
+		if (isPluginActivityAsync) {
+			queuePluginInfo(pluginInfo, entityType, httpCode, clusterName);
+		} else if (httpCode == HttpServletResponse.SC_NOT_MODIFIED) {
 			// Create or update PluginInfo record after transaction is completed. If it is created in-line here
 			// then the TransactionManager will roll-back the changes because the HTTP return code is
 			// HttpServletResponse.SC_NOT_MODIFIED
@@ -778,6 +880,165 @@ public class AssetMgr extends AssetMgrBase {
 
 	}
 
+	private boolean queuePolicyExportAudit(XXPolicyExportAudit policyExportAudit) {
+		final BlockingQueue<XXPolicyExportAudit> queue = pendingExportAudits;
+
+		if (!isPluginActivityAsync || queue == null) {
+			return false;
+		}
+
+		if (policyExportAudit.getAddedByUserId() == null) { // user-session is not available in the writer thread
+			UserSessionBase userSession = ContextUtil.getCurrentUserSession();
+
+			if (userSession != null) {
+				policyExportAudit.setAddedByUserId(userSession.getUserId());
+				policyExportAudit.setUpdatedByUserId(userSession.getUserId());
+			}
+		}
+
+		if (queue.offer(policyExportAudit)) {
+			exportAuditQueuedCount.incrementAndGet();
+		} else {
+			long droppedCount = exportAuditDroppedCount.incrementAndGet();
+
+			if (droppedCount == 1 || droppedCount % 1000 == 0) {
+				logger.warn("Policy download audit queue is full; dropped " + droppedCount + " audits so far. " + PROP_PLUGIN_ACTIVITY_ASYNC_QUEUE_SIZE + "=" + (queue.size() + queue.remainingCapacity()));
+			}
+		}
+
+		return true;
+	}
+
+	private void queuePluginInfo(RangerPluginInfo pluginInfo, int entityType, int httpCode, String clusterName) {
+		PluginInfoKey     key      = new PluginInfoKey(pluginInfo.getServiceName(), pluginInfo.getHostName(), pluginInfo.getAppType(), entityType);
+		PendingPluginInfo previous = pendingPluginInfos.put(key, new PendingPluginInfo(pluginInfo, entityType, httpCode, clusterName));
+
+		pluginInfoQueuedCount.incrementAndGet();
+
+		if (previous != null) {
+			pluginInfoCoalescedCount.incrementAndGet();
+		}
+	}
+
+	void flushPluginActivity() {
+		if (logger.isDebugEnabled()) {
+			logger.debug("==> AssetMgr.flushPluginActivity(): " + getPluginActivityWriterStats());
+		}
+
+		try {
+			flushPendingPluginInfos();
+			flushPendingExportAudits();
+		} catch (Throwable excp) {
+			logger.error("AssetMgr.flushPluginActivity(): failed", excp);
+		}
+
+		if (logger.isDebugEnabled()) {
+			logger.debug("<== AssetMgr.flushPluginActivity(): " + getPluginActivityWriterStats());
+		}
+	}
+
+	private void flushPendingPluginInfos() {
+		List<PendingPluginInfo> batch = new ArrayList<>();
+
+		for (PluginInfoKey key : pendingPluginInfos.keySet()) {
+			PendingPluginInfo pendingPluginInfo = pendingPluginInfos.remove(key);
+
+			if (pendingPluginInfo != null) {
+				batch.add(pendingPluginInfo);
+			}
+
+			if (batch.size() >= pluginActivityBatchSize) {
+				writePluginInfos(batch);
+
+				batch.clear();
+			}
+		}
+
+		if (!batch.isEmpty()) {
+			writePluginInfos(batch);
+		}
+	}
+
+	private void writePluginInfos(final List<PendingPluginInfo> batch) {
+		try {
+			executeInNewTransaction(new Runnable() {
+				@Override
+				public void run() {
+					for (PendingPluginInfo pendingPluginInfo : batch) {
+						pendingPluginInfo.write();
+					}
+				}
+			});
+
+			pluginInfoWrittenCount.addAndGet(batch.size());
+		} catch (Exception excp) {
+			logger.warn("Failed to write " + batch.size() + " plugin-info updates in a batch. Will write one at a time", excp);
+
+			for (final PendingPluginInfo pendingPluginInfo : batch) {
+				try {
+					executeInNewTransaction(new Runnable() {
+						@Override
+						public void run() {
+							pendingPluginInfo.write();
+						}
+					});
+
+					pluginInfoWrittenCount.incrementAndGet();
+				} catch (Exception excp2) {
+					pluginInfoFailedCount.incrementAndGet();
+
+					logger.error("Failed to write plugin-info: " + pendingPluginInfo.pluginInfo, excp2);
+				}
+			}
+		}
+	}
+
+	private void flushPendingExportAudits() {
+		final BlockingQueue<XXPolicyExportAudit> queue = pendingExportAudits;
+
+		if (queue == null) {
+			return;
+		}
+
+		final List<XXPolicyExportAudit> batch = new ArrayList<>(Math.min(pluginActivityBatchSize, queue.size()));
+
+		while (queue.drainTo(batch, pluginActivityBatchSize) > 0) {
+			try {
+				executeInNewTransaction(new Runnable() {
+					@Override
+					public void run() {
+						for (XXPolicyExportAudit policyExportAudit : batch) {
+							rangerDaoManager.getXXPolicyExportAudit().create(policyExportAudit, false);
+						}
+
+						rangerDaoManager.getXXPolicyExportAudit().flush();
+					}
+				});
+
+				exportAuditWrittenCount.addAndGet(batch.size());
+			} catch (Exception excp) {
+				exportAuditFailedCount.addAndGet(batch.size());
+
+				logger.error("Failed to write " + batch.size() + " policy download audits", excp);
+			}
+
+			batch.clear();
+		}
+	}
+
+	private void executeInNewTransaction(final Runnable work) {
+		TransactionTemplate txTemplate = new TransactionTemplate(txManager);
+
+		txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+		txTemplate.execute(new TransactionCallbackWithoutResult() {
+			@Override
+			protected void doInTransactionWithoutResult(TransactionStatus status) {
+				work.run();
+			}
+		});
+	}
+
 	private XXPluginInfo doCreateOrUpdateXXPluginInfo(RangerPluginInfo pluginInfo, int entityType, final boolean isTagVersionResetNeeded, String clusterName) {
 		XXPluginInfo ret = null;
 		Map<String, String> infoMap = null;
@@ -1256,4 +1517,67 @@ public class AssetMgr extends AssetMgrBase {
 	private boolean isRoleDownloadRequest(int entityType) {
 		return entityType == RangerPluginInfo.ENTITY_TYPE_ROLES;
 	}
+
+	private static final class PluginInfoKey {
+		private final String serviceName;
+		private final String hostName;
+		private final String appType;
+		private final int    entityType;
+
+		PluginInfoKey(String serviceName, String hostName, String appType, int entityType) {
+			this.serviceName = serviceName;
+			this.hostName    = hostName;
+			this.appType     = appType;
+			this.entityType  = entityType;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(serviceName, hostName, appType, entityType);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+
+			if (!(obj instanceof PluginInfoKey)) {
+				return false;
+			}
+
+			PluginInfoKey other = (PluginInfoKey) obj;
+
+			return entityType == other.entityType && Objects.equals(serviceName, other.serviceName) && Objects.equals(hostName, other.hostName) && Objects.equals(appType, other.appType);
+		}
+	}
+
+	private final class PendingPluginInfo {
+		final RangerPluginInfo pluginInfo;
+		final int              entityType;
+		final int              httpCode;
+		final String           clusterName;
+
+		PendingPluginInfo(RangerPluginInfo pluginInfo, int entityType, int httpCode, String clusterName) {
+			this.pluginInfo  = pluginInfo;
+			this.entityType  = entityType;
+			this.httpCode    = httpCode;
+			this.clusterName = clusterName;
+		}
+
+		// same as the synchronous path in createOrUpdatePluginInfo()
+		void write() {
+			if (httpCode == HttpServletResponse.SC_NOT_FOUND
+					&& ((isPolicyDownloadRequest(entityType) && (pluginInfo.getPolicyActiveVersion() == null || pluginInfo.getPolicyActiveVersion() == -1))
+					|| (isTagDownloadRequest(entityType) && (pluginInfo.getTagActiveVersion() == null || pluginInfo.getTagActiveVersion() == -1))
+					|| (isRoleDownloadRequest(entityType) && (pluginInfo.getRoleActiveVersion() == null || pluginInfo.getRoleActiveVersion() == -1)))) {
+				doDeleteXXPluginInfo(pluginInfo);
+			} else {
+				boolean isTagVersionResetNeeded = httpCode == HttpServletResponse.SC_NOT_MODIFIED && isPolicyDownloadRequest(entityType)
+												  && rangerDaoManager.getXXService().findAssociatedTagService(pluginInfo.getServiceName()) == null;
+
+				doCreateOrUpdateXXPluginInfo(pluginInfo, entityType, isTagVersionResetNeeded, clusterName);
+			}
+		}
+	}
 }
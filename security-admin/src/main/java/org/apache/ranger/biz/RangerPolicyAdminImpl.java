@@ -23,9 +23,11 @@ import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.ranger.common.PropertiesUtil;
 import org.apache.ranger.plugin.contextenricher.RangerTagForEval;
 import org.apache.ranger.plugin.model.RangerPolicy;
 import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.policyengine.ConcurrentCacheMap;
 import org.apache.ranger.plugin.policyengine.PolicyEngine;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequestProcessor;
@@ -44,8 +46,11 @@ import org.apache.ranger.plugin.util.RangerRoles;
 import org.apache.ranger.plugin.util.ServicePolicies;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 public class RangerPolicyAdminImpl implements RangerPolicyAdmin {
@@ -53,8 +58,11 @@ public class RangerPolicyAdminImpl implements RangerPolicyAdmin {
 
     private static final Log PERF_POLICYENGINE_REQUEST_LOG = RangerPerfTracer.getPerfLogger("policyengine.request");
 
+    private static final String PROP_PRINCIPAL_EVALUATORS_CACHE_SIZE = "ranger.admin.policyadmin.principal.evaluators.cache.size";
+
     private final PolicyEngine policyEngine;
     private final RangerAccessRequestProcessor requestProcessor;
+    private final Map<PrincipalEvaluatorsKey, List<RangerPolicyEvaluator>> principalEvaluatorsCache;
 
     static public RangerPolicyAdmin getPolicyAdmin(final RangerPolicyAdminImpl other, final ServicePolicies servicePolicies) {
         RangerPolicyAdmin ret = null;
@@ -71,11 +79,13 @@ public class RangerPolicyAdminImpl implements RangerPolicyAdmin {
     RangerPolicyAdminImpl(String appId, ServicePolicies servicePolicies, RangerPolicyEngineOptions options, RangerPluginContext rangerPluginContext, RangerRoles rangerRoles) {
         policyEngine = new PolicyEngine(appId, servicePolicies, options, rangerPluginContext, rangerRoles);
         this.requestProcessor = new RangerDefaultRequestProcessor(policyEngine);
+        this.principalEvaluatorsCache = createPrincipalEvaluatorsCache();
     }
 
     private RangerPolicyAdminImpl(final PolicyEngine policyEngine) {
         this.policyEngine = policyEngine;
         this.requestProcessor = new RangerDefaultRequestProcessor(policyEngine);
+        this.principalEvaluatorsCache = createPrincipalEvaluatorsCache();
     }
 
     @Override
@@ -137,8 +147,8 @@ public class RangerPolicyAdminImpl implements RangerPolicyAdmin {
 
         if (matchedRepository != null) {
 
-            for (RangerPolicyEvaluator evaluator : matchedRepository.getPolicyEvaluators()) {
-                ret = evaluator.isAccessAllowed(policy, user, userGroups, roles, accessType);
+            for (RangerPolicyEvaluator evaluator : getPolicyEvaluatorsForPrincipal(matchedRepository, user, userGroups, roles, accessType)) {
+                ret = evaluator.isMatch(policy, null);
 
                 if (ret) {
                     break;
@@ -318,6 +328,45 @@ public class RangerPolicyAdminImpl implements RangerPolicyAdmin {
         }
     }
 
+    /*
+     * Returns evaluators of the given repository whose policy-items allow accessType to the principal. As these don't
+     * depend on the policy being checked, they are computed once per principal and reused for all policies - for
+     * example while filtering a page of policies for a delegated-admin. Cached lists are discarded along with this
+     * instance when a policy-delta creates a new RangerPolicyAdminImpl.
+     */
+    private List<RangerPolicyEvaluator> getPolicyEvaluatorsForPrincipal(RangerPolicyRepository repository, String user, Set<String> userGroups, Set<String> roles, String accessType) {
+        PrincipalEvaluatorsKey      key = new PrincipalEvaluatorsKey(repository, user, userGroups, roles, accessType);
+        List<RangerPolicyEvaluator> ret = principalEvaluatorsCache != null ? principalEvaluatorsCache.get(key) : null;
+
+        if (ret == null) {
+            ret = new ArrayList<>();
+
+            for (RangerPolicyEvaluator evaluator : repository.getPolicyEvaluators()) {
+                if (evaluator.isAccessAllowedForPrincipal(user, userGroups, roles, accessType)) {
+                    ret.add(evaluator);
+                }
+            }
+
+            ret = ret.isEmpty() ? Collections.<RangerPolicyEvaluator>emptyList() : Collections.unmodifiableList(ret);
+
+            if (principalEvaluatorsCache != null) {
+                principalEvaluatorsCache.put(key.copy(), ret);
+            }
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("RangerPolicyAdminImpl.getPolicyEvaluatorsForPrincipal(" + user + ", " + userGroups + ", " + roles + ", " + accessType + "): found " + ret.size() + " of " + repository.getPolicyEvaluators().size() + " evaluators");
+            }
+        }
+
+        return ret;
+    }
+
+    private static Map<PrincipalEvaluatorsKey, List<RangerPolicyEvaluator>> createPrincipalEvaluatorsCache() {
+        int cacheSize = PropertiesUtil.getIntProperty(PROP_PRINCIPAL_EVALUATORS_CACHE_SIZE, 1024);
+
+        return cacheSize > 0 ? new ConcurrentCacheMap<PrincipalEvaluatorsKey, List<RangerPolicyEvaluator>>(cacheSize) : null;
+    }
+
     private List<RangerPolicy> getMatchingPolicies(RangerAccessResource resource, String accessType) {
         if (LOG.isDebugEnabled()) {
             LOG.debug("==> RangerPolicyAdminImpl.getMatchingPolicies(" + resource + ", " + accessType + ")");
@@ -395,5 +444,48 @@ public class RangerPolicyAdminImpl implements RangerPolicyAdmin {
         return ret;
     }
 
-}
 
+    private static final class PrincipalEvaluatorsKey {
+        private final RangerPolicyRepository repository;
+        private final String                 user;
+        private final Set<String>            userGroups;
+        private final Set<String>            roles;
+        private final String                 accessType;
+        private final int                    hashCode;
+
+        PrincipalEvaluatorsKey(RangerPolicyRepository repository, String user, Set<String> userGroups, Set<String> roles, String accessType) {
+            this.repository = repository;
+            this.user       = user;
+            this.userGroups = userGroups;
+            this.roles      = roles;
+            this.accessType = accessType;
+            this.hashCode   = Objects.hash(System.identityHashCode(repository), user, userGroups, roles, accessType);
+        }
+
+        // lookups use the caller's collections as-is; the key stored in the cache holds its own copies
+        PrincipalEvaluatorsKey copy() {
+            return new PrincipalEvaluatorsKey(repository, user, userGroups == null ? null : new HashSet<>(userGroups), roles == null ? null : new HashSet<>(roles), accessType);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof PrincipalEvaluatorsKey)) {
+                return false;
+            }
+
+            PrincipalEvaluatorsKey other = (PrincipalEvaluatorsKey) obj;
+
+            return repository == other.repository && hashCode == other.hashCode && Objects.equals(user, other.user)
+                    && Objects.equals(accessType, other.accessType) && Objects.equals(userGroups, other.userGroups) && Objects.equals(roles, other.roles);
+        }
+    }
+}
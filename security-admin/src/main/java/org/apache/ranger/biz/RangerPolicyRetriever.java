@@ -20,10 +20,20 @@
 package org.apache.ranger.biz;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
@@ -32,6 +42,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.ranger.authorization.utils.JsonUtils;
 import org.apache.ranger.authorization.utils.StringUtil;
+import org.apache.ranger.common.PropertiesUtil;
 import org.apache.ranger.db.RangerDaoManager;
 import org.apache.ranger.entity.XXPolicy;
 import org.apache.ranger.entity.XXPolicyLabel;
@@ -53,11 +64,19 @@ import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.support.TransactionCallback;
 import org.springframework.transaction.support.TransactionTemplate;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 
 public class RangerPolicyRetriever {
 	static final Log LOG      = LogFactory.getLog(RangerPolicyRetriever.class);
 	static final Log PERF_LOG = RangerPerfTracer.getPerfLogger("db.RangerPolicyRetriever");
 
+	// policies of a service are read from the database in chunks of FETCH_SIZE, and decoded by DECODER_THREAD_COUNT threads
+	static final int FETCH_SIZE           = PropertiesUtil.getIntProperty("ranger.admin.policy.retriever.fetch.size", 1000);
+	static final int DECODER_THREAD_COUNT = PropertiesUtil.getIntProperty("ranger.admin.policy.retriever.decoder.threads", Runtime.getRuntime().availableProcessors());
+
+	private static volatile ExecutorService decoderPool;
+
 	private final RangerDaoManager  daoMgr;
 	private final LookupCache       lookupCache = new LookupCache();
 
@@ -137,7 +156,7 @@ public class RangerPolicyRetriever {
 					@Override
 					public List<RangerPolicy> doInTransaction(TransactionStatus status) {
 						try {
-							RetrieverContext ctx = new RetrieverContext(xService);
+							RetrieverContext ctx = new RetrieverContext(xService, true);
 							return ctx.getAllPolicies();
 						} catch (Exception ex) {
 							LOG.error("RangerPolicyRetriever.getServicePolicies(): Failed to get policies for service:[" + xService.getName() + "] in a new transaction", ex);
@@ -172,7 +191,7 @@ public class RangerPolicyRetriever {
 				if (LOG.isDebugEnabled()) {
 					LOG.debug("Transaction Manager is null; Retrieving policies in the existing transaction");
 				}
-				RetrieverContext ctx = new RetrieverContext(xService);
+				RetrieverContext ctx = new RetrieverContext(xService, false);
 				ret = ctx.getAllPolicies();
 			} else {
 				if (LOG.isDebugEnabled()) {
@@ -304,6 +323,28 @@ public class RangerPolicyRetriever {
 		return ret;
 	}
 
+	// returns null if policies are to be decoded in the calling thread
+	private static ExecutorService getDecoderPool() {
+		ExecutorService ret = decoderPool;
+
+		if (ret == null && DECODER_THREAD_COUNT > 1) {
+			synchronized (RangerPolicyRetriever.class) {
+				ret = decoderPool;
+
+				if (ret == null) {
+					ThreadPoolExecutor executor = new ThreadPoolExecutor(DECODER_THREAD_COUNT, DECODER_THREAD_COUNT, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+																		 new ThreadFactoryBuilder().setDaemon(true).setNameFormat("policy-decoder-%d").build());
+
+					executor.allowCoreThreadTimeOut(true);
+
+					decoderPool = ret = executor;
+				}
+			}
+		}
+
+		return ret;
+	}
+
 	class LookupCache {
 		final Map<Long, String>              userScreenNames            = new HashMap<Long, String>();
 		final Map<Long, String>              zoneNames                  = new HashMap<Long, String>();
@@ -346,19 +387,7 @@ public class RangerPolicyRetriever {
 					XXPortalUser user = daoMgr.getXXPortalUser().getById(userId);
 
 					if(user != null) {
-						ret = user.getPublicScreenName();
-
-						if (StringUtil.isEmpty(ret)) {
-							ret = user.getFirstName();
-
-							if(StringUtil.isEmpty(ret)) {
-								ret = user.getLoginId();
-							} else {
-								if(!StringUtil.isEmpty(user.getLastName())) {
-									ret += (" " + user.getLastName());
-								}
-							}
-						}
+						ret = getScreenName(user);
 
 						if(ret != null) {
 							userScreenNames.put(userId, ret);
@@ -370,6 +399,65 @@ public class RangerPolicyRetriever {
 			return ret;
 		}
 
+		// reads screen names of users not in the cache with a single query
+		void prefetchUserScreenNames(List<XXPolicy> xPolicies) {
+			Set<Long> userIds = new HashSet<>();
+
+			for (XXPolicy xPolicy : xPolicies) {
+				if (xPolicy.getAddedByUserId() != null && !userScreenNames.containsKey(xPolicy.getAddedByUserId())) {
+					userIds.add(xPolicy.getAddedByUserId());
+				}
+
+				if (xPolicy.getUpdatedByUserId() != null && !userScreenNames.containsKey(xPolicy.getUpdatedByUserId())) {
+					userIds.add(xPolicy.getUpdatedByUserId());
+				}
+			}
+
+			if (!userIds.isEmpty()) {
+				for (XXPortalUser user : daoMgr.getXXPortalUser().findByIds(userIds)) {
+					String screenName = getScreenName(user);
+
+					if (screenName != null) {
+						userScreenNames.put(user.getId(), screenName);
+					}
+				}
+			}
+		}
+
+		void prefetchSecurityZoneNames() {
+			for (XXSecurityZone securityZone : daoMgr.getXXSecurityZoneDao().getAll()) {
+				if (securityZone.getName() != null) {
+					zoneNames.put(securityZone.getId(), securityZone.getName());
+				}
+			}
+		}
+
+		void prefetchPolicyLabelNames() {
+			for (XXPolicyLabel xxPolicyLabel : daoMgr.getXXPolicyLabels().getAll()) {
+				if (xxPolicyLabel.getPolicyLabel() != null) {
+					policyLabels.put(xxPolicyLabel.getId(), xxPolicyLabel.getPolicyLabel());
+				}
+			}
+		}
+
+		private String getScreenName(XXPortalUser user) {
+			String ret = user.getPublicScreenName();
+
+			if (StringUtil.isEmpty(ret)) {
+				ret = user.getFirstName();
+
+				if(StringUtil.isEmpty(ret)) {
+					ret = user.getLoginId();
+				} else {
+					if(!StringUtil.isEmpty(user.getLastName())) {
+						ret += (" " + user.getLastName());
+					}
+				}
+			}
+
+			return ret;
+		}
+
 		String getSecurityZoneName(Long zoneId) {
 			String ret = null;
 
@@ -474,8 +562,15 @@ public class RangerPolicyRetriever {
 		final ListIterator<XXPolicy> iterPolicy;
 		final ListIterator<XXPolicyLabelMap> iterPolicyLabels;
 		final XXServiceDef           serviceDef;
+		final boolean                clearEntitiesAfterFetch;
+
+		/*
+		 * Policies of the service are read in chunks by getAllPolicies(). When the retrieval is in its own
+		 * transaction, clearEntitiesAfterFetch is set to true, so that the entities read are released after each chunk.
+		 */
+		RetrieverContext(XXService xService, boolean clearEntitiesAfterFetch) {
+			this.clearEntitiesAfterFetch = clearEntitiesAfterFetch;
 
-		RetrieverContext(XXService xService) {
 			if (xService != null) {
 				Long serviceId = xService.getId();
 
@@ -487,9 +582,12 @@ public class RangerPolicyRetriever {
 				lookupCache.setDataMaskNameMapping(daoMgr.getXXPolicyRefDataMaskType().findUpdatedDataMaskNamesByService(serviceId));
 				lookupCache.setConditionNameMapping(daoMgr.getXXPolicyRefCondition().findUpdatedConditionNamesByService(serviceId));
 
+				lookupCache.prefetchSecurityZoneNames();
+				lookupCache.prefetchPolicyLabelNames();
+
 				this.service    = xService;
 				this.serviceDef = daoMgr.getXXServiceDef().getById(xService.getType());
-				this.iterPolicy = daoMgr.getXXPolicy().findByServiceId(serviceId).listIterator();
+				this.iterPolicy = null;
 				this.iterPolicyLabels = daoMgr.getXXPolicyLabelMap().findByServiceId(serviceId).listIterator();
 			} else {
 				this.service    = null;
@@ -502,6 +600,8 @@ public class RangerPolicyRetriever {
 		RetrieverContext(XXPolicy xPolicy, XXService xService) {
 			Long policyId = xPolicy.getId();
 
+			this.clearEntitiesAfterFetch = false;
+
 			lookupCache.setRoleNameMapping(daoMgr.getXXPolicyRefRole().findUpdatedRoleNamesByPolicy(policyId));
 			lookupCache.setGroupNameMapping(daoMgr.getXXPolicyRefGroup().findUpdatedGroupNamesByPolicy(policyId));
 			lookupCache.setUserNameMapping(daoMgr.getXXPolicyRefUser().findUpdatedUserNamesByPolicy(policyId));
@@ -524,42 +624,27 @@ public class RangerPolicyRetriever {
 				XXPolicy xPolicy = iterPolicy.next();
 
 				if (xPolicy != null) {
-					String policyText = xPolicy.getPolicyText();
-
-					ret = JsonUtils.jsonToObject(policyText, RangerPolicy.class);
-
-					if (ret != null) {
-						ret.setId(xPolicy.getId());
-						ret.setGuid(xPolicy.getGuid());
-						ret.setCreatedBy(lookupCache.getUserScreenName(xPolicy.getAddedByUserId()));
-						ret.setUpdatedBy(lookupCache.getUserScreenName(xPolicy.getUpdatedByUserId()));
-						ret.setCreateTime(xPolicy.getCreateTime());
-						ret.setUpdateTime(xPolicy.getUpdateTime());
-						ret.setVersion(xPolicy.getVersion());
-						ret.setPolicyType(xPolicy.getPolicyType() == null ? RangerPolicy.POLICY_TYPE_ACCESS : xPolicy.getPolicyType());
-						ret.setService(service.getName());
-						ret.setServiceType(serviceDef.getName());
-						ret.setZoneName(lookupCache.getSecurityZoneName(xPolicy.getZoneId()));
-						updatePolicyReferenceFields(ret);
-						getPolicyLabels(ret);
-					}
+					ret = new PolicyDecoder(xPolicy).call();
 				}
 			}
 
 			return ret;
 		}
 
-		private void getPolicyLabels(RangerPolicy ret) {
-			List<String> xPolicyLabels = new ArrayList<String>();
+		// returns null if there are no labels for the policy in XXPolicyLabelMap
+		private List<String> getPolicyLabels(Long policyId) {
+			List<String> ret = null;
 			if (iterPolicyLabels != null) {
 				while (iterPolicyLabels.hasNext()) {
 					XXPolicyLabelMap xPolicyLabel = iterPolicyLabels.next();
-					if (xPolicyLabel.getPolicyId().equals(ret.getId())) {
+					if (xPolicyLabel.getPolicyId().equals(policyId)) {
+						if (ret == null) {
+							ret = new ArrayList<String>();
+						}
 						String policyLabel = lookupCache.getPolicyLabelName(xPolicyLabel.getPolicyLabelId());
 						if (policyLabel != null) {
-							xPolicyLabels.add(policyLabel);
+							ret.add(policyLabel);
 						}
-						ret.setPolicyLabels(xPolicyLabels);
 					} else {
 						if (iterPolicyLabels.hasPrevious()) {
 							iterPolicyLabels.previous();
@@ -568,6 +653,7 @@ public class RangerPolicyRetriever {
 					}
 				}
 			}
+			return ret;
 		}
 
 		void updatePolicyReferenceFields(final RangerPolicy policy) {
@@ -676,21 +762,149 @@ public class RangerPolicyRetriever {
 			return ret;
 		}
 
+		/*
+		 * Reads policies of the service in chunks, in order of id. Entity-dependent lookups are done in this thread,
+		 * while policy JSON is decoded by the decoder pool, in parallel with reading of the next chunk.
+		 */
 		List<RangerPolicy> getAllPolicies() {
 			List<RangerPolicy> ret = new ArrayList<>();
 
-			if (iterPolicy != null) {
-				while (iterPolicy.hasNext()) {
-					RangerPolicy policy = getNextPolicy();
+			if (service != null) {
+				ExecutorService            pool        = getDecoderPool();
+				List<Future<RangerPolicy>> futures     = new ArrayList<>();
+				long                       startTimeMs = System.currentTimeMillis();
+				long                       fetchTimeMs = 0;
+				int                        chunkCount  = 0;
+				Long                       lastId      = 0L;
+
+				while (true) {
+					long           fetchStartTimeMs = System.currentTimeMillis();
+					List<XXPolicy> xPolicies        = daoMgr.getXXPolicy().findByServiceId(service.getId(), lastId, FETCH_SIZE);
+
+					fetchTimeMs += (System.currentTimeMillis() - fetchStartTimeMs);
+
+					if (CollectionUtils.isEmpty(xPolicies)) {
+						break;
+					}
+
+					lookupCache.prefetchUserScreenNames(xPolicies);
+
+					for (XXPolicy xPolicy : xPolicies) {
+						PolicyDecoder decoder = new PolicyDecoder(xPolicy);
+
+						if (pool != null) {
+							futures.add(pool.submit(decoder));
+						} else {
+							RangerPolicy policy = decoder.call();
+
+							if (policy != null) {
+								ret.add(policy);
+							}
+						}
+					}
+
+					lastId = xPolicies.get(xPolicies.size() - 1).getId();
+					chunkCount++;
 
-					if (policy != null) {
-						ret.add(policy);
+					if (clearEntitiesAfterFetch) {
+						daoMgr.getXXPolicy().clear();
+					}
+
+					if (LOG.isDebugEnabled()) {
+						LOG.debug("RangerPolicyRetriever.getAllPolicies(serviceName=" + service.getName() + "): read " + ((chunkCount - 1) * FETCH_SIZE + xPolicies.size()) + " policies");
+					}
+
+					if (xPolicies.size() < FETCH_SIZE) {
+						break;
+					}
+				}
+
+				long decodeWaitStartTimeMs = System.currentTimeMillis();
+
+				for (Future<RangerPolicy> future : futures) {
+					try {
+						RangerPolicy policy = future.get();
+
+						if (policy != null) {
+							ret.add(policy);
+						}
+					} catch (InterruptedException | ExecutionException excp) {
+						throw new RuntimeException("failed to decode policies of service " + service.getName(), excp);
 					}
 				}
+
+				long totalTimeMs = System.currentTimeMillis() - startTimeMs;
+
+				if (chunkCount > 1) {
+					LOG.info("RangerPolicyRetriever.getAllPolicies(serviceName=" + service.getName() + "): read " + ret.size() + " policies in " + totalTimeMs + " ms"
+							 + " (chunks=" + chunkCount + ", fetchTime=" + fetchTimeMs + " ms, decodeWaitTime=" + (System.currentTimeMillis() - decodeWaitStartTimeMs) + " ms"
+							 + ", decoderThreads=" + (pool != null ? DECODER_THREAD_COUNT : 1) + ")");
+				} else if (LOG.isDebugEnabled()) {
+					LOG.debug("RangerPolicyRetriever.getAllPolicies(serviceName=" + service.getName() + "): read " + ret.size() + " policies in " + totalTimeMs + " ms");
+				}
 			}
 
 			return ret;
 		}
+
+		/*
+		 * Converts an XXPolicy to RangerPolicy. Values that need lookups are read in the constructor, in the thread
+		 * that reads the entities; call() only decodes the policy JSON and updates it using the name mappings, which
+		 * are not modified after RetrieverContext is created - hence it can be called in any thread.
+		 */
+		class PolicyDecoder implements Callable<RangerPolicy> {
+			private final Long         id;
+			private final String       guid;
+			private final String       policyText;
+			private final String       createdBy;
+			private final String       updatedBy;
+			private final Date         createTime;
+			private final Date         updateTime;
+			private final Long         version;
+			private final Integer      policyType;
+			private final String       zoneName;
+			private final List<String> policyLabels;
+
+			PolicyDecoder(XXPolicy xPolicy) {
+				this.id           = xPolicy.getId();
+				this.guid         = xPolicy.getGuid();
+				this.policyText   = xPolicy.getPolicyText();
+				this.createdBy    = lookupCache.getUserScreenName(xPolicy.getAddedByUserId());
+				this.updatedBy    = lookupCache.getUserScreenName(xPolicy.getUpdatedByUserId());
+				this.createTime   = xPolicy.getCreateTime();
+				this.updateTime   = xPolicy.getUpdateTime();
+				this.version      = xPolicy.getVersion();
+				this.policyType   = xPolicy.getPolicyType();
+				this.zoneName     = lookupCache.getSecurityZoneName(xPolicy.getZoneId());
+				this.policyLabels = getPolicyLabels(xPolicy.getId());
+			}
+
+			@Override
+			public RangerPolicy call() {
+				RangerPolicy ret = JsonUtils.jsonToObject(policyText, RangerPolicy.class);
+
+				if (ret != null) {
+					ret.setId(id);
+					ret.setGuid(guid);
+					ret.setCreatedBy(createdBy);
+					ret.setUpdatedBy(updatedBy);
+					ret.setCreateTime(createTime);
+					ret.setUpdateTime(updateTime);
+					ret.setVersion(version);
+					ret.setPolicyType(policyType == null ? RangerPolicy.POLICY_TYPE_ACCESS : policyType);
+					ret.setService(service.getName());
+					ret.setServiceType(serviceDef.getName());
+					ret.setZoneName(zoneName);
+					updatePolicyReferenceFields(ret);
+
+					if (policyLabels != null) {
+						ret.setPolicyLabels(policyLabels);
+					}
+				}
+
+				return ret;
+			}
+		}
 	}
 
 }
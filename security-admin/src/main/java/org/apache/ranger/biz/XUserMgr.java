@@ -21,6 +21,7 @@ package org.apache.ranger.biz;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -41,6 +42,7 @@ import org.apache.ranger.plugin.model.RangerPolicy;
 import org.apache.ranger.plugin.model.RangerPolicy.RangerDataMaskPolicyItem;
 import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
 import org.apache.ranger.plugin.model.RangerPolicy.RangerRowFilterPolicyItem;
+import org.apache.ranger.plugin.util.RangerUserStore;
 import org.apache.ranger.security.context.RangerAPIMapping;
 import org.apache.ranger.service.*;
 import org.apache.ranger.view.*;
@@ -149,6 +151,10 @@ public class XUserMgr extends XUserMgrBase {
 
 	static final Logger logger = Logger.getLogger(XUserMgr.class);
 
+	public static final String RANGER_USER_GROUP_GLOBAL_STATE_NAME = "RangerUserStore";
+
+	private RangerUserStore userStoreCache;
+
 	public VXUser getXUserByUserName(String userName) {
 		VXUser vXUser=null;
 		vXUser=xUserService.getXUserByUserName(userName);
@@ -249,6 +255,7 @@ public class XUserMgr extends XUserMgrBase {
 		if(vXPortalUser!=null){
 			assignPermissionToUser(vXPortalUser, true);
 		}
+		updateUserStoreVersion();
 
 		return createdXUser;
 	}
@@ -482,6 +489,7 @@ public class XUserMgr extends XUserMgrBase {
 		List<Long> groupUsersToRemove = new ArrayList<Long>();
 		trxLogList.addAll(createOrDelGrpUserWithUpdatedGrpId(vXUser, groupIdList,userId, groupUsersToRemove));
 		xaBizUtil.createTrxLog(trxLogList);
+		updateUserStoreVersion();
 
 		return vXUser;
 	}
@@ -584,9 +592,177 @@ public class XUserMgr extends XUserMgrBase {
             assignPermissionToUser(vXPortalUser, true);
         }
 		vxUGInfo.setXgroupInfo(vxg);
+		updateUserStoreVersion();
 
 		return vxUGInfo;
 	}
+
+	/*
+	 * Replaces the groups of each user in the snapshot with the given groups, creating missing users and groups as
+	 * external; users not in the snapshot are not changed. Existing users, groups and memberships are read with one
+	 * query each, and only the differences are written - in batches, in a single transaction.
+	 */
+	@Transactional(readOnly = false, propagation = Propagation.REQUIRED)
+	public VXUserGroupSnapshot createOrUpdateXUserGroupSnapshot(VXUserGroupSnapshot snapshot) {
+		checkAdminAccess();
+		xaBizUtil.blockAuditorRoleUser();
+
+		if (logger.isDebugEnabled()) {
+			logger.debug("==> XUserMgr.createOrUpdateXUserGroupSnapshot(" + snapshot + ")");
+		}
+
+		Map<String, List<String>> userGroups          = snapshot.getUserGroups() != null ? snapshot.getUserGroups() : new HashMap<String, List<String>>();
+		Map<String, Long>         userIds             = new HashMap<String, Long>();
+		Map<String, Long>         groupIds            = new HashMap<String, Long>();
+		Set<String>               groupNames          = new HashSet<String>();
+		long                      noOfNewUsers        = 0;
+		long                      noOfNewGroups       = 0;
+		long                      noOfAddedGroupUsers = 0;
+
+		for (List<String> groups : userGroups.values()) {
+			if (groups != null) {
+				for (String groupName : groups) {
+					if (StringUtils.isNotBlank(groupName)) {
+						groupNames.add(groupName);
+					}
+				}
+			}
+		}
+
+		for (XXUser xUser : daoManager.getXXUser().findByUserNames(userGroups.keySet()).values()) {
+			userIds.put(xUser.getName(), xUser.getId());
+		}
+
+		for (XXGroup xGroup : daoManager.getXXGroup().findByGroupNames(groupNames).values()) {
+			groupIds.put(xGroup.getName(), xGroup.getId());
+		}
+
+		for (String groupName : groupNames) {
+			if (!groupIds.containsKey(groupName)) {
+				VXGroup vXGroup = new VXGroup();
+
+				vXGroup.setName(groupName);
+				vXGroup.setDescription(groupName + " - add from Unix box");
+				vXGroup.setGroupType(AppConstants.XA_GROUP_USER);
+				vXGroup.setGroupSource(RangerCommonEnums.GROUP_EXTERNAL);
+
+				vXGroup = xGroupService.createXGroupWithOutLogin(vXGroup);
+
+				groupIds.put(groupName, vXGroup.getId());
+				noOfNewGroups++;
+			}
+		}
+
+		for (String userName : userGroups.keySet()) {
+			if (StringUtils.isBlank(userName) || userIds.containsKey(userName)) {
+				continue;
+			}
+
+			VXPortalUser vXPortalUser = new VXPortalUser();
+
+			vXPortalUser.setLoginId(userName);
+			vXPortalUser.setFirstName(userName);
+			vXPortalUser.setLastName(userName);
+
+			vXPortalUser = userMgr.createDefaultAccountUser(vXPortalUser);
+
+			if (vXPortalUser != null) {
+				assignPermissionToUser(vXPortalUser, true);
+			}
+
+			VXUser vXUser = new VXUser();
+
+			vXUser.setName(userName);
+			vXUser.setDescription(userName + " - add from Unix box");
+
+			vXUser = xUserService.createXUserWithOutLogin(vXUser);
+
+			userIds.put(userName, vXUser.getId());
+			noOfNewUsers++;
+		}
+
+		Map<Long, Set<Long>> userGroupIdsToAdd    = new HashMap<Long, Set<Long>>();
+		List<Long>           groupUserIdsToDelete = new ArrayList<Long>();
+
+		for (Map.Entry<String, List<String>> entry : userGroups.entrySet()) {
+			Long userId = userIds.get(entry.getKey());
+
+			if (userId != null) {
+				Set<Long> groupIdsForUser = new HashSet<Long>();
+
+				if (entry.getValue() != null) {
+					for (String groupName : entry.getValue()) {
+						Long groupId = groupIds.get(groupName);
+
+						if (groupId != null) {
+							groupIdsForUser.add(groupId);
+						}
+					}
+				}
+
+				userGroupIdsToAdd.put(userId, groupIdsForUser);
+			}
+		}
+
+		// memberships to keep are removed from userGroupIdsToAdd, leaving only the ones to add
+		for (XXGroupUser xGroupUser : daoManager.getXXGroupUser().findByUserIds(userGroupIdsToAdd.keySet())) {
+			Set<Long> groupIdsForUser = userGroupIdsToAdd.get(xGroupUser.getUserId());
+
+			if (groupIdsForUser == null || !groupIdsForUser.remove(xGroupUser.getParentGroupId())) {
+				groupUserIdsToDelete.add(xGroupUser.getId());
+			}
+		}
+
+		Map<Long, String> groupIdNames = new HashMap<Long, String>();
+
+		for (Map.Entry<String, Long> entry : groupIds.entrySet()) {
+			groupIdNames.put(entry.getValue(), entry.getKey());
+		}
+
+		XXGroupUserDao xGroupUserDao = daoManager.getXXGroupUser();
+		Long           currentUserId = ContextUtil.getCurrentUserId();
+
+		for (Map.Entry<Long, Set<Long>> entry : userGroupIdsToAdd.entrySet()) {
+			for (Long groupId : entry.getValue()) {
+				XXGroupUser xGroupUser = new XXGroupUser();
+
+				xGroupUser.setName(groupIdNames.get(groupId));
+				xGroupUser.setParentGroupId(groupId);
+				xGroupUser.setUserId(entry.getKey());
+				xGroupUser.setAddedByUserId(currentUserId);
+				xGroupUser.setUpdatedByUserId(currentUserId);
+
+				xGroupUserDao.create(xGroupUser, false);
+
+				noOfAddedGroupUsers++;
+
+				if (noOfAddedGroupUsers % RangerBizUtil.batchSize == 0) {
+					xGroupUserDao.flush();
+				}
+			}
+		}
+
+		xGroupUserDao.flush();
+
+		long noOfDeletedGroupUsers = xGroupUserDao.deleteByIds(groupUserIdsToDelete);
+
+		if (noOfNewUsers > 0 || noOfNewGroups > 0 || noOfAddedGroupUsers > 0 || noOfDeletedGroupUsers > 0) {
+			updateUserStoreVersion();
+		}
+
+		VXUserGroupSnapshot ret = new VXUserGroupSnapshot();
+
+		ret.setNoOfNewUsers(noOfNewUsers);
+		ret.setNoOfNewGroups(noOfNewGroups);
+		ret.setNoOfAddedGroupUsers(noOfAddedGroupUsers);
+		ret.setNoOfDeletedGroupUsers(noOfDeletedGroupUsers);
+
+		if (logger.isDebugEnabled()) {
+			logger.debug("<== XUserMgr.createOrUpdateXUserGroupSnapshot(): " + ret);
+		}
+
+		return ret;
+	}
 	
 	@Transactional(readOnly = false, propagation = Propagation.REQUIRED)
 	public VXGroupUserInfo createXGroupUserFromMap(
@@ -641,6 +817,7 @@ public class XUserMgr extends XUserMgrBase {
 		}
 
 		vxGUInfo.setXuserInfo(vxu);
+		updateUserStoreVersion();
 
 		return vxGUInfo;
 	}
@@ -722,6 +899,7 @@ public class XUserMgr extends XUserMgrBase {
                 xaBizUtil.blockAuditorRoleUser();
 		vXGroupUser = xGroupUserService
 				.createXGroupUserWithOutLogin(vXGroupUser);
+		updateUserStoreVersion();
 		return vXGroupUser;
 	}
 
@@ -835,6 +1013,7 @@ public class XUserMgr extends XUserMgrBase {
 		for (VXGroupUser vxGroupUser : vxGroupUserList.getList()) {
 			daoManager.getXXGroupUser().remove(vxGroupUser.getId());
 		}
+		updateUserStoreVersion();
 	}
 
 	public VXGroupList getXUserGroups(Long xUserId) {
@@ -956,7 +1135,7 @@ public class XUserMgr extends XUserMgrBase {
 			for (XXGroupUser grpUser : grpUsers) {
 				VXGroupUser vXGroupUser = xGroupUserService.populateViewBean(grpUser);
 				vXGroupUser.setName(vXGroup.getName());
-				updateXGroupUser(vXGroupUser);
+				super.updateXGroupUser(vXGroupUser); // memberships are unchanged, no need to update user-store version
 			}
 		}
 	}
@@ -964,13 +1143,16 @@ public class XUserMgr extends XUserMgrBase {
 	public VXGroupUser updateXGroupUser(VXGroupUser vXGroupUser) {
 		checkAdminAccess();
                 xaBizUtil.blockAuditorRoleUser();
-		return super.updateXGroupUser(vXGroupUser);
+		VXGroupUser ret = super.updateXGroupUser(vXGroupUser);
+		updateUserStoreVersion();
+		return ret;
 	}
 
 	public void deleteXGroupUser(Long id, boolean force) {
 		checkAdminAccess();
                 xaBizUtil.blockAuditorRoleUser();
 		super.deleteXGroupUser(id, force);
+		updateUserStoreVersion();
 	}
 
 	public VXGroupGroup createXGroupGroup(VXGroupGroup vXGroupGroup){
@@ -2046,6 +2228,7 @@ public class XUserMgr extends XUserMgrBase {
 					xGroupUserDao.remove(groupUser.getId());
 				}
 			}
+			updateUserStoreVersion();
 			//delete XXPermMap records of matching group
 			XXPermMapDao xXPermMapDao = daoManager.getXXPermMap();
 			XXResourceDao xXResourceDao = daoManager.getXXResource();
@@ -2241,6 +2424,7 @@ public class XUserMgr extends XUserMgrBase {
 					xGroupUserDao.remove(groupUser.getId());
 				}
 			}
+			updateUserStoreVersion();
 			//delete XXPermMap records of user
 			XXPermMapDao xXPermMapDao = daoManager.getXXPermMap();
 			for (VXPermMap vXPermMap : vXPermMapList.getList()) {
@@ -2540,4 +2724,61 @@ public class XUserMgr extends XUserMgrBase {
 		return vxUgsyncAuditInfo;
 	}
 
+	public Long getUserStoreVersion() {
+		return daoManager.getXXGlobalState().getAppDataVersion(RANGER_USER_GROUP_GLOBAL_STATE_NAME);
+	}
+
+	/*
+	 * Returns user-group mappings for download by plugins; returns null if lastKnownUserStoreVersion is the current
+	 * version. Mappings are read from the database only once per version.
+	 */
+	public RangerUserStore getRangerUserStore(String serviceName, Long lastKnownUserStoreVersion) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("==> XUserMgr.getRangerUserStore(" + serviceName + ", " + lastKnownUserStoreVersion + ")");
+		}
+
+		RangerUserStore ret              = null;
+		Long            versionInDB      = getUserStoreVersion();
+		long            userStoreVersion = versionInDB != null ? versionInDB : 0L; // no change since upgrade
+
+		if (lastKnownUserStoreVersion == null || lastKnownUserStoreVersion != userStoreVersion) {
+			RangerUserStore userStore;
+
+			synchronized (this) {
+				userStore = userStoreCache;
+
+				if (userStore == null || userStore.getUserStoreVersion() != userStoreVersion) {
+					userStore = new RangerUserStore();
+
+					// version is read before the mappings, so that the mappings are at least as recent as the version
+					userStore.setUserStoreVersion(userStoreVersion);
+					userStore.setUserStoreUpdateTime(new Date());
+					userStore.setUserGroupMapping(daoManager.getXXGroupUser().findUsersAndGroups());
+
+					userStoreCache = userStore;
+				}
+			}
+
+			ret = new RangerUserStore();
+
+			ret.setServiceName(serviceName);
+			ret.setUserStoreVersion(userStore.getUserStoreVersion());
+			ret.setUserStoreUpdateTime(userStore.getUserStoreUpdateTime());
+			ret.setUserGroupMapping(userStore.getUserGroupMapping());
+		}
+
+		if (logger.isDebugEnabled()) {
+			logger.debug("<== XUserMgr.getRangerUserStore(" + serviceName + ", " + lastKnownUserStoreVersion + "): " + ret);
+		}
+
+		return ret;
+	}
+
+	private void updateUserStoreVersion() {
+		try {
+			daoManager.getXXGlobalState().onGlobalAppDataChange(RANGER_USER_GROUP_GLOBAL_STATE_NAME);
+		} catch (Exception excp) {
+			logger.error("Failed to update version of user-store", excp);
+		}
+	}
 }
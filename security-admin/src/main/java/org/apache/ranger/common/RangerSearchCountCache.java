@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.common;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.log4j.Logger;
+import org.springframework.stereotype.Component;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/*
+ * Caches the total count of search results, keyed by a fingerprint of the search parameters. A count older than
+ * the TTL is still returned, while a background thread recomputes it; hence the returned count is approximate.
+ */
+@Component
+public class RangerSearchCountCache {
+	private static final Logger LOG = Logger.getLogger(RangerSearchCountCache.class);
+
+	private static final String PROP_COUNT_CACHE_TTL_MS      = "ranger.admin.search.count.cache.ttl.ms";
+	private static final String PROP_COUNT_CACHE_MAX_ENTRIES = "ranger.admin.search.count.cache.max.entries";
+	private static final String PROP_COUNT_CACHE_QUEUE_SIZE  = "ranger.admin.search.count.cache.refresh.queue.size";
+
+	private final Map<String, CachedCount> cachedCounts = new ConcurrentHashMap<>();
+	private long                           ttlMs        = 60 * 1000L;
+	private int                            maxEntries   = 1000;
+	private ThreadPoolExecutor             refresher    = null;
+
+	public interface CountLoader {
+		long getCount();
+	}
+
+	@PostConstruct
+	public void init() {
+		ttlMs      = PropertiesUtil.getLongProperty(PROP_COUNT_CACHE_TTL_MS, 60 * 1000L);
+		maxEntries = PropertiesUtil.getIntProperty(PROP_COUNT_CACHE_MAX_ENTRIES, 1000);
+
+		if (isEnabled()) {
+			int queueSize = PropertiesUtil.getIntProperty(PROP_COUNT_CACHE_QUEUE_SIZE, 100);
+
+			refresher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(queueSize),
+			                                   new ThreadFactoryBuilder().setNameFormat("SearchCountRefresher-%d").setDaemon(true).build());
+
+			LOG.info("Search counts will be cached: ttlMs=" + ttlMs + ", maxEntries=" + maxEntries + ", refreshQueueSize=" + queueSize);
+		} else {
+			LOG.info("Search count cache is disabled");
+		}
+	}
+
+	@PreDestroy
+	public void destroy() {
+		if (refresher != null) {
+			refresher.shutdownNow();
+		}
+	}
+
+	public boolean isEnabled() {
+		return ttlMs > 0 && maxEntries > 0;
+	}
+
+	public long getCount(final String fingerprint, final CountLoader loader) {
+		if (!isEnabled() || refresher == null) {
+			return loader.getCount();
+		}
+
+		final CachedCount cached = cachedCounts.get(fingerprint);
+
+		if (cached == null) {
+			long count = loader.getCount();
+
+			if (cachedCounts.size() >= maxEntries) {
+				evictStaleEntries();
+			}
+
+			cachedCounts.put(fingerprint, new CachedCount(count));
+
+			return count;
+		}
+
+		if (cached.isStale(ttlMs) && cached.refreshing.compareAndSet(false, true)) {
+			try {
+				refresher.execute(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							cached.setCount(loader.getCount());
+						} catch (Exception excp) {
+							LOG.warn("Failed to refresh search count for " + fingerprint, excp);
+						} finally {
+							cached.refreshing.set(false);
+						}
+					}
+				});
+			} catch (RejectedExecutionException excp) {
+				cached.refreshing.set(false);
+
+				if (LOG.isDebugEnabled()) {
+					LOG.debug("Search count refresh queue is full; returning count computed at " + cached.updateTime + " for " + fingerprint);
+				}
+			}
+		}
+
+		return cached.count;
+	}
+
+	public void clear() {
+		cachedCounts.clear();
+	}
+
+	int size() {
+		return cachedCounts.size();
+	}
+
+	private void evictStaleEntries() {
+		for (Iterator<CachedCount> iter = cachedCounts.values().iterator(); iter.hasNext(); ) {
+			if (iter.next().isStale(ttlMs)) {
+				iter.remove();
+			}
+		}
+
+		if (cachedCounts.size() >= maxEntries) {
+			cachedCounts.clear();
+		}
+	}
+
+	private static class CachedCount {
+		final AtomicBoolean refreshing = new AtomicBoolean(false);
+		volatile long       count;
+		volatile long       updateTime;
+
+		CachedCount(long count) {
+			setCount(count);
+		}
+
+		void setCount(long count) {
+			this.count      = count;
+			this.updateTime = System.currentTimeMillis();
+		}
+
+		boolean isStale(long ttlMs) {
+			return (System.currentTimeMillis() - updateTime) > ttlMs;
+		}
+	}
+}
@@ -27,9 +27,13 @@ import org.apache.ranger.plugin.store.ServiceStore;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.ranger.plugin.util.JsonUtilsV2;
 import org.apache.ranger.plugin.util.RangerPolicyDeltaUtil;
 import org.apache.ranger.plugin.util.ServicePolicies;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -38,6 +42,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
 
 public class RangerServicePoliciesCache {
 	private static final Log LOG = LogFactory.getLog(RangerServicePoliciesCache.class);
@@ -46,8 +51,10 @@ public class RangerServicePoliciesCache {
 
 	public static volatile RangerServicePoliciesCache sInstance = null;
 	private final int waitTimeInSeconds;
+	private final boolean isSerializedCacheEnabled;
 
-	private final Map<String, ServicePoliciesWrapper> servicePoliciesMap = new HashMap<>();
+	private final Map<String, ServicePoliciesWrapper>    servicePoliciesMap           = new HashMap<>();
+	private final Map<String, SerializedServicePolicies> serializedServicePoliciesMap = new HashMap<>();
 
 	public static RangerServicePoliciesCache getInstance() {
 		if (sInstance == null) {
@@ -63,7 +70,120 @@ public class RangerServicePoliciesCache {
 	private RangerServicePoliciesCache() {
 		RangerAdminConfig config = new RangerAdminConfig();
 
-		waitTimeInSeconds = config.getInt("ranger.admin.policy.download.cache.max.waittime.for.update", MAX_WAIT_TIME_FOR_UPDATE);
+		waitTimeInSeconds        = config.getInt("ranger.admin.policy.download.cache.max.waittime.for.update", MAX_WAIT_TIME_FOR_UPDATE);
+		isSerializedCacheEnabled = config.getBoolean("ranger.admin.policy.download.cache.serialized.enabled", true);
+	}
+
+	/*
+	 * ETag of the policies downloaded by plugins: identifies the complete set of policies of a service version.
+	 * Returns null for policy-deltas, as their content depends on the version known to the caller.
+	 *
+	 * Plugins that support deltas receive full policies without disabled policies filtered out; such content gets
+	 * a different ETag than the filtered content of the same version.
+	 */
+	public static String getETag(ServicePolicies servicePolicies) {
+		final String ret;
+
+		if (servicePolicies == null || servicePolicies.getPolicyDeltas() != null || servicePolicies.getPolicyVersion() == null) {
+			ret = null;
+		} else {
+			ServicePolicies.TagPolicies tagPolicies = servicePolicies.getTagPolicies();
+
+			ret = "\"" + servicePolicies.getServiceName() + "-" + servicePolicies.getServiceId() + "-" + servicePolicies.getPolicyVersion()
+				+ (tagPolicies != null ? "-" + tagPolicies.getPolicyVersion() : "")
+				+ (containsDisabledPolicies(servicePolicies) ? "-unfiltered" : "") + "\"";
+		}
+
+		return ret;
+	}
+
+	/*
+	 * Returns gzip compressed JSON of the given servicePolicies. Compressed JSON of the latest version of each service
+	 * is cached, so that it is serialized only once irrespective of the number of plugins downloading it.
+	 */
+	public byte[] getCompressedServicePolicies(ServicePolicies servicePolicies) throws IOException {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("==> RangerServicePoliciesCache.getCompressedServicePolicies(serviceName=" + (servicePolicies != null ? servicePolicies.getServiceName() : null) + ")");
+		}
+
+		final byte[] ret;
+		final String eTag = isSerializedCacheEnabled ? getETag(servicePolicies) : null;
+
+		if (eTag == null) {
+			ret = compress(servicePolicies);
+		} else {
+			final String              serviceName = servicePolicies.getServiceName();
+			// filtered and unfiltered policies of a service are cached separately, so that one doesn't evict the other
+			final String              cacheKey    = eTag.endsWith("-unfiltered\"") ? serviceName + "-unfiltered" : serviceName;
+			SerializedServicePolicies cached;
+
+			synchronized (serializedServicePoliciesMap) {
+				cached = serializedServicePoliciesMap.get(cacheKey);
+			}
+
+			if (cached == null || !eTag.equals(cached.eTag)) {
+				// serialize outside the lock; concurrent first downloads of a new version might serialize it more than once
+				cached = new SerializedServicePolicies(eTag, compress(servicePolicies));
+
+				synchronized (serializedServicePoliciesMap) {
+					serializedServicePoliciesMap.put(cacheKey, cached);
+				}
+
+				if (LOG.isDebugEnabled()) {
+					LOG.debug("Cached serialized policies: serviceName=" + serviceName + ", eTag=" + eTag + ", compressedLength=" + cached.compressedJson.length);
+				}
+			}
+
+			ret = cached.compressedJson;
+		}
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("<== RangerServicePoliciesCache.getCompressedServicePolicies(serviceName=" + (servicePolicies != null ? servicePolicies.getServiceName() : null) + "): eTag=" + eTag + ", compressedLength=" + ret.length);
+		}
+
+		return ret;
+	}
+
+	private static boolean containsDisabledPolicies(ServicePolicies servicePolicies) {
+		boolean ret = containsDisabledPolicies(servicePolicies.getPolicies());
+
+		if (!ret && servicePolicies.getTagPolicies() != null) {
+			ret = containsDisabledPolicies(servicePolicies.getTagPolicies().getPolicies());
+		}
+
+		return ret;
+	}
+
+	private static boolean containsDisabledPolicies(List<RangerPolicy> policies) {
+		if (policies != null) {
+			for (RangerPolicy policy : policies) {
+				if (!policy.getIsEnabled()) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	private static byte[] compress(ServicePolicies servicePolicies) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		try (OutputStream gzipOut = new GZIPOutputStream(out)) {
+			JsonUtilsV2.getMapper().writeValue(gzipOut, servicePolicies);
+		}
+
+		return out.toByteArray();
+	}
+
+	private static class SerializedServicePolicies {
+		final String eTag;
+		final byte[] compressedJson;
+
+		SerializedServicePolicies(String eTag, byte[] compressedJson) {
+			this.eTag           = eTag;
+			this.compressedJson = compressedJson;
+		}
 	}
 
 	public void dump() {
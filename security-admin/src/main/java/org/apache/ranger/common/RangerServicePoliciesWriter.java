@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.ranger.plugin.util.ServicePolicies;
+
+/**
+ * Writes ServicePolicies as JSON using the serialized copy kept in RangerServicePoliciesCache. The payload is sent
+ * as-is, with Content-Encoding gzip, to clients that accept gzip encoding; it is decompressed for other clients.
+ */
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class RangerServicePoliciesWriter implements MessageBodyWriter<ServicePolicies> {
+	private static final Log LOG = LogFactory.getLog(RangerServicePoliciesWriter.class);
+
+	private static final String ENCODING_GZIP = "gzip";
+
+	@Context
+	private HttpHeaders requestHeaders;
+
+	@Override
+	public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+		return ServicePolicies.class.isAssignableFrom(type) && MediaType.APPLICATION_JSON_TYPE.isCompatible(mediaType);
+	}
+
+	@Override
+	public long getSize(ServicePolicies servicePolicies, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+		return -1;
+	}
+
+	@Override
+	public void writeTo(ServicePolicies servicePolicies, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+						MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException, WebApplicationException {
+		final byte[]  compressedJson = RangerServicePoliciesCache.getInstance().getCompressedServicePolicies(servicePolicies);
+		final String  eTag           = RangerServicePoliciesCache.getETag(servicePolicies);
+		final boolean acceptsGzip    = isGzipAccepted();
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("RangerServicePoliciesWriter.writeTo(serviceName=" + servicePolicies.getServiceName() + ", version=" + servicePolicies.getPolicyVersion() + "): eTag=" + eTag + ", acceptsGzip=" + acceptsGzip + ", compressedLength=" + compressedJson.length);
+		}
+
+		httpHeaders.putSingle(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+		if (eTag != null) {
+			httpHeaders.putSingle(HttpHeaders.ETAG, eTag);
+		}
+
+		if (acceptsGzip) {
+			httpHeaders.putSingle(HttpHeaders.CONTENT_ENCODING, ENCODING_GZIP);
+
+			entityStream.write(compressedJson);
+		} else {
+			try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressedJson))) {
+				IOUtils.copy(in, entityStream);
+			}
+		}
+	}
+
+	private boolean isGzipAccepted() {
+		List<String> acceptEncodings = requestHeaders != null ? requestHeaders.getRequestHeader(HttpHeaders.ACCEPT_ENCODING) : null;
+
+		if (acceptEncodings != null) {
+			for (String acceptEncoding : acceptEncodings) {
+				for (String encoding : StringUtils.split(acceptEncoding, ',')) {
+					String[] encodingAndParams = StringUtils.split(encoding, ';');
+
+					if (encodingAndParams.length > 0 && ENCODING_GZIP.equalsIgnoreCase(encodingAndParams[0].trim())) {
+						return encodingAndParams.length == 1 || !StringUtils.deleteWhitespace(encodingAndParams[1]).equals("q=0");
+					}
+				}
+			}
+		}
+
+		return false;
+	}
+}
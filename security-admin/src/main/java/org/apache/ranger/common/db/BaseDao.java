@@ -43,6 +43,9 @@ import org.apache.ranger.db.RangerDaoManagerBase;
 public abstract class BaseDao<T> {
 	private static final Logger logger = Logger.getLogger(BaseDao.class);
 
+	// maximum number of values in a query 'IN' list; Oracle limits it to 1000
+	protected static final int MAX_IN_LIST_SIZE = 1000;
+
 	protected RangerDaoManager daoManager;
 
 	EntityManager em;
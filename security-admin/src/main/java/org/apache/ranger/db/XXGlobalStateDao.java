@@ -86,6 +86,10 @@ public class XXGlobalStateDao extends BaseDao<XXGlobalState> {
     }
 
     public Long getRoleVersion(String stateName) {
+        return getAppDataVersion(stateName);
+    }
+
+    public Long getAppDataVersion(String stateName) {
         Long ret = null;
         try {
             XXGlobalState       globalState     = findByStateName(stateName);
@@ -97,7 +101,7 @@ public class XXGlobalStateDao extends BaseDao<XXGlobalState> {
             }
         } catch (Exception exception) {
             if (logger.isDebugEnabled()) {
-                logger.debug("Unable to find the role version in Ranger Database", exception);
+                logger.debug("Unable to find the version of " + stateName + " in Ranger Database", exception);
             }
         }
         return ret;
@@ -21,12 +21,17 @@
 
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.ranger.common.db.BaseDao;
 import org.apache.ranger.entity.XXGroup;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Iterables;
+
 @Service
 public class XXGroupDao extends BaseDao<XXGroup> {
 
@@ -67,4 +72,23 @@ public class XXGroupDao extends BaseDao<XXGroup> {
 		return null;
 	}
 
+	public Map<String, XXGroup> findByGroupNames(Collection<String> groupNames) {
+		Map<String, XXGroup> ret = new HashMap<String, XXGroup>();
+
+		if (groupNames != null) {
+			for (List<String> chunk : Iterables.partition(groupNames, MAX_IN_LIST_SIZE)) {
+				List<XXGroup> groups = getEntityManager()
+						.createNamedQuery("XXGroup.findByGroupNames", XXGroup.class)
+						.setParameter("names", new ArrayList<String>(chunk))
+						.getResultList();
+
+				for (XXGroup group : groups) {
+					ret.put(group.getName(), group);
+				}
+			}
+		}
+
+		return ret;
+	}
+
 }
@@ -21,8 +21,11 @@
 
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.persistence.NoResultException;
@@ -33,6 +36,8 @@ import org.apache.ranger.common.db.BaseDao;
 import org.apache.ranger.entity.XXGroupUser;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Iterables;
+
 @Service
 public class XXGroupUserDao extends BaseDao<XXGroupUser> {
 	private static final Logger logger = Logger.getLogger(XXGroupUserDao.class);
@@ -134,4 +139,61 @@ public class XXGroupUserDao extends BaseDao<XXGroupUser> {
 		}
 		return null;
 	}
+
+	public Map<String, Set<String>> findUsersAndGroups() {
+		Map<String, Set<String>> ret = new HashMap<String, Set<String>>();
+
+		try {
+			List<Object[]> rows = getEntityManager().createNamedQuery("XXGroupUser.findUsersAndGroups", Object[].class).getResultList();
+
+			if (rows != null) {
+				for (Object[] row : rows) {
+					String      userName = (String) row[0];
+					Set<String> groups   = ret.get(userName);
+
+					if (groups == null) {
+						groups = new HashSet<String>();
+
+						ret.put(userName, groups);
+					}
+
+					groups.add((String) row[1]);
+				}
+			}
+		} catch (NoResultException e) {
+			logger.debug(e.getMessage());
+		}
+
+		return ret;
+	}
+
+	public List<XXGroupUser> findByUserIds(Collection<Long> userIds) {
+		List<XXGroupUser> ret = new ArrayList<XXGroupUser>();
+
+		if (userIds != null) {
+			for (List<Long> chunk : Iterables.partition(userIds, MAX_IN_LIST_SIZE)) {
+				ret.addAll(getEntityManager()
+						.createNamedQuery("XXGroupUser.findByUserIds", XXGroupUser.class)
+						.setParameter("userIds", new ArrayList<Long>(chunk))
+						.getResultList());
+			}
+		}
+
+		return ret;
+	}
+
+	public int deleteByIds(Collection<Long> ids) {
+		int ret = 0;
+
+		if (ids != null) {
+			for (List<Long> chunk : Iterables.partition(ids, MAX_IN_LIST_SIZE)) {
+				ret += getEntityManager()
+						.createNamedQuery("XXGroupUser.deleteByIds")
+						.setParameter("ids", new ArrayList<Long>(chunk))
+						.executeUpdate();
+			}
+		}
+
+		return ret;
+	}
 }
@@ -97,6 +97,25 @@ public class XXPolicyDao extends BaseDao<XXPolicy> {
 		}
 	}
 
+	/*
+	 * Returns up to maxResults policies of the service with id greater than policyId, in order of id; used to read
+	 * policies of a service in chunks.
+	 */
+	public List<XXPolicy> findByServiceId(Long serviceId, Long policyId, int maxResults) {
+		if (serviceId == null || policyId == null) {
+			return new ArrayList<XXPolicy>();
+		}
+		try {
+			return getEntityManager()
+					.createNamedQuery("XXPolicy.findByServiceIdAfterId", tClass)
+					.setParameter("serviceId", serviceId)
+					.setParameter("policyId", policyId)
+					.setMaxResults(maxResults).getResultList();
+		} catch (NoResultException e) {
+			return new ArrayList<XXPolicy>();
+		}
+	}
+
 	public List<Long> findPolicyIdsByServiceId(Long serviceId) {
 		List<Long> ret = new ArrayList<Long>();
 		try {
@@ -19,6 +19,8 @@
 
 package org.apache.ranger.db;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import javax.persistence.NoResultException;
@@ -27,6 +29,8 @@ import org.apache.ranger.common.db.BaseDao;
 import org.apache.ranger.entity.XXPortalUser;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Iterables;
+
 @Service
 public class XXPortalUserDao extends BaseDao<XXPortalUser> {
 
@@ -49,6 +53,21 @@ public class XXPortalUserDao extends BaseDao<XXPortalUser> {
 		return null;
 	}
 
+	public List<XXPortalUser> findByIds(Collection<Long> ids) {
+		List<XXPortalUser> ret = new ArrayList<XXPortalUser>();
+
+		if (ids != null) {
+			for (List<Long> chunk : Iterables.partition(ids, MAX_IN_LIST_SIZE)) {
+				ret.addAll(getEntityManager()
+						.createNamedQuery("XXPortalUser.findByIds", XXPortalUser.class)
+						.setParameter("ids", new ArrayList<Long>(chunk))
+						.getResultList());
+			}
+		}
+
+		return ret;
+	}
+
 	public XXPortalUser findByEmailAddress(String emailAddress) {
 		if (daoManager.getStringUtil().isEmpty(emailAddress)) {
 			return null;
@@ -19,6 +19,12 @@
 
 package org.apache.ranger.db;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import javax.persistence.NoResultException;
 
 import org.apache.log4j.Logger;
@@ -26,6 +32,8 @@ import org.apache.ranger.common.db.BaseDao;
 import org.apache.ranger.entity.XXUser;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Iterables;
+
 @Service
 public class XXUserDao extends BaseDao<XXUser> {
 	private static final Logger logger = Logger.getLogger(XXResourceDao.class);
@@ -62,4 +70,22 @@ public class XXUserDao extends BaseDao<XXUser> {
 		}
 	}
 
+	public Map<String, XXUser> findByUserNames(Collection<String> names) {
+		Map<String, XXUser> ret = new HashMap<String, XXUser>();
+
+		if (names != null) {
+			for (List<String> chunk : Iterables.partition(names, MAX_IN_LIST_SIZE)) {
+				List<XXUser> users = getEntityManager()
+						.createNamedQuery("XXUser.findByUserNames", XXUser.class)
+						.setParameter("names", new ArrayList<String>(chunk))
+						.getResultList();
+
+				for (XXUser user : users) {
+					ret.put(user.getName(), user);
+				}
+			}
+		}
+
+		return ret;
+	}
 }
@@ -658,6 +658,7 @@ public class AssetREST {
 				                               null);
 
 		searchUtil.extractString(request, searchCriteria, "agentHost", "Agent Host Name", StringUtil.VALIDATION_TEXT);
+		searchUtil.extractString(request, searchCriteria, XAccessAuditService.PARAM_CURSOR_MARK, "Cursor Mark", null);
 		
 		boolean isKeyAdmin = msBizUtil.isKeyAdmin();
 		boolean isAuditKeyAdmin = msBizUtil.isAuditKeyAdmin();
@@ -49,6 +49,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 
 import org.apache.commons.collections.CollectionUtils;
@@ -78,7 +79,9 @@ import org.apache.ranger.common.PropertiesUtil;
 import org.apache.ranger.common.RESTErrorUtil;
 import org.apache.ranger.common.RangerConstants;
 import org.apache.ranger.common.RangerSearchUtil;
+import org.apache.ranger.common.RangerServicePoliciesCache;
 import org.apache.ranger.common.RangerValidatorFactory;
+import org.apache.ranger.common.SearchField;
 import org.apache.ranger.common.ServiceUtil;
 import org.apache.ranger.common.UserSessionBase;
 import org.apache.ranger.common.db.RangerTransactionSynchronizationAdapter;
@@ -1958,7 +1961,7 @@ public class ServiceREST {
 				perf = RangerPerfTracer.getPerfTracer(PERF_LOG, "ServiceREST.getPolicies()");
 			}
 
-			if(isAdminUserWithNoFilterParams(filter)) {
+			if(isAdminUserWithNoFilterParams(filter) || isPaginationInQuerySupported(filter)) {
 				PList<RangerPolicy> policies = svcStore.getPaginatedPolicies(filter);
 
 				ret = toRangerPolicyList(policies);
@@ -3096,8 +3099,14 @@ public class ServiceREST {
 						ret = updatedServicePolicies;
 					}
 
-					httpCode = HttpServletResponse.SC_OK;
-					logMsg = "Returning " + (ret.getPolicies() != null ? ret.getPolicies().size() : (ret.getPolicyDeltas() != null ? ret.getPolicyDeltas().size() : 0)) + " policies. Policy version=" + ret.getPolicyVersion();
+					if (isPolicyDownloadNotModified(ret, request)) {
+						ret = null;
+						httpCode = HttpServletResponse.SC_NOT_MODIFIED;
+						logMsg = "No change since last update: ETag matched";
+					} else {
+						httpCode = HttpServletResponse.SC_OK;
+						logMsg = "Returning " + (ret.getPolicies() != null ? ret.getPolicies().size() : (ret.getPolicyDeltas() != null ? ret.getPolicyDeltas().size() : 0)) + " policies. Policy version=" + ret.getPolicyVersion();
+					}
 				}
 			} catch (Throwable excp) {
 				LOG.error("getServicePoliciesIfUpdated(" + serviceName + ", " + lastKnownVersion + ", " + lastActivationTime + ") failed", excp);
@@ -3217,8 +3226,14 @@ public class ServiceREST {
 						} else {
 							ret = updatedServicePolicies;
 						}
-						httpCode = HttpServletResponse.SC_OK;
-						logMsg = "Returning " + (ret.getPolicies() != null ? ret.getPolicies().size() : (ret.getPolicyDeltas() != null ? ret.getPolicyDeltas().size() : 0)) + " policies. Policy version=" + ret.getPolicyVersion();
+						if (isPolicyDownloadNotModified(ret, request)) {
+							ret = null;
+							httpCode = HttpServletResponse.SC_NOT_MODIFIED;
+							logMsg = "No change since last update: ETag matched";
+						} else {
+							httpCode = HttpServletResponse.SC_OK;
+							logMsg = "Returning " + (ret.getPolicies() != null ? ret.getPolicies().size() : (ret.getPolicyDeltas() != null ? ret.getPolicyDeltas().size() : 0)) + " policies. Policy version=" + ret.getPolicyVersion();
+						}
 					}
 
 				} else {
@@ -3547,7 +3562,8 @@ public class ServiceREST {
                         boolean     isAuditKeyAdmin = bizUtil.isAuditKeyAdmin();
 			Set<String> userGroups = null;
 
-			Map<String, List<RangerPolicy>> servicePoliciesMap = new HashMap<String, List<RangerPolicy>>();
+			Map<String, List<RangerPolicy>> servicePoliciesMap    = new HashMap<String, List<RangerPolicy>>();
+			Map<String, Boolean>            zoneAdminOrAuditorMap = new HashMap<String, Boolean>();
 
 			for (int i = 0; i < policies.size(); i++) {
 				RangerPolicy       policy      = policies.get(i);
@@ -3600,15 +3616,20 @@ public class ServiceREST {
 					RangerPolicyAdmin policyAdmin = getPolicyAdminForDelegatedAdmin(serviceName);
 
 					if (policyAdmin != null) {
+						if (isServiceAdminUser) {
+							ret.addAll(listToFilter);
+
+							continue;
+						}
+
 						if(userGroups == null) {
 							userGroups = daoManager.getXXGroupUser().findGroupNamesByUserName(userName);
 						}
 						Set<String> roles = policyAdmin.getRolesFromUserAndGroups(userName, userGroups);
 
 						for (RangerPolicy policy : listToFilter) {
-							if (policyAdmin.isAccessAllowed(policy, userName, userGroups, roles, RangerPolicyEngine.ADMIN_ACCESS)
-									|| (!StringUtils.isEmpty(policy.getZoneName()) && (serviceMgr.isZoneAdmin(policy.getZoneName()) || serviceMgr.isZoneAuditor(policy.getZoneName())))
-									|| isServiceAdminUser) {
+							if (isZoneAdminOrAuditor(policy.getZoneName(), zoneAdminOrAuditorMap)
+									|| policyAdmin.isAccessAllowed(policy, userName, userGroups, roles, RangerPolicyEngine.ADMIN_ACCESS)) {
 								ret.add(policy);
 							}
 						}
@@ -3623,6 +3644,22 @@ public class ServiceREST {
 		return ret;
 	}
 	
+	private boolean isZoneAdminOrAuditor(String zoneName, Map<String, Boolean> zoneAdminOrAuditorMap) {
+		if (StringUtils.isEmpty(zoneName)) {
+			return false;
+		}
+
+		Boolean ret = zoneAdminOrAuditorMap.get(zoneName);
+
+		if (ret == null) {
+			ret = serviceMgr.isZoneAdmin(zoneName) || serviceMgr.isZoneAuditor(zoneName);
+
+			zoneAdminOrAuditorMap.put(zoneName, ret);
+		}
+
+		return ret;
+	}
+
 	void ensureAdminAccess(RangerPolicy policy) {
 		boolean isAdmin = bizUtil.isAdmin();
 		boolean isKeyAdmin = bizUtil.isKeyAdmin();
@@ -3791,6 +3828,66 @@ public class ServiceREST {
 			   (bizUtil.isAdmin() || bizUtil.isKeyAdmin());
 	}
 
+	/*
+	 * The page can be picked by the database query only when no policy matched by the query is dropped later, i.e.:
+	 *  - all policies of the service, or of the requested zone, are visible to the user, so that
+	 *    applyAdminAccessFilter() keeps all of them
+	 *  - the filter has only params searched by the query, and none that is applied only in memory
+	 * For other delegated admins, visibility of each policy is decided by evaluating delegate-admin policy items
+	 * against the policy's resources (wildcards, excludes, recursive paths), which can't be expressed in the query.
+	 */
+	boolean isPaginationInQuerySupported(SearchFilter filter) {
+		String serviceName = filter != null ? filter.getParam(SearchFilter.SERVICE_NAME) : null;
+
+		if (StringUtils.isBlank(serviceName)) {
+			return false;
+		}
+
+		// policies of other zones are dropped in memory, unless a zone is given or policies of all zones are requested
+		if (StringUtils.isBlank(filter.getParam(SearchFilter.ZONE_NAME)) && !Boolean.parseBoolean(filter.getParam(SearchFilter.FETCH_ZONE_UNZONE_POLICIES))) {
+			return false;
+		}
+
+		Set<String> queryParams = new HashSet<String>();
+
+		for (SearchField searchField : policyService.searchFields) {
+			queryParams.add(searchField.getClientFieldName());
+		}
+
+		queryParams.remove(SearchFilter.USER); // expanded to the user's groups, with one query per group
+		queryParams.add(SearchFilter.FETCH_ZONE_UNZONE_POLICIES);
+
+		if (!queryParams.containsAll(filter.getParams().keySet())) {
+			return false;
+		}
+
+		final boolean ret;
+
+		if (bizUtil.isAdmin() || bizUtil.isKeyAdmin() || bizUtil.isAuditAdmin() || bizUtil.isAuditKeyAdmin()) {
+			XXService xService = daoManager.getXXService().findByName(serviceName);
+
+			if (xService == null) {
+				ret = false;
+			} else {
+				boolean isKmsService = xService.getType().equals(EmbeddedServiceDefsUtil.instance().getKmsServiceDefId());
+
+				ret = (bizUtil.isAdmin() || bizUtil.isAuditAdmin()) ? !isKmsService : isKmsService;
+			}
+		} else {
+			String zoneName = filter.getParam(SearchFilter.ZONE_NAME);
+
+			ret = (svcStore.isServiceAdminUser(serviceName, bizUtil.getCurrentUserLoginId())
+					|| (StringUtils.isNotBlank(zoneName) && (serviceMgr.isZoneAdmin(zoneName) || serviceMgr.isZoneAuditor(zoneName))))
+					&& getPolicyAdminForDelegatedAdmin(serviceName) != null;
+		}
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("isPaginationInQuerySupported(serviceName=" + serviceName + "): " + ret);
+		}
+
+		return ret;
+	}
+
 	private RangerPolicyList toRangerPolicyList(PList<RangerPolicy> policyList) {
 		RangerPolicyList ret = new RangerPolicyList();
 
@@ -3835,6 +3932,13 @@ public class ServiceREST {
 		return ret;
 	}
 
+	private boolean isPolicyDownloadNotModified(ServicePolicies servicePolicies, HttpServletRequest request) {
+		String eTag        = RangerServicePoliciesCache.getETag(servicePolicies);
+		String ifNoneMatch = request != null ? request.getHeader(HttpHeaders.IF_NONE_MATCH) : null;
+
+		return eTag != null && ifNoneMatch != null && (ifNoneMatch.equals("*") || Arrays.asList(StringUtils.split(ifNoneMatch, ", ")).contains(eTag));
+	}
+
 	private ServicePolicies filterServicePolicies(ServicePolicies servicePolicies) {
 		ServicePolicies ret = null;
 		boolean containsDisabledResourcePolicies = false;
@@ -142,6 +142,7 @@ public class XAuditREST {
 	@PreAuthorize("@rangerPreAuthSecurityHandler.isAPIAccessible(\"" + RangerAPIList.SEARCH_X_ACCESS_AUDITS + "\")")
 	public VXAccessAuditList searchXAccessAudits(@Context HttpServletRequest request) {
 		SearchCriteria searchCriteria = searchUtil.extractCommonCriterias(request, xAccessAuditService.sortFields);
+		searchUtil.extractString(request, searchCriteria, XAccessAuditService.PARAM_CURSOR_MARK, "Cursor Mark", null);
 		return xAuditMgr.searchXAccessAudits(searchCriteria);
 	}
 
@@ -24,19 +24,24 @@ import java.util.HashMap;
 import java.util.List;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
 import org.apache.ranger.biz.RangerBizUtil;
+import org.apache.ranger.biz.ServiceDBStore;
 import org.apache.ranger.biz.SessionMgr;
 import org.apache.ranger.biz.XUserMgr;
 import org.apache.ranger.common.ContextUtil;
@@ -45,11 +50,18 @@ import org.apache.ranger.common.RESTErrorUtil;
 import org.apache.ranger.common.RangerConstants;
 import org.apache.ranger.common.SearchCriteria;
 import org.apache.ranger.common.SearchUtil;
+import org.apache.ranger.common.ServiceUtil;
 import org.apache.ranger.common.StringUtil;
 import org.apache.ranger.common.UserSessionBase;
 import org.apache.ranger.common.annotation.RangerAnnotationClassName;
 import org.apache.ranger.common.annotation.RangerAnnotationJSMgrName;
 import org.apache.ranger.db.RangerDaoManager;
+import org.apache.ranger.entity.XXService;
+import org.apache.ranger.entity.XXServiceDef;
+import org.apache.ranger.plugin.model.RangerService;
+import org.apache.ranger.plugin.store.EmbeddedServiceDefsUtil;
+import org.apache.ranger.plugin.util.RangerRESTUtils;
+import org.apache.ranger.plugin.util.RangerUserStore;
 import org.apache.ranger.security.context.RangerAPIList;
 import org.apache.ranger.service.AuthSessionService;
 import org.apache.ranger.service.XAuditMapService;
@@ -131,7 +143,13 @@ public class XUserREST {
 	
 	@Autowired
 	StringUtil stringUtil;
-	
+
+	@Autowired
+	ServiceUtil serviceUtil;
+
+	@Autowired
+	ServiceDBStore svcStore;
+
 	static final Logger logger = Logger.getLogger(XUserMgr.class);
 
 	// Handle XGroup
@@ -1243,4 +1261,155 @@ public class XUserREST {
 
 		return xUserMgr.postUserGroupAuditInfo(vxUgsyncAuditInfo);
 	}
+
+	@POST
+	@Path("/ugsync/usergroups")
+	@Produces({ "application/xml", "application/json" })
+	@PreAuthorize("hasRole('ROLE_SYS_ADMIN')")
+	public VXUserGroupSnapshot createOrUpdateXUserGroupSnapshot(VXUserGroupSnapshot vXUserGroupSnapshot) {
+		return xUserMgr.createOrUpdateXUserGroupSnapshot(vXUserGroupSnapshot);
+	}
+
+	@GET
+	@Path("/download/{serviceName}")
+	@Produces({ "application/json", "application/xml" })
+	public RangerUserStore getRangerUserStoreIfUpdated(
+			@PathParam("serviceName") String serviceName,
+			@QueryParam(RangerRESTUtils.REST_PARAM_LAST_KNOWN_USERSTORE_VERSION) Long lastKnownUserStoreVersion,
+			@DefaultValue("0") @QueryParam("lastActivationTime") Long lastActivationTime,
+			@QueryParam("pluginId") String pluginId,
+			@DefaultValue("") @QueryParam("clusterName") String clusterName,
+			@DefaultValue("") @QueryParam(RangerRESTUtils.REST_PARAM_CAPABILITIES) String pluginCapabilities,
+			@Context HttpServletRequest request) throws Exception {
+		if (logger.isDebugEnabled()) {
+			logger.debug("==> XUserREST.getRangerUserStoreIfUpdated(" + serviceName + ", " + lastKnownUserStoreVersion + ", " + lastActivationTime + ")");
+		}
+
+		RangerUserStore ret      = null;
+		boolean         isValid  = false;
+		int             httpCode = HttpServletResponse.SC_OK;
+		String          logMsg   = null;
+
+		try {
+			bizUtil.failUnauthenticatedIfNotAllowed();
+			isValid = serviceUtil.isValidService(serviceName, request);
+		} catch (WebApplicationException webException) {
+			httpCode = webException.getResponse().getStatus();
+			logMsg   = webException.getResponse().getEntity().toString();
+		} catch (Exception e) {
+			httpCode = HttpServletResponse.SC_BAD_REQUEST;
+			logMsg   = e.getMessage();
+		}
+
+		if (isValid) {
+			try {
+				ret = xUserMgr.getRangerUserStore(serviceName, lastKnownUserStoreVersion);
+
+				if (ret == null) {
+					httpCode = HttpServletResponse.SC_NOT_MODIFIED;
+					logMsg   = "No change since last update";
+				}
+			} catch (Throwable excp) {
+				logger.error("getRangerUserStoreIfUpdated(" + serviceName + ", " + lastKnownUserStoreVersion + ", " + lastActivationTime + ") failed", excp);
+				httpCode = HttpServletResponse.SC_BAD_REQUEST;
+				logMsg   = excp.getMessage();
+			}
+		}
+
+		if (httpCode != HttpServletResponse.SC_OK) {
+			boolean logError = httpCode != HttpServletResponse.SC_NOT_MODIFIED;
+			throw restErrorUtil.createRESTException(httpCode, logMsg, logError);
+		}
+
+		if (logger.isDebugEnabled()) {
+			logger.debug("<== XUserREST.getRangerUserStoreIfUpdated(" + serviceName + ", " + lastKnownUserStoreVersion + ", " + lastActivationTime + "): " + ret);
+		}
+
+		return ret;
+	}
+
+	@GET
+	@Path("/secure/download/{serviceName}")
+	@Produces({ "application/json", "application/xml" })
+	public RangerUserStore getSecureRangerUserStoreIfUpdated(
+			@PathParam("serviceName") String serviceName,
+			@QueryParam(RangerRESTUtils.REST_PARAM_LAST_KNOWN_USERSTORE_VERSION) Long lastKnownUserStoreVersion,
+			@DefaultValue("0") @QueryParam("lastActivationTime") Long lastActivationTime,
+			@QueryParam("pluginId") String pluginId,
+			@DefaultValue("") @QueryParam("clusterName") String clusterName,
+			@DefaultValue("") @QueryParam(RangerRESTUtils.REST_PARAM_CAPABILITIES) String pluginCapabilities,
+			@Context HttpServletRequest request) throws Exception {
+		if (logger.isDebugEnabled()) {
+			logger.debug("==> XUserREST.getSecureRangerUserStoreIfUpdated(" + serviceName + ", " + lastKnownUserStoreVersion + ", " + lastActivationTime + ")");
+		}
+
+		RangerUserStore ret      = null;
+		boolean         isValid  = false;
+		int             httpCode = HttpServletResponse.SC_OK;
+		String          logMsg   = null;
+
+		request.setAttribute("downloadPolicy", "secure");
+
+		try {
+			isValid = serviceUtil.isValidService(serviceName, request);
+		} catch (WebApplicationException webException) {
+			httpCode = webException.getResponse().getStatus();
+			logMsg   = webException.getResponse().getEntity().toString();
+		} catch (Exception e) {
+			httpCode = HttpServletResponse.SC_BAD_REQUEST;
+			logMsg   = e.getMessage();
+		}
+
+		if (isValid) {
+			try {
+				XXService xService = rangerDaoManager.getXXService().findByName(serviceName);
+
+				if (xService == null) {
+					logger.error("Requested Service not found. serviceName=" + serviceName);
+					throw restErrorUtil.createRESTException(HttpServletResponse.SC_NOT_FOUND, "Service:" + serviceName + " not found", false);
+				}
+
+				XXServiceDef  xServiceDef   = rangerDaoManager.getXXServiceDef().getById(xService.getType());
+				RangerService rangerService = svcStore.getServiceByName(serviceName);
+				boolean       isAllowed;
+
+				if (StringUtils.equals(xServiceDef.getImplclassname(), EmbeddedServiceDefsUtil.KMS_IMPL_CLASS_NAME)) {
+					isAllowed = bizUtil.isKeyAdmin() || bizUtil.isUserAllowed(rangerService, RoleREST.POLICY_DOWNLOAD_USERS);
+				} else {
+					isAllowed = bizUtil.isAdmin() || bizUtil.isUserAllowed(rangerService, RoleREST.POLICY_DOWNLOAD_USERS);
+				}
+
+				if (isAllowed) {
+					ret = xUserMgr.getRangerUserStore(serviceName, lastKnownUserStoreVersion);
+
+					if (ret == null) {
+						httpCode = HttpServletResponse.SC_NOT_MODIFIED;
+						logMsg   = "No change since last update";
+					}
+				} else {
+					logger.error("getSecureRangerUserStoreIfUpdated(" + serviceName + ", " + lastKnownUserStoreVersion + ") failed as User doesn't have permission to download UserStore");
+					httpCode = HttpServletResponse.SC_UNAUTHORIZED;
+					logMsg   = "User doesn't have permission to download UserStore";
+				}
+			} catch (WebApplicationException webException) {
+				httpCode = webException.getResponse().getStatus();
+				logMsg   = webException.getResponse().getEntity().toString();
+			} catch (Throwable excp) {
+				logger.error("getSecureRangerUserStoreIfUpdated(" + serviceName + ", " + lastKnownUserStoreVersion + ", " + lastActivationTime + ") failed", excp);
+				httpCode = HttpServletResponse.SC_BAD_REQUEST;
+				logMsg   = excp.getMessage();
+			}
+		}
+
+		if (httpCode != HttpServletResponse.SC_OK) {
+			boolean logError = httpCode != HttpServletResponse.SC_NOT_MODIFIED;
+			throw restErrorUtil.createRESTException(httpCode, logMsg, logError);
+		}
+
+		if (logger.isDebugEnabled()) {
+			logger.debug("<== XUserREST.getSecureRangerUserStoreIfUpdated(" + serviceName + ", " + lastKnownUserStoreVersion + ", " + lastActivationTime + "): " + ret);
+		}
+
+		return ret;
+	}
 }
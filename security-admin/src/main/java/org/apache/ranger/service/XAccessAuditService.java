@@ -21,11 +21,18 @@
 
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.persistence.Query;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.ranger.authorization.hadoop.constants.RangerHadoopConstants;
+import org.apache.ranger.common.MessageEnums;
 import org.apache.ranger.common.PropertiesUtil;
+import org.apache.ranger.common.RangerSearchCountCache;
 import org.apache.ranger.common.SearchCriteria;
 import org.apache.ranger.common.SearchField;
 import org.apache.ranger.common.SearchField.DATA_TYPE;
@@ -37,17 +44,38 @@ import org.apache.ranger.entity.XXService;
 import org.apache.ranger.entity.XXServiceDef;
 import org.apache.ranger.view.VXAccessAudit;
 import org.apache.ranger.view.VXAccessAuditList;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @Scope("singleton")
 public class XAccessAuditService extends XAccessAuditServiceBase<XXAccessAudit, VXAccessAudit>{
 
 	public static final String NAME = "XAccessAudit";
+	public static final String PARAM_CURSOR_MARK = "cursorMark";
+	public static final String CURSOR_MARK_START = "*";
+
+	private static final String PARAM_CURSOR_EVENT_TIME = "cursorEventTime";
+	private static final String PARAM_CURSOR_ID         = "cursorId";
+	private static final String CURSOR_MARK_SEPARATOR   = ":";
+
 	protected final String distinctCountQueryStr;
 	protected final String distinctQueryStr;
 
+	@Autowired
+	RangerSearchCountCache searchCountCache;
+
+	@Autowired
+	@Qualifier(value = "transactionManager")
+	PlatformTransactionManager txManager;
+
 	public XAccessAuditService() {
 		countQueryStr = "SELECT COUNT(obj) FROM XXAccessAudit  obj ";
 		queryStr = "SELECT obj FROM XXAccessAudit obj ";
@@ -95,6 +123,9 @@ public class XAccessAuditService extends XAccessAuditServiceBase<XXAccessAudit,
 				SearchField.DATA_TYPE.STRING, SearchField.SEARCH_TYPE.FULL));
 		searchFields.add(new SearchField("agentHost", "obj.agentHost",
 				SearchField.DATA_TYPE.STRING, SearchField.SEARCH_TYPE.PARTIAL));
+		// used only for binding the id in the keyset condition added by getKeysetField()
+		searchFields.add(new SearchField(PARAM_CURSOR_ID, null,
+				SearchField.DATA_TYPE.INTEGER, SearchField.SEARCH_TYPE.FULL));
 		sortFields.add(new SortField("eventTime", "obj.eventTime", true, SORT_ORDER.DESC));
 }
 
@@ -164,8 +195,7 @@ public class XAccessAuditService extends XAccessAuditServiceBase<XXAccessAudit,
         VXAccessAuditList returnList = new VXAccessAuditList();
         List<VXAccessAudit> xAccessAuditList = new ArrayList<VXAccessAudit>();
 
-        List<XXAccessAudit> resultList = (List<XXAccessAudit>) searchResources(searchCriteria,
-                searchFields, sortFields, returnList);
+        List<XXAccessAudit> resultList = searchAccessAudits(searchCriteria, returnList);
         final boolean hiveQueryVisibility = PropertiesUtil.getBooleanProperty("ranger.audit.hive.query.visibility", true);
         // Iterate over the result list and create the return list
         for (XXAccessAudit gjXAccessAudit : resultList) {
@@ -194,6 +224,136 @@ public class XAccessAuditService extends XAccessAuditServiceBase<XXAccessAudit,
         return returnList;
     }
 	
+	/*
+	 * Same as searchResources(), except that:
+	 *  - the total count is read from searchCountCache, hence is approximate
+	 *  - when the request has a cursorMark, the page following the cursor is read using a condition on
+	 *    (eventTime, id) instead of an OFFSET; the cursor for the next page is returned in nextCursorMark.
+	 *    cursorMark=* returns the first page.
+	 */
+	private List<XXAccessAudit> searchAccessAudits(SearchCriteria searchCriteria, VXAccessAuditList returnList) {
+		String            cursorMark = (String) searchCriteria.getParamValue(PARAM_CURSOR_MARK);
+		List<SearchField> fieldList  = searchFields;
+		long              count      = -1;
+
+		if (searchCriteria.isGetCount()) {
+			count = getApproximateCount(searchCriteria);
+		}
+
+		String sortClause = searchUtil.constructSortClause(searchCriteria, sortFields);
+
+		if (cursorMark != null) {
+			boolean isDescending = !"asc".equalsIgnoreCase(searchCriteria.getSortType());
+
+			sortClause = (sortClause != null ? sortClause + ", " : " ORDER BY ") + "obj.id " + (isDescending ? "desc" : "asc");
+
+			searchCriteria.setStartIndex(0);
+
+			if (!CURSOR_MARK_START.equals(cursorMark)) {
+				setCursorParams(searchCriteria, cursorMark);
+
+				fieldList = new ArrayList<SearchField>(searchFields);
+
+				fieldList.add(getKeysetField(isDescending));
+			}
+		}
+
+		Query query = createQuery(searchCriteria.isDistinct() ? distinctQueryStr : queryStr, sortClause, searchCriteria, fieldList, false);
+
+		List<XXAccessAudit> resultList = getDao().executeQueryInSecurityContext(tEntityClass, query);
+
+		returnList.setPageSize(query.getMaxResults());
+		returnList.setSortBy(searchCriteria.getSortBy());
+		returnList.setSortType(searchCriteria.getSortType());
+		returnList.setStartIndex(query.getFirstResult());
+		returnList.setTotalCount(count);
+		returnList.setResultSize(resultList.size());
+
+		if (cursorMark != null) {
+			returnList.setNextCursorMark(resultList.isEmpty() ? cursorMark : toCursorMark(resultList.get(resultList.size() - 1)));
+		}
+
+		return resultList;
+	}
+
+	private long getApproximateCount(SearchCriteria searchCriteria) {
+		final SearchCriteria countCriteria = new SearchCriteria();
+
+		countCriteria.getParamList().putAll(searchCriteria.getParamList());
+		countCriteria.getParamList().remove(PARAM_CURSOR_MARK);
+		countCriteria.setDistinct(searchCriteria.isDistinct());
+		countCriteria.setOwnerId(searchCriteria.getOwnerId());
+
+		return searchCountCache.getCount(getCountFingerprint(countCriteria), new RangerSearchCountCache.CountLoader() {
+			@Override
+			public long getCount() {
+				// the count might be computed in a background thread, hence in its own transaction
+				TransactionTemplate txTemplate = new TransactionTemplate(txManager);
+
+				txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+				txTemplate.setReadOnly(true);
+
+				Long ret = txTemplate.execute(new TransactionCallback<Long>() {
+					@Override
+					public Long doInTransaction(TransactionStatus status) {
+						return getCountForSearchQuery(countCriteria, searchFields);
+					}
+				});
+
+				return ret != null ? ret : 0;
+			}
+		});
+	}
+
+	private String getCountFingerprint(SearchCriteria searchCriteria) {
+		StringBuilder sb = new StringBuilder(NAME);
+
+		sb.append("|distinct=").append(searchCriteria.isDistinct());
+		sb.append("|ownerId=").append(searchCriteria.getOwnerId());
+
+		for (Map.Entry<String, Object> entry : new TreeMap<String, Object>(searchCriteria.getParamList()).entrySet()) {
+			Object value = entry.getValue();
+
+			sb.append('|').append(entry.getKey()).append('=').append(value instanceof Date ? ((Date) value).getTime() : value);
+		}
+
+		return sb.toString();
+	}
+
+	private SearchField getKeysetField(boolean isDescending) {
+		String      op  = isDescending ? "<" : ">";
+		SearchField ret = new SearchField(PARAM_CURSOR_EVENT_TIME, "obj.eventTime", DATA_TYPE.DATE, SEARCH_TYPE.FULL);
+
+		ret.setCustomCondition("(obj.eventTime " + op + " :" + PARAM_CURSOR_EVENT_TIME
+				+ " or (obj.eventTime = :" + PARAM_CURSOR_EVENT_TIME + " and obj.id " + op + " :" + PARAM_CURSOR_ID + "))");
+
+		return ret;
+	}
+
+	private void setCursorParams(SearchCriteria searchCriteria, String cursorMark) {
+		String[] parts = cursorMark.split(CURSOR_MARK_SEPARATOR);
+
+		try {
+			if (parts.length == 2) {
+				searchCriteria.getParamList().put(PARAM_CURSOR_EVENT_TIME, new Date(Long.parseLong(parts[0])));
+				searchCriteria.getParamList().put(PARAM_CURSOR_ID, Long.valueOf(parts[1]));
+
+				return;
+			}
+		} catch (NumberFormatException excp) {
+			logger.warn("Invalid cursorMark: " + cursorMark, excp);
+		}
+
+		throw restErrorUtil.createRESTException("Invalid value for parameter " + PARAM_CURSOR_MARK + ": " + cursorMark,
+				MessageEnums.INVALID_INPUT_DATA);
+	}
+
+	private String toCursorMark(XXAccessAudit xAccessAudit) {
+		Date eventTime = xAccessAudit.getEventTime();
+
+		return (eventTime != null ? eventTime.getTime() : 0L) + CURSOR_MARK_SEPARATOR + xAccessAudit.getId();
+	}
+
 	public VXAccessAudit populateViewBean(XXAccessAudit gjXAccessAudit) {
 		VXAccessAudit vXAccessAudit = new VXAccessAudit();
 		return mapEntityToViewBean(vXAccessAudit, gjXAccessAudit);
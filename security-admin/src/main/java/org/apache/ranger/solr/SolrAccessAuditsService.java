@@ -187,6 +187,9 @@ public class SolrAccessAuditsService {
 		returnList.setTotalCount((int) docs.getNumFound());
 		returnList.setStartIndex((int) docs.getStart());
 		returnList.setVXAccessAudits(xAccessAuditList);
+		if (searchCriteria.getParamValue(SolrUtil.PARAM_CURSOR_MARK) != null) {
+			returnList.setNextCursorMark(response.getNextCursorMark());
+		}
 		return returnList;
 	}
 
@@ -41,6 +41,7 @@ import org.apache.solr.client.solrj.SolrRequest.METHOD;
 import org.apache.solr.client.solrj.request.QueryRequest;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.client.solrj.util.ClientUtils;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -48,6 +49,9 @@ import org.springframework.stereotype.Component;
 public class SolrUtil {
 	private static final Logger logger = Logger.getLogger(SolrUtil.class);
 
+	public static final String PARAM_CURSOR_MARK = "cursorMark";
+	public static final String FIELD_UNIQUE_KEY  = "id";
+
 	@Autowired
 	RESTErrorUtil restErrorUtil;
 
@@ -152,7 +156,19 @@ public class SolrUtil {
 		}
 
 		setSortClause(searchCriteria, sortFieldList, query);
-		query.setStart(searchCriteria.getStartIndex());
+
+		Object cursorMark = searchCriteria.getParamValue(PARAM_CURSOR_MARK);
+
+		if (cursorMark != null && !cursorMark.toString().isEmpty()) {
+			// deep paging with cursorMark requires start=0 and the uniqueKey in the sort
+			ORDER order = "desc".equalsIgnoreCase(searchCriteria.getSortType()) ? ORDER.desc : ORDER.asc;
+
+			query.addSort(FIELD_UNIQUE_KEY, order);
+			query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark.toString());
+			query.setStart(0);
+		} else {
+			query.setStart(searchCriteria.getStartIndex());
+		}
 		query.setRows(searchCriteria.getMaxRows());
 
 		// Fields to get
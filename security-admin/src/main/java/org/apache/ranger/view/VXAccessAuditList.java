@@ -43,6 +43,10 @@ import org.codehaus.jackson.map.annotate.JsonSerialize;
 public class VXAccessAuditList extends VList {
 	private static final long serialVersionUID = 1L;
     List<VXAccessAudit> vXAccessAudits = new ArrayList<VXAccessAudit>();
+    /**
+     * Cursor to pass as cursorMark to fetch the next page; set only when the request had a cursorMark
+     */
+    String nextCursorMark;
 
     public VXAccessAuditList() {
 	super();
@@ -68,6 +72,21 @@ public class VXAccessAuditList extends VList {
 	this.vXAccessAudits = vXAccessAudits;
     }
 
+    /**
+     * @return the nextCursorMark
+     */
+    public String getNextCursorMark() {
+	return nextCursorMark;
+    }
+
+    /**
+     * @param nextCursorMark
+     *            the nextCursorMark to set
+     */
+    public void setNextCursorMark(String nextCursorMark) {
+	this.nextCursorMark = nextCursorMark;
+    }
+
     @Override
     public int getListSize() {
 	if (vXAccessAudits != null) {
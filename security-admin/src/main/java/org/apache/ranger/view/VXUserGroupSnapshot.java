@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+ package org.apache.ranger.view;
+
+/**
+ * Users and their groups, as sent by usersync in bulk mode; each user's groups replace
+ * the groups the user currently belongs to. The counts are set in the response.
+ *
+ */
+
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+import org.codehaus.jackson.annotate.JsonAutoDetect;
+import org.codehaus.jackson.annotate.JsonAutoDetect.Visibility;
+import org.codehaus.jackson.annotate.JsonIgnoreProperties;
+import org.codehaus.jackson.map.annotate.JsonSerialize;
+
+@JsonAutoDetect(getterVisibility=Visibility.NONE, setterVisibility=Visibility.NONE, fieldVisibility=Visibility.ANY)
+@JsonSerialize(include=JsonSerialize.Inclusion.NON_NULL )
+@JsonIgnoreProperties(ignoreUnknown=true)
+@XmlRootElement
+public class VXUserGroupSnapshot implements java.io.Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Map<String, List<String>> userGroups;
+	private Long noOfNewUsers;
+	private Long noOfNewGroups;
+	private Long noOfAddedGroupUsers;
+	private Long noOfDeletedGroupUsers;
+
+	public VXUserGroupSnapshot() {
+	}
+
+	public Map<String, List<String>> getUserGroups() {
+		return userGroups;
+	}
+
+	public void setUserGroups(Map<String, List<String>> userGroups) {
+		this.userGroups = userGroups;
+	}
+
+	public Long getNoOfNewUsers() {
+		return noOfNewUsers;
+	}
+
+	public void setNoOfNewUsers(Long noOfNewUsers) {
+		this.noOfNewUsers = noOfNewUsers;
+	}
+
+	public Long getNoOfNewGroups() {
+		return noOfNewGroups;
+	}
+
+	public void setNoOfNewGroups(Long noOfNewGroups) {
+		this.noOfNewGroups = noOfNewGroups;
+	}
+
+	public Long getNoOfAddedGroupUsers() {
+		return noOfAddedGroupUsers;
+	}
+
+	public void setNoOfAddedGroupUsers(Long noOfAddedGroupUsers) {
+		this.noOfAddedGroupUsers = noOfAddedGroupUsers;
+	}
+
+	public Long getNoOfDeletedGroupUsers() {
+		return noOfDeletedGroupUsers;
+	}
+
+	public void setNoOfDeletedGroupUsers(Long noOfDeletedGroupUsers) {
+		this.noOfDeletedGroupUsers = noOfDeletedGroupUsers;
+	}
+
+	@Override
+	public String toString() {
+		return "VXUserGroupSnapshot={userCount=" + (userGroups != null ? userGroups.size() : 0)
+				+ ", noOfNewUsers=" + noOfNewUsers + ", noOfNewGroups=" + noOfNewGroups
+				+ ", noOfAddedGroupUsers=" + noOfAddedGroupUsers + ", noOfDeletedGroupUsers=" + noOfDeletedGroupUsers + "}";
+	}
+}
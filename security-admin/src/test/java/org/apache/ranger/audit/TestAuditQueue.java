@@ -579,6 +579,104 @@ public class TestAuditQueue {
 
 	}
 
+	/**
+	 * See if we recover after restart, when spooling to binary segments
+	 */
+	@Test
+	public void testAuditBatchQueueDestDownRestartBinarySpool() {
+		logger.debug("testAuditBatchQueueDestDownRestartBinarySpool()...");
+		int messageToSend = 10;
+
+		String basePropName = "testAuditBatchQueueDestDownRestartBinarySpool_"
+				+ MiscUtil.generateUniqueId();
+		int batchSize = messageToSend / 3;
+		int queueSize = messageToSend * 2;
+		int intervalMS = 3000; // Deliberately big interval
+		int maxArchivedFiles = 1;
+		Properties props = new Properties();
+		props.put(
+				basePropName + "." + BaseAuditHandler.PROP_NAME,
+				"testAuditBatchQueueDestDownRestartBinarySpool_"
+						+ MiscUtil.generateUniqueId());
+
+		props.put(basePropName + "." + AuditQueue.PROP_BATCH_SIZE, ""
+				+ batchSize);
+		props.put(basePropName + "." + AuditQueue.PROP_QUEUE_SIZE, ""
+				+ queueSize);
+		props.put(basePropName + "." + AuditQueue.PROP_BATCH_INTERVAL, ""
+				+ intervalMS);
+
+		// Enable File Spooling
+		int destRetryMS = 10;
+		props.put(basePropName + "." + AuditQueue.PROP_FILE_SPOOL_ENABLE,
+				"" + true);
+		props.put(
+				basePropName + "." + AuditFileSpool.PROP_FILE_SPOOL_LOCAL_DIR,
+				"target");
+		props.put(basePropName + "."
+				+ AuditFileSpool.PROP_FILE_SPOOL_DEST_RETRY_MS, ""
+				+ destRetryMS);
+		props.put(basePropName + "."
+				+ AuditFileSpool.PROP_FILE_SPOOL_ARCHIVE_MAX_FILES_COUNT, ""
+				+ maxArchivedFiles);
+		props.put(basePropName + "." + AuditQueue.PROP_FILE_SPOOL_FORMAT,
+				AuditQueue.FILE_SPOOL_FORMAT_BINARY);
+
+		TestConsumer testConsumer = new TestConsumer();
+		testConsumer.isDown = true;
+
+		AuditBatchQueue queue = new AuditBatchQueue(testConsumer);
+		queue.init(props, basePropName);
+		queue.start();
+
+		for (int i = 0; i < messageToSend; i++) {
+			queue.log(createEvent());
+
+		}
+		// Let's wait for second or two
+		try {
+			Thread.sleep(2000);
+		} catch (InterruptedException e) {
+			// ignore
+		}
+
+		queue.waitToComplete(5000);
+		queue.stop();
+		queue.waitToComplete();
+
+		testConsumer.isDown = true;
+
+		// Let's wait for second or two
+		try {
+			Thread.sleep(5000);
+		} catch (InterruptedException e) {
+			// ignore
+		}
+
+		// Let's now recreate the objects
+		testConsumer = new TestConsumer();
+
+		queue = new AuditBatchQueue(testConsumer);
+		queue.init(props, basePropName);
+		queue.start();
+
+		// Let's wait for second
+		try {
+			Thread.sleep(2000);
+		} catch (InterruptedException e) {
+			// ignore
+		}
+
+		queue.waitToComplete(5000);
+		queue.stop();
+		queue.waitToComplete();
+
+		assertEquals("Total count", messageToSend, testConsumer.getCountTotal());
+		assertEquals("Total sum", messageToSend, testConsumer.getSumTotal());
+		assertNull("Event not in sequnce", testConsumer.isInSequence());
+
+	}
+
 	@Test
 	public void testFileDestination() {
 		logger.debug("testFileDestination()...");
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.audit;
+
+import static org.junit.Assert.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.ranger.audit.destination.DBAuditDestination;
+import org.apache.ranger.audit.model.AuditEventBase;
+import org.apache.ranger.audit.model.AuthzAuditEvent;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestDBAuditDestination {
+
+	private static final Log logger = LogFactory.getLog(TestDBAuditDestination.class);
+
+	private static final String JDBC_DRIVER = "org.apache.derby.jdbc.EmbeddedDriver";
+	private static final String JDBC_URL = "jdbc:derby:memory:rangeraudit;create=true";
+	private static final String DB_USER = "rangerlogger"; // also the schema of tables created by the test
+	private static final String PROP_PREFIX = "xasecure.audit.destination.db";
+
+	private static Connection connection;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		Class.forName(JDBC_DRIVER);
+
+		connection = DriverManager.getConnection(JDBC_URL, DB_USER, DB_USER);
+
+		Statement stmt = connection.createStatement();
+		// ids generated by JPA, from the sequence, are kept apart from the ones generated by the identity column
+		stmt.executeUpdate("CREATE SEQUENCE XA_ACCESS_AUDIT_SEQ AS BIGINT START WITH 1000000000");
+		stmt.executeUpdate("CREATE TABLE xa_access_audit (id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,"
+				+ " repo_type INT, repo_name VARCHAR(255), request_user VARCHAR(255), event_time TIMESTAMP,"
+				+ " access_type VARCHAR(255), resource_path VARCHAR(4000), resource_type VARCHAR(255), action VARCHAR(2000),"
+				+ " access_result INT, agent_id VARCHAR(255), policy_id BIGINT, result_reason VARCHAR(255),"
+				+ " acl_enforcer VARCHAR(255), session_id VARCHAR(255), client_type VARCHAR(255), client_ip VARCHAR(255),"
+				+ " request_data VARCHAR(4000), seq_num BIGINT, event_count BIGINT, event_dur_ms BIGINT, tags VARCHAR(4000))");
+		stmt.close();
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() throws Exception {
+		if (connection != null) {
+			connection.close();
+		}
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		Statement stmt = connection.createStatement();
+		stmt.executeUpdate("DELETE FROM xa_access_audit");
+		stmt.close();
+	}
+
+	@Test
+	public void testBatchInsert() throws Exception {
+		DBAuditDestination destination = createDestination(true, 3);
+
+		AuthzAuditEvent event = createEvent(1);
+		event.setResourcePath("/tmp/" + new String(new char[5000]).replace('\0', 'x'));
+		event.setTags(new HashSet<String>(Arrays.asList("PII")));
+
+		List<AuditEventBase> events = new ArrayList<AuditEventBase>();
+		events.add(event);
+		for (int i = 2; i <= 250; i++) {
+			events.add(createEvent(i));
+		}
+
+		assertTrue(destination.log(events));
+		destination.stop();
+
+		assertEquals(250, getRowCount());
+
+		Statement stmt = connection.createStatement();
+		ResultSet rs = stmt.executeQuery("SELECT repo_name, request_user, access_type, resource_path, access_result, policy_id, event_time, tags"
+				+ " FROM xa_access_audit WHERE seq_num = 1");
+		assertTrue(rs.next());
+		assertEquals("hdfsdev", rs.getString(1));
+		assertEquals("user1", rs.getString(2));
+		assertEquals("read", rs.getString(3));
+		assertEquals(4000, rs.getString(4).length());
+		assertTrue(rs.getString(4).endsWith("..."));
+		assertEquals(1, rs.getInt(5));
+		assertEquals(1, rs.getLong(6));
+		assertNotNull(rs.getTimestamp(7));
+		assertEquals("PII", rs.getString(8));
+		rs.close();
+		stmt.close();
+	}
+
+	@Test
+	public void testBatchInsertThroughput() throws Exception {
+		int batchCount = 20;
+		int batchSize = 500;
+
+		long jpaTimeMS = logEvents(createDestination(false, 1), batchCount, batchSize);
+		assertEquals(batchCount * batchSize, getRowCount());
+
+		setUp();
+
+		long batchInsertTimeMS = logEvents(createDestination(true, 2), batchCount, batchSize);
+		assertEquals(batchCount * batchSize, getRowCount());
+
+		logger.info("Time to log " + (batchCount * batchSize) + " audits: JPA="
+				+ jpaTimeMS + "ms, batch insert=" + batchInsertTimeMS + "ms");
+	}
+
+	private long logEvents(DBAuditDestination destination, int batchCount, int batchSize) {
+		long startTimeMS = System.currentTimeMillis();
+		int seqNum = 0;
+
+		for (int i = 0; i < batchCount; i++) {
+			List<AuditEventBase> events = new ArrayList<AuditEventBase>(batchSize);
+
+			for (int j = 0; j < batchSize; j++) {
+				events.add(createEvent(++seqNum));
+			}
+
+			assertTrue(destination.log(events));
+		}
+
+		long ret = System.currentTimeMillis() - startTimeMS;
+
+		destination.stop();
+
+		return ret;
+	}
+
+	private DBAuditDestination createDestination(boolean batchInsert, int writerCount) {
+		Properties props = new Properties();
+		props.put(PROP_PREFIX + "." + DBAuditDestination.PROP_DB_JDBC_DRIVER, JDBC_DRIVER);
+		props.put(PROP_PREFIX + "." + DBAuditDestination.PROP_DB_JDBC_URL, JDBC_URL);
+		props.put(PROP_PREFIX + "." + DBAuditDestination.PROP_DB_USER, DB_USER);
+		props.put(PROP_PREFIX + "." + DBAuditDestination.PROP_DB_PASSWORD, DB_USER);
+		props.put(PROP_PREFIX + "." + DBAuditDestination.PROP_DB_BATCH_INSERT_ENABLED, "" + batchInsert);
+		props.put(PROP_PREFIX + "." + DBAuditDestination.PROP_DB_BATCH_INSERT_SIZE, "100");
+		props.put(PROP_PREFIX + "." + DBAuditDestination.PROP_DB_BATCH_INSERT_WRITERS, "" + writerCount);
+
+		DBAuditDestination ret = new DBAuditDestination();
+		ret.init(props, PROP_PREFIX);
+
+		return ret;
+	}
+
+	private AuthzAuditEvent createEvent(int seqNum) {
+		AuthzAuditEvent event = new AuthzAuditEvent();
+		event.setRepositoryType(1);
+		event.setRepositoryName("hdfsdev");
+		event.setUser("user" + seqNum);
+		event.setEventTime(new Date());
+		event.setAccessType("read");
+		event.setResourcePath("/tmp/file" + seqNum);
+		event.setResourceType("path");
+		event.setAction("read");
+		event.setAccessResult((short) 1);
+		event.setAgentId("hdfs");
+		event.setPolicyId(seqNum);
+		event.setAclEnforcer("ranger-acl");
+		event.setClientIP("127.0.0.1");
+		event.setSeqNum(seqNum);
+		event.setEventCount(1);
+		return event;
+	}
+
+	private long getRowCount() throws Exception {
+		Statement stmt = connection.createStatement();
+		ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM xa_access_audit");
+		rs.next();
+		long ret = rs.getLong(1);
+		rs.close();
+		stmt.close();
+		return ret;
+	}
+}
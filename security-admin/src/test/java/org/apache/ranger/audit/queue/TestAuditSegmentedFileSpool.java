@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.audit.queue;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.zip.CRC32;
+
+import org.apache.ranger.audit.provider.AuditHandler;
+import org.apache.ranger.audit.provider.MiscUtil;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class TestAuditSegmentedFileSpool {
+
+	private static final String PROP_PREFIX = "xasecure.audit.filespool";
+
+	private final List<String> received = new ArrayList<String>();
+	private int failAfterBatches = Integer.MAX_VALUE;
+
+	private File logFolder;
+	private AuditBatchQueue queue;
+	private AuditSegmentedFileSpool spool;
+
+	@Before
+	public void setUp() {
+		AuditHandler consumer = Mockito.mock(AuditHandler.class);
+
+		Mockito.when(consumer.logJSON(Mockito.<Collection<String>>any())).thenAnswer(new Answer<Boolean>() {
+			@Override
+			@SuppressWarnings("unchecked")
+			public Boolean answer(InvocationOnMock invocation) {
+				if (failAfterBatches <= 0) {
+					return false;
+				}
+				failAfterBatches--;
+				received.addAll((Collection<String>) invocation.getArguments()[0]);
+				return true;
+			}
+		});
+
+		logFolder = new File("target", "TestAuditSegmentedFileSpool_" + MiscUtil.generateUniqueId());
+
+		Properties props = new Properties();
+		props.put(PROP_PREFIX + "." + AuditFileSpool.PROP_FILE_SPOOL_LOCAL_DIR, logFolder.getPath());
+		props.put(PROP_PREFIX + "." + AuditFileSpool.PROP_FILE_SPOOL_FILENAME_PREFIX, "spool");
+
+		queue = new AuditBatchQueue(consumer);
+		queue.setMaxBatchSize(10);
+
+		spool = new AuditSegmentedFileSpool(queue, consumer);
+		assertTrue(spool.init(props, PROP_PREFIX));
+	}
+
+	@Test
+	public void testTruncatedTailRecordIsIgnored() throws Exception {
+		byte[] last = record("event3");
+		File segment = writeSegment(AuditSegmentedFileSpool.SEGMENT_VERSION,
+				record("event1"), record("event2"), Arrays.copyOf(last, last.length - 2));
+
+		assertTrue(spool.replaySegment(segment));
+		assertEquals(Arrays.asList("event1", "event2"), received);
+	}
+
+	@Test
+	public void testRecordWithChecksumMismatchIsSkipped() throws Exception {
+		byte[] corrupted = record("event2");
+		corrupted[corrupted.length - 1] ^= 0x01;
+		File segment = writeSegment(AuditSegmentedFileSpool.SEGMENT_VERSION,
+				record("event1"), corrupted, record("event3"));
+
+		assertTrue(spool.replaySegment(segment));
+		assertEquals(Arrays.asList("event1", "event3"), received);
+	}
+
+	@Test
+	public void testReplayResumesFromCheckpoint() throws Exception {
+		File segment = writeSegment(AuditSegmentedFileSpool.SEGMENT_VERSION,
+				record("event1"), record("event2"), record("event3"));
+
+		queue.setMaxBatchSize(1);
+		failAfterBatches = 1;
+
+		assertFalse(spool.replaySegment(segment));
+		assertEquals(Collections.singletonList("event1"), received);
+
+		failAfterBatches = Integer.MAX_VALUE;
+
+		assertTrue(spool.replaySegment(segment));
+		assertEquals(Arrays.asList("event1", "event2", "event3"), received);
+	}
+
+	@Test
+	public void testSegmentWithUnknownVersionIsRejected() throws Exception {
+		File segment = writeSegment(AuditSegmentedFileSpool.SEGMENT_VERSION + 1, record("event1"));
+
+		assertTrue(spool.replaySegment(segment));
+		assertTrue(received.isEmpty());
+	}
+
+	private File writeSegment(int version, byte[]... records) throws IOException {
+		File segment = new File(logFolder, "spool_" + MiscUtil.generateUniqueId()
+				+ AuditSegmentedFileSpool.SEGMENT_FILE_SUFFIX);
+		DataOutputStream out = new DataOutputStream(new FileOutputStream(segment));
+		try {
+			out.writeInt(AuditSegmentedFileSpool.SEGMENT_MAGIC);
+			out.writeInt(version);
+			for (byte[] record : records) {
+				out.write(record);
+			}
+		} finally {
+			out.close();
+		}
+		return segment;
+	}
+
+	private byte[] record(String event) throws IOException {
+		byte[] data = event.getBytes("UTF-8");
+		CRC32 crc = new CRC32();
+		crc.update(data, 0, data.length);
+
+		ByteArrayOutputStream ret = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(ret);
+		out.writeInt(data.length);
+		out.writeInt((int) crc.getValue());
+		out.write(data);
+		out.close();
+		return ret.toByteArray();
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ranger.biz;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.ranger.common.PropertiesUtil;
+import org.apache.ranger.common.StringUtil;
+import org.apache.ranger.db.RangerDaoManager;
+import org.apache.ranger.db.XXPluginInfoDao;
+import org.apache.ranger.db.XXPolicyExportAuditDao;
+import org.apache.ranger.entity.XXPluginInfo;
+import org.apache.ranger.entity.XXPolicyExportAudit;
+import org.apache.ranger.plugin.model.RangerPluginInfo;
+import org.apache.ranger.service.RangerPluginActivityLogger;
+import org.apache.ranger.service.RangerPluginInfoService;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TestAssetMgr {
+	private static final String SERVICE_NAME = "hivedev";
+	private static final String PLUGIN_ID    = "hiveServer2@host1-" + SERVICE_NAME;
+
+	@InjectMocks
+	AssetMgr assetMgr = new AssetMgr();
+
+	@Mock
+	RangerDaoManager rangerDaoManager;
+
+	@Mock
+	RangerPluginInfoService pluginInfoService;
+
+	@Mock
+	RangerPluginActivityLogger activityLogger;
+
+	@Mock
+	PlatformTransactionManager txManager;
+
+	@Mock
+	StringUtil stringUtil;
+
+	@Mock
+	XXPluginInfoDao xxPluginInfoDao;
+
+	@Mock
+	XXPolicyExportAuditDao xxPolicyExportAuditDao;
+
+	@Mock
+	HttpServletRequest request;
+
+	@Before
+	public void setUp() {
+		Mockito.when(rangerDaoManager.getXXPluginInfo()).thenReturn(xxPluginInfoDao);
+		Mockito.when(rangerDaoManager.getXXPolicyExportAudit()).thenReturn(xxPolicyExportAuditDao);
+		Mockito.when(request.getRemoteAddr()).thenReturn("10.0.0.1");
+	}
+
+	@After
+	public void tearDown() {
+		assetMgr.destroyPluginActivityWriter();
+
+		PropertiesUtil.getPropertiesMap().remove("ranger.plugin.activity.audit.async.queue.size");
+	}
+
+	@Test
+	public void testPluginInfoUpdatesAreCoalesced() {
+		assetMgr.initPluginActivityWriter();
+
+		for (long version = 1; version <= 3; version++) {
+			assetMgr.createPluginInfo(SERVICE_NAME, PLUGIN_ID, request, RangerPluginInfo.ENTITY_TYPE_POLICIES, version, version - 1, 0L, HttpServletResponse.SC_OK, "", "");
+		}
+
+		Mockito.verify(xxPluginInfoDao, Mockito.never()).find(Mockito.anyString(), Mockito.anyString(), Mockito.anyString());
+
+		ArgumentCaptor<RangerPluginInfo> captor = ArgumentCaptor.forClass(RangerPluginInfo.class);
+
+		Mockito.when(pluginInfoService.populateDBObject(captor.capture())).thenReturn(new XXPluginInfo());
+
+		assetMgr.flushPluginActivity();
+
+		Mockito.verify(xxPluginInfoDao, Mockito.times(1)).find(SERVICE_NAME, "host1", "hiveServer2");
+		Mockito.verify(xxPluginInfoDao, Mockito.times(1)).create(Mockito.any(XXPluginInfo.class));
+		Assert.assertEquals(Long.valueOf(3L), captor.getValue().getPolicyDownloadedVersion());
+		Assert.assertTrue(assetMgr.getPluginActivityWriterStats(), assetMgr.getPluginActivityWriterStats().contains("coalesced=2"));
+	}
+
+	@Test
+	public void testPolicyExportAuditsAreBatched() {
+		assetMgr.initPluginActivityWriter();
+
+		for (int i = 0; i < 3; i++) {
+			Assert.assertNull(assetMgr.createPolicyAudit(createPolicyExportAudit()));
+		}
+
+		Mockito.verify(xxPolicyExportAuditDao, Mockito.never()).create(Mockito.any(XXPolicyExportAudit.class));
+
+		assetMgr.flushPluginActivity();
+
+		Mockito.verify(xxPolicyExportAuditDao, Mockito.times(3)).create(Mockito.any(XXPolicyExportAudit.class), Mockito.eq(false));
+		Mockito.verify(xxPolicyExportAuditDao, Mockito.times(1)).flush();
+	}
+
+	@Test
+	public void testPolicyExportAuditsAreDroppedWhenQueueIsFull() {
+		PropertiesUtil.getPropertiesMap().put("ranger.plugin.activity.audit.async.queue.size", "2");
+
+		assetMgr.initPluginActivityWriter();
+
+		for (int i = 0; i < 5; i++) {
+			assetMgr.createPolicyAudit(createPolicyExportAudit());
+		}
+
+		assetMgr.flushPluginActivity();
+
+		Mockito.verify(xxPolicyExportAuditDao, Mockito.times(2)).create(Mockito.any(XXPolicyExportAudit.class), Mockito.eq(false));
+		Assert.assertTrue(assetMgr.getPluginActivityWriterStats(), assetMgr.getPluginActivityWriterStats().contains("dropped=3"));
+	}
+
+	@Test
+	public void testSynchronousWritesWhenWriterIsNotStarted() {
+		XXPolicyExportAudit policyExportAudit = createPolicyExportAudit();
+
+		Mockito.when(xxPolicyExportAuditDao.create(policyExportAudit)).thenReturn(policyExportAudit);
+
+		Assert.assertSame(policyExportAudit, assetMgr.createPolicyAudit(policyExportAudit));
+	}
+
+	private static XXPolicyExportAudit createPolicyExportAudit() {
+		XXPolicyExportAudit ret = new XXPolicyExportAudit();
+
+		ret.setRepositoryName(SERVICE_NAME);
+		ret.setAgentId(PLUGIN_ID);
+		ret.setClientIP("10.0.0.1");
+		ret.setRequestedEpoch(1L);
+		ret.setHttpRetCode(HttpServletResponse.SC_OK);
+
+		return ret;
+	}
+}
@@ -138,6 +138,17 @@ public class TestPolicyDb {
 				boolean result = policyAdmin.isAccessAllowedByUnzonedPolicies(test.resources, test.user, test.userGroups, test.accessType);
 
 				assertEquals("isAccessAllowed mismatched! - " + test.name, expected, result);
+
+				RangerPolicy policy = new RangerPolicy();
+
+				policy.setResources(test.resources);
+
+				// second call is served from evaluators cached for the principal
+				for (int i = 0; i < 2; i++) {
+					result = policyAdmin.isAccessAllowed(policy, test.user, test.userGroups, null, test.accessType);
+
+					assertEquals("isAccessAllowed(policy) mismatched! - " + test.name, expected, result);
+				}
 			}
 		}
 	}
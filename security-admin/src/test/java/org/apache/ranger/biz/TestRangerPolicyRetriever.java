@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ranger.biz;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ranger.authorization.utils.JsonUtils;
+import org.apache.ranger.db.RangerDaoManager;
+import org.apache.ranger.db.XXPolicyDao;
+import org.apache.ranger.db.XXPolicyLabelDao;
+import org.apache.ranger.db.XXPolicyLabelMapDao;
+import org.apache.ranger.db.XXPortalUserDao;
+import org.apache.ranger.db.XXServiceDefDao;
+import org.apache.ranger.entity.XXPolicy;
+import org.apache.ranger.entity.XXPolicyLabel;
+import org.apache.ranger.entity.XXPolicyLabelMap;
+import org.apache.ranger.entity.XXPortalUser;
+import org.apache.ranger.entity.XXService;
+import org.apache.ranger.entity.XXServiceDef;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestRangerPolicyRetriever {
+	private static final Long SERVICE_ID = 1L;
+	private static final Long USER_ID    = 2L;
+
+	@Test
+	public void testGetServicePoliciesInChunks() {
+		RangerDaoManager    daoMgr              = Mockito.mock(RangerDaoManager.class, Mockito.RETURNS_DEEP_STUBS);
+		XXPolicyDao         xxPolicyDao         = Mockito.mock(XXPolicyDao.class);
+		XXPolicyLabelDao    xxPolicyLabelDao    = Mockito.mock(XXPolicyLabelDao.class);
+		XXPolicyLabelMapDao xxPolicyLabelMapDao = Mockito.mock(XXPolicyLabelMapDao.class);
+		XXPortalUserDao     xxPortalUserDao     = Mockito.mock(XXPortalUserDao.class);
+		XXServiceDefDao     xxServiceDefDao     = Mockito.mock(XXServiceDefDao.class);
+		int                 policyCount         = RangerPolicyRetriever.FETCH_SIZE + 2;
+		List<XXPolicy>      xPolicies           = new ArrayList<>();
+
+		for (long id = 1; id <= policyCount; id++) {
+			xPolicies.add(xxPolicy(id));
+		}
+
+		XXService xService = new XXService();
+		xService.setId(SERVICE_ID);
+		xService.setName("hivedev");
+		xService.setType(3L);
+		XXServiceDef xServiceDef = new XXServiceDef();
+		xServiceDef.setName("hive");
+		XXPortalUser xPortalUser = new XXPortalUser();
+		xPortalUser.setId(USER_ID);
+		xPortalUser.setLoginId("admin");
+		XXPolicyLabel xPolicyLabel = new XXPolicyLabel();
+		xPolicyLabel.setId(5L);
+		xPolicyLabel.setPolicyLabel("label1");
+		XXPolicyLabelMap xPolicyLabelMap = new XXPolicyLabelMap();
+		xPolicyLabelMap.setPolicyId(2L);
+		xPolicyLabelMap.setPolicyLabelId(5L);
+
+		Mockito.when(daoMgr.getXXPolicy()).thenReturn(xxPolicyDao);
+		Mockito.when(daoMgr.getXXPolicyLabels()).thenReturn(xxPolicyLabelDao);
+		Mockito.when(daoMgr.getXXPolicyLabelMap()).thenReturn(xxPolicyLabelMapDao);
+		Mockito.when(daoMgr.getXXPortalUser()).thenReturn(xxPortalUserDao);
+		Mockito.when(daoMgr.getXXServiceDef()).thenReturn(xxServiceDefDao);
+		Mockito.when(xxServiceDefDao.getById(3L)).thenReturn(xServiceDef);
+		Mockito.when(xxPolicyLabelDao.getAll()).thenReturn(Collections.singletonList(xPolicyLabel));
+		Mockito.when(xxPolicyLabelMapDao.findByServiceId(SERVICE_ID)).thenReturn(Collections.singletonList(xPolicyLabelMap));
+		Mockito.when(xxPortalUserDao.findByIds(Collections.singleton(USER_ID))).thenReturn(Collections.singletonList(xPortalUser));
+		Mockito.when(xxPolicyDao.findByServiceId(SERVICE_ID, 0L, RangerPolicyRetriever.FETCH_SIZE)).thenReturn(xPolicies.subList(0, RangerPolicyRetriever.FETCH_SIZE));
+		Mockito.when(xxPolicyDao.findByServiceId(SERVICE_ID, (long) RangerPolicyRetriever.FETCH_SIZE, RangerPolicyRetriever.FETCH_SIZE)).thenReturn(xPolicies.subList(RangerPolicyRetriever.FETCH_SIZE, policyCount));
+
+		List<RangerPolicy> policies = new RangerPolicyRetriever(daoMgr).getServicePolicies(xService);
+
+		Assert.assertEquals(policyCount, policies.size());
+
+		for (int i = 0; i < policyCount; i++) {
+			RangerPolicy policy = policies.get(i);
+
+			Assert.assertEquals(Long.valueOf(i + 1), policy.getId());
+			Assert.assertEquals("policy-" + (i + 1), policy.getName());
+			Assert.assertEquals("hivedev", policy.getService());
+			Assert.assertEquals("hive", policy.getServiceType());
+			Assert.assertEquals("admin", policy.getCreatedBy());
+		}
+
+		Assert.assertEquals(Collections.singletonList("label1"), policies.get(1).getPolicyLabels());
+		Assert.assertTrue(policies.get(0).getPolicyLabels().isEmpty());
+		Mockito.verify(xxPortalUserDao, Mockito.times(1)).findByIds(Mockito.anyCollection());
+		Mockito.verify(xxPortalUserDao, Mockito.never()).getById(Mockito.anyLong());
+	}
+
+	private XXPolicy xxPolicy(long id) {
+		RangerPolicy policy = new RangerPolicy();
+		policy.setName("policy-" + id);
+
+		XXPolicy ret = new XXPolicy();
+		ret.setId(id);
+		ret.setService(SERVICE_ID);
+		ret.setName(policy.getName());
+		ret.setPolicyText(JsonUtils.objectToJson(policy));
+		ret.setAddedByUserId(USER_ID);
+		ret.setUpdatedByUserId(USER_ID);
+
+		return ret;
+	}
+}
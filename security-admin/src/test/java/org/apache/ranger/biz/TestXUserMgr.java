@@ -17,7 +17,9 @@
 package org.apache.ranger.biz;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -40,6 +42,7 @@ import org.apache.ranger.common.UserSessionBase;
 import org.apache.ranger.db.RangerDaoManager;
 import org.apache.ranger.db.XXAuditMapDao;
 import org.apache.ranger.db.XXAuthSessionDao;
+import org.apache.ranger.db.XXGlobalStateDao;
 import org.apache.ranger.db.XXGroupDao;
 import org.apache.ranger.db.XXGroupGroupDao;
 import org.apache.ranger.db.XXGroupPermissionDao;
@@ -75,6 +78,7 @@ import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
 import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemAccess;
 import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemCondition;
 import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.util.RangerUserStore;
 import org.apache.ranger.security.context.RangerContextHolder;
 import org.apache.ranger.security.context.RangerSecurityContext;
 import org.apache.ranger.service.RangerPolicyService;
@@ -110,6 +114,7 @@ import org.apache.ranger.view.VXStringList;
 import org.apache.ranger.view.VXUgsyncAuditInfo;
 import org.apache.ranger.view.VXUser;
 import org.apache.ranger.view.VXUserGroupInfo;
+import org.apache.ranger.view.VXUserGroupSnapshot;
 import org.apache.ranger.view.VXUserList;
 import org.apache.ranger.view.VXUserPermission;
 import org.apache.ranger.view.VXString;
@@ -121,6 +126,7 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.junit.runners.MethodSorters;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -2229,17 +2235,20 @@ public class TestXUserMgr {
 	}
 
 	@Test
-	public void test55updateXGroupUser() {
+	public void test55updateXGroupUser() throws Exception {
 		setup();
 		VXUser vxUser = vxUser();
 		vxUser.setUserSource(RangerCommonEnums.USER_EXTERNAL);
 		VXGroupUser vxGroupUser = vxGroupUser();
+		XXGlobalStateDao xxGlobalStateDao = Mockito.mock(XXGlobalStateDao.class);
+		Mockito.when(daoManager.getXXGlobalState()).thenReturn(xxGlobalStateDao);
 		Mockito.when(xGroupUserService.updateResource((VXGroupUser) Mockito.any())).thenReturn(vxGroupUser);
 		VXGroupUser dbvxUser = xUserMgr.updateXGroupUser(vxGroupUser);
 		Assert.assertNotNull(dbvxUser);
 		Assert.assertEquals(dbvxUser.getId(), vxGroupUser.getId());
 		Assert.assertEquals(dbvxUser.getName(), vxGroupUser.getName());
 		Mockito.verify(xGroupUserService).updateResource((VXGroupUser) Mockito.any());
+		Mockito.verify(xxGlobalStateDao).onGlobalAppDataChange(XUserMgr.RANGER_USER_GROUP_GLOBAL_STATE_NAME);
 	}
 
 	@Test
@@ -3569,4 +3578,86 @@ public class TestXUserMgr {
 		Assert.assertEquals(rcvVXGroupList.getList().get(0).getName(),expectedVXGroup.getName());
 	}
 
+	@Test
+	public void test109GetRangerUserStore() {
+		XXGlobalStateDao xxGlobalStateDao = Mockito.mock(XXGlobalStateDao.class);
+		XXGroupUserDao   xxGroupUserDao   = Mockito.mock(XXGroupUserDao.class);
+
+		Map<String, Set<String>> userGroups = new HashMap<String, Set<String>>();
+		userGroups.put("user1", new HashSet<String>(Arrays.asList("group1", "group2")));
+
+		Mockito.when(daoManager.getXXGlobalState()).thenReturn(xxGlobalStateDao);
+		Mockito.when(daoManager.getXXGroupUser()).thenReturn(xxGroupUserDao);
+		Mockito.when(xxGlobalStateDao.getAppDataVersion(XUserMgr.RANGER_USER_GROUP_GLOBAL_STATE_NAME)).thenReturn(3L);
+		Mockito.when(xxGroupUserDao.findUsersAndGroups()).thenReturn(userGroups);
+
+		Assert.assertNull(xUserMgr.getRangerUserStore("hdfsdev", 3L));
+
+		RangerUserStore userStore = xUserMgr.getRangerUserStore("hdfsdev", -1L);
+		Assert.assertNotNull(userStore);
+		Assert.assertEquals("hdfsdev", userStore.getServiceName());
+		Assert.assertEquals(Long.valueOf(3L), userStore.getUserStoreVersion());
+		Assert.assertEquals(userGroups, userStore.getUserGroupMapping());
+
+		userStore = xUserMgr.getRangerUserStore("hivedev", 2L);
+		Assert.assertEquals("hivedev", userStore.getServiceName());
+		Mockito.verify(xxGroupUserDao, Mockito.times(1)).findUsersAndGroups();
+	}
+
+	@Test
+	public void test110CreateOrUpdateXUserGroupSnapshot() throws Exception {
+		setup();
+		XXUserDao        xxUserDao        = Mockito.mock(XXUserDao.class);
+		XXGroupDao       xxGroupDao       = Mockito.mock(XXGroupDao.class);
+		XXGroupUserDao   xxGroupUserDao   = Mockito.mock(XXGroupUserDao.class);
+		XXGlobalStateDao xxGlobalStateDao = Mockito.mock(XXGlobalStateDao.class);
+
+		XXUser xxUser = new XXUser();
+		xxUser.setId(userId);
+		xxUser.setName(userLoginID);
+		XXGroup xxGroup1 = new XXGroup();
+		xxGroup1.setId(21L);
+		xxGroup1.setName("group1");
+		XXGroupUser xxGroupUser1 = new XXGroupUser();
+		xxGroupUser1.setId(31L);
+		xxGroupUser1.setUserId(userId);
+		xxGroupUser1.setParentGroupId(21L);
+		XXGroupUser xxGroupUser3 = new XXGroupUser();
+		xxGroupUser3.setId(33L);
+		xxGroupUser3.setUserId(userId);
+		xxGroupUser3.setParentGroupId(23L);
+		VXGroup vxGroup2 = new VXGroup();
+		vxGroup2.setId(22L);
+		vxGroup2.setName("group2");
+
+		Map<String, List<String>> userGroups = new HashMap<String, List<String>>();
+		userGroups.put(userLoginID, Arrays.asList("group1", "group2"));
+		VXUserGroupSnapshot snapshot = new VXUserGroupSnapshot();
+		snapshot.setUserGroups(userGroups);
+
+		Mockito.when(daoManager.getXXUser()).thenReturn(xxUserDao);
+		Mockito.when(daoManager.getXXGroup()).thenReturn(xxGroupDao);
+		Mockito.when(daoManager.getXXGroupUser()).thenReturn(xxGroupUserDao);
+		Mockito.when(daoManager.getXXGlobalState()).thenReturn(xxGlobalStateDao);
+		Mockito.when(xxUserDao.findByUserNames(userGroups.keySet())).thenReturn(Collections.singletonMap(userLoginID, xxUser));
+		Mockito.when(xxGroupDao.findByGroupNames(Mockito.anyCollection())).thenReturn(Collections.singletonMap("group1", xxGroup1));
+		Mockito.when(xGroupService.createXGroupWithOutLogin((VXGroup) Mockito.any())).thenReturn(vxGroup2);
+		Mockito.when(xxGroupUserDao.findByUserIds(Mockito.anyCollection())).thenReturn(Arrays.asList(xxGroupUser1, xxGroupUser3));
+		Mockito.when(xxGroupUserDao.deleteByIds(Collections.singletonList(33L))).thenReturn(1);
+
+		VXUserGroupSnapshot ret = xUserMgr.createOrUpdateXUserGroupSnapshot(snapshot);
+
+		Assert.assertEquals(Long.valueOf(0), ret.getNoOfNewUsers());
+		Assert.assertEquals(Long.valueOf(1), ret.getNoOfNewGroups());
+		Assert.assertEquals(Long.valueOf(1), ret.getNoOfAddedGroupUsers());
+		Assert.assertEquals(Long.valueOf(1), ret.getNoOfDeletedGroupUsers());
+
+		ArgumentCaptor<XXGroupUser> captor = ArgumentCaptor.forClass(XXGroupUser.class);
+		Mockito.verify(xxGroupUserDao).create(captor.capture(), Mockito.eq(false));
+		Assert.assertEquals(Long.valueOf(22L), captor.getValue().getParentGroupId());
+		Assert.assertEquals("group2", captor.getValue().getName());
+		Assert.assertEquals(userId, captor.getValue().getUserId());
+		Mockito.verify(userMgr, Mockito.never()).createDefaultAccountUser((VXPortalUser) Mockito.any());
+		Mockito.verify(xxGlobalStateDao).onGlobalAppDataChange(XUserMgr.RANGER_USER_GROUP_GLOBAL_STATE_NAME);
+	}
 }
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ranger.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestRangerSearchCountCache {
+	private RangerSearchCountCache countCache;
+
+	@Before
+	public void setup() {
+		countCache = new RangerSearchCountCache();
+		countCache.init();
+	}
+
+	@After
+	public void tearDown() {
+		countCache.destroy();
+	}
+
+	@Test
+	public void testCountIsCachedPerFingerprint() {
+		final AtomicLong loadCount = new AtomicLong();
+
+		RangerSearchCountCache.CountLoader loader = new RangerSearchCountCache.CountLoader() {
+			@Override
+			public long getCount() {
+				return loadCount.incrementAndGet() * 10;
+			}
+		};
+
+		Assert.assertTrue(countCache.isEnabled());
+		Assert.assertEquals(10L, countCache.getCount("q1", loader));
+		Assert.assertEquals(10L, countCache.getCount("q1", loader));
+		Assert.assertEquals(20L, countCache.getCount("q2", loader));
+		Assert.assertEquals(2, loadCount.get());
+		Assert.assertEquals(2, countCache.size());
+
+		countCache.clear();
+
+		Assert.assertEquals(30L, countCache.getCount("q1", loader));
+	}
+}
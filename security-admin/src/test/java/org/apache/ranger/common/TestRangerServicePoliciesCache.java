@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ranger.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicyDelta;
+import org.apache.ranger.plugin.util.JsonUtilsV2;
+import org.apache.ranger.plugin.util.ServicePolicies;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestRangerServicePoliciesCache {
+
+	@Test
+	public void testETag() {
+		ServicePolicies servicePolicies = createServicePolicies("hdfsdev", 5L);
+		String          eTag            = RangerServicePoliciesCache.getETag(servicePolicies);
+
+		Assert.assertNotNull(eTag);
+		Assert.assertEquals(eTag, RangerServicePoliciesCache.getETag(createServicePolicies("hdfsdev", 5L)));
+		Assert.assertNotEquals(eTag, RangerServicePoliciesCache.getETag(createServicePolicies("hdfsdev", 6L)));
+
+		servicePolicies.setPolicyDeltas(Collections.<RangerPolicyDelta>emptyList());
+
+		Assert.assertNull(RangerServicePoliciesCache.getETag(servicePolicies));
+		Assert.assertNull(RangerServicePoliciesCache.getETag(null));
+	}
+
+	@Test
+	public void testCompressedServicePoliciesAreSerializedOncePerVersion() throws Exception {
+		RangerServicePoliciesCache cache      = RangerServicePoliciesCache.getInstance();
+		ServicePolicies            version1   = createServicePolicies("hivedev", 1L);
+		byte[]                     compressed = cache.getCompressedServicePolicies(version1);
+
+		Assert.assertSame(compressed, cache.getCompressedServicePolicies(createServicePolicies("hivedev", 1L)));
+
+		ServicePolicies deserialized = JsonUtilsV2.jsonToObj(decompress(compressed), ServicePolicies.class);
+
+		Assert.assertEquals(version1.getPolicyVersion(), deserialized.getPolicyVersion());
+		Assert.assertEquals(version1.getPolicies().size(), deserialized.getPolicies().size());
+
+		byte[] compressedVersion2 = cache.getCompressedServicePolicies(createServicePolicies("hivedev", 2L));
+
+		Assert.assertNotSame(compressed, compressedVersion2);
+		Assert.assertEquals(Long.valueOf(2L), JsonUtilsV2.jsonToObj(decompress(compressedVersion2), ServicePolicies.class).getPolicyVersion());
+	}
+
+	@Test
+	public void testUnfilteredServicePoliciesHaveDifferentETag() throws Exception {
+		RangerServicePoliciesCache cache      = RangerServicePoliciesCache.getInstance();
+		ServicePolicies            filtered   = createServicePolicies("kafkadev", 3L);
+		ServicePolicies            unfiltered = createServicePolicies("kafkadev", 3L);
+
+		unfiltered.getPolicies().get(0).setIsEnabled(false);
+
+		Assert.assertNotEquals(RangerServicePoliciesCache.getETag(filtered), RangerServicePoliciesCache.getETag(unfiltered));
+
+		byte[] compressedFiltered   = cache.getCompressedServicePolicies(filtered);
+		byte[] compressedUnfiltered = cache.getCompressedServicePolicies(unfiltered);
+
+		Assert.assertNotSame(compressedFiltered, compressedUnfiltered);
+		Assert.assertFalse(JsonUtilsV2.jsonToObj(decompress(compressedUnfiltered), ServicePolicies.class).getPolicies().get(0).getIsEnabled());
+
+		// each is cached in its own slot
+		Assert.assertSame(compressedFiltered, cache.getCompressedServicePolicies(filtered));
+		Assert.assertSame(compressedUnfiltered, cache.getCompressedServicePolicies(unfiltered));
+	}
+
+	private static ServicePolicies createServicePolicies(String serviceName, Long policyVersion) {
+		ServicePolicies    ret      = new ServicePolicies();
+		List<RangerPolicy> policies = new ArrayList<>();
+
+		for (long i = 1; i <= 3; i++) {
+			RangerPolicy policy = new RangerPolicy();
+
+			policy.setId(i);
+			policy.setName("policy-" + i);
+			policy.setService(serviceName);
+
+			policies.add(policy);
+		}
+
+		ret.setServiceId(1L);
+		ret.setServiceName(serviceName);
+		ret.setPolicyVersion(policyVersion);
+		ret.setPolicies(policies);
+
+		return ret;
+	}
+
+	private static String decompress(byte[] compressed) throws Exception {
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+			return IOUtils.toString(in, "UTF-8");
+		}
+	}
+}
@@ -50,6 +50,7 @@ import org.apache.ranger.common.RESTErrorUtil;
 import org.apache.ranger.common.RangerConstants;
 import org.apache.ranger.common.RangerSearchUtil;
 import org.apache.ranger.common.RangerValidatorFactory;
+import org.apache.ranger.common.SearchField;
 import org.apache.ranger.common.ServiceUtil;
 import org.apache.ranger.common.StringUtil;
 import org.apache.ranger.common.UserSessionBase;
@@ -1072,13 +1073,85 @@ public class TestServiceREST {
 				policyService.sortFields);
 	}
 
+	@Test
+	public void test27getPoliciesPaginatedInQuery() throws Exception {
+		HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+		SearchFilter filter = new SearchFilter();
+		filter.setParam(SearchFilter.SERVICE_NAME, "serviceName");
+		filter.setParam(SearchFilter.ZONE_NAME, "zoneName");
+		policyService.searchFields = createPolicySearchFields();
+		XXService xService = new XXService();
+		xService.setType(1L);
+		List<RangerPolicy> policies = new ArrayList<RangerPolicy>();
+		policies.add(rangerPolicy());
+		Mockito.when(searchUtil.getSearchFilter(request, policyService.sortFields)).thenReturn(filter);
+		Mockito.when(bizUtil.isAdmin()).thenReturn(true);
+		Mockito.when(daoManager.getXXService()).thenReturn(xServiceDao);
+		Mockito.when(xServiceDao.findByName("serviceName")).thenReturn(xService);
+		Mockito.when(svcStore.getPaginatedPolicies(filter)).thenReturn(new PList<RangerPolicy>(policies, 0, 25, 30, 1, null, null));
+		RangerPolicyList dbRangerPolicy = serviceREST.getPolicies(request);
+		Assert.assertEquals(1, dbRangerPolicy.getListSize());
+		Assert.assertEquals(30, dbRangerPolicy.getTotalCount());
+		/*all policies of the service are visible to admin, hence the page is picked by the query*/
+		Mockito.verify(svcStore).getPaginatedPolicies(filter);
+		Mockito.verify(svcStore, Mockito.never()).getPolicies(filter);
+	}
+
+	@Test
+	public void test27getPoliciesWithInMemoryFilterNotPaginatedInQuery() throws Exception {
+		HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+		SearchFilter filter = new SearchFilter();
+		filter.setParam(SearchFilter.SERVICE_NAME, "serviceName");
+		filter.setParam(SearchFilter.ZONE_NAME, "zoneName");
+		filter.setParam(SearchFilter.IS_ENABLED, "true");
+		policyService.searchFields = createPolicySearchFields();
+		Mockito.when(searchUtil.getSearchFilter(request, policyService.sortFields)).thenReturn(filter);
+		Mockito.when(svcStore.getPolicies(filter)).thenReturn(new ArrayList<RangerPolicy>());
+		serviceREST.getPolicies(request);
+		/*isEnabled is applied in memory, hence all policies are retrieved before picking the page*/
+		Mockito.verify(svcStore).getPolicies(filter);
+		Mockito.verify(svcStore, Mockito.never()).getPaginatedPolicies(filter);
+	}
+
+	@Test
+	public void test27getPoliciesOfZonePaginatedInQueryForZoneAdmin() throws Exception {
+		HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+		SearchFilter filter = new SearchFilter();
+		filter.setParam(SearchFilter.SERVICE_NAME, "serviceName");
+		filter.setParam(SearchFilter.ZONE_NAME, "zoneName");
+		policyService.searchFields = createPolicySearchFields();
+		ServiceREST spySVCRest = Mockito.spy(serviceREST);
+		RangerPolicyAdmin policyAdmin = Mockito.mock(RangerPolicyAdmin.class);
+		List<RangerPolicy> policies = new ArrayList<RangerPolicy>();
+		policies.add(rangerPolicy());
+		Mockito.when(searchUtil.getSearchFilter(request, policyService.sortFields)).thenReturn(filter);
+		Mockito.when(bizUtil.getCurrentUserLoginId()).thenReturn("zoneAdmin");
+		Mockito.when(svcStore.isServiceAdminUser("serviceName", "zoneAdmin")).thenReturn(false);
+		Mockito.when(serviceMgr.isZoneAdmin("zoneName")).thenReturn(true);
+		Mockito.doReturn(policyAdmin).when(spySVCRest).getPolicyAdminForDelegatedAdmin("serviceName");
+		Mockito.when(svcStore.getPaginatedPolicies(filter)).thenReturn(new PList<RangerPolicy>(policies, 0, 25, 30, 1, null, null));
+		RangerPolicyList dbRangerPolicy = spySVCRest.getPolicies(request);
+		Assert.assertEquals(30, dbRangerPolicy.getTotalCount());
+		/*all policies of the zone are visible to its admin, hence the page is picked by the query*/
+		Mockito.verify(svcStore).getPaginatedPolicies(filter);
+		Mockito.verify(svcStore, Mockito.never()).getPolicies(filter);
+	}
+
+	private List<SearchField> createPolicySearchFields() {
+		List<SearchField> ret = new ArrayList<SearchField>();
+		ret.add(new SearchField(SearchFilter.SERVICE_NAME, "xSvc.name"));
+		ret.add(new SearchField(SearchFilter.ZONE_NAME, "xZone.name"));
+		ret.add(new SearchField(SearchFilter.POLICY_NAME, "obj.name"));
+		ret.add(new SearchField(SearchFilter.USER, "xUser.name"));
+		return ret;
+	}
+
 	@Test
 	public void test28getPoliciesWithServiceAdmin() throws Exception {
 		HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
 		SearchFilter filter = new SearchFilter();
 		XXService xs = Mockito.mock(XXService.class);
 		xs.setType(3L);
-		XXGroupUserDao xGroupDao = Mockito.mock(XXGroupUserDao.class);
 		ServiceREST spySVCRest = Mockito.spy(serviceREST);
 		List<RangerPolicy> policies = new ArrayList<RangerPolicy>();
 		ServicePolicies svcPolicies = new ServicePolicies();
@@ -1091,7 +1164,6 @@ public class TestServiceREST {
 		Mockito.when(searchUtil.getSearchFilter(request, policyService.sortFields)).thenReturn(filter);
 		Mockito.when(svcStore.getPolicies(filter)).thenReturn(policies);
 		/*here we are setting serviceAdminRole, so we will get the required policy with serviceAdmi role*/
-		Mockito.when(daoManager.getXXGroupUser()).thenReturn(xGroupDao);
 		Mockito.when(svcStore.isServiceAdminUser(rPol.getService(), null)).thenReturn(true);
 		Mockito.doReturn(policyAdmin).when(spySVCRest).getPolicyAdminForDelegatedAdmin("HDFS_1-1-20150316062453");
 		RangerPolicyList dbRangerPolicy = spySVCRest.getPolicies(request);
@@ -1101,6 +1173,8 @@ public class TestServiceREST {
 				policyService.sortFields);
 		Mockito.verify(svcStore).getPolicies(filter);
 		Mockito.verify(svcStore).isServiceAdminUser(rPol.getService(), null);
+		/*service admin sees all policies of the service, without evaluating delegated-admin policies*/
+		Mockito.verify(daoManager, Mockito.never()).getXXGroupUser();
 	}
 
 
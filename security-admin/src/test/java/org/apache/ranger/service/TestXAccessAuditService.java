@@ -18,9 +18,17 @@
  */
 package org.apache.ranger.service;
 
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
+import javax.ws.rs.WebApplicationException;
 
+import org.apache.ranger.common.MessageEnums;
+import org.apache.ranger.common.RESTErrorUtil;
+import org.apache.ranger.common.RangerSearchCountCache;
 import org.apache.ranger.common.SearchCriteria;
 import org.apache.ranger.common.SearchField;
 import org.apache.ranger.common.SearchUtil;
@@ -31,10 +39,12 @@ import org.apache.ranger.db.RangerDaoManager;
 import org.apache.ranger.db.XXServiceDao;
 import org.apache.ranger.entity.XXAccessAudit;
 import org.apache.ranger.view.VXAccessAuditList;
+import org.junit.Assert;
 import org.junit.FixMethodOrder;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.MethodSorters;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -77,19 +87,67 @@ public class TestXAccessAuditService {
 	@Mock
 	EntityManager em;
 
+	@Mock
+	RESTErrorUtil restErrorUtil;
+
 	@Mock
 	RangerDaoManager daoManager;
 
 	@Mock
 	XXServiceDao xXServiceDao;
 
+	@Mock
+	RangerSearchCountCache searchCountCache;
+
 	@Test
 	public void test1SearchXAccessAudits() {
 		SearchCriteria testSearchCriteria = createsearchCriteria();
+		Mockito.when(searchUtil.createSearchQuery(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyList(), Mockito.anyBoolean(), Mockito.anyBoolean())).thenReturn(query);
 		xAccessAuditService.searchXAccessAudits(testSearchCriteria);
 
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void test3SearchXAccessAuditsWithCursorMark() {
+		SearchCriteria testSearchCriteria = createsearchCriteria();
+		testSearchCriteria.setStartIndex(100);
+		testSearchCriteria.setSortType("desc");
+		testSearchCriteria.getParamList().put(XAccessAuditService.PARAM_CURSOR_MARK, "1000:42");
+
+		XXAccessAudit lastAudit = new XXAccessAudit();
+		lastAudit.setId(41L);
+		lastAudit.setEventTime(new Date(999L));
+
+		ArgumentCaptor<List> fieldsCaptor = ArgumentCaptor.forClass(List.class);
+		Mockito.when(searchUtil.constructSortClause(Mockito.any(SearchCriteria.class), Mockito.anyList())).thenReturn(" ORDER BY obj.eventTime desc");
+		Mockito.when(searchUtil.createSearchQuery(Mockito.any(), Mockito.any(), Mockito.eq(" ORDER BY obj.eventTime desc, obj.id desc"), Mockito.any(), fieldsCaptor.capture(), Mockito.anyBoolean(), Mockito.anyBoolean())).thenReturn(query);
+		Mockito.when(entityDao.executeQueryInSecurityContext(Mockito.any(), Mockito.eq(query))).thenReturn(Arrays.asList(lastAudit));
+		Mockito.when(searchCountCache.getCount(Mockito.anyString(), Mockito.any(RangerSearchCountCache.CountLoader.class))).thenReturn(500L);
+		Mockito.when(daoManager.getXXService()).thenReturn(xXServiceDao);
+
+		VXAccessAuditList auditList = xAccessAuditService.searchXAccessAudits(testSearchCriteria);
+
+		Assert.assertEquals(0, testSearchCriteria.getStartIndex());
+		Assert.assertEquals(new Date(1000L), testSearchCriteria.getParamValue("cursorEventTime"));
+		Assert.assertEquals(42L, testSearchCriteria.getParamValue("cursorId"));
+		Assert.assertEquals(500L, auditList.getTotalCount());
+		Assert.assertEquals("999:41", auditList.getNextCursorMark());
+
+		SearchField keysetField = (SearchField) fieldsCaptor.getValue().get(fieldsCaptor.getValue().size() - 1);
+		Assert.assertEquals("(obj.eventTime < :cursorEventTime or (obj.eventTime = :cursorEventTime and obj.id < :cursorId))", keysetField.getCustomCondition());
+	}
+
+	@Test(expected = WebApplicationException.class)
+	public void test4SearchXAccessAuditsWithInvalidCursorMark() {
+		SearchCriteria testSearchCriteria = createsearchCriteria();
+		testSearchCriteria.getParamList().put(XAccessAuditService.PARAM_CURSOR_MARK, "not-a-cursor");
+
+		Mockito.when(restErrorUtil.createRESTException(Mockito.anyString(), Mockito.any(MessageEnums.class))).thenReturn(new WebApplicationException());
+
+		xAccessAuditService.searchXAccessAudits(testSearchCriteria);
+	}
+
 	@Test
 	public void test2PopulateViewBean() {
 		Mockito.when(daoManager.getXXService()).thenReturn(xXServiceDao);
@@ -72,6 +72,10 @@ public class TagSyncConfig extends Configuration {
 
 	private static final String TAGSYNC_ATLAS_REST_SOURCE_DOWNLOAD_INTERVAL_PROP = "ranger.tagsync.source.atlasrest.download.interval.millis";
 
+	private static final String TAGSYNC_ATLAS_NOTIFICATION_BATCH_SIZE_PROP = "ranger.tagsync.source.atlas.notification.batch.size";
+	private static final String TAGSYNC_ATLAS_NOTIFICATION_BATCH_INTERVAL_PROP = "ranger.tagsync.source.atlas.notification.batch.interval.millis";
+	private static final String TAGSYNC_ATLAS_NOTIFICATION_UPLOAD_MAX_RETRIES_PROP = "ranger.tagsync.source.atlas.notification.upload.max.retries";
+
 	private static final String TAGSYNC_ATLAS_REST_SSL_CONFIG_FILE_PROP = "ranger.tagsync.source.atlasrest.ssl.config.filename";
 
 	public static final String TAGSYNC_FILESOURCE_FILENAME_PROP = "ranger.tagsync.source.file.filename";
@@ -90,6 +94,10 @@ public class TagSyncConfig extends Configuration {
 
 	private static final int DEFAULT_TAGSYNC_TAGADMIN_CONNECTION_CHECK_INTERVAL = 15000;
 	private static final long DEFAULT_TAGSYNC_ATLASREST_SOURCE_DOWNLOAD_INTERVAL = 900000;
+
+	private static final int DEFAULT_TAGSYNC_ATLAS_NOTIFICATION_BATCH_SIZE = 1000;
+	private static final long DEFAULT_TAGSYNC_ATLAS_NOTIFICATION_BATCH_INTERVAL = 1000;
+	private static final int DEFAULT_TAGSYNC_ATLAS_NOTIFICATION_UPLOAD_MAX_RETRIES = 10;
 	private static final long DEFAULT_TAGSYNC_FILESOURCE_MOD_TIME_CHECK_INTERVAL = 60000;
 	private static final long DEFAULT_TAGSYNC_SOURCE_RETRY_INITIALIZATION_INTERVAL = 10000;
 
@@ -243,6 +251,45 @@ public class TagSyncConfig extends Configuration {
 		return ret;
 	}
 
+	static public int getTagSourceAtlasNotificationBatchSize(Properties prop) {
+		String val = prop.getProperty(TAGSYNC_ATLAS_NOTIFICATION_BATCH_SIZE_PROP);
+		int ret = DEFAULT_TAGSYNC_ATLAS_NOTIFICATION_BATCH_SIZE;
+		if (StringUtils.isNotBlank(val)) {
+			try {
+				ret = Integer.valueOf(val);
+			} catch (NumberFormatException exception) {
+				// Ignore
+			}
+		}
+		return ret;
+	}
+
+	static public long getTagSourceAtlasNotificationBatchIntervalInMillis(Properties prop) {
+		String val = prop.getProperty(TAGSYNC_ATLAS_NOTIFICATION_BATCH_INTERVAL_PROP);
+		long ret = DEFAULT_TAGSYNC_ATLAS_NOTIFICATION_BATCH_INTERVAL;
+		if (StringUtils.isNotBlank(val)) {
+			try {
+				ret = Long.valueOf(val);
+			} catch (NumberFormatException exception) {
+				// Ignore
+			}
+		}
+		return ret;
+	}
+
+	static public int getTagSourceAtlasNotificationUploadMaxRetries(Properties prop) {
+		String val = prop.getProperty(TAGSYNC_ATLAS_NOTIFICATION_UPLOAD_MAX_RETRIES_PROP);
+		int ret = DEFAULT_TAGSYNC_ATLAS_NOTIFICATION_UPLOAD_MAX_RETRIES;
+		if (StringUtils.isNotBlank(val)) {
+			try {
+				ret = Integer.valueOf(val);
+			} catch (NumberFormatException exception) {
+				// Ignore
+			}
+		}
+		return ret;
+	}
+
 	static public String getTagSinkClassName(Properties prop) {
 		String val = prop.getProperty(TAGSYNC_SINK_CLASS_PROP);
 		if (StringUtils.equalsIgnoreCase(val, "ranger")) {
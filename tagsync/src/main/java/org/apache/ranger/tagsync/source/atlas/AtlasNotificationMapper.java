@@ -34,7 +34,9 @@ import org.apache.ranger.tagsync.source.atlasrest.RangerAtlasEntity;
 import org.apache.ranger.tagsync.source.atlasrest.RangerAtlasEntityWithTags;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -210,30 +212,7 @@ public class AtlasNotificationMapper {
                     Map<String, RangerTagDef> uniqueTagDefs = new HashMap<>();
 
                     for (RangerTagDef tagDef : serviceTag.getTagDefinitions().values()) {
-                        RangerTagDef existingTagDef = uniqueTagDefs.get(tagDef.getName());
-
-                        if (existingTagDef == null) {
-                            uniqueTagDefs.put(tagDef.getName(), tagDef);
-                        } else {
-                            if(CollectionUtils.isNotEmpty(tagDef.getAttributeDefs())) {
-                                for(RangerTagAttributeDef tagAttrDef : tagDef.getAttributeDefs()) {
-                                    boolean attrDefExists = false;
-
-                                    if(CollectionUtils.isNotEmpty(existingTagDef.getAttributeDefs())) {
-                                        for(RangerTagAttributeDef existingTagAttrDef : existingTagDef.getAttributeDefs()) {
-                                            if(StringUtils.equalsIgnoreCase(existingTagAttrDef.getName(), tagAttrDef.getName())) {
-                                                attrDefExists = true;
-                                                break;
-                                            }
-                                        }
-                                    }
-
-                                    if(! attrDefExists) {
-                                        existingTagDef.getAttributeDefs().add(tagAttrDef);
-                                    }
-                                }
-                            }
-                        }
+                        addUniqueTagDef(uniqueTagDefs, tagDef);
                     }
 
                     serviceTag.getTagDefinitions().clear();
@@ -253,6 +232,125 @@ public class AtlasNotificationMapper {
         return ret;
     }
 
+    /*
+     * Merges service-tags built from a sequence of entity notifications into one service-tags for each consecutive run
+     * of the same operation and service; order across operations is preserved, as a delete of an entity must not be
+     * applied after the add of another entity with the same resource (like a table dropped and recreated). When there
+     * are more than one service-tags for an entity, only the last one is retained, as each notification carries all the
+     * classifications of the entity. Given service-tags are modified by this method.
+     */
+    public static List<ServiceTags> mergeServiceTags(List<ServiceTags> serviceTagsList) {
+        Map<Object, ServiceTags> latestServiceTags = new LinkedHashMap<>();
+
+        for (ServiceTags serviceTags : serviceTagsList) {
+            Object key = getEntityKey(serviceTags);
+
+            latestServiceTags.remove(key);
+            latestServiceTags.put(key, serviceTags);
+        }
+
+        List<ServiceTags>               ret           = new ArrayList<>();
+        List<Map<String, RangerTagDef>> tagDefsByName = new ArrayList<>();
+        String                          prevMergeKey  = null;
+        ServiceTags                     merged        = null;
+        Map<String, RangerTagDef>       mergedTagDefs = null;
+
+        for (ServiceTags serviceTags : latestServiceTags.values()) {
+            String mergeKey = serviceTags.getOp() + ":" + serviceTags.getServiceName();
+
+            if (merged == null || !mergeKey.equals(prevMergeKey)) {
+                merged        = new ServiceTags();
+                mergedTagDefs = new LinkedHashMap<>();
+                prevMergeKey  = mergeKey;
+
+                merged.setOp(serviceTags.getOp());
+                merged.setServiceName(serviceTags.getServiceName());
+
+                ret.add(merged);
+                tagDefsByName.add(mergedTagDefs);
+            }
+
+            for (RangerServiceResource serviceResource : serviceTags.getServiceResources()) {
+                List<Long> tagIds = serviceTags.getResourceToTagIds().get(serviceResource.getId());
+
+                serviceResource.setId((long) merged.getServiceResources().size());
+                merged.getServiceResources().add(serviceResource);
+
+                if (tagIds != null) {
+                    List<Long> mergedTagIds = new ArrayList<>(tagIds.size());
+
+                    for (Long tagId : tagIds) {
+                        RangerTag tag = serviceTags.getTags().get(tagId);
+
+                        if (tag != null) {
+                            tag.setId((long) merged.getTags().size());
+                            merged.getTags().put(tag.getId(), tag);
+
+                            mergedTagIds.add(tag.getId());
+                        }
+                    }
+
+                    merged.getResourceToTagIds().put(serviceResource.getId(), mergedTagIds);
+                }
+            }
+
+            if (MapUtils.isNotEmpty(serviceTags.getTagDefinitions())) {
+                for (RangerTagDef tagDef : serviceTags.getTagDefinitions().values()) {
+                    addUniqueTagDef(mergedTagDefs, tagDef);
+                }
+            }
+        }
+
+        for (int i = 0; i < ret.size(); i++) {
+            ServiceTags serviceTags = ret.get(i);
+
+            for (RangerTagDef tagDef : tagDefsByName.get(i).values()) {
+                tagDef.setId((long) serviceTags.getTagDefinitions().size());
+                serviceTags.getTagDefinitions().put(tagDef.getId(), tagDef);
+            }
+        }
+
+        return ret;
+    }
+
+    // guid of the entity a service-tags is built for; service-tags without a guid are not merged with others
+    static private Object getEntityKey(ServiceTags serviceTags) {
+        Object ret = null;
+
+        if (serviceTags.getServiceResources().size() == 1) {
+            ret = serviceTags.getServiceResources().get(0).getGuid();
+        }
+
+        return StringUtils.isNotBlank((String) ret) ? ret : new Object();
+    }
+
+    static private void addUniqueTagDef(Map<String, RangerTagDef> uniqueTagDefs, RangerTagDef tagDef) {
+        RangerTagDef existingTagDef = uniqueTagDefs.get(tagDef.getName());
+
+        if (existingTagDef == null) {
+            uniqueTagDefs.put(tagDef.getName(), tagDef);
+        } else {
+            if(CollectionUtils.isNotEmpty(tagDef.getAttributeDefs())) {
+                for(RangerTagAttributeDef tagAttrDef : tagDef.getAttributeDefs()) {
+                    boolean attrDefExists = false;
+
+                    if(CollectionUtils.isNotEmpty(existingTagDef.getAttributeDefs())) {
+                        for(RangerTagAttributeDef existingTagAttrDef : existingTagDef.getAttributeDefs()) {
+                            if(StringUtils.equalsIgnoreCase(existingTagAttrDef.getName(), tagAttrDef.getName())) {
+                                attrDefExists = true;
+                                break;
+                            }
+                        }
+                    }
+
+                    if(! attrDefExists) {
+                        existingTagDef.getAttributeDefs().add(tagAttrDef);
+                    }
+                }
+            }
+        }
+    }
+
     static private ServiceTags buildServiceTags(RangerAtlasEntityWithTags entityWithTags, Map<String, ServiceTags> serviceTagsMap) {
         ServiceTags             ret             = null;
         RangerAtlasEntity       entity          = entityWithTags.getEntity();
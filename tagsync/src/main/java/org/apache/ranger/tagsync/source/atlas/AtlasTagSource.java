@@ -24,11 +24,13 @@ import org.apache.atlas.kafka.NotificationProvider;
 import org.apache.atlas.model.notification.EntityNotification;
 import org.apache.atlas.notification.NotificationConsumer;
 import org.apache.atlas.notification.NotificationInterface;
+import com.google.gson.Gson;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.ranger.plugin.util.ServiceTags;
 import org.apache.ranger.tagsync.model.AbstractTagSource;
+import org.apache.ranger.tagsync.process.TagSyncConfig;
 import org.apache.atlas.kafka.AtlasKafkaMessage;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.ranger.tagsync.source.atlasrest.RangerAtlasEntityWithTags;
@@ -36,7 +38,11 @@ import org.apache.ranger.tagsync.source.atlasrest.RangerAtlasEntityWithTags;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 public class AtlasTagSource extends AbstractTagSource {
@@ -48,8 +54,14 @@ public class AtlasTagSource extends AbstractTagSource {
 	public static final String TAGSYNC_ATLAS_ZOOKEEPER_ENDPOINT = "atlas.kafka.zookeeper.connect";
 	public static final String TAGSYNC_ATLAS_CONSUMER_GROUP = "atlas.kafka.entities.group.id";
 
+	private static final long UPLOAD_RETRY_INITIAL_DELAY_MS = 100;
+	private static final long UPLOAD_RETRY_MAX_DELAY_MS     = 60 * 1000;
+
 	private ConsumerRunnable consumerTask;
 	private Thread myThread = null;
+	private int notificationBatchSize;
+	private long notificationBatchIntervalMs;
+	private int uploadMaxRetries;
 
 	@Override
 	public boolean initialize(Properties properties) {
@@ -61,6 +73,14 @@ public class AtlasTagSource extends AbstractTagSource {
 
 		boolean ret = AtlasResourceMapperUtil.initializeAtlasResourceMappers(properties);
 
+		notificationBatchSize       = TagSyncConfig.getTagSourceAtlasNotificationBatchSize(properties);
+		notificationBatchIntervalMs = TagSyncConfig.getTagSourceAtlasNotificationBatchIntervalInMillis(properties);
+		uploadMaxRetries            = TagSyncConfig.getTagSourceAtlasNotificationUploadMaxRetries(properties);
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("notificationBatchSize=" + notificationBatchSize + ", notificationBatchIntervalMs=" + notificationBatchIntervalMs + ", uploadMaxRetries=" + uploadMaxRetries);
+		}
+
 		if (ret) {
 
 			InputStream inputStream = getClass().getClassLoader().getResourceAsStream(TAGSYNC_ATLAS_PROPERTIES_FILE_NAME);
@@ -148,10 +168,25 @@ public class AtlasTagSource extends AbstractTagSource {
 		return sb.toString();
 	}
 
+	/*
+	 * Notifications received from Kafka are mapped to service-tags and held until notificationBatchSize notifications
+	 * are received, or for notificationBatchIntervalMs. Held service-tags are then merged and uploaded to Ranger, and
+	 * only after a successful upload are the offsets of the notifications committed to Kafka. A failed upload is retried
+	 * with exponential backoff, up to uploadMaxRetries times; the service-tags are then logged and dropped, so that a
+	 * payload rejected by Ranger does not stall tag sync.
+	 */
 	private class ConsumerRunnable implements Runnable {
 
 		private final NotificationConsumer<EntityNotification> consumer;
 
+		private final List<ServiceTags>       pendingServiceTags           = new ArrayList<>();
+		private final Map<Integer, Long>      pendingOffsets               = new HashMap<>(); // partition => offset of last pending notification
+		private final Map<Integer, Long>      deliveredOffsets             = new HashMap<>(); // partition => offset of last notification uploaded to Ranger
+		private       LinkedList<ServiceTags> pendingUploads               = null;
+		private       int                     pendingNotificationCount     = 0;
+		private       long                    firstPendingNotificationTime = 0;
+		private       int                     uploadRetryCount             = 0;
+
 		private ConsumerRunnable(NotificationConsumer<EntityNotification> consumer) {
 			this.consumer = consumer;
 		}
@@ -163,76 +198,59 @@ public class AtlasTagSource extends AbstractTagSource {
 				LOG.debug("==> ConsumerRunnable.run()");
 			}
 
-			boolean seenCommitException = false;
-			long offsetOfLastMessageDeliveredToRanger = -1L;
-
 			while (true) {
 				try {
-					List<AtlasKafkaMessage<EntityNotification>> messages = consumer.receive(1000L);
+					if (pendingUploads != null || isUploadDue()) {
+						if (!uploadPendingServiceTags()) {
+							// Retry the upload before receiving more notifications
+							Thread.sleep(getUploadRetryDelay());
+							continue;
+						}
+					}
 
-					int index = 0;
+					List<AtlasKafkaMessage<EntityNotification>> messages = consumer.receive(Math.max(1L, Math.min(1000L, notificationBatchIntervalMs)));
+
+					for (AtlasKafkaMessage<EntityNotification> message : messages) {
+						EntityNotification notification = message != null ? message.getMessage() : null;
 
-					if (messages.size() > 0 && seenCommitException) {
-						if (LOG.isDebugEnabled()) {
-							LOG.debug("seenCommitException=[true], offsetOfLastMessageDeliveredToRanger=[" + offsetOfLastMessageDeliveredToRanger + "]");
+						if (notification == null) {
+							LOG.error("Null entityNotification received from Kafka!! Ignoring..");
+							continue;
 						}
-						for (; index < messages.size(); index++) {
-							AtlasKafkaMessage<EntityNotification> message = messages.get(index);
-							if (message.getOffset() <= offsetOfLastMessageDeliveredToRanger) {
-								// Already delivered to Ranger
-								TopicPartition partition = new TopicPartition("ATLAS_ENTITIES", message.getPartition());
-								try {
-									if (LOG.isDebugEnabled()) {
-										LOG.debug("Committing previously commit-failed message with offset:[" + message.getOffset() + "]");
-									}
-									consumer.commit(partition, message.getOffset());
-								} catch (Exception commitException) {
-									LOG.warn("Ranger tagsync already processed message at offset " + message.getOffset() + ". Ignoring failure in committing this message and continuing to process next message", commitException);
-									LOG.warn("This will cause Kafka to deliver this message:[" + message.getOffset() + "] repeatedly!! This may be unrecoverable error!!");
-								}
-							} else {
-								break;
+
+						Long deliveredOffset = deliveredOffsets.get(message.getPartition());
+
+						if (deliveredOffset != null && message.getOffset() <= deliveredOffset) {
+							// Already delivered to Ranger; redelivered as its offset could not be committed
+							if (LOG.isDebugEnabled()) {
+								LOG.debug("Committing previously commit-failed message with offset:[" + message.getOffset() + "]");
 							}
+							commitOffset(message.getPartition(), message.getOffset());
+							continue;
 						}
-					}
-
-					seenCommitException = false;
-					offsetOfLastMessageDeliveredToRanger = -1L;
 
-					for (; index < messages.size(); index++) {
-						AtlasKafkaMessage<EntityNotification> message = messages.get(index);
-						EntityNotification notification = message != null ? message.getMessage() : null;
+						EntityNotificationWrapper notificationWrapper = null;
+						try {
+							notificationWrapper = new EntityNotificationWrapper(notification);
+						} catch (Throwable e) {
+							LOG.error("notification:[" + notification +"] has some issues..perhaps null entity??", e);
+						}
+						if (notificationWrapper != null) {
+							if (LOG.isDebugEnabled()) {
+								LOG.debug("Message-offset=" + message.getOffset() + ", Notification=" + getPrintableEntityNotification(notificationWrapper));
+							}
 
-						if (notification != null) {
-							EntityNotificationWrapper notificationWrapper = null;
-							try {
-								notificationWrapper = new EntityNotificationWrapper(notification);
-							} catch (Throwable e) {
-								LOG.error("notification:[" + notification +"] has some issues..perhaps null entity??", e);
+							ServiceTags serviceTags = AtlasNotificationMapper.processEntityNotification(notificationWrapper);
+							if (serviceTags != null) {
+								pendingServiceTags.add(serviceTags);
 							}
-							if (notificationWrapper != null) {
-								if (LOG.isDebugEnabled()) {
-									LOG.debug("Message-offset=" + message.getOffset() + ", Notification=" + getPrintableEntityNotification(notificationWrapper));
-								}
-
-								ServiceTags serviceTags = AtlasNotificationMapper.processEntityNotification(notificationWrapper);
-								if (serviceTags != null) {
-									updateSink(serviceTags);
-								}
-								offsetOfLastMessageDeliveredToRanger = message.getOffset();
-
-								if (!seenCommitException) {
-									TopicPartition partition = new TopicPartition("ATLAS_ENTITIES", message.getPartition());
-									try {
-										consumer.commit(partition, message.getOffset());
-									} catch (Exception commitException) {
-										seenCommitException = true;
-										LOG.warn("Ranger tagsync processed message at offset " + message.getOffset() + ". Ignoring failure in committing this message and continuing to process next message", commitException);
-									}
-								}
+
+							if (pendingNotificationCount == 0) {
+								firstPendingNotificationTime = System.currentTimeMillis();
 							}
-						} else {
-							LOG.error("Null entityNotification received from Kafka!! Ignoring..");
+
+							pendingNotificationCount++;
+							pendingOffsets.put(message.getPartition(), message.getOffset());
 						}
 					}
 				} catch (Exception exception) {
@@ -248,6 +266,69 @@ public class AtlasTagSource extends AbstractTagSource {
 				}
 			}
 		}
+
+		private boolean isUploadDue() {
+			return pendingNotificationCount > 0 && (pendingNotificationCount >= notificationBatchSize || System.currentTimeMillis() - firstPendingNotificationTime >= notificationBatchIntervalMs);
+		}
+
+		private boolean uploadPendingServiceTags() {
+			if (pendingUploads == null) {
+				pendingUploads = new LinkedList<>(AtlasNotificationMapper.mergeServiceTags(pendingServiceTags));
+
+				if (LOG.isDebugEnabled()) {
+					LOG.debug("Merged service-tags from " + pendingNotificationCount + " notifications into " + pendingUploads.size() + " uploads");
+				}
+
+				pendingServiceTags.clear();
+			}
+
+			while (!pendingUploads.isEmpty()) {
+				ServiceTags serviceTags = pendingUploads.peek();
+
+				if (!updateSink(serviceTags)) {
+					uploadRetryCount++;
+
+					if (uploadRetryCount <= uploadMaxRetries) {
+						return false;
+					}
+
+					LOG.error("Failed to upload service-tags after " + uploadRetryCount + " attempts. Dropping serviceTags: " + new Gson().toJson(serviceTags));
+				}
+
+				uploadRetryCount = 0;
+
+				pendingUploads.poll();
+			}
+
+			pendingUploads = null;
+
+			for (Map.Entry<Integer, Long> entry : pendingOffsets.entrySet()) {
+				deliveredOffsets.put(entry.getKey(), entry.getValue());
+
+				commitOffset(entry.getKey(), entry.getValue());
+			}
+
+			pendingOffsets.clear();
+			pendingNotificationCount     = 0;
+			firstPendingNotificationTime = 0;
+
+			return true;
+		}
+
+		private long getUploadRetryDelay() {
+			int shift = Math.min(Math.max(uploadRetryCount - 1, 0), 20);
+
+			return Math.min(UPLOAD_RETRY_MAX_DELAY_MS, UPLOAD_RETRY_INITIAL_DELAY_MS << shift);
+		}
+
+		private void commitOffset(int partitionId, long offset) {
+			TopicPartition partition = new TopicPartition("ATLAS_ENTITIES", partitionId);
+
+			try {
+				consumer.commit(partition, offset);
+			} catch (Exception commitException) {
+				LOG.warn("Ranger tagsync processed message at offset " + offset + ". Ignoring failure in committing this message and continuing to process next message", commitException);
+			}
+		}
 	}
 }
-
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.tagsync.process;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ranger.plugin.model.RangerServiceResource;
+import org.apache.ranger.plugin.model.RangerTag;
+import org.apache.ranger.plugin.model.RangerTagDef;
+import org.apache.ranger.plugin.util.ServiceTags;
+import org.apache.ranger.tagsync.source.atlas.AtlasNotificationMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestAtlasNotificationMapper {
+    private static final String HIVE_SERVICE = "cl1_hive";
+    private static final String HDFS_SERVICE = "cl1_hdfs";
+
+    @Test
+    public void testMergeServiceTags() {
+        List<ServiceTags> notifications = new ArrayList<>();
+
+        notifications.add(createServiceTags(HIVE_SERVICE, "guid1", "PII"));
+        notifications.add(createServiceTags(HIVE_SERVICE, "guid2", "PII"));
+        notifications.add(createServiceTags(HIVE_SERVICE, "guid1", "PII", "SENSITIVE"));
+        notifications.add(createServiceTags(HDFS_SERVICE, "guid3", "EXPIRES_ON"));
+        notifications.add(createDeleteServiceTags("guid4"));
+
+        List<ServiceTags> merged = AtlasNotificationMapper.mergeServiceTags(notifications);
+
+        Assert.assertEquals(3, merged.size());
+
+        ServiceTags hiveTags = merged.get(0);
+
+        Assert.assertEquals(ServiceTags.OP_ADD_OR_UPDATE, hiveTags.getOp());
+        Assert.assertEquals(HIVE_SERVICE, hiveTags.getServiceName());
+        Assert.assertEquals(2, hiveTags.getServiceResources().size());
+        Assert.assertEquals(Arrays.asList("PII"), getTagNames(hiveTags, "guid2"));
+        Assert.assertEquals(Arrays.asList("PII", "SENSITIVE"), getTagNames(hiveTags, "guid1")); // only the latest notification for guid1
+        Assert.assertEquals(3, hiveTags.getTags().size());
+        Assert.assertEquals(2, hiveTags.getTagDefinitions().size()); // tag-definitions are not repeated
+
+        ServiceTags hdfsTags = merged.get(1);
+
+        Assert.assertEquals(HDFS_SERVICE, hdfsTags.getServiceName());
+        Assert.assertEquals(Arrays.asList("EXPIRES_ON"), getTagNames(hdfsTags, "guid3"));
+
+        ServiceTags deleteTags = merged.get(2);
+
+        Assert.assertEquals(ServiceTags.OP_DELETE, deleteTags.getOp());
+        Assert.assertEquals(1, deleteTags.getServiceResources().size());
+        Assert.assertEquals("guid4", deleteTags.getServiceResources().get(0).getGuid());
+    }
+
+    @Test
+    public void testMergeServiceTagsWithDelete() {
+        List<ServiceTags> notifications = new ArrayList<>();
+
+        notifications.add(createServiceTags(HIVE_SERVICE, "guid1", "PII"));
+        notifications.add(createServiceTags(HIVE_SERVICE, "guid2", "PII"));
+        notifications.add(createDeleteServiceTags("guid1"));
+
+        List<ServiceTags> merged = AtlasNotificationMapper.mergeServiceTags(notifications);
+
+        Assert.assertEquals(2, merged.size());
+        Assert.assertEquals(ServiceTags.OP_ADD_OR_UPDATE, merged.get(0).getOp());
+        Assert.assertEquals(1, merged.get(0).getServiceResources().size());
+        Assert.assertEquals("guid2", merged.get(0).getServiceResources().get(0).getGuid());
+        Assert.assertEquals(ServiceTags.OP_DELETE, merged.get(1).getOp());
+        Assert.assertEquals("guid1", merged.get(1).getServiceResources().get(0).getGuid());
+    }
+
+    @Test
+    public void testMergeServiceTagsKeepsOrderOfDeleteAndRecreate() {
+        List<ServiceTags> notifications = new ArrayList<>();
+
+        // table of guid1 is dropped and recreated with the same name as guid2
+        notifications.add(createServiceTags(HIVE_SERVICE, "guid0", "PII"));
+        notifications.add(createDeleteServiceTags("guid1"));
+        notifications.add(createServiceTags(HIVE_SERVICE, "guid2", "PII"));
+        notifications.add(createServiceTags(HIVE_SERVICE, "guid3", "SENSITIVE"));
+
+        List<ServiceTags> merged = AtlasNotificationMapper.mergeServiceTags(notifications);
+
+        Assert.assertEquals(3, merged.size());
+
+        Assert.assertEquals(ServiceTags.OP_ADD_OR_UPDATE, merged.get(0).getOp());
+        Assert.assertEquals(1, merged.get(0).getServiceResources().size());
+        Assert.assertEquals(Arrays.asList("PII"), getTagNames(merged.get(0), "guid0"));
+
+        Assert.assertEquals(ServiceTags.OP_DELETE, merged.get(1).getOp());
+        Assert.assertEquals(1, merged.get(1).getServiceResources().size());
+        Assert.assertEquals("guid1", merged.get(1).getServiceResources().get(0).getGuid());
+
+        Assert.assertEquals(ServiceTags.OP_ADD_OR_UPDATE, merged.get(2).getOp());
+        Assert.assertEquals(2, merged.get(2).getServiceResources().size());
+        Assert.assertEquals(Arrays.asList("PII"), getTagNames(merged.get(2), "guid2"));
+        Assert.assertEquals(Arrays.asList("SENSITIVE"), getTagNames(merged.get(2), "guid3"));
+    }
+
+    // service-tags as built by AtlasNotificationMapper for an entity notification
+    private ServiceTags createServiceTags(String serviceName, String guid, String... tagNames) {
+        ServiceTags           ret      = new ServiceTags();
+        RangerServiceResource resource = new RangerServiceResource();
+        List<Long>            tagIds   = new ArrayList<>();
+
+        ret.setOp(ServiceTags.OP_ADD_OR_UPDATE);
+        ret.setServiceName(serviceName);
+
+        resource.setId(0L);
+        resource.setGuid(guid);
+        resource.setServiceName(serviceName);
+        ret.getServiceResources().add(resource);
+
+        for (String tagName : tagNames) {
+            RangerTag    tag    = new RangerTag(null, tagName, null, RangerTag.OWNER_SERVICERESOURCE);
+            RangerTagDef tagDef = new RangerTagDef(tagName, "Atlas");
+
+            tag.setId((long) ret.getTags().size());
+            ret.getTags().put(tag.getId(), tag);
+            tagIds.add(tag.getId());
+
+            tagDef.setId((long) ret.getTagDefinitions().size());
+            ret.getTagDefinitions().put(tagDef.getId(), tagDef);
+        }
+
+        ret.getResourceToTagIds().put(resource.getId(), tagIds);
+
+        return ret;
+    }
+
+    private ServiceTags createDeleteServiceTags(String guid) {
+        ServiceTags           ret      = new ServiceTags();
+        RangerServiceResource resource = new RangerServiceResource();
+
+        resource.setGuid(guid);
+        ret.getServiceResources().add(resource);
+        ret.setOp(ServiceTags.OP_DELETE);
+
+        return ret;
+    }
+
+    private List<String> getTagNames(ServiceTags serviceTags, String guid) {
+        List<String> ret = new ArrayList<>();
+
+        for (RangerServiceResource resource : serviceTags.getServiceResources()) {
+            if (guid.equals(resource.getGuid())) {
+                for (Long tagId : serviceTags.getResourceToTagIds().get(resource.getId())) {
+                    ret.add(serviceTags.getTags().get(tagId).getType());
+                }
+            }
+        }
+
+        return ret;
+    }
+}
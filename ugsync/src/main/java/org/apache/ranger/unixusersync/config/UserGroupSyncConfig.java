@@ -236,6 +236,11 @@ public class UserGroupSyncConfig  {
 
     private static final String USERSYNC_RANGER_COOKIE_ENABLED_PROP = "ranger.usersync.cookie.enabled";
 
+    private static final String USERSYNC_BULK_SYNC_ENABLED_PROP = "ranger.usersync.bulk.sync.enabled";
+
+    private static final String USERSYNC_BULK_SYNC_BATCH_SIZE_PROP = "ranger.usersync.bulk.sync.batch.size";
+    private static final int DEFAULT_USERSYNC_BULK_SYNC_BATCH_SIZE = 500;
+
     private Properties prop = new Properties();
 
 	private static volatile UserGroupSyncConfig me = null;
@@ -939,6 +944,23 @@ public class UserGroupSyncConfig  {
 		return val == null || Boolean.valueOf(val.trim());
 	}
 
+	public boolean isUserSyncBulkSyncEnabled() {
+		String val = prop.getProperty(USERSYNC_BULK_SYNC_ENABLED_PROP);
+		return val != null && Boolean.valueOf(val.trim());
+	}
+
+	public int getUserSyncBulkSyncBatchSize() {
+		int batchSize = DEFAULT_USERSYNC_BULK_SYNC_BATCH_SIZE;
+		String val = prop.getProperty(USERSYNC_BULK_SYNC_BATCH_SIZE_PROP);
+		if (val != null && !val.trim().isEmpty()) {
+			batchSize = Integer.parseInt(val.trim());
+		}
+		if (batchSize < 1) {
+			batchSize = DEFAULT_USERSYNC_BULK_SYNC_BATCH_SIZE;
+		}
+		return batchSize;
+	}
+
 
     public String getRoleDelimiter() {
         if (prop != null && prop.containsKey(ROLE_ASSIGNMENT_LIST_DELIMITER)) {
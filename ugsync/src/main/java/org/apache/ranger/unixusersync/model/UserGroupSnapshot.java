@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.unixusersync.model;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+import org.codehaus.jackson.annotate.JsonAutoDetect;
+import org.codehaus.jackson.annotate.JsonIgnoreProperties;
+import org.codehaus.jackson.annotate.JsonAutoDetect.Visibility;
+import org.codehaus.jackson.map.annotate.JsonSerialize;
+
+@JsonAutoDetect(getterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE, fieldVisibility = Visibility.ANY)
+@JsonSerialize(include = JsonSerialize.Inclusion.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+@XmlRootElement
+public class UserGroupSnapshot {
+
+	Map<String, List<String>> userGroups;
+
+	Long noOfNewUsers;
+
+	Long noOfNewGroups;
+
+	Long noOfAddedGroupUsers;
+
+	Long noOfDeletedGroupUsers;
+
+	public Map<String, List<String>> getUserGroups() {
+		return userGroups;
+	}
+
+	public void setUserGroups(Map<String, List<String>> userGroups) {
+		this.userGroups = userGroups;
+	}
+
+	public Long getNoOfNewUsers() {
+		return noOfNewUsers;
+	}
+
+	public Long getNoOfNewGroups() {
+		return noOfNewGroups;
+	}
+
+	public Long getNoOfAddedGroupUsers() {
+		return noOfAddedGroupUsers;
+	}
+
+	public Long getNoOfDeletedGroupUsers() {
+		return noOfDeletedGroupUsers;
+	}
+
+}
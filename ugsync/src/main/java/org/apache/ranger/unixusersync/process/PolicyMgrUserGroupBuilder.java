@@ -49,6 +49,7 @@ import org.apache.ranger.unixusersync.model.GetXUserListResponse;
 import org.apache.ranger.unixusersync.model.MUserInfo;
 import org.apache.ranger.unixusersync.model.UgsyncAuditInfo;
 import org.apache.ranger.unixusersync.model.UserGroupInfo;
+import org.apache.ranger.unixusersync.model.UserGroupSnapshot;
 import org.apache.ranger.unixusersync.model.XGroupInfo;
 import org.apache.ranger.unixusersync.model.XUserGroupInfo;
 import org.apache.ranger.unixusersync.model.XUserInfo;
@@ -82,6 +83,8 @@ public class PolicyMgrUserGroupBuilder implements UserGroupSink {
 	private static final String PM_ADD_LOGIN_USER_URI = "/service/users/default";			// POST
 	private static final String PM_AUDIT_INFO_URI = "/service/xusers/ugsync/auditinfo/";				// POST
 
+	private static final String PM_ADD_USER_GROUP_SNAPSHOT_URI = "/service/xusers/ugsync/usergroups";	// POST
+
 	private static final String GROUP_SOURCE_EXTERNAL ="1";
 
 	private static final String RANGER_ADMIN_COOKIE_NAME = "RANGERADMINSESSIONID";
@@ -119,6 +122,9 @@ public class PolicyMgrUserGroupBuilder implements UserGroupSink {
 	private HashSet<String> newGroupList = new HashSet<String>();
 	private HashSet<String> modifiedGroupList = new HashSet<String>();
 	private boolean isRangerCookieEnabled;
+	private boolean isBulkSyncEnabled;
+	private int bulkSyncBatchSize;
+	private Map<String, List<String>> pendingUserGroups = new LinkedHashMap<String, List<String>>();
 	boolean isStartupFlag = false;
     private volatile RangerUgSyncRESTClient uGSyncClient;
 	static {
@@ -154,6 +160,9 @@ public class PolicyMgrUserGroupBuilder implements UserGroupSink {
 		noOfModifiedGroups = 0;
 		isStartupFlag = true;
 		isRangerCookieEnabled = config.isUserSyncRangerCookieEnabled();
+		isBulkSyncEnabled = config.isUserSyncBulkSyncEnabled();
+		bulkSyncBatchSize = config.getUserSyncBulkSyncBatchSize();
+		pendingUserGroups.clear();
 		if (isMockRun) {
 			LOG.setLevel(Level.DEBUG);
 		}
@@ -180,6 +189,11 @@ public class PolicyMgrUserGroupBuilder implements UserGroupSink {
         if (userGroupRoles != null && !userGroupRoles.isEmpty()) {
             getRoleForUserGroups(userGroupRoles);
         }
+		if (isBulkSyncEnabled && (!userMap.isEmpty() || !groupMap.isEmpty())) {
+			// role assignment rules are applied only by the per-user calls
+			LOG.warn("Bulk sync is not supported along with role assignment rules; users will be synced one at a time");
+			isBulkSyncEnabled = false;
+		}
 		buildUserGroupInfo();
 		if (LOG.isDebugEnabled()) {
 			LOG.debug("PolicyMgrUserGroupBuilder.init()==> PolMgrBaseUrl : "+policyMgrBaseUrl+" KeyStore File : "+keyStoreFile+" TrustStore File : "+trustStoreFile+ "Authentication Type : "+authenticationType);
@@ -330,6 +344,10 @@ public class PolicyMgrUserGroupBuilder implements UserGroupSink {
 
 	@Override
 	public void addOrUpdateUser(String userName, List<String> groups) throws Throwable {
+		if (isBulkSyncEnabled) {
+			addOrUpdateUserInBulk(userName, groups);
+			return;
+		}
 
 		XUserInfo user = userName2XUserInfoMap.get(userName);
 
@@ -531,6 +549,165 @@ public class PolicyMgrUserGroupBuilder implements UserGroupSink {
 		}
 	}
 
+	/*
+	 * Queues the user to be sent to Ranger Admin along with other users, instead of making calls for each user. All
+	 * users are sent in the first sync cycle; afterwards only users whose groups changed.
+	 */
+	private void addOrUpdateUserInBulk(String userName, List<String> groups) throws Throwable {
+		XUserInfo user = userName2XUserInfoMap.get(userName);
+		List<String> userGroups = groups != null ? new ArrayList<String>(groups) : new ArrayList<String>();
+		boolean isChanged;
+
+		if (user == null) {
+			newUserList.add(userName);
+			isChanged = true;
+		} else {
+			isChanged = !new HashSet<String>(user.getGroups()).equals(new HashSet<String>(userGroups));
+			if (isChanged || isStartupFlag) {
+				modifiedUserList.add(userName);
+			}
+			if (isChanged) {
+				for (String group : user.getGroups()) {
+					if (!userGroups.contains(group)) {
+						modifiedGroupList.add(group);
+					}
+				}
+			}
+		}
+
+		for (String group : userGroups) {
+			if (!groupName2XGroupInfoMap.containsKey(group)) {
+				newGroupList.add(group);
+			} else if (isChanged) {
+				modifiedGroupList.add(group);
+			}
+		}
+
+		if (isChanged || isStartupFlag) {
+			pendingUserGroups.put(userName, userGroups);
+
+			if (pendingUserGroups.size() >= bulkSyncBatchSize) {
+				flushUserGroups();
+			}
+		}
+	}
+
+	/*
+	 * Sends the queued users to Ranger Admin in one call; on failure, the users are discarded from the queue and the
+	 * failure is propagated to the caller, so that they are sent again in the next sync cycle.
+	 */
+	private void flushUserGroups() throws Throwable {
+		if (pendingUserGroups.isEmpty()) {
+			return;
+		}
+
+		final UserGroupSnapshot snapshot = new UserGroupSnapshot();
+		snapshot.setUserGroups(new LinkedHashMap<String, List<String>>(pendingUserGroups));
+		pendingUserGroups.clear();
+
+		if (isMockRun) {
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("PolicyMgrUserGroupBuilder.flushUserGroups(): Mock Run enabled and hence not sending " + snapshot.getUserGroups().size() + " users to Ranger admin!");
+			}
+			return;
+		}
+
+		UserGroupSnapshot ret = null;
+		if (authenticationType != null && AUTH_KERBEROS.equalsIgnoreCase(authenticationType) && SecureClientLogin.isKerberosCredentialExists(principal, keytab)) {
+			try {
+				Subject sub = SecureClientLogin.loginUserFromKeytab(principal, keytab, nameRules);
+				ret = Subject.doAs(sub, new PrivilegedAction<UserGroupSnapshot>() {
+					@Override
+					public UserGroupSnapshot run() {
+						return uploadUserGroupSnapshot(snapshot);
+					}
+				});
+			} catch (Exception e) {
+				LOG.error("Failed to Authenticate Using given Principal and Keytab : ", e);
+			}
+		} else {
+			ret = uploadUserGroupSnapshot(snapshot);
+		}
+
+		if (ret == null) {
+			String msg = "Failed to add/update user group info of " + snapshot.getUserGroups().size() + " users";
+			LOG.error(msg);
+			throw new Exception(msg);
+		}
+
+		LOG.info("Synced " + snapshot.getUserGroups().size() + " users: new users = " + ret.getNoOfNewUsers() + ", new groups = " + ret.getNoOfNewGroups()
+				+ ", added group memberships = " + ret.getNoOfAddedGroupUsers() + ", deleted group memberships = " + ret.getNoOfDeletedGroupUsers());
+
+		// xuserList/xgroupList are updated directly, as addUserToList()/addGroupToList() search the list
+		for (Map.Entry<String, List<String>> entry : snapshot.getUserGroups().entrySet()) {
+			XUserInfo user = userName2XUserInfoMap.get(entry.getKey());
+			if (user == null) {
+				user = new XUserInfo();
+				user.setName(entry.getKey());
+				xuserList.add(user);
+				userName2XUserInfoMap.put(entry.getKey(), user);
+			}
+			user.setGroupNameList(new ArrayList<String>(entry.getValue()));
+
+			for (String groupName : entry.getValue()) {
+				if (!groupName2XGroupInfoMap.containsKey(groupName)) {
+					XGroupInfo group = new XGroupInfo();
+					group.setName(groupName);
+					group.setGroupSource(GROUP_SOURCE_EXTERNAL);
+					xgroupList.add(group);
+					groupName2XGroupInfoMap.put(groupName, group);
+				}
+			}
+		}
+	}
+
+	private UserGroupSnapshot uploadUserGroupSnapshot(UserGroupSnapshot snapshot) {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("==> PolicyMgrUserGroupBuilder.uploadUserGroupSnapshot(" + snapshot.getUserGroups().size() + " users)");
+		}
+		String response = null;
+		ClientResponse clientResp = null;
+		try {
+			if (isRangerCookieEnabled && sessionId != null && isValidRangerCookie) {
+				clientResp = uGSyncClient.postCompressed(PM_ADD_USER_GROUP_SNAPSHOT_URI, null, snapshot, sessionId);
+				if (clientResp != null && clientResp.getStatus() == HttpServletResponse.SC_UNAUTHORIZED) {
+					sessionId = null;
+					isValidRangerCookie = false;
+					clientResp = null;
+				}
+			}
+			if (clientResp == null) {
+				clientResp = uGSyncClient.postCompressed(PM_ADD_USER_GROUP_SNAPSHOT_URI, null, snapshot, null);
+			}
+			if (clientResp != null) {
+				if (clientResp.getStatus() == HttpServletResponse.SC_OK) {
+					if (isRangerCookieEnabled) {
+						for (NewCookie cookie : clientResp.getCookies()) {
+							if (cookie.getName().equalsIgnoreCase(RANGER_ADMIN_COOKIE_NAME)) {
+								sessionId = cookie.toCookie();
+								isValidRangerCookie = true;
+								break;
+							}
+						}
+					}
+					response = clientResp.getEntity(String.class);
+				} else {
+					LOG.error("Failed to add/update user group info, response status : " + clientResp.getStatus());
+				}
+			}
+		} catch (Throwable t) {
+			LOG.error("Failed to get response, Error is : ", t);
+		}
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("RESPONSE: [" + response + "]");
+		}
+		UserGroupSnapshot ret = new GsonBuilder().create().fromJson(response, UserGroupSnapshot.class);
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("<== PolicyMgrUserGroupBuilder.uploadUserGroupSnapshot()");
+		}
+		return ret;
+	}
+
 	private void buildGroupList() {
 		if (LOG.isDebugEnabled()) {
 			LOG.debug("==> PolicyMgrUserGroupBuilder.buildGroupList()");
@@ -1482,6 +1659,8 @@ public class PolicyMgrUserGroupBuilder implements UserGroupSink {
 	
 	@Override
 	public void postUserGroupAuditInfo(UgsyncAuditInfo ugsyncAuditInfo) throws Throwable {
+		// called at the end of each sync cycle
+		flushUserGroups();
 		if (! isMockRun) {
 			addUserGroupAuditInfo(ugsyncAuditInfo);
 		}
@@ -19,7 +19,10 @@
 
 package org.apache.ranger.unixusersync.process;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.KeyManager;
@@ -27,6 +30,7 @@ import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSession;
 import javax.net.ssl.TrustManager;
 import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.HttpHeaders;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
@@ -160,4 +164,48 @@ public class RangerUgSyncRESTClient extends RangerRESTClient {
 		}
 		return response;
 	}
+
+	/*
+	 * Posts the object as gzip-compressed JSON, for large payloads like bulk user-group updates. sessionId, when not
+	 * null, is used instead of the configured credentials.
+	 */
+	public ClientResponse postCompressed(String relativeURL, Map<String, String> params, Object obj, Cookie sessionId)
+			throws Exception {
+		ClientResponse response = null;
+		int startIndex = getLastKnownActiveUrlIndex();
+		int currentIndex = 0;
+		byte[] entity = compress(toJson(obj));
+
+		for (int index = 0; index < getConfiguredURLs().size(); index++) {
+			try {
+				currentIndex = (startIndex + index) % getConfiguredURLs().size();
+
+				WebResource webResource = sessionId != null ? createWebResourceForCookieAuth(currentIndex, relativeURL)
+						: getClient().resource(getConfiguredURLs().get(currentIndex) + relativeURL);
+				webResource = setQueryParams(webResource, params);
+				WebResource.Builder br = webResource.getRequestBuilder();
+				if (sessionId != null) {
+					br = br.cookie(sessionId);
+				}
+				response = br.accept(RangerRESTUtils.REST_EXPECTED_MIME_TYPE).type(RangerRESTUtils.REST_MIME_TYPE_JSON)
+						.header(HttpHeaders.CONTENT_ENCODING, "gzip").post(ClientResponse.class, entity);
+				if (response != null) {
+					setLastKnownActiveUrlIndex(currentIndex);
+					break;
+				}
+			} catch (ClientHandlerException e) {
+				LOG.warn("Failed to communicate with Ranger Admin, URL : " + getConfiguredURLs().get(currentIndex));
+				processException(index, e);
+			}
+		}
+		return response;
+	}
+
+	private static byte[] compress(String str) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(str.getBytes(StandardCharsets.UTF_8));
+		}
+		return out.toByteArray();
+	}
 }